@@ -1,6 +1,7 @@
 drop table if exists "user" cascade;
 drop table if exists event_comment cascade;
 drop table if exists event_comment_like cascade;
+drop table if exists event_comment_like_change cascade;
 drop table if exists user_badge cascade;
 drop table if exists user_event cascade;
 drop table if exists user_reward_point cascade;
@@ -9,6 +10,7 @@ drop table if exists notification cascade;
 drop table if exists survey_answer cascade;
 drop table if exists quiz_answer cascade;
 drop table if exists user_reward cascade;
+drop table if exists sync_state cascade;
 
 -- Mocked Tables - START ---
 
@@ -40,7 +42,9 @@ create table event (
     topic_id varchar(255),
     waiting_capacity int4 not null,
     first_session_start timestamp,
-    last_session_end timestamp
+    last_session_end timestamp,
+    synced_at timestamp,
+    removed boolean not null default false
 );
 
 create table event_tags (
@@ -113,6 +117,13 @@ create table quiz_answer_option (
 
 -- Mocked Tables - END   ---
 
+create table sync_state (
+    name varchar(64) not null primary key,
+    watermark timestamp,
+    last_full_sync timestamp,
+    last_success timestamp
+);
+
 create table "user" (
     id uuid not null primary key,
     division varchar(255),
@@ -124,27 +135,56 @@ create table "user" (
     photo_url varchar(255),
     is_new boolean not null default true,
     notified_by_new_events boolean not null default true,
-    points int4 not null default 0
+    points int4 not null default 0,
+    backend_token varchar(1024),
+    principal_version bigint not null default 0,
+    like_version bigint not null default 0
 );
 
+create unique index user_email_lower_idx on "user" (lower(email));
+
 create table event_comment (
     id uuid not null primary key,
     content varchar(1024),
     created_at timestamp not null,
     event_id uuid not null,
     like_count int not null default 0,
+    hot_score double precision not null default 0,
     deleted boolean not null default false,
+    content_tsv tsvector,
     parent_comment_id uuid references event_comment (id) on delete cascade,
     user_id uuid not null references "user" (id) on delete cascade
 );
 
+create index event_comment_created_at_idx on event_comment (event_id, created_at, id)
+    where parent_comment_id is null;
+create index event_comment_like_count_idx on event_comment (event_id, like_count, id)
+    where parent_comment_id is null;
+create index event_comment_hot_score_idx on event_comment (event_id, hot_score, id)
+    where parent_comment_id is null;
+create index event_comment_parent_comment_id_idx on event_comment (parent_comment_id, created_at, id);
+create index event_comment_content_tsv_idx on event_comment using gin (content_tsv);
+
+create trigger event_comment_content_tsv_trigger before insert or update of content on event_comment
+    for each row execute procedure tsvector_update_trigger(content_tsv, 'pg_catalog.english', content);
+
 create table event_comment_like (
     id uuid not null primary key,
     created_at timestamp not null,
     event_comment_id uuid not null references event_comment (id) on delete cascade,
-    user_id uuid not null references "user" (id) on delete cascade
+    user_id uuid not null references "user" (id) on delete cascade,
+    unique (event_comment_id, user_id)
 );
 
+create table event_comment_like_change (
+    event_comment_id uuid not null references event_comment (id) on delete cascade,
+    changed_at timestamp not null
+);
+
+create index event_comment_like_change_changed_at_idx on event_comment_like_change (changed_at);
+create index event_comment_like_change_event_comment_id_idx
+    on event_comment_like_change (event_comment_id, changed_at);
+
 create table notification (
     id uuid not null primary key,
     created_at timestamp not null,
@@ -196,6 +236,8 @@ create table user_reward_point (
     user_id uuid not null references "user" (id) on delete cascade
 );
 
+create index user_reward_point_user_id_idx on user_reward_point (user_id);
+
 create table user_topic (
     id uuid not null primary key,
     topic_id uuid not null references topic (id) on delete cascade,
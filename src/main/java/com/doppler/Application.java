@@ -3,12 +3,14 @@ package com.doppler;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.retry.annotation.EnableRetry;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * The application configuration.
  */
 @SpringBootApplication
 @EnableRetry
+@EnableScheduling
 public class Application {
 
 	/**
@@ -3,6 +3,7 @@ package com.doppler.controllers;
 import java.util.UUID;
 import javax.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.ModelAttribute;
@@ -12,9 +13,12 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import com.doppler.entities.EventComment;
+import com.doppler.entities.requests.EventCommentReplySearchRequest;
 import com.doppler.entities.requests.EventCommentRequest;
-import com.doppler.entities.requests.PagingAndSortingSearchRequest;
+import com.doppler.entities.requests.EventCommentSearchRequest;
+import com.doppler.entities.requests.EventCommentTextSearchRequest;
 import com.doppler.entities.responses.SearchResponse;
 import com.doppler.services.EventCommentService;
 
@@ -34,15 +38,55 @@ public class EventCommentController {
   /**
    * Search event comments.
    *
+   * @param eventId the event id
    * @param criteria the search criteria
    * @return the search result
    */
   @GetMapping
   public SearchResponse<EventComment> search(@PathVariable("eventId") UUID eventId,
-      @Valid @ModelAttribute PagingAndSortingSearchRequest criteria) {
+      @Valid @ModelAttribute EventCommentSearchRequest criteria) {
     return service.search(eventId, criteria);
   }
 
+  /**
+   * Search event comments by content, most relevant first.
+   *
+   * @param eventId the event id
+   * @param criteria the search criteria
+   * @return the search result
+   */
+  @GetMapping("/search")
+  public SearchResponse<EventComment> searchContent(@PathVariable("eventId") UUID eventId,
+      @Valid @ModelAttribute EventCommentTextSearchRequest criteria) {
+    return service.searchContent(eventId, criteria);
+  }
+
+  /**
+   * Stream the comment changes of an event over Server-Sent Events.
+   *
+   * @param eventId the event id
+   * @return the stream
+   */
+  @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter stream(@PathVariable("eventId") UUID eventId) {
+    return service.stream(eventId);
+  }
+
+  /**
+   * Search the replies of a root comment.
+   *
+   * @param eventId the event id
+   * @param commentId the root comment id
+   * @param criteria the search criteria
+   * @return the search result
+   */
+  @GetMapping("/{commentId}/replies")
+  public SearchResponse<EventComment> searchReplies(@PathVariable("eventId") UUID eventId,
+      @PathVariable("commentId") UUID commentId,
+      @Valid @ModelAttribute EventCommentReplySearchRequest criteria) {
+    return service.searchReplies(eventId, commentId, criteria);
+  }
+
   /**
    * Create a new event comment.
    * 
@@ -2,6 +2,7 @@ package com.doppler.controllers;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import javax.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -36,10 +37,10 @@ public class EventController {
    * Search events.
    *
    * @param criteria the search criteria
-   * @return the search result
+   * @return the future search result
    */
   @GetMapping
-  public SearchResponse<Event> search(@Valid @ModelAttribute EventSearchRequest criteria) {
+  public CompletableFuture<SearchResponse<Event>> search(@Valid @ModelAttribute EventSearchRequest criteria) {
     return service.search(criteria);
   }
 
@@ -47,11 +48,11 @@ public class EventController {
    * Get an event by id.
    * 
    * @param eventId the event id
-   * @return the event
+   * @return the future event
    */
   @GetMapping("/{eventId}")
-  public Event get(@PathVariable("eventId") UUID eventId) {
-    return service.get(eventId);
+  public CompletableFuture<Event> get(@PathVariable("eventId") UUID eventId) {
+    return service.getAsync(eventId);
   }
 
   /**
@@ -2,6 +2,7 @@ package com.doppler.controllers;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import javax.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -31,10 +32,10 @@ public class RewardController {
    * Search events.
    *
    * @param criteria the search criteria
-   * @return the search result
+   * @return the future search result
    */
   @GetMapping("/rewards")
-  public SearchResponse<Reward> search(
+  public CompletableFuture<SearchResponse<Reward>> search(
       @Valid @ModelAttribute PagingAndSortingSearchRequest criteria) {
     return service.search(criteria);
   }
@@ -2,6 +2,7 @@ package com.doppler.controllers;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import javax.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -32,10 +33,10 @@ public class SurveyController {
    * Get all survey questions of an event.
    * 
    * @param eventId the event id
-   * @return the survey questions
+   * @return the future survey questions
    */
   @GetMapping
-  public List<SurveyQuestion> getSurveyQuestions(@PathVariable("eventId") UUID eventId) {
+  public CompletableFuture<List<SurveyQuestion>> getSurveyQuestions(@PathVariable("eventId") UUID eventId) {
     return service.getSurveyQuestions(eventId);
   }
 
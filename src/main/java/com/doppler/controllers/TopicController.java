@@ -1,6 +1,7 @@
 package com.doppler.controllers;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -24,10 +25,10 @@ public class TopicController {
   /**
    * Get all topics.
    * 
-   * @return the topics
+   * @return the future topics
    */
   @GetMapping
-  public List<Topic> search() {
+  public CompletableFuture<List<Topic>> search() {
     return service.retrieveTopics();
   }
 }
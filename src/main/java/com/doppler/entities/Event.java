@@ -12,6 +12,7 @@ import javax.persistence.PreUpdate;
 import javax.persistence.Temporal;
 import javax.persistence.TemporalType;
 import javax.persistence.Transient;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.validator.constraints.URL;
 import org.springframework.util.CollectionUtils;
 import com.fasterxml.jackson.annotation.JsonIgnore;
@@ -89,6 +90,7 @@ public class Event extends IdentifiableEntity {
    * The tags.
    */
   @ElementCollection
+  @BatchSize(size = 100)
   private List<String> tags;
 
   /**
@@ -109,6 +111,7 @@ public class Event extends IdentifiableEntity {
   @OneToMany(orphanRemoval = true)
   @JoinColumn(name = "event_id")
   @OrderBy("start")
+  @BatchSize(size = 100)
   private List<EventSession> sessions;
 
   /**
@@ -127,6 +130,20 @@ public class Event extends IdentifiableEntity {
   @JsonIgnore
   private Date lastSessionEnd;
 
+  /**
+   * The time the event was last pulled from the backend into the mirror, null if never pulled.
+   */
+  @Temporal(TemporalType.TIMESTAMP)
+  @JsonIgnore
+  private Date syncedAt;
+
+  /**
+   * The flag to indicate whether the event is no longer returned by the backend. Removed events
+   * are kept for the local registrations and comments referencing them, but are not served.
+   */
+  @JsonIgnore
+  private boolean removed;
+
   /**
    * The flag to indicate whether the current logged-in user has registered to the event.
    */
@@ -33,6 +33,11 @@ import lombok.ToString;
 @EqualsAndHashCode(callSuper = true)
 public class EventComment extends IdentifiableEntity {
 
+  /**
+   * The recency in seconds worth as much as ten times more likes in the hot score.
+   */
+  public static final double HOT_SCORE_PERIOD_IN_SECONDS = 45000;
+
   /**
    * The event id.
    */
@@ -63,10 +68,21 @@ public class EventComment extends IdentifiableEntity {
   private UUID parentCommentId;
 
   /**
-   * The like count. Should be updated whenever getting liked or un-liked.
+   * The like count. Maintained by atomic in-database updates whenever getting liked or un-liked,
+   * never written back from the entity.
    */
+  @Column(updatable = false)
   private int likeCount;
 
+  /**
+   * The hot score ranking comments by likes and recency, i.e. the log10 of the like count plus the
+   * creation time in hot score periods. Maintained along with the like count, never written back
+   * from the entity.
+   */
+  @Column(updatable = false)
+  @JsonIgnore
+  private double hotScore;
+
   /**
    * The created at.
    */
@@ -86,6 +102,12 @@ public class EventComment extends IdentifiableEntity {
   @Transient
   private List<EventComment> childComments = new ArrayList<>();
 
+  /**
+   * The number of replies, only the first of them are included in the child comments.
+   */
+  @Transient
+  private int replyCount;
+
   /**
    * The flag to indicate that the comment liked by current logged-in user or not.
    */
@@ -100,5 +122,7 @@ public class EventComment extends IdentifiableEntity {
     if (createdAt == null) {
       createdAt = new Date();
     }
+    hotScore = Math.log10(Math.max(likeCount, 1))
+        + createdAt.getTime() / 1000d / HOT_SCORE_PERIOD_IN_SECONDS;
   }
 }
@@ -7,9 +7,12 @@ import javax.persistence.Entity;
 import javax.persistence.PrePersist;
 import javax.persistence.Temporal;
 import javax.persistence.TemporalType;
+import javax.persistence.Transient;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonProperty.Access;
 import lombok.EqualsAndHashCode;
@@ -23,8 +26,8 @@ import lombok.ToString;
 @Entity
 @Getter
 @Setter
-@ToString(callSuper = true)
-@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true, exclude = {"relatedEvent"})
+@EqualsAndHashCode(callSuper = true, exclude = {"relatedEvent"})
 public class Notification extends IdentifiableEntity {
 
   /**
@@ -69,6 +72,14 @@ public class Notification extends IdentifiableEntity {
    */
   private UUID relatedObjectId;
 
+  /**
+   * The related event, resolved when searching the notifications related to an event.
+   */
+  @Transient
+  @JsonInclude(Include.NON_NULL)
+  @JsonProperty(access = Access.READ_ONLY)
+  private Event relatedEvent;
+
   /**
    * Execute operations before persisting a new entity.
    */
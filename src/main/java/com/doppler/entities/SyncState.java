@@ -0,0 +1,44 @@
+package com.doppler.entities;
+
+import java.util.Date;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * The state of a background synchronization from the remote backend.
+ */
+@Entity
+@Getter
+@Setter
+@ToString
+public class SyncState {
+
+  /**
+   * The name of the synchronized data, e.g. "events".
+   */
+  @Id
+  private String name;
+
+  /**
+   * The start time of the last successful pull, changes since then are pulled next.
+   */
+  @Temporal(TemporalType.TIMESTAMP)
+  private Date watermark;
+
+  /**
+   * The start time of the last successful full pull.
+   */
+  @Temporal(TemporalType.TIMESTAMP)
+  private Date lastFullSync;
+
+  /**
+   * The end time of the last successful pull.
+   */
+  @Temporal(TemporalType.TIMESTAMP)
+  private Date lastSuccess;
+}
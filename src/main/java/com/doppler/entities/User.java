@@ -2,6 +2,8 @@ package com.doppler.entities;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
 import javax.persistence.Table;
 import javax.validation.constraints.Email;
 import javax.validation.constraints.NotBlank;
@@ -79,7 +81,36 @@ public class User extends IdentifiableEntity {
   private String backendToken;
 
   /**
-   * The points.
+   * The points, the balance of the reward points ledger. Only changed by atomic increments along
+   * with the ledger, never by saving the entity, so that a stale copy cannot overwrite an award.
    */
+  @Column(updatable = false)
   private int points;
+
+  /**
+   * The version of the user, carried by the access tokens along with the principal fields. Bumped
+   * whenever the user changes, so that the principal fields of the tokens issued before are known
+   * to be stale.
+   */
+  @JsonIgnore
+  private long principalVersion;
+
+  /**
+   * The version of the comments liked by the user, bumped by every like so that the liked comment
+   * filters built before are known to be stale. Only changed by atomic increments, never by saving
+   * the entity.
+   */
+  @Column(insertable = false, updatable = false)
+  @JsonIgnore
+  private long likeVersion;
+
+  /**
+   * Bump the principal version before persisting or updating the entity. The version never goes
+   * backwards, even if updated from a stale copy.
+   */
+  @PrePersist
+  @PreUpdate
+  protected void onChange() {
+    principalVersion = Math.max(principalVersion + 1, System.currentTimeMillis());
+  }
 }
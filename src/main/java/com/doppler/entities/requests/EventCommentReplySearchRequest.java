@@ -0,0 +1,31 @@
+package com.doppler.entities.requests;
+
+import javax.validation.constraints.Min;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * The search request of the replies of a root comment, paged by cursor from the oldest reply.
+ */
+@Getter
+@Setter
+@ToString
+public class EventCommentReplySearchRequest {
+
+  /**
+   * The limit.
+   */
+  @Min(1)
+  private Integer limit;
+
+  /**
+   * The cursor of the next page, as returned in the previous page.
+   */
+  private String cursor;
+
+  /**
+   * The flag to include the total count of the replies. Default to true if not present.
+   */
+  private boolean includeCount = true;
+}
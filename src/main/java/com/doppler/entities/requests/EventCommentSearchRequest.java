@@ -0,0 +1,25 @@
+package com.doppler.entities.requests;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * The event comment search request. Pages are either addressed by offset, or by the cursor
+ * returned with the first or previous page.
+ */
+@Getter
+@Setter
+@ToString(callSuper = true)
+public class EventCommentSearchRequest extends PagingAndSortingSearchRequest {
+
+  /**
+   * The cursor of the next page, as returned in the previous page. Cannot be used with offset.
+   */
+  private String cursor;
+
+  /**
+   * The flag to include the total count of the root comments. Default to true if not present.
+   */
+  private boolean includeCount = true;
+}
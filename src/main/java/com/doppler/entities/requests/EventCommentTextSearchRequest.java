@@ -0,0 +1,39 @@
+package com.doppler.entities.requests;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotBlank;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * The full-text search request of the comments of an event, most relevant first.
+ */
+@Getter
+@Setter
+@ToString
+public class EventCommentTextSearchRequest {
+
+  /**
+   * The search text, matched against the comment content words.
+   */
+  @NotBlank
+  private String query;
+
+  /**
+   * The offset.
+   */
+  @Min(0)
+  private Integer offset;
+
+  /**
+   * The limit.
+   */
+  @Min(1)
+  private Integer limit;
+
+  /**
+   * The flag to include the total count of the matching comments. Default to true if not present.
+   */
+  private boolean includeCount = true;
+}
@@ -0,0 +1,51 @@
+package com.doppler.entities.responses;
+
+import java.util.UUID;
+import com.doppler.entities.EventComment;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * The change of an event comment, streamed to the clients following the event comments.
+ */
+@Getter
+@Setter
+@ToString
+public class EventCommentChange {
+
+  /**
+   * The change type.
+   */
+  private EventCommentChangeType type;
+
+  /**
+   * The event id.
+   */
+  @JsonIgnore
+  private UUID eventId;
+
+  /**
+   * The comment id.
+   */
+  private UUID commentId;
+
+  /**
+   * The parent comment id. Null if this is a root comment.
+   */
+  private UUID parentCommentId;
+
+  /**
+   * The like count.
+   */
+  private int likeCount;
+
+  /**
+   * The comment, without child comments nor user specific flags. Null if the like count changed.
+   */
+  @JsonInclude(Include.NON_NULL)
+  private EventComment comment;
+}
@@ -0,0 +1,27 @@
+package com.doppler.entities.responses;
+
+/**
+ * The types of event comment changes.
+ */
+public enum EventCommentChangeType {
+
+  /**
+   * The type to indicate that a comment has been created.
+   */
+  CREATED,
+
+  /**
+   * The type to indicate that a comment has been updated.
+   */
+  UPDATED,
+
+  /**
+   * The type to indicate that a comment has been deleted.
+   */
+  DELETED,
+
+  /**
+   * The type to indicate that the like count of a comment has changed.
+   */
+  LIKE_COUNT_CHANGED;
+}
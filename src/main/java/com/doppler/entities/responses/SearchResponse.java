@@ -3,6 +3,8 @@ package com.doppler.entities.responses;
 import java.util.ArrayList;
 import java.util.List;
 import com.doppler.entities.IdentifiableEntity;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
@@ -18,12 +20,20 @@ import lombok.ToString;
 public class SearchResponse<T extends IdentifiableEntity> {
 
   /**
-   * The total results found.
+   * The total results found, null if not requested.
    */
-  private long count;
+  @JsonInclude(Include.NON_NULL)
+  private Long count;
 
   /**
    * The results.
    */
   private List<T> rows = new ArrayList<>();
+
+  /**
+   * The cursor of the next page, null if there is no next page or the results are not paged by
+   * cursor.
+   */
+  @JsonInclude(Include.NON_NULL)
+  private String nextCursor;
 }
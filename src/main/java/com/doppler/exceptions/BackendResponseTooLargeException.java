@@ -0,0 +1,19 @@
+package com.doppler.exceptions;
+
+/**
+ * The exception thrown when a backend response body exceeds the configured maximum size. The
+ * response is discarded rather than truncated.
+ */
+public class BackendResponseTooLargeException extends RuntimeException {
+
+  private static final long serialVersionUID = -2704561863153212847L;
+
+  /**
+   * Create a new instance.
+   *
+   * @param message the message
+   */
+  public BackendResponseTooLargeException(String message) {
+    super(message);
+  }
+}
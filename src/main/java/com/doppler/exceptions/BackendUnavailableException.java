@@ -0,0 +1,19 @@
+package com.doppler.exceptions;
+
+/**
+ * The exception thrown when a backend call is not attempted because the backend endpoint is
+ * unhealthy (open circuit) or saturated (full bulkhead).
+ */
+public class BackendUnavailableException extends RuntimeException {
+
+  private static final long serialVersionUID = 3418224938160526731L;
+
+  /**
+   * Create a new instance.
+   *
+   * @param message the message
+   */
+  public BackendUnavailableException(String message) {
+    super(message);
+  }
+}
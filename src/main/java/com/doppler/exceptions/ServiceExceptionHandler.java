@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 import javax.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.MessageSource;
@@ -20,6 +21,7 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 import org.springframework.web.multipart.MultipartException;
@@ -98,6 +100,44 @@ public class ServiceExceptionHandler extends ResponseEntityExceptionHandler {
     return buildErrorResponse(HttpStatus.FORBIDDEN, ex.getMessage());
   }
 
+  /**
+   * Handle backend unavailable exceptions, thrown when the backend is unhealthy or unreachable.
+   *
+   * @param ex the exception
+   * @return the error response entity
+   */
+  @ExceptionHandler({BackendUnavailableException.class, ResourceAccessException.class})
+  @ResponseBody
+  public ResponseEntity<Object> handleBackendUnavailableException(RuntimeException ex) {
+    return buildErrorResponse(HttpStatus.SERVICE_UNAVAILABLE, "Backend is unavailable");
+  }
+
+  /**
+   * Handle backend response too large exceptions, thrown when a backend response exceeds the
+   * maximum size.
+   *
+   * @param ex the exception
+   * @return the error response entity
+   */
+  @ExceptionHandler(BackendResponseTooLargeException.class)
+  @ResponseBody
+  public ResponseEntity<Object> handleBackendResponseTooLargeException(
+      BackendResponseTooLargeException ex) {
+    return buildErrorResponse(HttpStatus.BAD_GATEWAY, ex.getMessage());
+  }
+
+  /**
+   * Handle rejected execution exception, thrown when the backend thread pool is saturated.
+   *
+   * @param ex the exception
+   * @return the error response entity
+   */
+  @ExceptionHandler(RejectedExecutionException.class)
+  @ResponseBody
+  public ResponseEntity<Object> handleRejectedExecutionException(RejectedExecutionException ex) {
+    return buildErrorResponse(HttpStatus.SERVICE_UNAVAILABLE, "Service is busy, try again later");
+  }
+
   /**
    * Handle the other exceptions.
    *
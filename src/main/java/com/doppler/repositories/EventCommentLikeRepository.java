@@ -1,7 +1,11 @@
 package com.doppler.repositories;
 
+import java.util.Date;
 import java.util.List;
 import java.util.UUID;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import com.doppler.entities.EventCommentLike;
 
@@ -29,12 +33,34 @@ public interface EventCommentLikeRepository extends BaseRepository<EventCommentL
   boolean existsByEventCommentIdAndUserId(UUID eventCommentId, UUID userId);
 
   /**
-   * Unlike a comment.
+   * Like a comment, unless already liked by the user. Concurrent likes of the same user are
+   * serialized by the unique (event_comment_id, user_id) key.
    * 
+   * @param id the like id
    * @param eventCommentId the event comment id
    * @param userId the user id
+   * @param createdAt the created at
+   * @return 1 if liked, 0 if already liked
    */
-  void deleteByEventCommentIdAndUserId(UUID eventCommentId, UUID userId);
+  @Modifying
+  @Query(value = "INSERT INTO event_comment_like (id, created_at, event_comment_id, user_id) " //
+      + "VALUES (:id, :createdAt, :eventCommentId, :userId) " //
+      + "ON CONFLICT (event_comment_id, user_id) DO NOTHING", nativeQuery = true)
+  int insertIfAbsent(@Param("id") UUID id, @Param("eventCommentId") UUID eventCommentId,
+      @Param("userId") UUID userId, @Param("createdAt") Date createdAt);
+
+  /**
+   * Unlike a comment, in one statement.
+   * 
+   * @param eventCommentId the event comment id
+   * @param userId the user id
+   * @return 1 if un-liked, 0 if not liked
+   */
+  @Modifying
+  @Query("DELETE FROM EventCommentLike l " //
+      + "WHERE l.eventCommentId = :eventCommentId AND l.userId = :userId")
+  int deleteByEventCommentIdAndUserId(@Param("eventCommentId") UUID eventCommentId,
+      @Param("userId") UUID userId);
 
   /**
    * Find by the likes of specified comments and specified user.
@@ -44,4 +70,13 @@ public interface EventCommentLikeRepository extends BaseRepository<EventCommentL
    * @return the likes
    */
   List<EventCommentLike> findByEventCommentIdInAndUserId(List<UUID> eventCommentIds, UUID userId);
+
+  /**
+   * Find the ids of the comments liked by a user.
+   * 
+   * @param userId the user id
+   * @return the comment ids
+   */
+  @Query("SELECT l.eventCommentId FROM EventCommentLike l WHERE l.userId = :userId")
+  List<UUID> findEventCommentIdsByUserId(@Param("userId") UUID userId);
 }
@@ -1,9 +1,14 @@
 package com.doppler.repositories;
 
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 import java.util.UUID;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import com.doppler.entities.EventComment;
 
@@ -31,6 +36,154 @@ public interface EventCommentRepository extends BaseRepository<EventComment> {
    */
   Page<EventComment> findByEventIdAndParentCommentIdIsNull(UUID eventId, Pageable pageable);
 
+  /**
+   * Find the root comments of a specified event, without counting them.
+   * 
+   * @param eventId the event id
+   * @param pageable the paging criteria
+   * @return the comments
+   */
+  List<EventComment> findAllByEventIdAndParentCommentIdIsNull(UUID eventId, Pageable pageable);
+
+  /**
+   * Count the root comments of a specified event.
+   * 
+   * @param eventId the event id
+   * @return the number of root comments
+   */
+  long countByEventIdAndParentCommentIdIsNull(UUID eventId);
+
+  /**
+   * Find the root comments of a specified event created before a (createdAt, id) position, newest
+   * first. The bound on createdAt alone is redundant, it gives the index scan where to start, the
+   * same goes for the other position queries.
+   * 
+   * @param eventId the event id
+   * @param createdAt the created at of the position
+   * @param id the id of the position
+   * @param pageable the limit
+   * @return the comments
+   */
+  @Query("SELECT c FROM EventComment c WHERE c.eventId = :eventId AND c.parentCommentId IS NULL " //
+      + "AND c.createdAt <= :createdAt " //
+      + "AND (c.createdAt < :createdAt OR (c.createdAt = :createdAt AND c.id < :id)) " //
+      + "ORDER BY c.createdAt DESC, c.id DESC")
+  List<EventComment> findRootCommentsCreatedBefore(@Param("eventId") UUID eventId,
+      @Param("createdAt") Date createdAt, @Param("id") UUID id, Pageable pageable);
+
+  /**
+   * Find the root comments of a specified event created after a (createdAt, id) position, oldest
+   * first.
+   * 
+   * @param eventId the event id
+   * @param createdAt the created at of the position
+   * @param id the id of the position
+   * @param pageable the limit
+   * @return the comments
+   */
+  @Query("SELECT c FROM EventComment c WHERE c.eventId = :eventId AND c.parentCommentId IS NULL " //
+      + "AND c.createdAt >= :createdAt " //
+      + "AND (c.createdAt > :createdAt OR (c.createdAt = :createdAt AND c.id > :id)) " //
+      + "ORDER BY c.createdAt ASC, c.id ASC")
+  List<EventComment> findRootCommentsCreatedAfter(@Param("eventId") UUID eventId,
+      @Param("createdAt") Date createdAt, @Param("id") UUID id, Pageable pageable);
+
+  /**
+   * Find the root comments of a specified event after a (likeCount, id) position, most liked
+   * first.
+   * 
+   * @param eventId the event id
+   * @param likeCount the like count of the position
+   * @param id the id of the position
+   * @param pageable the limit
+   * @return the comments
+   */
+  @Query("SELECT c FROM EventComment c WHERE c.eventId = :eventId AND c.parentCommentId IS NULL " //
+      + "AND c.likeCount <= :likeCount " //
+      + "AND (c.likeCount < :likeCount OR (c.likeCount = :likeCount AND c.id < :id)) " //
+      + "ORDER BY c.likeCount DESC, c.id DESC")
+  List<EventComment> findRootCommentsLikedLessThan(@Param("eventId") UUID eventId,
+      @Param("likeCount") int likeCount, @Param("id") UUID id, Pageable pageable);
+
+  /**
+   * Find the root comments of a specified event after a (likeCount, id) position, least liked
+   * first.
+   * 
+   * @param eventId the event id
+   * @param likeCount the like count of the position
+   * @param id the id of the position
+   * @param pageable the limit
+   * @return the comments
+   */
+  @Query("SELECT c FROM EventComment c WHERE c.eventId = :eventId AND c.parentCommentId IS NULL " //
+      + "AND c.likeCount >= :likeCount " //
+      + "AND (c.likeCount > :likeCount OR (c.likeCount = :likeCount AND c.id > :id)) " //
+      + "ORDER BY c.likeCount ASC, c.id ASC")
+  List<EventComment> findRootCommentsLikedMoreThan(@Param("eventId") UUID eventId,
+      @Param("likeCount") int likeCount, @Param("id") UUID id, Pageable pageable);
+
+  /**
+   * Find the root comments of a specified event after a (hotScore, id) position, hottest first.
+   * 
+   * @param eventId the event id
+   * @param hotScore the hot score of the position
+   * @param id the id of the position
+   * @param pageable the limit
+   * @return the comments
+   */
+  @Query("SELECT c FROM EventComment c WHERE c.eventId = :eventId AND c.parentCommentId IS NULL " //
+      + "AND c.hotScore <= :hotScore " //
+      + "AND (c.hotScore < :hotScore OR (c.hotScore = :hotScore AND c.id < :id)) " //
+      + "ORDER BY c.hotScore DESC, c.id DESC")
+  List<EventComment> findRootCommentsScoredLessThan(@Param("eventId") UUID eventId,
+      @Param("hotScore") double hotScore, @Param("id") UUID id, Pageable pageable);
+
+  /**
+   * Find the root comments of a specified event after a (hotScore, id) position, coldest first.
+   * 
+   * @param eventId the event id
+   * @param hotScore the hot score of the position
+   * @param id the id of the position
+   * @param pageable the limit
+   * @return the comments
+   */
+  @Query("SELECT c FROM EventComment c WHERE c.eventId = :eventId AND c.parentCommentId IS NULL " //
+      + "AND c.hotScore >= :hotScore " //
+      + "AND (c.hotScore > :hotScore OR (c.hotScore = :hotScore AND c.id > :id)) " //
+      + "ORDER BY c.hotScore ASC, c.id ASC")
+  List<EventComment> findRootCommentsScoredMoreThan(@Param("eventId") UUID eventId,
+      @Param("hotScore") double hotScore, @Param("id") UUID id, Pageable pageable);
+
+  /**
+   * Find the ids of the comments of a specified event matching a full-text query, from the GIN
+   * index of the content words, most relevant first.
+   * 
+   * @param eventId the event id
+   * @param query the text query, its words are all required
+   * @param offset the number of comments to skip
+   * @param limit the maximum number of comments
+   * @return the comment ids as strings
+   */
+  @Query(value = "SELECT CAST(c.id AS varchar) " //
+      + "FROM event_comment c, plainto_tsquery('english', :query) q " //
+      + "WHERE c.event_id = :eventId AND NOT c.deleted AND c.content_tsv @@ q " //
+      + "ORDER BY ts_rank(c.content_tsv, q) DESC, c.created_at DESC, c.id DESC " //
+      + "LIMIT :limit OFFSET :offset", nativeQuery = true)
+  List<String> findIdsByContentMatching(@Param("eventId") UUID eventId,
+      @Param("query") String query, @Param("offset") int offset, @Param("limit") int limit);
+
+  /**
+   * Count the comments of a specified event matching a full-text query.
+   * 
+   * @param eventId the event id
+   * @param query the text query, its words are all required
+   * @return the number of matching comments
+   */
+  @Query(value = "SELECT count(*) FROM event_comment c " //
+      + "WHERE c.event_id = :eventId AND NOT c.deleted " //
+      + "AND c.content_tsv @@ plainto_tsquery('english', :query)", nativeQuery = true)
+  long countByContentMatching(@Param("eventId") UUID eventId, @Param("query") String query);
+
   /**
    * Find child comments by parent comment ids.
    * 
@@ -46,4 +199,173 @@ public interface EventCommentRepository extends BaseRepository<EventComment> {
    * @return true if exists, otherwise false
    */
   boolean existsByParentCommentId(UUID parentCommentId);
+
+  /**
+   * Find comments, each with the number of likes of a specified user (0 or 1), in one query.
+   * 
+   * @param ids the comment ids
+   * @param userId the user id
+   * @return the comments ordered by creation time, each row holding the comment and the like count
+   *         of the user
+   */
+  @Query("SELECT c, (SELECT count(l) FROM EventCommentLike l " //
+      + "WHERE l.eventCommentId = c.id AND l.userId = :userId) " //
+      + "FROM EventComment c JOIN FETCH c.user " //
+      + "WHERE c.id IN (:ids) " //
+      + "ORDER BY c.createdAt ASC, c.id ASC")
+  List<Object[]> findWithUserLikeCount(@Param("ids") Collection<UUID> ids,
+      @Param("userId") UUID userId);
+
+  /**
+   * Find comments with their authors.
+   * 
+   * @param ids the comment ids
+   * @return the comments ordered by creation time
+   */
+  @Query("SELECT c FROM EventComment c JOIN FETCH c.user WHERE c.id IN (:ids) " //
+      + "ORDER BY c.createdAt ASC, c.id ASC")
+  List<EventComment> findWithUserByIdIn(@Param("ids") Collection<UUID> ids);
+
+  /**
+   * Find the event ids of comments.
+   * 
+   * @param ids the comment ids
+   * @return the comment ids with their event ids
+   */
+  @Query("SELECT c.id, c.eventId FROM EventComment c WHERE c.id IN (:ids)")
+  List<Object[]> findIdAndEventIdByIdIn(@Param("ids") Collection<UUID> ids);
+
+  /**
+   * Find the ids of the first replies of comments, with the reply count of each comment. The
+   * replies are read from the (parent_comment_id, created_at, id) index, a comment with many
+   * replies only costs its first replies and an index-only count.
+   * 
+   * @param ids the comment ids
+   * @param limit the maximum number of replies per comment
+   * @return the rows holding the comment id, the reply id (null if no reply) and the reply count,
+   *         ids as strings
+   */
+  @Query(value = "SELECT CAST(p.id AS varchar), CAST(r.id AS varchar), n.count " //
+      + "FROM event_comment p " //
+      + "CROSS JOIN LATERAL (SELECT count(*) AS count FROM event_comment c " //
+      + "WHERE c.parent_comment_id = p.id) n " //
+      + "LEFT JOIN LATERAL (SELECT c.id FROM event_comment c WHERE c.parent_comment_id = p.id " //
+      + "ORDER BY c.created_at ASC, c.id ASC LIMIT :limit) r ON true " //
+      + "WHERE p.id IN (:ids)", nativeQuery = true)
+  List<Object[]> findFirstReplyIdsAndReplyCount(@Param("ids") Collection<UUID> ids,
+      @Param("limit") int limit);
+
+  /**
+   * Find the replies of a comment.
+   * 
+   * @param parentCommentId the parent comment id
+   * @param pageable the paging criteria
+   * @return the replies
+   */
+  List<EventComment> findAllByParentCommentId(UUID parentCommentId, Pageable pageable);
+
+  /**
+   * Find the replies of a comment created after a (createdAt, id) position, oldest first.
+   * 
+   * @param parentCommentId the parent comment id
+   * @param createdAt the created at of the position
+   * @param id the id of the position
+   * @param pageable the limit
+   * @return the replies
+   */
+  @Query("SELECT c FROM EventComment c WHERE c.parentCommentId = :parentCommentId " //
+      + "AND c.createdAt >= :createdAt " //
+      + "AND (c.createdAt > :createdAt OR (c.createdAt = :createdAt AND c.id > :id)) " //
+      + "ORDER BY c.createdAt ASC, c.id ASC")
+  List<EventComment> findRepliesCreatedAfter(@Param("parentCommentId") UUID parentCommentId,
+      @Param("createdAt") Date createdAt, @Param("id") UUID id, Pageable pageable);
+
+  /**
+   * Count the replies of a comment.
+   * 
+   * @param parentCommentId the parent comment id
+   * @return the number of replies
+   */
+  long countByParentCommentId(UUID parentCommentId);
+
+  /**
+   * Add to the like count of a comment atomically, without reading or rewriting the comment. The
+   * hot score is moved by the change of the log10 of the like count.
+   * 
+   * <p>
+   * The statement returns a row, so it runs as a query rather than a modifying query and bypasses
+   * the persistence context: a managed comment keeps the like count and hot score it was loaded
+   * with, for the rest of the transaction and for any query returning it again. Callers holding the
+   * comment must set the returned like count on it, and must not read its hot score afterwards.
+   * Both columns are not updatable, so a stale comment never writes them back.
+   * 
+   * @param id the comment id
+   * @param delta the number of likes to add, negative to remove
+   * @return the updated like count
+   */
+  @Query(value = "UPDATE event_comment SET like_count = like_count + :delta, " //
+      + "hot_score = hot_score + log(CAST(greatest(like_count + :delta, 1) AS double precision)) " //
+      + "- log(CAST(greatest(like_count, 1) AS double precision)) " //
+      + "WHERE id = :id RETURNING like_count", nativeQuery = true)
+  int addLikeCount(@Param("id") UUID id, @Param("delta") int delta);
+
+  /**
+   * Add to the like count of a comment atomically like addLikeCount(), without returning the like
+   * count, so that a comment deleted meanwhile is not an error.
+   *
+   * @param id the comment id
+   * @param delta the number of likes to add, negative to remove
+   * @return the number of comments updated, 0 if the comment does not exist any more
+   */
+  @Modifying
+  @Query(value = "UPDATE event_comment SET like_count = like_count + :delta, " //
+      + "hot_score = hot_score + log(CAST(greatest(like_count + :delta, 1) AS double precision)) " //
+      + "- log(CAST(greatest(like_count, 1) AS double precision)) " //
+      + "WHERE id = :id", nativeQuery = true)
+  int updateLikeCount(@Param("id") UUID id, @Param("delta") int delta);
+
+  /**
+   * Record that the likes of a comment changed, in the transaction changing them.
+   * 
+   * @param id the comment id
+   * @return the number of changes recorded
+   */
+  @Modifying
+  @Query(value = "INSERT INTO event_comment_like_change (event_comment_id, changed_at) " //
+      + "VALUES (:id, clock_timestamp())", nativeQuery = true)
+  int insertLikeChange(@Param("id") UUID id);
+
+  /**
+   * Recompute the like counts which do not match the likes, along with the hot scores, of the
+   * comments whose likes changed more than a delay ago and not since. The delay is relative to the
+   * start of the current transaction.
+   * 
+   * @param delayInSeconds the delay in seconds
+   * @return the number of comments updated
+   */
+  @Modifying
+  @Query(value = "UPDATE event_comment c SET like_count = l.count, " //
+      + "hot_score = c.hot_score + log(CAST(greatest(l.count, 1) AS double precision)) " //
+      + "- log(CAST(greatest(c.like_count, 1) AS double precision)) " //
+      + "FROM (SELECT ch.event_comment_id AS id, (SELECT count(*) FROM event_comment_like l2 " //
+      + "WHERE l2.event_comment_id = ch.event_comment_id) AS count " //
+      + "FROM (SELECT DISTINCT event_comment_id FROM event_comment_like_change " //
+      + "WHERE changed_at <= now() - :delay * interval '1 second') ch " //
+      + "WHERE NOT EXISTS (SELECT 1 FROM event_comment_like_change ch2 " //
+      + "WHERE ch2.event_comment_id = ch.event_comment_id " //
+      + "AND ch2.changed_at > now() - :delay * interval '1 second')) l " //
+      + "WHERE l.id = c.id AND c.like_count <> l.count", nativeQuery = true)
+  int reconcileLikeCountsChangedBefore(@Param("delay") int delayInSeconds);
+
+  /**
+   * Delete the like changes recorded more than a delay ago. The delay is relative to the start of
+   * the current transaction.
+   * 
+   * @param delayInSeconds the delay in seconds
+   * @return the number of changes deleted
+   */
+  @Modifying
+  @Query(value = "DELETE FROM event_comment_like_change " //
+      + "WHERE changed_at <= now() - :delay * interval '1 second'", nativeQuery = true)
+  int deleteLikeChangesBefore(@Param("delay") int delayInSeconds);
 }
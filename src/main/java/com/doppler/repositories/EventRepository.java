@@ -1,10 +1,13 @@
 package com.doppler.repositories;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -17,7 +20,7 @@ import com.doppler.entities.Event;
 public interface EventRepository extends BaseRepository<Event> {
 
   /**
-   * Search events.
+   * Search the events not removed.
    * 
    * @param topicId the topic id
    * @param lastSessionEndFrom the last session end from, used to filter UPCOMING events
@@ -26,7 +29,8 @@ public interface EventRepository extends BaseRepository<Event> {
    * @return the paged result
    */
   @Query("SELECT e FROM Event e " //
-      + "WHERE (:topicId IS NULL OR e.topicId = :topicId) " //
+      + "WHERE e.removed = false " //
+      + "AND (:topicId IS NULL OR e.topicId = :topicId) " //
       + "AND (cast(:lastSessionEndFrom as timestamp) IS NULL OR e.lastSessionEnd >= :lastSessionEndFrom) " //
       + "AND (cast(:lastSessionEndTo as timestamp) IS NULL OR e.lastSessionEnd < :lastSessionEndTo) " //
   )
@@ -35,7 +39,7 @@ public interface EventRepository extends BaseRepository<Event> {
       @Param("lastSessionEndTo") Date lastSessionEndTo, Pageable pageable);
 
   /**
-   * Search events within specified event ids.
+   * Search the events not removed within specified event ids.
    * 
    * @param topicId the topic id
    * @param lastSessionEndFrom the last session end from, used to filter UPCOMING events
@@ -45,7 +49,8 @@ public interface EventRepository extends BaseRepository<Event> {
    * @return the paged result
    */
   @Query("SELECT e FROM Event e " //
-      + "WHERE (:topicId IS NULL OR e.topicId = :topicId) " //
+      + "WHERE e.removed = false " //
+      + "AND (:topicId IS NULL OR e.topicId = :topicId) " //
       + "AND (cast(:lastSessionEndFrom as timestamp) IS NULL OR e.lastSessionEnd >= :lastSessionEndFrom) " //
       + "AND (cast(:lastSessionEndTo as timestamp) IS NULL OR e.lastSessionEnd < :lastSessionEndTo) " //
       + "AND (e.id IN (:eventIds)) " //
@@ -54,4 +59,40 @@ public interface EventRepository extends BaseRepository<Event> {
       @Param("lastSessionEndFrom") Date lastSessionEndFrom,
       @Param("lastSessionEndTo") Date lastSessionEndTo, @Param("eventIds") List<UUID> eventIds,
       Pageable pageable);
+
+  /**
+   * Find an event not removed.
+   * 
+   * @param id the id
+   * @return the event, empty if not found or removed
+   */
+  Optional<Event> findByIdAndRemovedFalse(UUID id);
+
+  /**
+   * Find the events not removed within specified ids.
+   * 
+   * @param ids the ids
+   * @return the events
+   */
+  List<Event> findByIdInAndRemovedFalse(Collection<UUID> ids);
+
+  /**
+   * Find the ids of the events not removed that were last pulled before a time, or never pulled.
+   * 
+   * @param syncedBefore the time
+   * @return the event ids
+   */
+  @Query("SELECT e.id FROM Event e WHERE e.removed = false " //
+      + "AND (e.syncedAt IS NULL OR e.syncedAt < :syncedBefore)")
+  List<UUID> findIdsNotSyncedSince(@Param("syncedBefore") Date syncedBefore);
+
+  /**
+   * Flag events as removed.
+   * 
+   * @param ids the event ids
+   * @return the number of updated events
+   */
+  @Modifying
+  @Query("UPDATE Event e SET e.removed = true WHERE e.id IN (:ids)")
+  int markRemoved(@Param("ids") Collection<UUID> ids);
 }
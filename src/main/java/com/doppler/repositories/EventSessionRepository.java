@@ -0,0 +1,11 @@
+package com.doppler.repositories;
+
+import org.springframework.stereotype.Repository;
+import com.doppler.entities.EventSession;
+
+/**
+ * The repository provides operations on EventSession entity.
+ */
+@Repository
+public interface EventSessionRepository extends BaseRepository<EventSession> {
+}
@@ -0,0 +1,12 @@
+package com.doppler.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import com.doppler.entities.SyncState;
+
+/**
+ * The repository provides operations on SyncState entity.
+ */
+@Repository
+public interface SyncStateRepository extends JpaRepository<SyncState, String> {
+}
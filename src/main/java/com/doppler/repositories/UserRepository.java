@@ -4,7 +4,11 @@ import java.util.List;
 import java.util.UUID;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import com.doppler.entities.User;
 
 /**
@@ -21,6 +25,42 @@ public interface UserRepository extends BaseRepository<User> {
    */
   User findByEmailIgnoreCase(String email);
 
+  /**
+   * Find the id and backend token of a user by email.
+   * 
+   * @param email the email, case insensitive
+   * @return the row holding the id and the backend token, empty if not found
+   */
+  @Query("SELECT u.id, u.backendToken FROM User u WHERE lower(u.email) = lower(:email)")
+  List<Object[]> findIdAndBackendTokenByEmail(@Param("email") String email);
+
+  /**
+   * Create a user, or update the user with the same email (case insensitive) in one statement. The
+   * profile fields and the backend token are overwritten, the points and flags of an existing user
+   * are kept, and the principal version is bumped.
+   * 
+   * @param user the user, with the id to create it with
+   * @param now the current time in milliseconds, the least principal version
+   * @return the created or updated user
+   */
+  @Transactional
+  @Query(value = "INSERT INTO \"user\" (id, email, division, full_name, location, " //
+      + "phone_number, position, photo_url, is_new, notified_by_new_events, points, " //
+      + "backend_token, principal_version) VALUES (:#{#user.id}, " //
+      + "CAST(:#{#user.email} AS varchar), CAST(:#{#user.division} AS varchar), " //
+      + "CAST(:#{#user.fullName} AS varchar), " //
+      + "CAST(:#{#user.location} AS varchar), CAST(:#{#user.phoneNumber} AS varchar), " //
+      + "CAST(:#{#user.position} AS varchar), CAST(:#{#user.photoUrl} AS varchar), " //
+      + "true, true, 0, CAST(:#{#user.backendToken} AS varchar), :now) " //
+      + "ON CONFLICT ((lower(email))) DO UPDATE SET email = EXCLUDED.email, " //
+      + "division = EXCLUDED.division, full_name = EXCLUDED.full_name, " //
+      + "location = EXCLUDED.location, phone_number = EXCLUDED.phone_number, " //
+      + "position = EXCLUDED.position, photo_url = EXCLUDED.photo_url, " //
+      + "backend_token = EXCLUDED.backend_token, principal_version = " //
+      + "greatest(\"user\".principal_version + 1, EXCLUDED.principal_version) " //
+      + "RETURNING *", nativeQuery = true)
+  User upsertByEmail(@Param("user") User user, @Param("now") long now);
+
   /**
    * Search users by full name.
    * 
@@ -47,4 +87,127 @@ public interface UserRepository extends BaseRepository<User> {
    * @return the users
    */
   List<User> findByIdIn(List<UUID> ids);
+
+  /**
+   * Get the principal version of a user.
+   * 
+   * @param id the user id
+   * @return the principal version, null if the user does not exist
+   */
+  @Query("SELECT u.principalVersion FROM User u WHERE u.id = :id")
+  Long findPrincipalVersionById(@Param("id") UUID id);
+
+  /**
+   * Get the like version of a user.
+   * 
+   * @param id the user id
+   * @return the like version, null if the user does not exist
+   */
+  @Query("SELECT u.likeVersion FROM User u WHERE u.id = :id")
+  Long findLikeVersionById(@Param("id") UUID id);
+
+  /**
+   * Bump the like version of a user.
+   * 
+   * @param id the user id
+   * @return the number of updated users
+   */
+  @Modifying
+  @Transactional
+  @Query(value = "UPDATE \"user\" SET like_version = like_version + 1 WHERE id = :id",
+      nativeQuery = true)
+  int incrementLikeVersion(@Param("id") UUID id);
+
+  /**
+   * Get the backend token of a user.
+   * 
+   * @param id the user id
+   * @return the backend token, null if none or if the user does not exist
+   */
+  @Query("SELECT u.backendToken FROM User u WHERE u.id = :id")
+  String findBackendTokenById(@Param("id") UUID id);
+
+  /**
+   * Update the backend token of a user.
+   * 
+   * @param id the user id
+   * @param backendToken the backend token
+   * @return the number of updated users
+   */
+  @Modifying
+  @Transactional
+  @Query("UPDATE User u SET u.backendToken = :backendToken WHERE u.id = :id")
+  int updateBackendToken(@Param("id") UUID id, @Param("backendToken") String backendToken);
+
+  /**
+   * Update the notified by new events flag of a user. The principal version is bumped as the flag
+   * is carried by the access tokens.
+   *
+   * @param id the user id
+   * @param notifiedByNewEvents the flag
+   * @param now the current time in milliseconds, the least principal version
+   * @return the number of updated users
+   */
+  @Modifying
+  @Transactional
+  @Query(value = "UPDATE \"user\" SET notified_by_new_events = :notifiedByNewEvents, " //
+      + "principal_version = greatest(principal_version + 1, :now) " //
+      + "WHERE id = :id", nativeQuery = true)
+  int updateNotifiedByNewEvents(@Param("id") UUID id,
+      @Param("notifiedByNewEvents") boolean notifiedByNewEvents, @Param("now") long now);
+
+  /**
+   * Add points to the balance of a user atomically.
+   *
+   * @param id the user id
+   * @param points the points to add
+   * @return the number of updated users
+   */
+  @Modifying
+  @Transactional
+  @Query("UPDATE User u SET u.points = u.points + :points WHERE u.id = :id")
+  int addPoints(@Param("id") UUID id, @Param("points") int points);
+
+  /**
+   * Mark a new user as existing and add points to its balance atomically, only once. The principal
+   * version is bumped as the new flag is carried by the access tokens.
+   *
+   * @param id the user id
+   * @param points the points to add
+   * @param now the current time in milliseconds, the least principal version
+   * @return 1 if the user was new, otherwise 0
+   */
+  @Modifying
+  @Transactional
+  @Query(value = "UPDATE \"user\" SET is_new = false, points = points + :points, " //
+      + "principal_version = greatest(principal_version + 1, :now) " //
+      + "WHERE id = :id AND is_new", nativeQuery = true)
+  int addPointsIfNew(@Param("id") UUID id, @Param("points") int points, @Param("now") long now);
+
+  /**
+   * Set the balance of a user, only if it has not changed since it was read.
+   *
+   * @param id the user id
+   * @param expected the balance read
+   * @param points the new balance
+   * @return the number of updated users
+   */
+  @Modifying
+  @Transactional
+  @Query("UPDATE User u SET u.points = :points WHERE u.id = :id AND u.points = :expected")
+  int updatePoints(@Param("id") UUID id, @Param("expected") int expected,
+      @Param("points") int points);
+
+  /**
+   * Get the balances and the reward points ledger sums of a batch of users, ordered by id.
+   *
+   * @param after the id the users are after, exclusive
+   * @param limit the maximum number of users
+   * @return the rows holding the user id, the balance and the ledger sum
+   */
+  @Query(value = "SELECT CAST(u.id AS varchar), u.points, " //
+      + "(SELECT COALESCE(SUM(p.points), 0) FROM user_reward_point p WHERE p.user_id = u.id) " //
+      + "FROM \"user\" u WHERE u.id > :after ORDER BY u.id LIMIT :limit", nativeQuery = true)
+  List<Object[]> findPointsAndLedgerSumsAfter(@Param("after") UUID after,
+      @Param("limit") int limit);
 }
@@ -2,7 +2,7 @@ package com.doppler.security;
 
 import java.io.IOException;
 import java.util.Arrays;
-import java.util.UUID;
+import java.util.List;
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
@@ -16,7 +16,7 @@ import org.springframework.security.web.authentication.WebAuthenticationDetailsS
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 import com.doppler.entities.User;
-import com.doppler.services.SecurityService;
+import com.doppler.services.AuthenticationCache;
 
 /**
  * The filter to process bearer authentication token.
@@ -29,16 +29,15 @@ public class BearerTokenFilter extends OncePerRequestFilter {
 	private static final String BEARER_PREFIX = "Bearer ";
 
 	/**
-	 * The token utils.
+	 * The HTTP methods of the requests authenticated by the token claims.
 	 */
-	@Autowired
-	private TokenUtils tokenUtils;
+	private static final List<String> READ_ONLY_METHODS = Arrays.asList("GET", "HEAD", "OPTIONS");
 
 	/**
-	 * The security service.
+	 * The cache of the users authenticated by tokens.
 	 */
 	@Autowired
-	private SecurityService securityService;
+	private AuthenticationCache authenticationCache;
 
 	/**
 	 * The machine-2-machine token.
@@ -72,9 +71,10 @@ public class BearerTokenFilter extends OncePerRequestFilter {
 				authentication = new UsernamePasswordAuthenticationToken("m2m", null,
 						Arrays.asList(new SimpleGrantedAuthority("ROLE_M2M")));
 			} else {
-				// Decode the user token
-				UUID userId = tokenUtils.decodeJwtToken(bearerToken);
-				User user = securityService.get(userId);
+				// Verify the user token and get its user, both cached. Reads trust the principal
+				// fields carried by the token if any, as long as they are up to date
+				User user = isReadOnly(request) ? authenticationCache.getPrincipal(bearerToken)
+						: authenticationCache.getUser(bearerToken);
 
 				// Set the user info to security context.
 				authentication = getUsernamePasswordAuthenticationToken(user);
@@ -87,6 +87,16 @@ public class BearerTokenFilter extends OncePerRequestFilter {
 		chain.doFilter(request, response);
 	}
 
+	/**
+	 * Check whether a request is not expected to change the current user.
+	 * 
+	 * @param request the HTTP servlet request
+	 * @return true for the GET, HEAD and OPTIONS requests
+	 */
+	private static boolean isReadOnly(HttpServletRequest request) {
+		return READ_ONLY_METHODS.contains(request.getMethod());
+	}
+
 	public static UsernamePasswordAuthenticationToken getUsernamePasswordAuthenticationToken(User user) {
 		return new UsernamePasswordAuthenticationToken(user, null,
 				Arrays.asList(new SimpleGrantedAuthority("ROLE_USER")));
@@ -0,0 +1,84 @@
+package com.doppler.security;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+import com.doppler.entities.User;
+
+/**
+ * The filter to shed the requests of the principals exceeding their budget, before any work is
+ * done for them. It runs right after the bearer token filter, anonymous requests are not limited.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+  /**
+   * The HTTP methods of the read requests.
+   */
+  private static final List<String> READ_ONLY_METHODS = Arrays.asList("GET", "HEAD", "OPTIONS");
+
+  /**
+   * The 429 JSON response body.
+   */
+  private static final String ERROR_MESSAGE = "{ \"message\": \"%s\" }";
+
+  /**
+   * The rate limiter.
+   */
+  private final RateLimiter rateLimiter;
+
+  /**
+   * Create a new instance.
+   *
+   * @param rateLimiter the rate limiter
+   */
+  public RateLimitFilter(RateLimiter rateLimiter) {
+    this.rateLimiter = rateLimiter;
+  }
+
+  /**
+   * Process the request.
+   *
+   * @param request the HTTP servlet request
+   * @param response the HTTP servlet response
+   * @param chain the filter chain
+   * @throws IOException if an I/O error occurs during the processing of the request
+   * @throws ServletException if the processing fails for any other reason
+   */
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+      FilterChain chain) throws IOException, ServletException {
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    if (!rateLimiter.isEnabled() || authentication == null) {
+      chain.doFilter(request, response);
+      return;
+    }
+
+    Object principal = authentication.getPrincipal();
+    boolean m2m = !(principal instanceof User);
+    String key = m2m ? String.valueOf(principal) : ((User) principal).getId().toString();
+    boolean write = !READ_ONLY_METHODS.contains(request.getMethod());
+
+    long wait = rateLimiter.tryAcquire(key, m2m, write);
+    if (wait > 0) {
+      long retryAfter = Math.max(1, (wait + TimeUnit.SECONDS.toNanos(1) - 1)
+          / TimeUnit.SECONDS.toNanos(1));
+      response.setContentType("application/json");
+      response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+      response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+      response.getOutputStream().println(String.format(ERROR_MESSAGE, "Too many requests"));
+      return;
+    }
+
+    chain.doFilter(request, response);
+  }
+}
@@ -0,0 +1,101 @@
+package com.doppler.security;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import javax.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import com.doppler.services.config.RateLimitConfiguration;
+import com.doppler.services.config.RateLimitConfiguration.Budget;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * The per-principal rate limiter. Each principal has one token bucket for its read requests and one
+ * for its other requests, held in a bounded cache so that the limiter memory does not grow with
+ * the number of principals.
+ */
+@Component
+public class RateLimiter {
+
+  /**
+   * The rate limit configuration.
+   */
+  @Autowired
+  private RateLimitConfiguration config;
+
+  /**
+   * The meter registry.
+   */
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  /**
+   * The token buckets per principal and kind of requests.
+   */
+  private Cache<String, TokenBucket> buckets;
+
+  /**
+   * The counters of the rejected requests per kind of requests.
+   */
+  private final Map<String, Counter> rejected = new ConcurrentHashMap<>();
+
+  /**
+   * The clock in nanoseconds, fixed by the tests.
+   */
+  private LongSupplier clock = System::nanoTime;
+
+  /**
+   * Create the bucket cache and register the metrics.
+   */
+  @PostConstruct
+  public void init() {
+    buckets = Caffeine.newBuilder() //
+        .maximumSize(config.getMaximumBuckets()) //
+        .expireAfterAccess(config.getIdleTimeoutInSeconds(), TimeUnit.SECONDS) //
+        .build();
+
+    Gauge.builder("rate.limit.buckets", buckets, Cache::estimatedSize)
+        .description("The number of token buckets held by the rate limiter")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Check whether the rate limiting is enabled.
+   *
+   * @return true if enabled
+   */
+  public boolean isEnabled() {
+    return config.isEnabled();
+  }
+
+  /**
+   * Take a token from the bucket of a principal.
+   *
+   * @param principal the principal key, e.g. the user id
+   * @param m2m whether the principal is the machine-2-machine token
+   * @param write whether the request may change data
+   * @return 0 if the request is admitted, otherwise the time in nanoseconds until it would be
+   */
+  public long tryAcquire(String principal, boolean m2m, boolean write) {
+    Budget budget = m2m ? (write ? config.getM2mWrite() : config.getM2mRead())
+        : (write ? config.getUserWrite() : config.getUserRead());
+    String kind = (m2m ? "m2m." : "user.") + (write ? "write" : "read");
+
+    long now = clock.getAsLong();
+    TokenBucket bucket = buckets.get(kind + ':' + principal,
+        key -> new TokenBucket(budget.getCapacity(), budget.getRefillPerSecond(), now));
+    long wait = bucket.tryAcquire(now);
+    if (wait > 0) {
+      rejected.computeIfAbsent(kind, key -> Counter.builder("rate.limit.rejected").tag("route", key)
+          .description("The number of requests rejected by the rate limiter")
+          .register(meterRegistry)).increment();
+    }
+    return wait;
+  }
+}
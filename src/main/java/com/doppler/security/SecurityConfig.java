@@ -32,6 +32,12 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
   @Autowired
   private AccessDeniedHandler accessDeniedHandler;
 
+  /**
+   * The per-principal rate limiter.
+   */
+  @Autowired
+  private RateLimiter rateLimiter;
+
   /**
    * Configure the JWT token filter bean.
    * 
@@ -88,5 +94,9 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
     // Custom bearer based security filter
     httpSecurity.addFilterBefore(authenticationTokenFilter(),
         UsernamePasswordAuthenticationFilter.class);
+
+    // Per-principal rate limiting, once the principal is known. Not a bean, so that it is not
+    // registered again in the servlet filter chain, ahead of the authentication
+    httpSecurity.addFilterAfter(new RateLimitFilter(rateLimiter), BearerTokenFilter.class);
   }
 }
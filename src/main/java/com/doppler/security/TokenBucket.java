@@ -0,0 +1,60 @@
+package com.doppler.security;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The lock-free token bucket of a principal. Instead of a token count and a refill time, the
+ * bucket only holds the time at which it would be full again, so that a request is admitted with a
+ * single compare-and-set (the generic cell rate algorithm).
+ */
+final class TokenBucket {
+
+  /**
+   * The time in nanoseconds it takes to refill one token.
+   */
+  private final long refillIntervalInNanos;
+
+  /**
+   * The time in nanoseconds it takes to refill the whole bucket.
+   */
+  private final long capacityInNanos;
+
+  /**
+   * The time in nanoseconds at which the bucket is full again, in the past if already full.
+   */
+  private final AtomicLong fullAt;
+
+  /**
+   * Create a new full bucket.
+   *
+   * @param capacity the maximum number of tokens
+   * @param refillPerSecond the number of tokens refilled per second
+   * @param now the current time in nanoseconds
+   */
+  TokenBucket(int capacity, double refillPerSecond, long now) {
+    refillIntervalInNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / refillPerSecond));
+    capacityInNanos = capacity * refillIntervalInNanos;
+    fullAt = new AtomicLong(now);
+  }
+
+  /**
+   * Take a token if any.
+   *
+   * @param now the current time in nanoseconds
+   * @return 0 if a token was taken, otherwise the time in nanoseconds until the next token
+   */
+  long tryAcquire(long now) {
+    while (true) {
+      long current = fullAt.get();
+      long next = Math.max(current, now) + refillIntervalInNanos;
+      long wait = next - now - capacityInNanos;
+      if (wait > 0) {
+        return wait;
+      }
+      if (fullAt.compareAndSet(current, next)) {
+        return 0;
+      }
+    }
+  }
+}
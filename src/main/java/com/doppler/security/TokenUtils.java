@@ -5,6 +5,7 @@ import java.util.UUID;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.stereotype.Component;
+import com.doppler.entities.User;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
@@ -20,6 +21,26 @@ public class TokenUtils {
    */
   private static final String CLAIM_KEY = "sub";
 
+  /**
+   * The principal version claim key.
+   */
+  private static final String VERSION_CLAIM_KEY = "ver";
+
+  /**
+   * The email claim key.
+   */
+  private static final String EMAIL_CLAIM_KEY = "email";
+
+  /**
+   * The new user flag claim key.
+   */
+  private static final String IS_NEW_CLAIM_KEY = "new";
+
+  /**
+   * The notified by new events flag claim key.
+   */
+  private static final String NOTIFIED_CLAIM_KEY = "notified";
+
   /**
    * The secret to sign the tokens.
    */
@@ -32,6 +53,13 @@ public class TokenUtils {
   @Value("${jwt.expiration-in-seconds}")
   private long expirationInSeconds;
 
+  /**
+   * Whether the user tokens carry the principal fields, so that read requests are authenticated
+   * without loading the user.
+   */
+  @Value("${jwt.principal-claims-enabled:false}")
+  private boolean principalClaimsEnabled;
+
   /**
    * Creates JWT token for the specified token payload.
    * 
@@ -45,6 +73,27 @@ public class TokenUtils {
         .signWith(SignatureAlgorithm.HS512, secret).compact();
   }
 
+  /**
+   * Creates JWT token for the specified user, carrying the principal fields and version if
+   * enabled.
+   * 
+   * @param user the user
+   * @return the JWT token
+   */
+  public String createJwtToken(User user) {
+    if (!principalClaimsEnabled) {
+      return createJwtToken(user.getId());
+    }
+
+    final Date expiration = new Date(System.currentTimeMillis() + expirationInSeconds * 1000);
+
+    return Jwts.builder().claim(CLAIM_KEY, user.getId().toString())
+        .claim(VERSION_CLAIM_KEY, user.getPrincipalVersion())
+        .claim(EMAIL_CLAIM_KEY, user.getEmail()).claim(IS_NEW_CLAIM_KEY, user.getIsNew())
+        .claim(NOTIFIED_CLAIM_KEY, user.isNotifiedByNewEvents()).setExpiration(expiration)
+        .signWith(SignatureAlgorithm.HS512, secret).compact();
+  }
+
   /**
    * Decodes the JWT token.
    * 
@@ -53,6 +102,17 @@ public class TokenUtils {
    * @throws BadCredentialsException if the JWT token is invalid
    */
   public UUID decodeJwtToken(String jwtToken) {
+    return verifyJwtToken(jwtToken).getUserId();
+  }
+
+  /**
+   * Verifies the JWT token.
+   * 
+   * @param jwtToken the JWT token
+   * @return the verified token payload
+   * @throws BadCredentialsException if the JWT token is invalid or expired
+   */
+  public VerifiedToken verifyJwtToken(String jwtToken) {
     Claims claims;
 
     try {
@@ -62,10 +122,38 @@ public class TokenUtils {
     }
 
     String payload = (String) claims.get(CLAIM_KEY);
+    UUID userId;
     try {
-      return UUID.fromString(payload);
+      userId = UUID.fromString(payload);
     } catch (IllegalArgumentException ex) {
       throw new BadCredentialsException("Invalid JWT token", ex);
     }
+
+    Date expiration = claims.getExpiration();
+    return new VerifiedToken(userId, expiration == null ? Long.MAX_VALUE : expiration.getTime(),
+        getPrincipal(userId, claims));
+  }
+
+  /**
+   * Build the principal from the claims of a token.
+   * 
+   * @param userId the user UUID
+   * @param claims the claims
+   * @return the principal, null if the token does not carry the principal fields
+   */
+  private User getPrincipal(UUID userId, Claims claims) {
+    Number version = claims.get(VERSION_CLAIM_KEY, Number.class);
+    if (version == null) {
+      return null;
+    }
+
+    User principal = new User();
+    principal.setId(userId);
+    principal.setPrincipalVersion(version.longValue());
+    principal.setEmail(claims.get(EMAIL_CLAIM_KEY, String.class));
+    principal.setIsNew(claims.get(IS_NEW_CLAIM_KEY, Boolean.class));
+    principal.setNotifiedByNewEvents(
+        Boolean.TRUE.equals(claims.get(NOTIFIED_CLAIM_KEY, Boolean.class)));
+    return principal;
   }
 }
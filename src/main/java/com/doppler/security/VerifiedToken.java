@@ -0,0 +1,30 @@
+package com.doppler.security;
+
+import java.util.UUID;
+import com.doppler.entities.User;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * The payload of a JWT token whose signature and expiry have been verified.
+ */
+@Getter
+@AllArgsConstructor
+public class VerifiedToken {
+
+  /**
+   * The user UUID.
+   */
+  private final UUID userId;
+
+  /**
+   * The expiry time in milliseconds, Long.MAX_VALUE if the token never expires.
+   */
+  private final long expiresAt;
+
+  /**
+   * The principal built from the token claims, with the principal version they were issued at.
+   * Null if the token only carries the user UUID.
+   */
+  private final User principal;
+}
@@ -1,14 +1,33 @@
 package com.doppler.services;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestTemplate;
 
+import com.doppler.exceptions.BackendResponseTooLargeException;
+import com.doppler.services.config.RestClientConfiguration;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -20,18 +39,147 @@ public abstract class AbstractRestTemplateHandler {
 
 	protected static final Logger LOGGER = LoggerFactory.getLogger(RestTemplateService.class);
 
-	public AbstractRestTemplateHandler(RestTemplateBuilder restTemplateBuilder, ObjectMapper objectMapper) {
-		this.restTemplate = restTemplateBuilder.build();
+	/**
+	 * The accepted response media types.
+	 */
+	private static final List<MediaType> ACCEPT_JSON = Arrays.asList(MediaType.APPLICATION_JSON,
+			new MediaType("application", "*+json"));
+
+	/**
+	 * The sentinel content class of non-parametric types in the JavaType cache.
+	 */
+	private static final Class<?> NO_CONTENT_CLASS = void.class;
+
+	/**
+	 * The JavaType cache per (class, content class) pair.
+	 */
+	private final Map<Class<?>, Map<Class<?>, JavaType>> javaTypes = new ConcurrentHashMap<>();
+
+	@Autowired
+	private RestClientConfiguration restClientConfiguration;
+
+	public AbstractRestTemplateHandler(RestTemplateBuilder restTemplateBuilder, ClientHttpRequestFactory requestFactory,
+			ObjectMapper objectMapper) {
+		// Use the shared pooled, keep-alive client instead of a connection per request
+		this.restTemplate = restTemplateBuilder.requestFactory(() -> requestFactory).build();
 		this.objectMapper = objectMapper;
 		this.objectMapper.enable(DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY);
 	}
 
-	protected <T> T readValue(ResponseEntity<String> response, JavaType javaType) {
+	/**
+	 * Get the cached JavaType of a class.
+	 *
+	 * @param clazz the class
+	 * @return the JavaType
+	 */
+	protected JavaType getJavaType(Class<?> clazz) {
+		return getJavaType(clazz, NO_CONTENT_CLASS);
+	}
+
+	/**
+	 * Get the cached JavaType of a parametric class, e.g. List of contentClass.
+	 *
+	 * @param clazz        the class
+	 * @param contentClass the content class
+	 * @return the JavaType
+	 */
+	protected JavaType getJavaType(Class<?> clazz, Class<?> contentClass) {
+		return javaTypes.computeIfAbsent(clazz, key -> new ConcurrentHashMap<>()).computeIfAbsent(contentClass,
+				key -> key == NO_CONTENT_CLASS ? objectMapper.getTypeFactory().constructType(clazz)
+						: objectMapper.getTypeFactory().constructParametricType(clazz, key));
+	}
+
+	/**
+	 * Execute a request and decode the response body straight from the response stream.
+	 *
+	 * @param url           the url template
+	 * @param method        the HTTP method
+	 * @param requestEntity the request entity, may be null
+	 * @param javaType      the type to decode the response to
+	 * @param uriVariables  the url variables
+	 * @return the response with the decoded body, null body if no data
+	 */
+	protected <T> ResponseEntity<T> exchange(String url, HttpMethod method, HttpEntity<?> requestEntity,
+			JavaType javaType, Object... uriVariables) {
+		return restTemplate.execute(url, method, requestCallback(requestEntity),
+				responseExtractor(javaType), uriVariables);
+	}
+
+	/**
+	 * Execute a request and decode the response body straight from the response stream.
+	 *
+	 * @param uri           the expanded uri
+	 * @param method        the HTTP method
+	 * @param requestEntity the request entity, may be null
+	 * @param javaType      the type to decode the response to
+	 * @return the response with the decoded body, null body if no data
+	 */
+	protected <T> ResponseEntity<T> exchange(URI uri, HttpMethod method, HttpEntity<?> requestEntity,
+			JavaType javaType) {
+		return restTemplate.execute(uri, method, requestCallback(requestEntity),
+				responseExtractor(javaType));
+	}
+
+	/**
+	 * Create the callback which writes the request headers and JSON body straight to the request
+	 * stream.
+	 *
+	 * @param requestEntity the request entity, may be null
+	 * @return the request callback
+	 */
+	private RequestCallback requestCallback(HttpEntity<?> requestEntity) {
+		return request -> {
+			request.getHeaders().setAccept(ACCEPT_JSON);
+			if (requestEntity == null) {
+				return;
+			}
+
+			request.getHeaders().putAll(requestEntity.getHeaders());
+			Object body = requestEntity.getBody();
+			if (body instanceof String) {
+				StreamUtils.copy((String) body, StandardCharsets.UTF_8, request.getBody());
+			} else if (body != null) {
+				if (request.getHeaders().getContentType() == null) {
+					request.getHeaders().setContentType(MediaType.APPLICATION_JSON_UTF8);
+				}
+				objectMapper.writeValue(request.getBody(), body);
+			}
+		};
+	}
+
+	private <T> ResponseExtractor<ResponseEntity<T>> responseExtractor(JavaType javaType) {
+		return response -> new ResponseEntity<>(readValue(response, javaType), response.getHeaders(),
+				response.getStatusCode());
+	}
+
+	/**
+	 * Decode the response body, bounded by the configured maximum response size.
+	 *
+	 * @param response the response
+	 * @param javaType the type to decode the response to
+	 * @return the decoded body, null if no data
+	 * @throws IOException if the response cannot be read
+	 * @throws BackendResponseTooLargeException if the response exceeds the maximum size
+	 */
+	protected <T> T readValue(ClientHttpResponse response, JavaType javaType) throws IOException {
 		T result = null;
 		if (response.getStatusCode() == HttpStatus.OK || response.getStatusCode() == HttpStatus.CREATED
 				|| response.getStatusCode() == HttpStatus.ACCEPTED) {
-			try {
-				result = objectMapper.readValue(response.getBody(), javaType);
+			long maxResponseSize = restClientConfiguration.getMaxResponseSize();
+			if (response.getHeaders().getContentLength() > maxResponseSize) {
+				LOGGER.warn("Backend response of {} bytes discarded, the maximum size is {} bytes",
+						response.getHeaders().getContentLength(), maxResponseSize);
+				throw new BackendResponseTooLargeException("Backend response is too large");
+			}
+
+			try (InputStream body = new SizeLimitedInputStream(response.getBody(), maxResponseSize);
+					JsonParser parser = objectMapper.getFactory().createParser(body)) {
+				if (parser.nextToken() != null) {
+					result = objectMapper.readValue(parser, javaType);
+				}
+			} catch (SizeLimitedInputStream.SizeExceededException e) {
+				LOGGER.warn("Backend response discarded, {}", e.getMessage());
+				throw new BackendResponseTooLargeException("Backend response is too large");
 			} catch (IOException e) {
 				LOGGER.info(e.getMessage());
 			}
@@ -0,0 +1,132 @@
+package com.doppler.services;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+/**
+ * The asynchronous variant of {@link BackendAPIService}. Calls are performed on a bounded backend
+ * thread pool, so request threads are released while the backend call is pending.
+ */
+@Service
+public class AsyncBackendAPIService {
+
+  /**
+   * The backend API service.
+   */
+  @Autowired
+  private BackendAPIService backendAPIService;
+
+  /**
+   * The executor performing backend calls.
+   */
+  @Autowired
+  @Qualifier("backendExecutor")
+  private Executor executor;
+
+  /**
+   * Get a list asynchronously.
+   *
+   * @param clazz the element class
+   * @param url the url
+   * @param uriVariables the url variables
+   * @return the future list, empty if no data
+   */
+  public <T> CompletableFuture<List<T>> getForList(Class<T> clazz, String url,
+      Object... uriVariables) {
+    return supply(() -> backendAPIService.getForList(clazz, url, uriVariables));
+  }
+
+  /**
+   * Get a parametric entity asynchronously, e.g. a search response of events.
+   *
+   * @param clazz the entity class
+   * @param contentClass the content class
+   * @param url the url
+   * @param uriVariables the url variables
+   * @return the future entity, completed with null if no data
+   */
+  public <T, R> CompletableFuture<T> getForEntity(Class<T> clazz, Class<R> contentClass,
+      String url, Object... uriVariables) {
+    return supply(() -> backendAPIService.getForEntity(clazz, contentClass, url, uriVariables));
+  }
+
+  /**
+   * Get an entity asynchronously.
+   *
+   * @param clazz the entity class
+   * @param url the url
+   * @param uriVariables the url variables
+   * @return the future entity, completed with null if no data
+   */
+  public <T> CompletableFuture<T> getForEntity(Class<T> clazz, String url,
+      Object... uriVariables) {
+    return supply(() -> backendAPIService.getForEntity(clazz, url, uriVariables));
+  }
+
+  /**
+   * Post an entity asynchronously.
+   *
+   * @param clazz the response class
+   * @param url the url
+   * @param body the request body
+   * @param uriVariables the url variables
+   * @return the future response, completed with null if no data
+   */
+  public <T, R> CompletableFuture<T> postForEntity(Class<T> clazz, String url, R body,
+      Object... uriVariables) {
+    return supply(() -> backendAPIService.postForEntity(clazz, url, body, uriVariables));
+  }
+
+  /**
+   * Put an entity asynchronously.
+   *
+   * @param clazz the response class
+   * @param url the url
+   * @param body the request body
+   * @param uriVariables the url variables
+   * @return the future response, completed with null if no data
+   */
+  public <T, R> CompletableFuture<T> putForEntity(Class<T> clazz, String url, R body,
+      Object... uriVariables) {
+    return supply(() -> backendAPIService.putForEntity(clazz, url, body, uriVariables));
+  }
+
+  /**
+   * Delete asynchronously.
+   *
+   * @param url the url
+   * @param uriVariables the url variables
+   * @return the future completed once deleted
+   */
+  public CompletableFuture<Void> delete(String url, Object... uriVariables) {
+    return supply(() -> {
+      backendAPIService.delete(url, uriVariables);
+      return null;
+    });
+  }
+
+  /**
+   * Run a backend call on the backend executor. The future is completed with the exception thrown
+   * by the call as-is, so that it gets mapped like a synchronous exception.
+   *
+   * @param call the backend call
+   * @return the future result
+   * @throws java.util.concurrent.RejectedExecutionException if the backend executor is saturated
+   */
+  private <T> CompletableFuture<T> supply(Supplier<T> call) {
+    CompletableFuture<T> future = new CompletableFuture<>();
+    executor.execute(() -> {
+      try {
+        future.complete(call.get());
+      } catch (Throwable ex) {
+        future.completeExceptionally(ex);
+      }
+    });
+    return future;
+  }
+}
@@ -0,0 +1,245 @@
+package com.doppler.services;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.BeanUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import com.doppler.entities.User;
+import com.doppler.repositories.UserRepository;
+import com.doppler.security.TokenUtils;
+import com.doppler.security.VerifiedToken;
+import com.doppler.services.config.AuthenticationCacheConfiguration;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * The cache of the users authenticated by bearer tokens. Verified tokens are kept until their own
+ * expiry, and users until they are changed, so that steady-state requests are authenticated
+ * without verifying a signature nor querying the database. Tokens carrying the principal fields
+ * only need the current principal version of their user to be checked.
+ */
+@Component
+public class AuthenticationCache {
+
+  /**
+   * The authentication cache configuration.
+   */
+  private final AuthenticationCacheConfiguration configuration;
+
+  /**
+   * The token utils.
+   */
+  private final TokenUtils tokenUtils;
+
+  /**
+   * The user repository.
+   */
+  private final UserRepository userRepository;
+
+  /**
+   * The verified tokens, each expiring with the token.
+   */
+  private final Cache<String, VerifiedToken> tokens;
+
+  /**
+   * The users per id, never handed out as-is.
+   */
+  private final Cache<UUID, User> users;
+
+  /**
+   * The principal versions per user id.
+   */
+  private final Cache<UUID, Long> versions;
+
+  /**
+   * Create a new instance.
+   *
+   * @param configuration the authentication cache configuration
+   * @param tokenUtils the token utils
+   * @param userRepository the user repository
+   * @param meterRegistry the meter registry
+   */
+  public AuthenticationCache(AuthenticationCacheConfiguration configuration,
+      TokenUtils tokenUtils, UserRepository userRepository, MeterRegistry meterRegistry) {
+    this.configuration = configuration;
+    this.tokenUtils = tokenUtils;
+    this.userRepository = userRepository;
+    this.tokens = CaffeineCacheMetrics.monitor(meterRegistry, Caffeine.newBuilder() //
+        .maximumSize(configuration.getMaximumSize()) //
+        .expireAfter(new TokenExpiry()) //
+        .recordStats() //
+        .build(), "authentication.tokens");
+    this.users = CaffeineCacheMetrics.monitor(meterRegistry, Caffeine.newBuilder() //
+        .maximumSize(configuration.getMaximumSize()) //
+        .expireAfterWrite(configuration.getUserExpireAfterWriteInSeconds(), TimeUnit.SECONDS) //
+        .recordStats() //
+        .build(), "authentication.users");
+    this.versions = CaffeineCacheMetrics.monitor(meterRegistry, Caffeine.newBuilder() //
+        .maximumSize(configuration.getVersionMaximumSize()) //
+        .expireAfterWrite(configuration.getVersionExpireAfterWriteInSeconds(),
+            TimeUnit.SECONDS) //
+        .recordStats() //
+        .build(), "authentication.versions");
+  }
+
+  /**
+   * Get the principal authenticated by a token, for requests which do not change the user. The
+   * principal is built from the token claims if they are as recent as the user, otherwise the user
+   * is loaded.
+   *
+   * @param token the JWT token
+   * @return the principal, only holding the fields carried by the token unless the user was loaded,
+   *         a copy owned by the caller
+   * @throws org.springframework.security.authentication.BadCredentialsException if the token is
+   *         invalid or expired
+   * @throws java.util.NoSuchElementException if the user does not exist
+   */
+  public User getPrincipal(String token) {
+    VerifiedToken verifiedToken = verify(token);
+    User principal = verifiedToken.getPrincipal();
+    if (principal == null
+        || !Long.valueOf(principal.getPrincipalVersion()).equals(getVersion(principal.getId()))) {
+      return getUser(verifiedToken.getUserId());
+    }
+
+    User user = new User();
+    BeanUtils.copyProperties(principal, user);
+    return user;
+  }
+
+  /**
+   * Get the user authenticated by a token.
+   *
+   * @param token the JWT token
+   * @return the user, a copy owned by the caller
+   * @throws org.springframework.security.authentication.BadCredentialsException if the token is
+   *         invalid or expired
+   * @throws java.util.NoSuchElementException if the user does not exist
+   */
+  public User getUser(String token) {
+    return getUser(verify(token).getUserId());
+  }
+
+  /**
+   * Invalidate a cached user, once the current transaction commits if any. To be called whenever
+   * the user row changes.
+   *
+   * @param userId the user id
+   */
+  public void invalidate(UUID userId) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+              users.invalidate(userId);
+              versions.invalidate(userId);
+            }
+          });
+    } else {
+      users.invalidate(userId);
+      versions.invalidate(userId);
+    }
+  }
+
+  /**
+   * Verify a token.
+   *
+   * @param token the JWT token
+   * @return the verified token
+   * @throws org.springframework.security.authentication.BadCredentialsException if the token is
+   *         invalid or expired
+   */
+  private VerifiedToken verify(String token) {
+    return configuration.isEnabled() ? tokens.get(token, tokenUtils::verifyJwtToken)
+        : tokenUtils.verifyJwtToken(token);
+  }
+
+  /**
+   * Get a user.
+   *
+   * @param userId the user id
+   * @return the user, a copy owned by the caller
+   * @throws java.util.NoSuchElementException if the user does not exist
+   */
+  private User getUser(UUID userId) {
+    if (!configuration.isEnabled()) {
+      return loadUser(userId);
+    }
+
+    User user = new User();
+    BeanUtils.copyProperties(users.get(userId, this::loadUser), user);
+    return user;
+  }
+
+  /**
+   * Get the current principal version of a user.
+   *
+   * @param userId the user id
+   * @return the principal version, null if the user does not exist
+   */
+  private Long getVersion(UUID userId) {
+    return configuration.isEnabled()
+        ? versions.get(userId, userRepository::findPrincipalVersionById)
+        : userRepository.findPrincipalVersionById(userId);
+  }
+
+  /**
+   * Load a user.
+   *
+   * @param userId the user id
+   * @return the user
+   * @throws java.util.NoSuchElementException if the user does not exist
+   */
+  private User loadUser(UUID userId) {
+    return userRepository.findById(userId).get();
+  }
+
+  /**
+   * The expiry of the verified tokens, at the token expiry.
+   */
+  private static class TokenExpiry implements Expiry<String, VerifiedToken> {
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see com.github.benmanes.caffeine.cache.Expiry#expireAfterCreate(java.lang.Object,
+     * java.lang.Object, long)
+     */
+    @Override
+    public long expireAfterCreate(String token, VerifiedToken verifiedToken, long currentTime) {
+      long remaining = verifiedToken.getExpiresAt() - System.currentTimeMillis();
+      return remaining >= TimeUnit.NANOSECONDS.toMillis(Long.MAX_VALUE) ? Long.MAX_VALUE
+          : TimeUnit.MILLISECONDS.toNanos(Math.max(remaining, 0));
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see com.github.benmanes.caffeine.cache.Expiry#expireAfterUpdate(java.lang.Object,
+     * java.lang.Object, long, long)
+     */
+    @Override
+    public long expireAfterUpdate(String token, VerifiedToken verifiedToken, long currentTime,
+        long currentDuration) {
+      return currentDuration;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see com.github.benmanes.caffeine.cache.Expiry#expireAfterRead(java.lang.Object,
+     * java.lang.Object, long, long)
+     */
+    @Override
+    public long expireAfterRead(String token, VerifiedToken verifiedToken, long currentTime,
+        long currentDuration) {
+      return currentDuration;
+    }
+  }
+}
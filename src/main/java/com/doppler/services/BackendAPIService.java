@@ -1,5 +1,6 @@
 package com.doppler.services;
 
+import java.net.URI;
 import java.util.Collections;
 import java.util.List;
 
@@ -8,8 +9,10 @@ import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.retry.annotation.Backoff;
 import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Service;
@@ -19,17 +22,29 @@ import com.doppler.exceptions.RetryableException;
 import com.doppler.security.SecurityUtils;
 import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.type.CollectionType;
 
 @Service
 public class BackendAPIService extends AbstractRestTemplateHandler {
 
 	@Autowired
-	LoginRestService loginService;
+	private BackendTokenManager tokenManager;
 
 	@Autowired
-	public BackendAPIService(RestTemplateBuilder restTemplateBuilder, ObjectMapper objectMapper) {
-		super(restTemplateBuilder, objectMapper);
+	private BackendResponseCache responseCache;
+
+	@Autowired
+	private BackendRequestCoalescer requestCoalescer;
+
+	@Autowired
+	private BackendCircuitBreaker circuitBreaker;
+
+	@Autowired
+	private BackendRetrier retrier;
+
+	@Autowired
+	public BackendAPIService(RestTemplateBuilder restTemplateBuilder, ClientHttpRequestFactory requestFactory,
+			ObjectMapper objectMapper) {
+		super(restTemplateBuilder, requestFactory, objectMapper);
 	}
 
 	protected HttpEntity<String> constructHttpEntityWithRequestHeaders(String token) {
@@ -47,17 +62,17 @@ public class BackendAPIService extends AbstractRestTemplateHandler {
 	}
 
 	private String getToken() {
-		return SecurityUtils.getCurrentUser().getBackendToken();
+		return tokenManager.getToken(SecurityUtils.getCurrentUser());
 	}
 
-	private void exceptionHandler(HttpClientErrorException exception, String url) {
+	private void exceptionHandler(HttpClientErrorException exception, String url, String token) {
 		switch (exception.getStatusCode()) {
 		case NOT_FOUND:
 			LOGGER.info("No data found {}", url);
 			break;
 		case UNAUTHORIZED:
 		case FORBIDDEN:
-			retryLogin();
+			retryLogin(token);
 			throw new RetryableException(exception);
 		default:
 			LOGGER.info("rest client exception", exception.getMessage());
@@ -65,82 +80,161 @@ public class BackendAPIService extends AbstractRestTemplateHandler {
 		}
 	}
 
-	public void retryLogin() {
-		loginService.reauthenticateBackendServer();
+	public void retryLogin(String rejectedToken) {
+		tokenManager.refresh(SecurityUtils.getCurrentUser(), rejectedToken);
 	}
 
-	@Retryable(value = { RetryableException.class }, maxAttempts = 1, backoff = @Backoff(delay = 1))
+	@Retryable(value = { RetryableException.class }, maxAttempts = 2, backoff = @Backoff(delay = 1))
 	public <T> List<T> getForList(Class<T> clazz, String url, Object... uriVariables) {
+		String token = getToken();
 		try {
-			ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.GET,
-					constructHttpEntityWithRequestHeaders(getToken()), String.class, uriVariables);
-			CollectionType collectionType = objectMapper.getTypeFactory().constructCollectionType(List.class, clazz);
-			return readValue(response, collectionType);
+			List<T> result = get(getJavaType(List.class, clazz), token, url, uriVariables);
+			if (result != null) {
+				return result;
+			}
 		} catch (HttpClientErrorException exception) {
-			exceptionHandler(exception, url);
+			exceptionHandler(exception, url, token);
 		}
 		return Collections.emptyList();
 	}
 
-	@Retryable(value = { RetryableException.class }, maxAttempts = 1, backoff = @Backoff(delay = 1))
+	@Retryable(value = { RetryableException.class }, maxAttempts = 2, backoff = @Backoff(delay = 1))
 	public <T, R> T getForEntity(Class<T> clazz, Class<R> contentClass, String url, Object... uriVariables) {
+		String token = getToken();
 		try {
-			ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.GET,
-					constructHttpEntityWithRequestHeaders(getToken()), String.class, uriVariables);
-			JavaType javaType = objectMapper.getTypeFactory().constructParametricType(clazz, contentClass);
-			return readValue(response, javaType);
+			return get(getJavaType(clazz, contentClass), token, url, uriVariables);
 		} catch (HttpClientErrorException exception) {
-			exceptionHandler(exception, url);
+			exceptionHandler(exception, url, token);
 		}
 		return null;
 	}
 
-	@Retryable(value = { RetryableException.class }, maxAttempts = 1, backoff = @Backoff(delay = 1))
+	@Retryable(value = { RetryableException.class }, maxAttempts = 2, backoff = @Backoff(delay = 1))
 	public <T> T getForEntity(Class<T> clazz, String url, Object... uriVariables) {
+		String token = getToken();
 		try {
-			ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.GET,
-					constructHttpEntityWithRequestHeaders(getToken()), String.class, uriVariables);
-			JavaType javaType = objectMapper.getTypeFactory().constructType(clazz);
-			return readValue(response, javaType);
+			return get(getJavaType(clazz), token, url, uriVariables);
 		} catch (HttpClientErrorException exception) {
-			exceptionHandler(exception, url);
+			exceptionHandler(exception, url, token);
 		}
 		return null;
 	}
 
+	/**
+	 * Get a parametric entity with an explicit backend token, bypassing the response cache. Used by
+	 * background jobs which run without a current user.
+	 *
+	 * @param token        the backend token
+	 * @param clazz        the entity class
+	 * @param contentClass the content class
+	 * @param url          the url template
+	 * @param uriVariables the url variables
+	 * @return the entity, null if no data
+	 * @throws HttpClientErrorException if the backend rejects the request
+	 */
+	@SuppressWarnings("unchecked")
+	public <T, R> T getForEntityWithToken(String token, Class<T> clazz, Class<R> contentClass, String url,
+			Object... uriVariables) {
+		URI uri = restTemplate.getUriTemplateHandler().expand(url, uriVariables);
+		BackendRequest request = new BackendRequest(uri, token, getJavaType(clazz, contentClass));
+		BackendResponseCache.Entry entry = circuitBreaker.execute(request.getFamily(),
+				() -> retrier.execute(request.getFamily(), () -> fetch(request, null)));
+		return entry != null ? (T) entry.getValue() : null;
+	}
+
+	/**
+	 * Perform a GET request through the response cache, concurrent identical misses share one
+	 * outbound call guarded by the circuit breaker of the endpoint family. Transient failures are
+	 * retried and slow attempts hedged, as GETs are idempotent.
+	 *
+	 * @param javaType     the type to decode the response to
+	 * @param token        the backend token
+	 * @param url          the url template
+	 * @param uriVariables the url variables
+	 * @return the decoded response, null if no data
+	 */
+	@SuppressWarnings("unchecked")
+	private <T> T get(JavaType javaType, String token, String url, Object... uriVariables) {
+		URI uri = restTemplate.getUriTemplateHandler().expand(url, uriVariables);
+		BackendRequest request = new BackendRequest(uri, token, javaType);
+		return (T) responseCache.get(request,
+				(key, previous) -> requestCoalescer.execute(key,
+						() -> circuitBreaker.execute(key.getFamily(),
+								() -> retrier.execute(key.getFamily(), () -> fetch(key, previous)))));
+	}
+
+	/**
+	 * Fetch a GET response from the backend, revalidating the previous response with ETag and
+	 * If-Modified-Since if given.
+	 *
+	 * @param request  the request
+	 * @param previous the previously cached response, null if none
+	 * @return the response, null if no data
+	 */
+	private BackendResponseCache.Entry fetch(BackendRequest request, BackendResponseCache.Entry previous) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
+		headers.add("Authorization", request.getToken());
+		if (previous != null) {
+			if (previous.getEtag() != null) {
+				headers.setIfNoneMatch(previous.getEtag());
+			}
+			if (previous.getLastModified() >= 0) {
+				headers.setIfModifiedSince(previous.getLastModified());
+			}
+		}
+
+		ResponseEntity<Object> response = exchange(request.getUri(), HttpMethod.GET, new HttpEntity<>(headers),
+				request.getJavaType());
+		if (previous != null && response.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+			return previous.revalidated();
+		}
+
+		Object value = response.getBody();
+		if (value == null) {
+			return null;
+		}
+		return new BackendResponseCache.Entry(value, response.getHeaders().getETag(),
+				response.getHeaders().getLastModified());
+	}
+
 	@Retryable(value = { RetryableException.class }, maxAttempts = 1, backoff = @Backoff(delay = 1))
 	public <T, R> T postForEntity(Class<T> clazz, String url, R body, Object... uriVariables) {
+		String token = getToken();
 		try {
-			ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.POST,
-					constructHttpEntityWithRequestHeaders(getToken(), body), String.class, uriVariables);
-			JavaType javaType = objectMapper.getTypeFactory().constructType(clazz);
-			return readValue(response, javaType);
+			HttpEntity<R> entity = constructHttpEntityWithRequestHeaders(token, body);
+			ResponseEntity<T> response = circuitBreaker.execute(BackendRequest.resolveFamily(url),
+					() -> exchange(url, HttpMethod.POST, entity, getJavaType(clazz), uriVariables));
+			return response.getBody();
 		} catch (HttpClientErrorException exception) {
-			exceptionHandler(exception, url);
+			exceptionHandler(exception, url, token);
 		}
 		return null;
 	}
 
 	@Retryable(value = { RetryableException.class }, maxAttempts = 1, backoff = @Backoff(delay = 1))
 	public <T, R> T putForEntity(Class<T> clazz, String url, R body, Object... uriVariables) {
+		String token = getToken();
 		try {
-			ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.PUT,
-					constructHttpEntityWithRequestHeaders(getToken(), body), String.class, uriVariables);
-			JavaType javaType = objectMapper.getTypeFactory().constructType(clazz);
-			return readValue(response, javaType);
+			HttpEntity<R> entity = constructHttpEntityWithRequestHeaders(token, body);
+			ResponseEntity<T> response = circuitBreaker.execute(BackendRequest.resolveFamily(url),
+					() -> exchange(url, HttpMethod.PUT, entity, getJavaType(clazz), uriVariables));
+			return response.getBody();
 		} catch (HttpClientErrorException exception) {
-			exceptionHandler(exception, url);
+			exceptionHandler(exception, url, token);
 		}
 		return null;
 	}
 
 	@Retryable(value = { RetryableException.class }, maxAttempts = 1, backoff = @Backoff(delay = 1))
 	public void delete(String url, Object... uriVariables) {
+		String token = getToken();
 		try {
-			restTemplate.exchange(url, HttpMethod.DELETE, constructHttpEntityWithRequestHeaders(getToken()),
-					String.class, uriVariables);
+			HttpEntity<String> entity = constructHttpEntityWithRequestHeaders(token);
+			circuitBreaker.execute(BackendRequest.resolveFamily(url),
+					() -> restTemplate.exchange(url, HttpMethod.DELETE, entity, Void.class, uriVariables));
 		} catch (HttpClientErrorException exception) {
-			exceptionHandler(exception, url);
+			exceptionHandler(exception, url, token);
 		}
 	}
 }
@@ -0,0 +1,328 @@
+package com.doppler.services;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import com.doppler.exceptions.BackendUnavailableException;
+import com.doppler.services.config.BackendCircuitBreakerConfiguration;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * The circuit breaker and bulkhead guarding backend calls per endpoint family, so that a degraded
+ * backend fails fast instead of holding request threads. Cached GETs fall back to their stale
+ * response while the backend is unavailable, see BackendResponseCache.
+ */
+@Component
+public class BackendCircuitBreaker {
+
+  /**
+   * The circuit states, the ordinal is published as the state gauge value.
+   */
+  enum State {
+    CLOSED, HALF_OPEN, OPEN
+  }
+
+  /**
+   * The circuit breaker configuration.
+   */
+  private final BackendCircuitBreakerConfiguration configuration;
+
+  /**
+   * The meter registry.
+   */
+  private final MeterRegistry meterRegistry;
+
+  /**
+   * The circuits per endpoint family.
+   */
+  private final Map<String, Circuit> circuits = new ConcurrentHashMap<>();
+
+  /**
+   * Create a new instance.
+   *
+   * @param configuration the circuit breaker configuration
+   * @param meterRegistry the meter registry
+   */
+  public BackendCircuitBreaker(BackendCircuitBreakerConfiguration configuration,
+      MeterRegistry meterRegistry) {
+    this.configuration = configuration;
+    this.meterRegistry = meterRegistry;
+  }
+
+  /**
+   * Execute a backend call through the circuit and bulkhead of its endpoint family.
+   *
+   * @param family the endpoint family
+   * @param call the backend call
+   * @return the call result
+   * @throws BackendUnavailableException if the circuit is open or the bulkhead is full
+   * @throws RuntimeException the exception thrown by the call
+   */
+  public <T> T execute(String family, Supplier<T> call) {
+    Circuit circuit = circuits.computeIfAbsent(family, this::createCircuit);
+    if (!circuit.tryAcquirePermission()) {
+      throw reject(family, "open");
+    }
+
+    if (!acquire(circuit.bulkhead)) {
+      circuit.releasePermission();
+      throw reject(family, "bulkhead");
+    }
+
+    try {
+      T result = call.get();
+      circuit.onSuccess();
+      return result;
+    } catch (RuntimeException ex) {
+      if (isFailure(ex)) {
+        circuit.onFailure();
+      } else {
+        circuit.onSuccess();
+      }
+      throw ex;
+    } finally {
+      circuit.bulkhead.release();
+    }
+  }
+
+  /**
+   * Create the circuit of an endpoint family, and publish its metrics.
+   *
+   * @param family the endpoint family
+   * @return the circuit
+   */
+  private Circuit createCircuit(String family) {
+    Circuit circuit = new Circuit(configuration);
+    Gauge.builder("backend.circuit.state", circuit, value -> value.getState().ordinal())
+        .tag("family", family)
+        .description("The circuit state of the backend endpoint family, 0 closed, 1 half-open, 2 open")
+        .register(meterRegistry);
+    Gauge.builder("backend.bulkhead.available", circuit.bulkhead, Semaphore::availablePermits)
+        .tag("family", family)
+        .description("The number of free concurrent call slots of the backend endpoint family")
+        .register(meterRegistry);
+    return circuit;
+  }
+
+  /**
+   * Acquire a bulkhead slot, waiting at most the configured duration.
+   *
+   * @param bulkhead the bulkhead
+   * @return true if acquired
+   */
+  private boolean acquire(Semaphore bulkhead) {
+    try {
+      return bulkhead.tryAcquire(configuration.getMaxWaitInMillis(), TimeUnit.MILLISECONDS);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  /**
+   * Count a rejected call.
+   *
+   * @param family the endpoint family
+   * @param reason the rejection reason
+   * @return the exception to throw
+   */
+  private BackendUnavailableException reject(String family, String reason) {
+    meterRegistry.counter("backend.circuit.rejected", "family", family, "reason", reason)
+        .increment();
+    return new BackendUnavailableException("Backend " + family + " is unavailable");
+  }
+
+  /**
+   * Check whether an exception means the backend is unhealthy. Client errors (4xx) mean the
+   * backend is up and are not failures.
+   *
+   * @param ex the exception
+   * @return true if the exception is a failure
+   */
+  private static boolean isFailure(RuntimeException ex) {
+    return ex instanceof ResourceAccessException || ex instanceof HttpServerErrorException;
+  }
+
+  /**
+   * The circuit of an endpoint family, the failure rate is computed over a sliding window of the
+   * most recent calls.
+   */
+  static class Circuit {
+
+    /**
+     * The circuit breaker configuration.
+     */
+    private final BackendCircuitBreakerConfiguration configuration;
+
+    /**
+     * The bulkhead bounding the concurrent calls.
+     */
+    private final Semaphore bulkhead;
+
+    /**
+     * The outcomes of the most recent calls, true for failures.
+     */
+    private final boolean[] window;
+
+    /**
+     * The next window position.
+     */
+    private int position;
+
+    /**
+     * The number of recorded calls in the window.
+     */
+    private int recorded;
+
+    /**
+     * The number of failures in the window.
+     */
+    private int failures;
+
+    /**
+     * The state.
+     */
+    private State state = State.CLOSED;
+
+    /**
+     * The time the circuit opened at.
+     */
+    private long openedAt;
+
+    /**
+     * The number of trial calls let through while half-open.
+     */
+    private int trialCalls;
+
+    /**
+     * The number of successful trial calls while half-open.
+     */
+    private int trialSuccesses;
+
+    /**
+     * Create a new instance.
+     *
+     * @param configuration the circuit breaker configuration
+     */
+    Circuit(BackendCircuitBreakerConfiguration configuration) {
+      this.configuration = configuration;
+      this.bulkhead = new Semaphore(configuration.getMaxConcurrentCalls());
+      this.window = new boolean[configuration.getSlidingWindowSize()];
+    }
+
+    /**
+     * Get the state.
+     *
+     * @return the state
+     */
+    synchronized State getState() {
+      return state;
+    }
+
+    /**
+     * Check whether a call may be made, an open circuit becomes half-open once the open duration
+     * elapsed and then lets a limited number of trial calls through.
+     *
+     * @return true if the call may be made
+     */
+    synchronized boolean tryAcquirePermission() {
+      if (state == State.OPEN) {
+        if (System.currentTimeMillis() - openedAt < configuration.getOpenDurationInMillis()) {
+          return false;
+        }
+        state = State.HALF_OPEN;
+        trialCalls = 0;
+        trialSuccesses = 0;
+      }
+      if (state == State.HALF_OPEN) {
+        if (trialCalls >= configuration.getHalfOpenCalls()) {
+          return false;
+        }
+        trialCalls++;
+      }
+      return true;
+    }
+
+    /**
+     * Give back a permission which was not used to make a call.
+     */
+    synchronized void releasePermission() {
+      if (state == State.HALF_OPEN && trialCalls > 0) {
+        trialCalls--;
+      }
+    }
+
+    /**
+     * Record a successful call.
+     */
+    synchronized void onSuccess() {
+      if (state == State.HALF_OPEN) {
+        if (++trialSuccesses >= configuration.getHalfOpenCalls()) {
+          state = State.CLOSED;
+          resetWindow();
+        }
+      } else if (state == State.CLOSED) {
+        record(false);
+      }
+    }
+
+    /**
+     * Record a failed call.
+     */
+    synchronized void onFailure() {
+      if (state == State.HALF_OPEN) {
+        open();
+      } else if (state == State.CLOSED) {
+        record(true);
+        if (recorded >= configuration.getMinimumCalls()
+            && failures * 100 >= configuration.getFailureRateThreshold() * recorded) {
+          open();
+        }
+      }
+    }
+
+    /**
+     * Record a call outcome in the sliding window.
+     *
+     * @param failure true if the call failed
+     */
+    private void record(boolean failure) {
+      if (recorded == window.length) {
+        if (window[position]) {
+          failures--;
+        }
+      } else {
+        recorded++;
+      }
+      window[position] = failure;
+      if (failure) {
+        failures++;
+      }
+      position = (position + 1) % window.length;
+    }
+
+    /**
+     * Open the circuit.
+     */
+    private void open() {
+      state = State.OPEN;
+      openedAt = System.currentTimeMillis();
+      resetWindow();
+    }
+
+    /**
+     * Clear the sliding window.
+     */
+    private void resetWindow() {
+      position = 0;
+      recorded = 0;
+      failures = 0;
+    }
+  }
+}
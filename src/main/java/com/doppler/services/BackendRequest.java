@@ -0,0 +1,88 @@
+package com.doppler.services;
+
+import java.net.URI;
+import com.doppler.util.ApiConstants;
+import com.fasterxml.jackson.databind.JavaType;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * An idempotent GET request to the remote backend, used as the key for caching and de-duplicating
+ * backend calls.
+ */
+@Getter
+@ToString(exclude = {"token"})
+@EqualsAndHashCode(exclude = {"family"})
+public class BackendRequest {
+
+  /**
+   * The family used when the URI is not a backend endpoint.
+   */
+  private static final String UNKNOWN_FAMILY = "other";
+
+  /**
+   * The expanded request URI.
+   */
+  private final URI uri;
+
+  /**
+   * The backend token, i.e. the authorization scope of the request.
+   */
+  private final String token;
+
+  /**
+   * The type the response body gets decoded to.
+   */
+  private final JavaType javaType;
+
+  /**
+   * The endpoint family, i.e. the first path segment after the backend base URI, e.g. "events".
+   */
+  private final String family;
+
+  /**
+   * Create a new instance.
+   *
+   * @param uri the expanded request URI
+   * @param token the backend token
+   * @param javaType the type the response body gets decoded to
+   */
+  public BackendRequest(URI uri, String token, JavaType javaType) {
+    this.uri = uri;
+    this.token = token;
+    this.javaType = javaType;
+    this.family = resolveFamily(uri);
+  }
+
+  /**
+   * Resolve the endpoint family of a backend URI.
+   *
+   * @param uri the URI
+   * @return the endpoint family
+   */
+  public static String resolveFamily(URI uri) {
+    return resolveFamily(uri.toString());
+  }
+
+  /**
+   * Resolve the endpoint family of a backend URL or URL template.
+   *
+   * @param value the URL or URL template
+   * @return the endpoint family
+   */
+  public static String resolveFamily(String value) {
+    if (!value.startsWith(ApiConstants.BASE_URI)) {
+      return UNKNOWN_FAMILY;
+    }
+
+    String path = value.substring(ApiConstants.BASE_URI.length());
+    int start = path.startsWith("/") ? 1 : 0;
+    int end = start;
+    while (end < path.length() && "/?#".indexOf(path.charAt(end)) < 0) {
+      end++;
+    }
+
+    return end > start ? path.substring(start, end) : UNKNOWN_FAMILY;
+  }
+}
@@ -0,0 +1,100 @@
+package com.doppler.services;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Component;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * The single-flight layer for backend GETs: concurrent identical requests (same URL, auth scope and
+ * response type) share one outbound call and one decoded result.
+ */
+@Component
+public class BackendRequestCoalescer {
+
+  /**
+   * The calls in flight.
+   */
+  private final Map<BackendRequest, CompletableFuture<Object>> inFlight =
+      new ConcurrentHashMap<>();
+
+  /**
+   * The number of requests which performed the outbound call.
+   */
+  private final AtomicLong leaders = new AtomicLong();
+
+  /**
+   * The number of requests which joined a call already in flight.
+   */
+  private final AtomicLong followers = new AtomicLong();
+
+  /**
+   * Create a new instance.
+   *
+   * @param meterRegistry the meter registry
+   */
+  public BackendRequestCoalescer(MeterRegistry meterRegistry) {
+    Gauge.builder("backend.requests.in-flight", inFlight, Map::size)
+        .description("The number of distinct backend GETs in flight").register(meterRegistry);
+    FunctionCounter.builder("backend.requests.coalesced", followers, AtomicLong::get)
+        .description("The number of backend GETs served by a call already in flight")
+        .register(meterRegistry);
+    Gauge.builder("backend.requests.coalescing.ratio", this, BackendRequestCoalescer::getRatio)
+        .description("The ratio of backend GETs served by a call already in flight")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Execute the call of a request, or wait for the identical call already in flight.
+   *
+   * @param request the request
+   * @param call the outbound call
+   * @return the call result
+   * @throws RuntimeException the exception thrown by the call
+   */
+  @SuppressWarnings("unchecked")
+  public <T> T execute(BackendRequest request, Supplier<T> call) {
+    CompletableFuture<Object> future = new CompletableFuture<>();
+    CompletableFuture<Object> existing = inFlight.putIfAbsent(request, future);
+
+    if (existing != null) {
+      followers.incrementAndGet();
+      try {
+        return (T) existing.join();
+      } catch (CompletionException ex) {
+        if (ex.getCause() instanceof RuntimeException) {
+          throw (RuntimeException) ex.getCause();
+        }
+        throw ex;
+      }
+    }
+
+    leaders.incrementAndGet();
+    try {
+      T result = call.get();
+      future.complete(result);
+      return result;
+    } catch (RuntimeException ex) {
+      future.completeExceptionally(ex);
+      throw ex;
+    } finally {
+      inFlight.remove(request, future);
+    }
+  }
+
+  /**
+   * Get the ratio of requests served by a call already in flight.
+   *
+   * @return the coalescing ratio
+   */
+  private double getRatio() {
+    long total = leaders.get() + followers.get();
+    return total == 0 ? 0 : (double) followers.get() / total;
+  }
+}
@@ -0,0 +1,277 @@
+package com.doppler.services;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiFunction;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import com.doppler.exceptions.BackendUnavailableException;
+import com.doppler.services.config.BackendCacheConfiguration;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.Getter;
+
+/**
+ * The bounded, per-URL cache of backend GET responses. Expired entries are served while they get
+ * revalidated in the background with conditional requests, and kept a while longer as the fallback
+ * of the families cached while the backend is unavailable.
+ */
+@Component
+public class BackendResponseCache {
+
+  /**
+   * The logger.
+   */
+  private static final Logger LOGGER = LoggerFactory.getLogger(BackendResponseCache.class);
+
+  /**
+   * The number of background refresh threads.
+   */
+  private static final int REFRESH_THREADS = 4;
+
+  /**
+   * The maximum number of pending background refreshes.
+   */
+  private static final int REFRESH_QUEUE_SIZE = 100;
+
+  /**
+   * The backend cache configuration.
+   */
+  @Autowired
+  private BackendCacheConfiguration configuration;
+
+  /**
+   * The meter registry.
+   */
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  /**
+   * The caches per endpoint family.
+   */
+  private final Map<String, Cache<BackendRequest, Entry>> caches = new ConcurrentHashMap<>();
+
+  /**
+   * The executor refreshing stale entries, refreshes are dropped when it is saturated.
+   */
+  private final ThreadPoolExecutor refreshExecutor = new ThreadPoolExecutor(REFRESH_THREADS,
+      REFRESH_THREADS, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(REFRESH_QUEUE_SIZE),
+      new CustomizableThreadFactory("backend-cache-refresh-"),
+      new ThreadPoolExecutor.DiscardPolicy());
+
+  /**
+   * Get the cached response of a request, fetching it if absent. Stale responses are returned
+   * immediately and refreshed in the background. Responses past the stale-while-revalidate window
+   * are fetched again, but still returned if the backend is unavailable.
+   *
+   * @param request the request
+   * @param fetcher the function fetching the response, given the request and the previously
+   *        cached response (null if none) to revalidate, expected to de-duplicate concurrent calls
+   * @return the response value, null if the backend returned no data
+   */
+  public Object get(BackendRequest request, BiFunction<BackendRequest, Entry, Entry> fetcher) {
+    long ttl = getTtlInMillis(request.getFamily());
+    if (ttl <= 0) {
+      Entry entry = fetcher.apply(request, null);
+      return entry == null ? null : entry.getValue();
+    }
+
+    // Fetch outside of the cache so that a slow backend does not block other keys
+    Cache<BackendRequest, Entry> cache = getCache(request.getFamily());
+    Entry entry = cache.getIfPresent(request);
+    if (entry == null
+        || entry.isStale(ttl + configuration.getStaleWhileRevalidateInSeconds() * 1000)) {
+      Entry fetched;
+      try {
+        fetched = fetcher.apply(request, entry);
+      } catch (BackendUnavailableException | ResourceAccessException
+          | HttpServerErrorException ex) {
+        meterRegistry.counter("backend.cache.fallbacks", "family", request.getFamily(), "result",
+            entry != null ? "hit" : "miss").increment();
+        if (entry == null) {
+          throw ex;
+        }
+        return entry.getValue();
+      }
+      if (fetched == null) {
+        cache.invalidate(request);
+        return null;
+      }
+      cache.put(request, fetched);
+      return fetched.getValue();
+    }
+
+    if (entry.isStale(ttl) && entry.startRefresh()) {
+      refreshExecutor.execute(() -> refresh(cache, request, entry, fetcher));
+    }
+
+    return entry.getValue();
+  }
+
+  /**
+   * Get the last cached response of a request, regardless of its age.
+   *
+   * @param request the request
+   * @return the cached response, null if none
+   */
+  public Entry getIfPresent(BackendRequest request) {
+    Cache<BackendRequest, Entry> cache = caches.get(request.getFamily());
+    return cache == null ? null : cache.getIfPresent(request);
+  }
+
+  /**
+   * Stop the background refreshes.
+   */
+  @PreDestroy
+  public void shutdown() {
+    refreshExecutor.shutdownNow();
+  }
+
+  /**
+   * Revalidate a stale entry and replace it in the cache.
+   *
+   * @param cache the cache
+   * @param request the request
+   * @param entry the stale entry
+   * @param fetcher the function fetching the response
+   */
+  private void refresh(Cache<BackendRequest, Entry> cache, BackendRequest request, Entry entry,
+      BiFunction<BackendRequest, Entry, Entry> fetcher) {
+    try {
+      Entry refreshed = fetcher.apply(request, entry);
+      if (refreshed != null) {
+        meterRegistry.counter("backend.cache.revalidations", "cache", request.getFamily(),
+            "result", refreshed.getValue() == entry.getValue() ? "not_modified" : "modified")
+            .increment();
+        cache.put(request, refreshed);
+      }
+    } catch (RuntimeException ex) {
+      LOGGER.info("Failed to refresh {}: {}", request, ex.getMessage());
+    } finally {
+      entry.endRefresh();
+    }
+  }
+
+  /**
+   * Get or create the cache of an endpoint family.
+   *
+   * @param family the endpoint family
+   * @return the cache
+   */
+  private Cache<BackendRequest, Entry> getCache(String family) {
+    return caches.computeIfAbsent(family, key -> {
+      long expireAfter = getTtlInMillis(key) + (configuration.getStaleWhileRevalidateInSeconds()
+          + configuration.getStaleIfErrorInSeconds()) * 1000;
+      Cache<BackendRequest, Entry> cache = Caffeine.newBuilder() //
+          .maximumSize(configuration.getMaximumSize()) //
+          .expireAfterWrite(expireAfter, TimeUnit.MILLISECONDS) //
+          .recordStats() //
+          .build();
+
+      return CaffeineCacheMetrics.monitor(meterRegistry, cache, "backend." + key);
+    });
+  }
+
+  /**
+   * Get the configured time-to-live of an endpoint family.
+   *
+   * @param family the endpoint family
+   * @return the time-to-live in milliseconds, 0 if not cached
+   */
+  private long getTtlInMillis(String family) {
+    Long ttl = configuration.getTtlInSeconds().get(family);
+    return ttl == null ? 0 : ttl * 1000;
+  }
+
+  /**
+   * The cached backend response.
+   */
+  @Getter
+  public static class Entry {
+
+    /**
+     * The decoded response value.
+     */
+    private final Object value;
+
+    /**
+     * The ETag response header, null if absent.
+     */
+    private final String etag;
+
+    /**
+     * The Last-Modified response header in milliseconds, -1 if absent.
+     */
+    private final long lastModified;
+
+    /**
+     * The time the response was fetched or last revalidated.
+     */
+    private final long fetchedAt = System.currentTimeMillis();
+
+    /**
+     * The flag to indicate a background refresh is in progress.
+     */
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    /**
+     * Create a new instance.
+     *
+     * @param value the decoded response value
+     * @param etag the ETag response header
+     * @param lastModified the Last-Modified response header
+     */
+    public Entry(Object value, String etag, long lastModified) {
+      this.value = value;
+      this.etag = etag;
+      this.lastModified = lastModified;
+    }
+
+    /**
+     * Create a fresh copy of this entry after the backend confirmed it's not modified.
+     *
+     * @return the revalidated entry
+     */
+    public Entry revalidated() {
+      return new Entry(value, etag, lastModified);
+    }
+
+    /**
+     * Check whether the entry exceeded its time-to-live.
+     *
+     * @param ttl the time-to-live in milliseconds
+     * @return true if stale, otherwise false
+     */
+    boolean isStale(long ttl) {
+      return System.currentTimeMillis() - fetchedAt > ttl;
+    }
+
+    /**
+     * Mark the entry as being refreshed.
+     *
+     * @return true if no refresh was in progress, otherwise false
+     */
+    boolean startRefresh() {
+      return refreshing.compareAndSet(false, true);
+    }
+
+    /**
+     * Mark the entry as no longer being refreshed.
+     */
+    void endRefresh() {
+      refreshing.set(false);
+    }
+  }
+}
@@ -0,0 +1,377 @@
+package com.doppler.services;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import javax.annotation.PreDestroy;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import com.doppler.services.config.BackendRetryConfiguration;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+
+/**
+ * The retry policy of idempotent backend GETs: transient failures are retried with jittered
+ * exponential backoff, and slow attempts are hedged with a second request after the latency
+ * percentile of the endpoint family. Retries and hedges are bounded by a retry budget so that they
+ * cannot amplify the load of a degraded backend.
+ */
+@Component
+public class BackendRetrier {
+
+  /**
+   * The retry configuration.
+   */
+  private final BackendRetryConfiguration configuration;
+
+  /**
+   * The meter registry.
+   */
+  private final MeterRegistry meterRegistry;
+
+  /**
+   * The retry budget shared by all endpoint families.
+   */
+  private final RetryBudget budget;
+
+  /**
+   * The attempt latencies per endpoint family.
+   */
+  private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+  /**
+   * The executor racing the attempts of hedged GETs.
+   */
+  private final ThreadPoolExecutor hedgeExecutor;
+
+  /**
+   * Create a new instance.
+   *
+   * @param configuration the retry configuration
+   * @param meterRegistry the meter registry
+   */
+  public BackendRetrier(BackendRetryConfiguration configuration, MeterRegistry meterRegistry) {
+    this.configuration = configuration;
+    this.meterRegistry = meterRegistry;
+    this.budget = new RetryBudget(configuration.getBudgetRatio(),
+        configuration.getBudgetMinRetriesPerSecond(), configuration.getBudgetMaxRetries());
+    this.hedgeExecutor = new ThreadPoolExecutor(0, configuration.getHedgeThreads(), 60,
+        TimeUnit.SECONDS, new SynchronousQueue<>(), new CustomizableThreadFactory("backend-hedge-"));
+
+    Gauge.builder("backend.retry.budget", budget, RetryBudget::getAvailable)
+        .description("The number of retries currently allowed by the retry budget")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Execute an idempotent backend GET, retrying transient failures and hedging slow attempts.
+   *
+   * @param family the endpoint family
+   * @param call the backend call, must be idempotent
+   * @return the call result
+   * @throws RuntimeException the exception thrown by the last attempt
+   */
+  public <T> T execute(String family, Supplier<T> call) {
+    budget.deposit();
+    Timer timer = timers.computeIfAbsent(family, this::createTimer);
+
+    for (int attempt = 1;; attempt++) {
+      try {
+        return hedge(family, timer, call);
+      } catch (RuntimeException ex) {
+        if (attempt >= configuration.getMaxAttempts() || !isRetryable(ex)
+            || !budget.tryWithdraw()) {
+          throw ex;
+        }
+        meterRegistry.counter("backend.retry.retries", "family", family).increment();
+        backoff(attempt);
+      }
+    }
+  }
+
+  /**
+   * Perform an attempt, sending a second request if the first one is slower than the hedge
+   * delay. The first successful response wins.
+   *
+   * @param family the endpoint family
+   * @param timer the latency timer of the endpoint family
+   * @param call the backend call
+   * @return the call result
+   */
+  private <T> T hedge(String family, Timer timer, Supplier<T> call) {
+    Supplier<T> timedCall = () -> timer.record(call);
+    long hedgeDelay = getHedgeDelay(timer);
+    if (hedgeDelay < 0) {
+      return timedCall.get();
+    }
+
+    CompletableFuture<T> primary;
+    try {
+      primary = CompletableFuture.supplyAsync(timedCall, hedgeExecutor);
+    } catch (RejectedExecutionException ex) {
+      return timedCall.get();
+    }
+
+    try {
+      return primary.get(hedgeDelay, TimeUnit.MILLISECONDS);
+    } catch (TimeoutException ex) {
+      // Slower than usual, hedge below
+    } catch (ExecutionException ex) {
+      throw unwrap(ex.getCause());
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for the backend", ex);
+    }
+
+    if (!budget.tryWithdraw()) {
+      return join(primary);
+    }
+
+    CompletableFuture<T> secondary;
+    try {
+      secondary = CompletableFuture.supplyAsync(timedCall, hedgeExecutor);
+    } catch (RejectedExecutionException ex) {
+      return join(primary);
+    }
+    meterRegistry.counter("backend.retry.hedges", "family", family).increment();
+
+    return join(firstSuccessful(primary, secondary));
+  }
+
+  /**
+   * Get the hedge delay of an endpoint family.
+   *
+   * @param timer the latency timer of the endpoint family
+   * @return the delay in milliseconds, negative if the GET must not be hedged
+   */
+  private long getHedgeDelay(Timer timer) {
+    if (!configuration.isHedgingEnabled() || timer.count() < configuration.getHedgeMinSamples()) {
+      return -1;
+    }
+    for (ValueAtPercentile value : timer.takeSnapshot().percentileValues()) {
+      if (value.percentile() == configuration.getHedgePercentile()) {
+        return Math.max(configuration.getMinHedgeDelayInMillis(),
+            (long) value.value(TimeUnit.MILLISECONDS));
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Create the latency timer of an endpoint family.
+   *
+   * @param family the endpoint family
+   * @return the timer
+   */
+  private Timer createTimer(String family) {
+    return Timer.builder("backend.requests.latency").tag("family", family)
+        .publishPercentiles(configuration.getHedgePercentile())
+        .description("The latency of backend GET attempts").register(meterRegistry);
+  }
+
+  /**
+   * Wait the jittered exponential backoff of an attempt.
+   *
+   * @param attempt the failed attempt number
+   */
+  private void backoff(int attempt) {
+    double backoff = configuration.getInitialBackoffInMillis()
+        * Math.pow(configuration.getBackoffMultiplier(), attempt - 1);
+    long maxBackoff = (long) Math.min(configuration.getMaxBackoffInMillis(), backoff);
+    if (maxBackoff <= 0) {
+      return;
+    }
+
+    // Full jitter, spreads the retries of concurrent failures
+    try {
+      Thread.sleep(ThreadLocalRandom.current().nextLong(maxBackoff + 1));
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting to retry", ex);
+    }
+  }
+
+  /**
+   * Check whether a failure is transient and worth retrying.
+   *
+   * @param ex the exception
+   * @return true if retryable
+   */
+  private static boolean isRetryable(RuntimeException ex) {
+    if (ex instanceof ResourceAccessException) {
+      return true;
+    }
+    if (ex instanceof HttpServerErrorException) {
+      HttpStatus status = ((HttpServerErrorException) ex).getStatusCode();
+      return status == HttpStatus.BAD_GATEWAY || status == HttpStatus.SERVICE_UNAVAILABLE
+          || status == HttpStatus.GATEWAY_TIMEOUT;
+    }
+    return false;
+  }
+
+  /**
+   * Create the future completed by the first successful attempt, or by the last failure.
+   *
+   * @param first the first attempt
+   * @param second the second attempt
+   * @return the future
+   */
+  private static <T> CompletableFuture<T> firstSuccessful(CompletableFuture<T> first,
+      CompletableFuture<T> second) {
+    CompletableFuture<T> result = new CompletableFuture<>();
+    AtomicInteger failures = new AtomicInteger();
+    for (CompletableFuture<T> attempt : Arrays.asList(first, second)) {
+      attempt.whenComplete((value, ex) -> {
+        if (ex == null) {
+          result.complete(value);
+        } else if (failures.incrementAndGet() == 2) {
+          result.completeExceptionally(ex);
+        }
+      });
+    }
+    return result;
+  }
+
+  /**
+   * Wait for an attempt, rethrowing its exception as-is.
+   *
+   * @param future the attempt
+   * @return the result
+   */
+  private static <T> T join(CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (CompletionException ex) {
+      throw unwrap(ex.getCause());
+    }
+  }
+
+  /**
+   * Unwrap the exception of an attempt.
+   *
+   * @param cause the exception
+   * @return the runtime exception to rethrow
+   */
+  private static RuntimeException unwrap(Throwable cause) {
+    if (cause instanceof CompletionException && cause.getCause() != null) {
+      cause = cause.getCause();
+    }
+    if (cause instanceof RuntimeException) {
+      return (RuntimeException) cause;
+    }
+    if (cause instanceof Error) {
+      throw (Error) cause;
+    }
+    return new IllegalStateException(cause);
+  }
+
+  /**
+   * Shutdown the hedge executor.
+   */
+  @PreDestroy
+  public void shutdown() {
+    hedgeExecutor.shutdownNow();
+  }
+
+  /**
+   * The retry budget: each request deposits a fraction of a retry, and a minimum number of retries
+   * per second is always refilled.
+   */
+  static class RetryBudget {
+
+    /**
+     * The fraction of a retry deposited per request.
+     */
+    private final double ratio;
+
+    /**
+     * The number of retries refilled per second.
+     */
+    private final double minPerSecond;
+
+    /**
+     * The maximum number of retries.
+     */
+    private final double max;
+
+    /**
+     * The number of retries currently allowed.
+     */
+    private double available;
+
+    /**
+     * The time of the last refill in milliseconds.
+     */
+    private long lastRefill = System.currentTimeMillis();
+
+    /**
+     * Create a new instance.
+     *
+     * @param ratio the fraction of a retry deposited per request
+     * @param minPerSecond the number of retries refilled per second
+     * @param max the maximum number of retries
+     */
+    RetryBudget(double ratio, double minPerSecond, double max) {
+      this.ratio = ratio;
+      this.minPerSecond = minPerSecond;
+      this.max = max;
+      this.available = max;
+    }
+
+    /**
+     * Deposit the share of a request.
+     */
+    synchronized void deposit() {
+      available = Math.min(max, available + ratio);
+    }
+
+    /**
+     * Withdraw a retry.
+     *
+     * @return true if the retry is allowed
+     */
+    synchronized boolean tryWithdraw() {
+      refill();
+      if (available < 1) {
+        return false;
+      }
+      available--;
+      return true;
+    }
+
+    /**
+     * Get the number of retries currently allowed.
+     *
+     * @return the number of retries
+     */
+    synchronized double getAvailable() {
+      refill();
+      return available;
+    }
+
+    /**
+     * Refill the minimum retries per second elapsed since the last refill.
+     */
+    private void refill() {
+      long now = System.currentTimeMillis();
+      available = Math.min(max, available + (now - lastRefill) * minPerSecond / 1000);
+      lastRefill = now;
+    }
+  }
+}
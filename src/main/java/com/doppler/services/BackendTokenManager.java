@@ -0,0 +1,261 @@
+package com.doppler.services;
+
+import java.io.IOException;
+import java.util.Base64;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import com.doppler.entities.User;
+import com.doppler.exceptions.BackendUnavailableException;
+import com.doppler.repositories.UserRepository;
+import com.doppler.services.config.BackendTokenConfiguration;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * The manager of the backend tokens of the users. Tokens are kept in memory, refreshed in the
+ * background shortly before they expire, and at most one backend login is in flight per user.
+ */
+@Component
+public class BackendTokenManager {
+
+  /**
+   * The logger.
+   */
+  private static final Logger LOGGER = LoggerFactory.getLogger(BackendTokenManager.class);
+
+  /**
+   * The backend login service.
+   */
+  @Autowired
+  private LoginRestService loginService;
+
+  /**
+   * The user repository.
+   */
+  @Autowired
+  private UserRepository userRepository;
+
+  /**
+   * The cache of the authenticated users.
+   */
+  @Autowired
+  private AuthenticationCache authenticationCache;
+
+  /**
+   * The object mapper used to read the token expiry.
+   */
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  /**
+   * The executor performing background refreshes.
+   */
+  @Autowired
+  @Qualifier("backendThreadPool")
+  private Executor executor;
+
+  /**
+   * The backend token configuration.
+   */
+  private final BackendTokenConfiguration configuration;
+
+  /**
+   * The current tokens per user id.
+   */
+  private final Cache<UUID, BackendToken> tokens;
+
+  /**
+   * The backend logins in flight per user id.
+   */
+  private final Map<UUID, CompletableFuture<BackendToken>> refreshes = new ConcurrentHashMap<>();
+
+  /**
+   * Create a new instance.
+   *
+   * @param configuration the backend token configuration
+   */
+  public BackendTokenManager(BackendTokenConfiguration configuration) {
+    this.configuration = configuration;
+    this.tokens = Caffeine.newBuilder().maximumSize(configuration.getMaximumSize()).build();
+  }
+
+  /**
+   * Get the backend token of a user, refreshing it first if it has expired, or in the background
+   * if it is about to expire.
+   *
+   * @param user the user
+   * @return the backend token
+   * @throws BackendUnavailableException if the backend login fails
+   */
+  public String getToken(User user) {
+    BackendToken token = tokens.get(user.getId(), id -> {
+      // The principal built from the token claims does not hold the backend token
+      String value = user.getBackendToken() != null ? user.getBackendToken()
+          : userRepository.findBackendTokenById(id);
+      return value != null ? parse(value) : null;
+    });
+    long now = System.currentTimeMillis();
+
+    if (token == null || token.expiresAt <= now) {
+      return refresh(user, token != null ? token.value : null);
+    }
+    if (token.expiresAt - now <= TimeUnit.SECONDS.toMillis(configuration.getRefreshAheadInSeconds())
+        && !refreshes.containsKey(user.getId())) {
+      try {
+        executor.execute(() -> login(user, token.value));
+      } catch (RejectedExecutionException ex) {
+        // The token gets refreshed by a later request or once expired
+        LOGGER.info("Background refresh of the backend token rejected");
+      }
+    }
+    return token.value;
+  }
+
+  /**
+   * Refresh the backend token of a user after it has been rejected by the backend. If the token
+   * has already been replaced by a concurrent refresh, the new token is returned without another
+   * backend login.
+   *
+   * @param user the user
+   * @param rejectedToken the token rejected by the backend, null if none
+   * @return the new backend token
+   * @throws BackendUnavailableException if the backend login fails
+   */
+  public String refresh(User user, String rejectedToken) {
+    BackendToken current = tokens.getIfPresent(user.getId());
+    if (current != null && !current.value.equals(rejectedToken)
+        && current.expiresAt > System.currentTimeMillis()) {
+      return current.value;
+    }
+
+    try {
+      return login(user, rejectedToken).join().value;
+    } catch (CompletionException ex) {
+      if (ex.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) ex.getCause();
+      }
+      throw ex;
+    }
+  }
+
+  /**
+   * Replace the in-memory backend token of a user, e.g. after the user logged in. The token is
+   * expected to be persisted by the caller.
+   *
+   * @param userId the user id
+   * @param token the backend token
+   */
+  public void update(UUID userId, String token) {
+    if (token != null) {
+      tokens.put(userId, parse(token));
+    }
+  }
+
+  /**
+   * Perform the backend login of a user, or join the login already in flight. No login is
+   * performed if the stale token has already been replaced by a fresh one, e.g. by a login that
+   * completed after the caller read the token.
+   *
+   * @param user the user
+   * @param staleToken the token the caller found expired, about to expire or rejected, null if none
+   * @return the future token
+   */
+  private CompletableFuture<BackendToken> login(User user, String staleToken) {
+    CompletableFuture<BackendToken> future = new CompletableFuture<>();
+    CompletableFuture<BackendToken> existing = refreshes.putIfAbsent(user.getId(), future);
+    if (existing != null) {
+      return existing;
+    }
+
+    try {
+      BackendToken current = tokens.getIfPresent(user.getId());
+      long refreshAhead = TimeUnit.SECONDS.toMillis(configuration.getRefreshAheadInSeconds());
+      if (current != null && !current.value.equals(staleToken)
+          && current.expiresAt - System.currentTimeMillis() > refreshAhead) {
+        future.complete(current);
+        return future;
+      }
+
+      String value = loginService.userLogin();
+      if (value == null) {
+        throw new BackendUnavailableException("Backend login failed");
+      }
+
+      BackendToken previous = tokens.getIfPresent(user.getId());
+      tokens.put(user.getId(), parse(value));
+      if (previous == null || !previous.value.equals(value)) {
+        userRepository.updateBackendToken(user.getId(), value);
+        authenticationCache.invalidate(user.getId());
+      }
+      future.complete(tokens.getIfPresent(user.getId()));
+    } catch (RuntimeException ex) {
+      future.completeExceptionally(ex);
+    } finally {
+      refreshes.remove(user.getId(), future);
+    }
+    return future;
+  }
+
+  /**
+   * Parse a backend token. The expiry is read from the JWT "exp" claim without verifying the
+   * signature, the backend is the one verifying it.
+   *
+   * @param value the token
+   * @return the token, never expiring if the expiry is unknown
+   */
+  private BackendToken parse(String value) {
+    long expiresAt = Long.MAX_VALUE;
+    String[] parts = value.split("\\.");
+    if (parts.length == 3) {
+      try {
+        JsonNode exp = objectMapper.readTree(Base64.getUrlDecoder().decode(parts[1])).get("exp");
+        if (exp != null && exp.canConvertToLong()) {
+          expiresAt = TimeUnit.SECONDS.toMillis(exp.asLong());
+        }
+      } catch (IOException | IllegalArgumentException ex) {
+        LOGGER.info("Backend token expiry unknown {}", ex.getMessage());
+      }
+    }
+    return new BackendToken(value, expiresAt);
+  }
+
+  /**
+   * A backend token with its expiry.
+   */
+  private static class BackendToken {
+
+    /**
+     * The token.
+     */
+    private final String value;
+
+    /**
+     * The expiry time in milliseconds.
+     */
+    private final long expiresAt;
+
+    /**
+     * Create a new instance.
+     *
+     * @param value the token
+     * @param expiresAt the expiry time in milliseconds
+     */
+    BackendToken(String value, long expiresAt) {
+      this.value = value;
+      this.expiresAt = expiresAt;
+    }
+  }
+}
@@ -0,0 +1,111 @@
+package com.doppler.services;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+import java.util.UUID;
+import com.doppler.entities.EventComment;
+import lombok.Getter;
+
+/**
+ * The opaque keyset cursor of a page of root comments, holding the sort value and id of the last
+ * comment of the previous page.
+ */
+@Getter
+final class CommentCursor {
+
+  /**
+   * The separator of the cursor parts.
+   */
+  private static final String SEPARATOR = ":";
+
+  /**
+   * The sort column, createdAt, likeCount or hotScore.
+   */
+  private final String sortBy;
+
+  /**
+   * The sort value of the last comment, epoch milliseconds for createdAt, the bits of the double
+   * for hotScore.
+   */
+  private final long value;
+
+  /**
+   * The id of the last comment.
+   */
+  private final UUID id;
+
+  /**
+   * Create a new instance.
+   * 
+   * @param sortBy the sort column
+   * @param value the sort value
+   * @param id the comment id
+   */
+  private CommentCursor(String sortBy, long value, UUID id) {
+    this.sortBy = sortBy;
+    this.value = value;
+    this.id = id;
+  }
+
+  /**
+   * Create the cursor following a comment.
+   * 
+   * @param sortBy the sort column
+   * @param comment the last comment of the page
+   * @return the encoded cursor
+   */
+  static String encode(String sortBy, EventComment comment) {
+    long value;
+    if ("likeCount".equals(sortBy)) {
+      value = comment.getLikeCount();
+    } else if ("hotScore".equals(sortBy)) {
+      value = Double.doubleToLongBits(comment.getHotScore());
+    } else {
+      value = comment.getCreatedAt().getTime();
+    }
+    String cursor = sortBy + SEPARATOR + value + SEPARATOR + comment.getId();
+    return Base64.getUrlEncoder().withoutPadding()
+        .encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Decode a cursor.
+   * 
+   * @param cursor the encoded cursor
+   * @param sortBy the expected sort column
+   * @return the cursor
+   * @throws IllegalArgumentException if the cursor is invalid or was issued for another sort
+   *         column
+   */
+  static CommentCursor decode(String cursor, String sortBy) {
+    try {
+      String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+          .split(SEPARATOR);
+      if (parts.length == 3 && parts[0].equals(sortBy)) {
+        return new CommentCursor(parts[0], Long.parseLong(parts[1]), UUID.fromString(parts[2]));
+      }
+    } catch (IllegalArgumentException ex) {
+      // Fall through, NumberFormatException is an IllegalArgumentException too
+    }
+    throw new IllegalArgumentException("cursor is invalid for sortBy " + sortBy);
+  }
+
+  /**
+   * Get the sort value as a creation time.
+   * 
+   * @return the creation time
+   */
+  Date getCreatedAt() {
+    return new Date(value);
+  }
+
+  /**
+   * Get the sort value as a hot score.
+   * 
+   * @return the hot score
+   */
+  double getHotScore() {
+    return Double.longBitsToDouble(value);
+  }
+}
@@ -0,0 +1,385 @@
+package com.doppler.services;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import com.doppler.entities.EventComment;
+import com.doppler.repositories.EventCommentRepository;
+import com.doppler.services.config.CommentLikeCounterConfiguration;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * The write-behind like counter. When enabled, like count changes are accumulated per comment in
+ * striped in-memory counters and flushed to the comment rows in batches, so that likes of a hot
+ * comment do not contend on its row lock. The likes themselves are still written synchronously,
+ * they are the source of truth the counts are recomputed from after a crash: every change is also
+ * recorded in the transaction of the like, and the like counts of the comments whose likes stopped
+ * changing long enough for every instance to have flushed them are replayed from the likes.
+ *
+ * <p>
+ * Readers add the buffered changes to the like counts they loaded, so that the counts never go
+ * back. A flush commits the changes to the comment rows before taking them from the buffer, so the
+ * comments loaded before the commit would miss them: the flushed changes are kept aside, tagged
+ * with the page version of their event, and still added to the comments loaded at that version or
+ * before, until the next flush. Moving the changes from the buffer aside is seen by the readers as
+ * one step. Only comments loaded between the commit and the page version bump that follows it get
+ * the flushed changes twice, and comments loaded more than a flush interval before they are read
+ * miss them.
+ */
+@Component
+public class CommentLikeCounter {
+
+  /**
+   * The logger.
+   */
+  private static final Logger LOGGER = LoggerFactory.getLogger(CommentLikeCounter.class);
+
+  /**
+   * The comment like counter configuration.
+   */
+  @Autowired
+  private CommentLikeCounterConfiguration configuration;
+
+  /**
+   * The event comment repository.
+   */
+  @Autowired
+  private EventCommentRepository eventCommentRepository;
+
+  /**
+   * The comment page cache.
+   */
+  @Autowired
+  private EventCommentPageCache pageCache;
+
+  /**
+   * The transaction template of the flushes.
+   */
+  private final TransactionTemplate transactionTemplate;
+
+  /**
+   * The like count changes not flushed yet, per comment id.
+   */
+  private final Map<UUID, BufferedChange> pending = new ConcurrentHashMap<>();
+
+  /**
+   * The changes of the last flush per comment id, added to the comments loaded before it.
+   */
+  private volatile Map<UUID, FlushedChange> lastFlushed = Collections.emptyMap();
+
+  /**
+   * The sequence of the moves of flushed changes from the buffer, odd while moving.
+   */
+  private final AtomicLong moves = new AtomicLong();
+
+  /**
+   * The time in nanoseconds of the last flush leaving no older change buffered.
+   */
+  private long flushedAt;
+
+  /**
+   * The clock in nanoseconds, fixed by the tests.
+   */
+  private LongSupplier clock = System::nanoTime;
+
+  /**
+   * Create a new instance.
+   *
+   * @param transactionManager the transaction manager
+   * @param meterRegistry the meter registry
+   */
+  public CommentLikeCounter(PlatformTransactionManager transactionManager,
+      MeterRegistry meterRegistry) {
+    transactionTemplate = new TransactionTemplate(transactionManager);
+    flushedAt = clock.getAsLong();
+    Gauge.builder("comment.likes.pending", pending, Map::size)
+        .description("The number of comments with buffered like count changes")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Check whether like count changes are buffered.
+   *
+   * @return true if buffered
+   */
+  public boolean isEnabled() {
+    return configuration.isWriteBehind();
+  }
+
+  /**
+   * Buffer a like count change, recording the change for the replay. Within a transaction the
+   * change is buffered once committed, so that it matches the committed likes.
+   *
+   * @param commentId the comment id
+   * @param delta the number of likes to add, negative to remove
+   */
+  public void add(UUID commentId, int delta) {
+    eventCommentRepository.insertLikeChange(commentId);
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+              buffer(commentId, delta);
+            }
+          });
+    } else {
+      buffer(commentId, delta);
+    }
+  }
+
+  /**
+   * Add the changes not flushed yet when the comments were loaded to the like counts of comments
+   * and their child comments.
+   *
+   * @param comments the comments of an event
+   * @param pageVersion the page version of the event, read before loading the comments
+   */
+  public void overlay(Collection<EventComment> comments, long pageVersion) {
+    if (!isEnabled()) {
+      return;
+    }
+
+    List<EventComment> all = new ArrayList<>();
+    for (EventComment comment : comments) {
+      all.add(comment);
+      all.addAll(comment.getChildComments());
+    }
+
+    // Read again if a flush moved its changes meanwhile
+    long[] changes = new long[all.size()];
+    long sequence;
+    do {
+      sequence = moves.get();
+      Map<UUID, FlushedChange> flushedChanges = lastFlushed;
+      for (int i = 0; i < changes.length; i++) {
+        UUID commentId = all.get(i).getId();
+        BufferedChange adder = pending.get(commentId);
+        FlushedChange flushedChange = flushedChanges.get(commentId);
+        changes[i] = (adder == null ? 0 : adder.sum()) + (flushedChange != null
+            && pageVersion <= flushedChange.getPageVersion() ? flushedChange.getDelta() : 0);
+      }
+    } while ((sequence & 1) != 0 || moves.get() != sequence);
+
+    for (int i = 0; i < changes.length; i++) {
+      all.get(i).setLikeCount((int) (all.get(i).getLikeCount() + changes[i]));
+    }
+  }
+
+  /**
+   * Flush the buffered changes to the comment rows, in one transaction. The flushed changes are
+   * only removed from the buffer once committed, and retried by the next flush otherwise. The
+   * changes of comments deleted meanwhile are dropped, so that they do not fail the others, and so
+   * are the changes failing to flush for half of the replay delay, so that they are not counted
+   * again once replayed.
+   */
+  @Scheduled(fixedDelayString = "${comment-like-counter.flush-interval-in-millis:500}")
+  @PreDestroy
+  public synchronized void flush() {
+    long now = clock.getAsLong();
+    if (pending.isEmpty()) {
+      flushedAt = now;
+      return;
+    }
+    if (now - flushedAt > TimeUnit.SECONDS.toNanos(configuration.getReplayDelayInSeconds()) / 2) {
+      LOGGER.warn("Dropped the like count changes of {} comments not flushed in time, "
+          + "left to the replay", pending.size());
+      pending.clear();
+      flushedAt = now;
+      return;
+    }
+
+    Map<BufferedChange, Long> flushed = new HashMap<>();
+    Map<UUID, Long> deltas = new HashMap<>();
+    pending.forEach((commentId, adder) -> {
+      long delta = adder.sum();
+      if (delta == 0) {
+        // Idle since the last flush. Flagged before checking it is still idle, so that the changes
+        // added meanwhile are either seen here or moved by buffer()
+        synchronized (adder) {
+          adder.removed = true;
+          if (adder.sum() == 0) {
+            pending.remove(commentId, adder);
+          } else {
+            adder.removed = false;
+          }
+        }
+      } else {
+        flushed.put(adder, delta);
+        deltas.put(commentId, delta);
+      }
+    });
+    if (deltas.isEmpty()) {
+      flushedAt = now;
+      return;
+    }
+
+    List<Object[]> rows;
+    Set<UUID> deleted = new HashSet<>();
+    try {
+      rows = transactionTemplate.execute(status -> {
+        deltas.forEach((commentId, delta) -> {
+          if (eventCommentRepository.updateLikeCount(commentId, delta.intValue()) == 0) {
+            deleted.add(commentId);
+          }
+        });
+        Set<UUID> updated = new HashSet<>(deltas.keySet());
+        updated.removeAll(deleted);
+        return updated.isEmpty() ? Collections.emptyList()
+            : eventCommentRepository.findIdAndEventIdByIdIn(updated);
+      });
+    } catch (RuntimeException ex) {
+      LOGGER.warn("Like counts flush of {} comments failed, retrying next flush: {}",
+          deltas.size(), ex.getMessage());
+      return;
+    }
+    flushedAt = now;
+    if (!deleted.isEmpty()) {
+      LOGGER.info("Dropped the like count changes of {} deleted comments", deleted.size());
+    }
+
+    // Keep the flushed changes aside for the comments loaded at the current page versions
+    Map<UUID, FlushedChange> flushedChanges = new HashMap<>();
+    Set<UUID> flushedEventIds = new HashSet<>();
+    for (Object[] row : rows) {
+      UUID commentId = (UUID) row[0];
+      UUID eventId = (UUID) row[1];
+      flushedChanges.put(commentId,
+          new FlushedChange(deltas.get(commentId), pageCache.getVersion(eventId)));
+      flushedEventIds.add(eventId);
+    }
+
+    // Move the changes from the buffer aside, then invalidate the cached pages
+    moves.incrementAndGet();
+    try {
+      lastFlushed = flushedChanges;
+      // Subtract rather than reset, so that the changes buffered meanwhile are kept
+      flushed.forEach((adder, delta) -> adder.add(-delta));
+      pageCache.invalidateNow(flushedEventIds);
+    } finally {
+      moves.incrementAndGet();
+    }
+  }
+
+  /**
+   * Replay the like changes older than the replay delay, i.e. recompute from the likes the like
+   * counts of the comments whose likes changed before and not since, recovering the changes lost by
+   * a crash. By then every instance has flushed or dropped its changes of these comments, so the
+   * replay is safe with any number of instances, and replaying twice is harmless.
+   */
+  @Scheduled(fixedDelayString = "${comment-like-counter.replay-interval-in-millis:10000}")
+  public void replay() {
+    if (!configuration.isWriteBehind()) {
+      return;
+    }
+
+    int delay = configuration.getReplayDelayInSeconds();
+    int updated;
+    try {
+      updated = transactionTemplate.execute(status -> {
+        int count = eventCommentRepository.reconcileLikeCountsChangedBefore(delay);
+        eventCommentRepository.deleteLikeChangesBefore(delay);
+        return count;
+      });
+    } catch (RuntimeException ex) {
+      LOGGER.warn("Like changes replay failed, retrying next replay: {}", ex.getMessage());
+      return;
+    }
+    if (updated > 0) {
+      LOGGER.warn("Recovered the like counts of {} comments", updated);
+    }
+  }
+
+  /**
+   * Buffer a like count change.
+   *
+   * @param commentId the comment id
+   * @param delta the number of likes to add, negative to remove
+   */
+  private void buffer(UUID commentId, int delta) {
+    long change = delta;
+    while (true) {
+      // Looked up first, as computeIfAbsent locks the map bin even when the adder is present
+      BufferedChange adder = pending.get(commentId);
+      if (adder == null) {
+        adder = pending.computeIfAbsent(commentId, key -> new BufferedChange());
+      }
+      adder.add(change);
+      if (!adder.removed) {
+        return;
+      }
+
+      // Removed as idle by a flush meanwhile, move what it holds to a new adder
+      synchronized (adder) {
+        if (!adder.removed) {
+          // Kept by the flush, as the change was seen
+          return;
+        }
+        change = adder.sum();
+        adder.add(-change);
+      }
+      if (change == 0) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * The buffered like count changes of a comment.
+   */
+  private static final class BufferedChange extends LongAdder {
+
+    /**
+     * The serial version UID.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The flag to indicate whether the flush removed the changes from the buffer as idle, the
+     * changes added after are moved to a new instance.
+     */
+    private volatile boolean removed;
+  }
+
+  /**
+   * A flushed like count change.
+   */
+  @Getter
+  @AllArgsConstructor
+  private static final class FlushedChange {
+
+    /**
+     * The number of likes added.
+     */
+    private final long delta;
+
+    /**
+     * The page version of the comment event before the flush.
+     */
+    private final long pageVersion;
+  }
+}
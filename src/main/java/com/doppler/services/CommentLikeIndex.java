@@ -0,0 +1,184 @@
+package com.doppler.services;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import com.doppler.entities.EventCommentLike;
+import com.doppler.repositories.EventCommentLikeRepository;
+import com.doppler.repositories.UserRepository;
+import com.doppler.services.config.EventCommentConfiguration;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * The index of the comments liked by each user, answering whether a page of comments is liked by
+ * a user. A Bloom filter of the liked comments is kept per user in a cache bounded by memory, the
+ * database is only queried for the comments the filter cannot rule out. Every like bumps the like
+ * version of its user: the filters learn the likes made through this instance as they go, and are
+ * rebuilt once the like version moved past them, i.e. by likes made through other instances.
+ */
+@Component
+public class CommentLikeIndex {
+
+  /**
+   * The event comment configuration.
+   */
+  private final EventCommentConfiguration configuration;
+
+  /**
+   * The event comment like repository.
+   */
+  private final EventCommentLikeRepository eventCommentLikeRepository;
+
+  /**
+   * The user repository.
+   */
+  private final UserRepository userRepository;
+
+  /**
+   * The filters per user id, weighted by size in bytes.
+   */
+  private final Cache<UUID, LikedCommentFilter> filters;
+
+  /**
+   * The like versions per user id.
+   */
+  private final Cache<UUID, Long> versions;
+
+  /**
+   * Create a new instance.
+   *
+   * @param configuration the event comment configuration
+   * @param eventCommentLikeRepository the event comment like repository
+   * @param userRepository the user repository
+   * @param meterRegistry the meter registry
+   */
+  public CommentLikeIndex(EventCommentConfiguration configuration,
+      EventCommentLikeRepository eventCommentLikeRepository, UserRepository userRepository,
+      MeterRegistry meterRegistry) {
+    this.configuration = configuration;
+    this.eventCommentLikeRepository = eventCommentLikeRepository;
+    this.userRepository = userRepository;
+    this.filters = CaffeineCacheMetrics.monitor(meterRegistry, Caffeine.newBuilder() //
+        .maximumWeight(configuration.getLikedFilterMaximumBytes()) //
+        .<UUID, LikedCommentFilter>weigher((userId, filter) -> filter.getSizeInBytes()) //
+        .expireAfterWrite(configuration.getLikedFilterExpireAfterWriteInSeconds(),
+            TimeUnit.SECONDS) //
+        .recordStats() //
+        .build(), "event.comment.liked.filters");
+    Gauge.builder("event.comment.liked.filters.bytes", filters,
+        cache -> cache.policy().eviction().get().weightedSize().orElse(0))
+        .description("The memory used by the liked comment filters").register(meterRegistry);
+    this.versions = CaffeineCacheMetrics.monitor(meterRegistry, Caffeine.newBuilder() //
+        .maximumSize(configuration.getLikedVersionMaximumSize()) //
+        .expireAfterWrite(configuration.getLikedVersionExpireAfterWriteInSeconds(),
+            TimeUnit.SECONDS) //
+        .recordStats() //
+        .build(), "event.comment.liked.versions");
+  }
+
+  /**
+   * Get the comments liked by a user among the specified comments.
+   *
+   * @param userId the user id
+   * @param commentIds the comment ids
+   * @return the ids of the liked comments
+   */
+  public Set<UUID> getLiked(UUID userId, Collection<UUID> commentIds) {
+    if (commentIds.isEmpty()) {
+      return Collections.emptySet();
+    }
+
+    LikedCommentFilter filter = filters.get(userId, this::loadFilter);
+    if (getLikeVersion(userId) > filter.getLikeVersion()) {
+      // Missing likes made through other instances
+      filter = loadFilter(userId);
+      filters.put(userId, filter);
+    } else if (filter.isSaturated()) {
+      filters.invalidate(userId);
+    }
+
+    // Check the possibly liked comments only
+    List<UUID> candidates =
+        commentIds.stream().filter(filter::mightContain).distinct().collect(Collectors.toList());
+    if (candidates.isEmpty()) {
+      return Collections.emptySet();
+    }
+    return eventCommentLikeRepository.findByEventCommentIdInAndUserId(candidates, userId).stream()
+        .map(EventCommentLike::getEventCommentId).collect(Collectors.toSet());
+  }
+
+  /**
+   * Record a like: the like version of the user is bumped within the current transaction if any,
+   * and the like is added to the filter once committed. A filter being loaded meanwhile gets the
+   * like added once loaded.
+   *
+   * @param userId the user id
+   * @param commentId the liked comment id
+   */
+  public void liked(UUID userId, UUID commentId) {
+    userRepository.incrementLikeVersion(userId);
+    Runnable action = () -> filters.asMap().computeIfPresent(userId, (key, filter) -> {
+      filter.liked(commentId);
+      return filter;
+    });
+
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+              action.run();
+            }
+          });
+    } else {
+      action.run();
+    }
+  }
+
+  /**
+   * Load the filter of the comments liked by a user.
+   *
+   * @param userId the user id
+   * @return the filter
+   */
+  private LikedCommentFilter loadFilter(UUID userId) {
+    // The version is read first, so that a filter missing a like never gets the version past it
+    long likeVersion = loadLikeVersion(userId);
+    return new LikedCommentFilter(eventCommentLikeRepository.findEventCommentIdsByUserId(userId),
+        likeVersion, configuration.getLikedFilterFalsePositiveRate());
+  }
+
+  /**
+   * Get the like version of a user, cached unless exact answers are configured.
+   *
+   * @param userId the user id
+   * @return the like version, 0 if the user does not exist
+   */
+  private long getLikeVersion(UUID userId) {
+    return configuration.getLikedVersionExpireAfterWriteInSeconds() > 0
+        ? versions.get(userId, this::loadLikeVersion)
+        : loadLikeVersion(userId);
+  }
+
+  /**
+   * Load the like version of a user.
+   *
+   * @param userId the user id
+   * @return the like version, 0 if the user does not exist
+   */
+  private long loadLikeVersion(UUID userId) {
+    Long likeVersion = userRepository.findLikeVersionById(userId);
+    return likeVersion != null ? likeVersion : 0;
+  }
+}
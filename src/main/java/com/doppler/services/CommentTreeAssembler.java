@@ -0,0 +1,55 @@
+package com.doppler.services;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import com.doppler.entities.EventComment;
+
+/**
+ * Assembles two-level comment trees in linear time, using id-indexed lookups instead of scanning
+ * the child comments and likes per comment.
+ */
+final class CommentTreeAssembler {
+
+  /**
+   * Private constructor to prevent instantiation.
+   */
+  private CommentTreeAssembler() {
+  }
+
+  /**
+   * Attach the child comments to their parent comments, and flag the comments liked by the
+   * current user.
+   * 
+   * @param comments the comments to populate
+   * @param related the comments loaded with them, i.e. their child comments (the comments
+   *        themselves may be included)
+   * @param likedIds the ids of the comments liked by the current user
+   */
+  static void assemble(List<EventComment> comments, Collection<EventComment> related,
+      Set<UUID> likedIds) {
+    Map<UUID, EventComment> commentsById = new HashMap<>(comments.size() * 2);
+    for (EventComment comment : comments) {
+      comment.setChildComments(new ArrayList<>());
+      comment.setLikedByMe(likedIds.contains(comment.getId()));
+      commentsById.put(comment.getId(), comment);
+    }
+
+    for (EventComment childComment : related) {
+      if (childComment.getParentCommentId() == null
+          || commentsById.containsKey(childComment.getId())) {
+        continue;
+      }
+
+      EventComment parentComment = commentsById.get(childComment.getParentCommentId());
+      if (parentComment != null) {
+        childComment.setLikedByMe(likedIds.contains(childComment.getId()));
+        parentComment.getChildComments().add(childComment);
+      }
+    }
+  }
+}
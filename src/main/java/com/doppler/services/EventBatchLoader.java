@@ -0,0 +1,146 @@
+package com.doppler.services;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import com.doppler.entities.Event;
+import com.doppler.services.config.BackendAsyncConfiguration;
+import com.doppler.util.ApiConstants;
+
+/**
+ * The loader resolving many event lookups at once: the mirrored events are loaded with one query,
+ * the others are fetched from the backend concurrently, a chunk at a time. The results are cached for the current
+ * request, so repeated lookups within a request cost nothing.
+ */
+@Component
+public class EventBatchLoader {
+
+  /**
+   * The request attribute holding the events loaded during the request.
+   */
+  private static final String CACHE_ATTRIBUTE = EventBatchLoader.class.getName() + ".CACHE";
+
+  /**
+   * The backend event url.
+   */
+  private static final String EVENT_URL = ApiConstants.BASE_URI + "/events/{id}";
+
+  /**
+   * The local event mirror service.
+   */
+  @Autowired
+  private EventMirrorService eventMirrorService;
+
+  /**
+   * The event synchronizer.
+   */
+  @Autowired
+  private EventSynchronizer eventSynchronizer;
+
+  /**
+   * The asynchronous backend API service.
+   */
+  @Autowired
+  private AsyncBackendAPIService asyncApiService;
+
+  /**
+   * The asynchronous backend client configuration.
+   */
+  @Autowired
+  private BackendAsyncConfiguration asyncConfiguration;
+
+  /**
+   * Load events by ids.
+   *
+   * @param ids the event ids
+   * @return the found events by id, the ids not found are absent
+   */
+  public Map<UUID, Event> load(Collection<UUID> ids) {
+    Map<UUID, Optional<Event>> cache = getRequestCache();
+    Set<UUID> missing = new LinkedHashSet<>(ids);
+    missing.removeAll(cache.keySet());
+
+    // One query for the mirrored events
+    if (!missing.isEmpty() && eventSynchronizer.isFresh()) {
+      for (Event event : eventMirrorService.getAll(missing)) {
+        cache.put(event.getId(), Optional.of(event));
+        missing.remove(event.getId());
+      }
+    }
+
+    // Concurrent backend calls for the others, a chunk at a time
+    List<UUID> remaining = new ArrayList<>(missing);
+    int batchSize = Math.max(1, asyncConfiguration.getBatchSize());
+    for (int from = 0; from < remaining.size(); from += batchSize) {
+      Map<UUID, CompletableFuture<Event>> futures = new LinkedHashMap<>();
+      for (UUID id : remaining.subList(from, Math.min(from + batchSize, remaining.size()))) {
+        futures.put(id, asyncApiService.getForEntity(Event.class, EVENT_URL, id));
+      }
+      for (Map.Entry<UUID, CompletableFuture<Event>> entry : futures.entrySet()) {
+        cache.put(entry.getKey(), Optional.ofNullable(join(entry.getValue())));
+      }
+    }
+
+    Map<UUID, Event> result = new LinkedHashMap<>();
+    for (UUID id : ids) {
+      Optional<Event> event = cache.get(id);
+      if (event != null && event.isPresent()) {
+        result.put(id, event.get());
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Get the events loaded during the current request.
+   *
+   * @return the events by id, empty events for the ids not found
+   */
+  @SuppressWarnings("unchecked")
+  private static Map<UUID, Optional<Event>> getRequestCache() {
+    RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+    if (attributes == null) {
+      // Not within a request, e.g. a background job
+      return new HashMap<>();
+    }
+
+    Map<UUID, Optional<Event>> cache = (Map<UUID, Optional<Event>>) attributes
+        .getAttribute(CACHE_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+    if (cache == null) {
+      cache = new ConcurrentHashMap<>();
+      attributes.setAttribute(CACHE_ATTRIBUTE, cache, RequestAttributes.SCOPE_REQUEST);
+    }
+    return cache;
+  }
+
+  /**
+   * Wait for a backend call, rethrowing its exception as-is.
+   *
+   * @param future the future
+   * @return the result
+   */
+  private static <T> T join(CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (CompletionException ex) {
+      if (ex.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) ex.getCause();
+      }
+      throw ex;
+    }
+  }
+}
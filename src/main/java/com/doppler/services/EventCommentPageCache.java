@@ -0,0 +1,238 @@
+package com.doppler.services;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.springframework.beans.BeanUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import com.doppler.entities.EventComment;
+import com.doppler.entities.User;
+import com.doppler.entities.requests.EventCommentSearchRequest;
+import com.doppler.entities.responses.SearchResponse;
+import com.doppler.services.config.EventCommentConfiguration;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+
+/**
+ * The cache of comment pages shared by all users, i.e. root comments with their first replies,
+ * reply counts and like counts. Pages are keyed by a per-event version, bumped once a change of
+ * the event comments commits, so that the stale pages of the event are never read again.
+ *
+ * <p>
+ * The versions are per instance: a change made through another instance is only seen once the
+ * cached pages expire, so the expiry bounds the staleness across instances. Every committed like
+ * bumps the version of its event unless the like counts are written behind, in which case the
+ * version is bumped once per flush; with the page cache enabled, write-behind keeps the pages of
+ * an event being liked at high rates cacheable.
+ */
+@Component
+public class EventCommentPageCache {
+
+  /**
+   * The event comment configuration.
+   */
+  private final EventCommentConfiguration configuration;
+
+  /**
+   * The cached pages, never handed out as-is.
+   */
+  private final Cache<PageKey, SearchResponse<EventComment>> pages;
+
+  /**
+   * The page versions per event id.
+   */
+  private final Map<UUID, AtomicLong> versions = new ConcurrentHashMap<>();
+
+  /**
+   * Create a new instance.
+   *
+   * @param configuration the event comment configuration
+   * @param meterRegistry the meter registry
+   */
+  public EventCommentPageCache(EventCommentConfiguration configuration,
+      MeterRegistry meterRegistry) {
+    this.configuration = configuration;
+    this.pages = CaffeineCacheMetrics.monitor(meterRegistry, Caffeine.newBuilder() //
+        .maximumSize(configuration.getPageCacheMaximumSize()) //
+        .expireAfterWrite(configuration.getPageCacheExpireAfterWriteInSeconds(),
+            TimeUnit.SECONDS) //
+        .recordStats() //
+        .build(), "event.comment.pages");
+  }
+
+  /**
+   * Get a page of root comments, loading it if absent.
+   *
+   * @param eventId the event id
+   * @param version the page version of the event, from getVersion()
+   * @param criteria the normalized search criteria
+   * @param offsetPaging true if paged by offset, false if paged by cursor
+   * @param loader the page loader, expected to fail if the event does not exist
+   * @return the page, loaded at the page version or after, a copy the caller may modify
+   */
+  public SearchResponse<EventComment> getPage(UUID eventId, long version,
+      EventCommentSearchRequest criteria, boolean offsetPaging,
+      Supplier<SearchResponse<EventComment>> loader) {
+    if (!configuration.isPageCacheEnabled()) {
+      return loader.get();
+    }
+
+    PageKey key = new PageKey(eventId, version, criteria.getSortBy(),
+        criteria.getSortDirection(), offsetPaging ? criteria.getOffset() : null,
+        criteria.getLimit(), criteria.getCursor(), criteria.isIncludeCount());
+    return copy(pages.get(key, k -> loader.get()));
+  }
+
+  /**
+   * Get the page version of an event, bumped by the invalidations.
+   *
+   * @param eventId the event id
+   * @return the version
+   */
+  public long getVersion(UUID eventId) {
+    return getVersionCounter(eventId).get();
+  }
+
+  /**
+   * Invalidate the pages of an event, once the current transaction commits if any.
+   *
+   * @param eventId the event id
+   */
+  public void invalidate(UUID eventId) {
+    afterCommit(() -> getVersionCounter(eventId).incrementAndGet());
+  }
+
+  /**
+   * Invalidate the pages of events, immediately.
+   *
+   * @param eventIds the event ids
+   */
+  public void invalidateNow(Collection<UUID> eventIds) {
+    eventIds.forEach(eventId -> getVersionCounter(eventId).incrementAndGet());
+  }
+
+  /**
+   * Get the page version counter of an event.
+   *
+   * @param eventId the event id
+   * @return the version counter
+   */
+  private AtomicLong getVersionCounter(UUID eventId) {
+    return versions.computeIfAbsent(eventId, key -> new AtomicLong());
+  }
+
+  /**
+   * Run an action once the current transaction commits, or immediately if none.
+   *
+   * @param action the action
+   */
+  private static void afterCommit(Runnable action) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+              action.run();
+            }
+          });
+    } else {
+      action.run();
+    }
+  }
+
+  /**
+   * Copy a page, with copies of its comments and their authors.
+   *
+   * @param page the page
+   * @return the copy
+   */
+  private static SearchResponse<EventComment> copy(SearchResponse<EventComment> page) {
+    SearchResponse<EventComment> copy = new SearchResponse<>();
+    copy.setCount(page.getCount());
+    copy.setNextCursor(page.getNextCursor());
+    copy.setRows(copy(page.getRows()));
+    return copy;
+  }
+
+  /**
+   * Copy comments, with copies of their child comments and authors.
+   *
+   * @param comments the comments
+   * @return the copies
+   */
+  private static List<EventComment> copy(List<EventComment> comments) {
+    List<EventComment> copies = new ArrayList<>(comments.size());
+    for (EventComment comment : comments) {
+      EventComment copy = new EventComment();
+      BeanUtils.copyProperties(comment, copy, "user", "childComments");
+      if (comment.getUser() != null) {
+        User user = new User();
+        BeanUtils.copyProperties(comment.getUser(), user);
+        copy.setUser(user);
+      }
+      copy.setChildComments(copy(comment.getChildComments()));
+      copies.add(copy);
+    }
+    return copies;
+  }
+
+  /**
+   * The key of a cached page.
+   */
+  @EqualsAndHashCode
+  @AllArgsConstructor
+  private static final class PageKey {
+
+    /**
+     * The event id.
+     */
+    private final UUID eventId;
+
+    /**
+     * The page version of the event.
+     */
+    private final long version;
+
+    /**
+     * The sort column.
+     */
+    private final String sortBy;
+
+    /**
+     * The sort direction.
+     */
+    private final String sortDirection;
+
+    /**
+     * The offset, null if paged by cursor.
+     */
+    private final Integer offset;
+
+    /**
+     * The limit.
+     */
+    private final Integer limit;
+
+    /**
+     * The cursor, null for the first page.
+     */
+    private final String cursor;
+
+    /**
+     * The flag to include the total count.
+     */
+    private final boolean includeCount;
+  }
+}
@@ -1,26 +1,42 @@
 package com.doppler.services;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 import javax.persistence.EntityNotFoundException;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import com.doppler.entities.EventComment;
-import com.doppler.entities.EventCommentLike;
+import com.doppler.entities.requests.EventCommentReplySearchRequest;
 import com.doppler.entities.requests.EventCommentRequest;
-import com.doppler.entities.requests.PagingAndSortingSearchRequest;
+import com.doppler.entities.requests.EventCommentSearchRequest;
+import com.doppler.entities.requests.EventCommentTextSearchRequest;
+import com.doppler.entities.responses.EventCommentChange;
+import com.doppler.entities.responses.EventCommentChangeType;
 import com.doppler.entities.responses.SearchResponse;
 import com.doppler.repositories.EventCommentLikeRepository;
 import com.doppler.repositories.EventCommentRepository;
 import com.doppler.security.SecurityUtils;
+import com.doppler.services.config.EventCommentConfiguration;
 
 /**
  * The service provides event comment related operations.
@@ -42,35 +58,208 @@ public class EventCommentService extends BaseService {
   private EventCommentLikeRepository eventCommentLikeRepository;
 
   /**
-   * Search events.
+   * The write-behind like counter.
+   */
+  @Autowired
+  private CommentLikeCounter likeCounter;
+
+  /**
+   * The event comment configuration.
+   */
+  @Autowired
+  private EventCommentConfiguration configuration;
+
+  /**
+   * The comment page cache.
+   */
+  @Autowired
+  private EventCommentPageCache pageCache;
+
+  /**
+   * The index of the comments liked by each user.
+   */
+  @Autowired
+  private CommentLikeIndex likeIndex;
+
+  /**
+   * The comment stream hub.
+   */
+  @Autowired
+  private EventCommentStreamHub streamHub;
+
+  /**
+   * The publisher of the comment changes.
+   */
+  @Autowired
+  private ApplicationEventPublisher eventPublisher;
+
+  /**
+   * Search the root comments of an event. Pages are addressed by offset, or by the (sort column,
+   * id) cursor of the previous page if present, so that deep pages do not scan the skipped
+   * comments. The first page comes with the cursor of the next page, to switch to cursor paging.
+   * The pages are shared by all users, only the likes of the current user are populated per
+   * request.
    * 
    * @param eventId the event id.
    * @param criteria the search criteria
+   * @return the search result, with the cursor of the next page if the first page or paged by
+   *         cursor
+   */
+  @Transactional(readOnly = true)
+  public SearchResponse<EventComment> search(UUID eventId, EventCommentSearchRequest criteria) {
+    if (criteria.getOffset() != null && criteria.getCursor() != null) {
+      throw new IllegalArgumentException("offset and cursor cannot be used together");
+    }
+    boolean offsetPaging = criteria.getCursor() == null;
+
+    Pageable pageable = createPageRequest(criteria,
+        Arrays.asList("createdAt", "likeCount", "hotScore"), "createdAt", "desc");
+
+    // Get the page shared by all users, noting the page version before the like counts get loaded
+    long pageVersion = pageCache.getVersion(eventId);
+    SearchResponse<EventComment> searchResponse = pageCache.getPage(eventId, pageVersion,
+        criteria, offsetPaging, () -> loadPage(eventId, criteria, offsetPaging, pageable));
+
+    // Populate the likes of the current user
+    List<UUID> commentIds = new ArrayList<>();
+    for (EventComment comment : searchResponse.getRows()) {
+      commentIds.add(comment.getId());
+      comment.getChildComments().forEach(childComment -> commentIds.add(childComment.getId()));
+    }
+    Set<UUID> likedIds = likeIndex.getLiked(SecurityUtils.getCurrentUser().getId(), commentIds);
+    for (EventComment comment : searchResponse.getRows()) {
+      comment.setLikedByMe(likedIds.contains(comment.getId()));
+      comment.getChildComments().forEach(
+          childComment -> childComment.setLikedByMe(likedIds.contains(childComment.getId())));
+    }
+
+    // Include the like count changes not flushed yet
+    likeCounter.overlay(searchResponse.getRows(), pageVersion);
+
+    return searchResponse;
+  }
+
+  /**
+   * Search the comments of an event by content, root comments and replies alike, most relevant
+   * first. The matching is done by the full-text index of the content words, then the page is
+   * populated like any other comments.
+   * 
+   * @param eventId the event id
+   * @param criteria the search criteria
    * @return the search result
    */
   @Transactional(readOnly = true)
-  public SearchResponse<EventComment> search(UUID eventId, PagingAndSortingSearchRequest criteria) {
+  public SearchResponse<EventComment> searchContent(UUID eventId,
+      EventCommentTextSearchRequest criteria) {
     // Make sure the event exists
     getEventById(eventId);
-
-    // Get the root comments
-    Pageable pageable =
-        createPageRequest(criteria, Arrays.asList("createdAt", "likeCount"), "createdAt", "desc");
-    Page<EventComment> page =
-        eventCommentRepository.findByEventIdAndParentCommentIdIsNull(eventId, pageable);
-
-    List<EventComment> comments = page.getContent();
+    long pageVersion = pageCache.getVersion(eventId);
+
+    // Get the ids of the matching comments, ranked
+    int offset = criteria.getOffset() == null ? 0 : criteria.getOffset();
+    int limit =
+        criteria.getLimit() == null ? configuration.getSearchPageSize() : criteria.getLimit();
+    List<UUID> ids = eventCommentRepository
+        .findIdsByContentMatching(eventId, criteria.getQuery(), offset, limit).stream()
+        .map(UUID::fromString).collect(Collectors.toList());
+
+    // Get the comments in rank order, skipping the ones deleted since they matched
+    List<EventComment> comments = new ArrayList<>(ids.size());
+    if (!ids.isEmpty()) {
+      Map<UUID, EventComment> commentsById = eventCommentRepository.findWithUserByIdIn(ids)
+          .stream().collect(Collectors.toMap(EventComment::getId, comment -> comment));
+      ids.stream().map(commentsById::get).filter(Objects::nonNull).forEach(comments::add);
+    }
 
     // Populate
-    populateComments(comments);
+    populateComments(comments, pageVersion);
 
     SearchResponse<EventComment> searchResponse = new SearchResponse<>();
-    searchResponse.setCount(page.getTotalElements());
+    if (criteria.isIncludeCount()) {
+      searchResponse.setCount(
+          eventCommentRepository.countByContentMatching(eventId, criteria.getQuery()));
+    }
     searchResponse.setRows(comments);
 
     return searchResponse;
   }
 
+  /**
+   * Search the replies of a root comment, oldest first, paged by the cursor of the previous page.
+   * 
+   * @param eventId the event id
+   * @param commentId the root comment id
+   * @param criteria the search criteria
+   * @return the search result, with the cursor of the next page if any
+   */
+  @Transactional(readOnly = true)
+  public SearchResponse<EventComment> searchReplies(UUID eventId, UUID commentId,
+      EventCommentReplySearchRequest criteria) {
+    // Make sure the event exists
+    getEventById(eventId);
+    long pageVersion = pageCache.getVersion(eventId);
+
+    // Make sure the root comment exists
+    EventComment parentComment = eventCommentRepository.findById(commentId).orElseThrow(
+        () -> new EntityNotFoundException("Event Comment does not exist with id = " + commentId));
+    if (!parentComment.getEventId().equals(eventId)) {
+      throw new IllegalArgumentException("The comment does not belong to the specified event");
+    }
+    if (parentComment.getParentCommentId() != null) {
+      throw new IllegalArgumentException("Only root comments have replies");
+    }
+
+    // Get the replies, one more to know whether there is a next page
+    int limit =
+        criteria.getLimit() == null ? configuration.getReplyPageSize() : criteria.getLimit();
+    Pageable pageable = PageRequest.of(0, limit == Integer.MAX_VALUE ? limit : limit + 1);
+    List<EventComment> replies;
+    if (criteria.getCursor() == null) {
+      replies = eventCommentRepository.findAllByParentCommentId(commentId,
+          PageRequest.of(0, pageable.getPageSize(), Sort.by("createdAt", "id")));
+    } else {
+      CommentCursor cursor = CommentCursor.decode(criteria.getCursor(), "createdAt");
+      replies = eventCommentRepository.findRepliesCreatedAfter(commentId, cursor.getCreatedAt(),
+          cursor.getId(), pageable);
+    }
+
+    SearchResponse<EventComment> searchResponse = new SearchResponse<>();
+    if (replies.size() > limit) {
+      replies = new ArrayList<>(replies.subList(0, limit));
+      searchResponse.setNextCursor(
+          CommentCursor.encode("createdAt", replies.get(replies.size() - 1)));
+    }
+
+    // Populate the likes of the current user
+    if (!replies.isEmpty()) {
+      Set<UUID> likedIds = likeIndex.getLiked(SecurityUtils.getCurrentUser().getId(),
+          replies.stream().map(EventComment::getId).collect(Collectors.toList()));
+      replies.forEach(reply -> reply.setLikedByMe(likedIds.contains(reply.getId())));
+      likeCounter.overlay(replies, pageVersion);
+    }
+
+    if (criteria.isIncludeCount()) {
+      searchResponse.setCount(eventCommentRepository.countByParentCommentId(commentId));
+    }
+    searchResponse.setRows(replies);
+
+    return searchResponse;
+  }
+
+  /**
+   * Stream the comment changes of an event.
+   * 
+   * @param eventId the event id
+   * @return the stream
+   */
+  @Transactional(readOnly = true)
+  public SseEmitter stream(UUID eventId) {
+    // Make sure the event exists
+    getEventById(eventId);
+
+    return streamHub.subscribe(eventId);
+  }
+
   /**
    * Create a new event comment.
    * 
@@ -81,6 +270,7 @@ public class EventCommentService extends BaseService {
   public EventComment create(UUID eventId, EventCommentRequest request) {
     // Make sure the event exists
     getEventById(eventId);
+    long pageVersion = pageCache.getVersion(eventId);
 
     // Validate parent comment
     validateParentComment(eventId, request);
@@ -93,9 +283,11 @@ public class EventCommentService extends BaseService {
     eventComment.setUser(SecurityUtils.getCurrentUser());
 
     eventComment = eventCommentRepository.save(eventComment);
+    pageCache.invalidate(eventId);
 
     // Populate
-    populateComments(Arrays.asList(eventComment));
+    populateComments(Arrays.asList(eventComment), pageVersion);
+    publishChange(EventCommentChangeType.CREATED, eventComment);
 
     return eventComment;
   }
@@ -111,6 +303,7 @@ public class EventCommentService extends BaseService {
   public EventComment update(UUID eventId, UUID commentId, EventCommentRequest request) {
     // Make sure the event exists
     getEventById(eventId);
+    long pageVersion = pageCache.getVersion(eventId);
 
     // Get
     EventComment eventComment = getComment(eventId, commentId, true);
@@ -132,9 +325,11 @@ public class EventCommentService extends BaseService {
     // Update
     BeanUtils.copyProperties(request, eventComment);
     eventComment = eventCommentRepository.save(eventComment);
+    pageCache.invalidate(eventId);
 
     // Populate
-    populateComments(Arrays.asList(eventComment));
+    populateComments(Arrays.asList(eventComment), pageVersion);
+    publishChange(EventCommentChangeType.UPDATED, eventComment);
 
     return eventComment;
   }
@@ -149,6 +344,7 @@ public class EventCommentService extends BaseService {
   public EventComment delete(UUID eventId, UUID commentId) {
     // Make sure the event exists
     getEventById(eventId);
+    long pageVersion = pageCache.getVersion(eventId);
 
     // Get
     EventComment eventComment = getComment(eventId, commentId, true);
@@ -157,9 +353,11 @@ public class EventCommentService extends BaseService {
     eventComment.setDeleted(true);
     eventComment.setContent("This comment has been deleted");
     eventComment = eventCommentRepository.save(eventComment);
+    pageCache.invalidate(eventId);
 
     // Populate
-    populateComments(Arrays.asList(eventComment));
+    populateComments(Arrays.asList(eventComment), pageVersion);
+    publishChange(EventCommentChangeType.DELETED, eventComment);
 
     return eventComment;
   }
@@ -176,6 +374,7 @@ public class EventCommentService extends BaseService {
     getEventById(eventId);
 
     // Get comment
+    long pageVersion = pageCache.getVersion(eventId);
     EventComment eventComment = getComment(eventId, commentId, false);
 
     // Not allowed to like user's own comment
@@ -183,25 +382,28 @@ public class EventCommentService extends BaseService {
       throw new AccessDeniedException("You are not allowed to like your own comment");
     }
 
-    // Make sure not liked yet
-    boolean liked = eventCommentLikeRepository.existsByEventCommentIdAndUserId(commentId,
-        SecurityUtils.getCurrentUser().getId());
-    if (liked) {
+    // Create the like, unless liked already
+    int liked = eventCommentLikeRepository.insertIfAbsent(UUID.randomUUID(), commentId,
+        SecurityUtils.getCurrentUser().getId(), new Date());
+    if (liked == 0) {
       throw new IllegalArgumentException("You already liked this comment");
     }
 
-    // Create the like
-    EventCommentLike eventCommentLike = new EventCommentLike();
-    eventCommentLike.setEventCommentId(commentId);
-    eventCommentLike.setUserId(SecurityUtils.getCurrentUser().getId());
-    eventCommentLikeRepository.save(eventCommentLike);
-
-    // Increase the like count
-    eventComment.setLikeCount(eventComment.getLikeCount() + 1);
-    eventComment = eventCommentRepository.save(eventComment);
-
     // Populate comment
-    populateComments(Arrays.asList(eventComment));
+    populateComments(Arrays.asList(eventComment), pageVersion);
+
+    // Increase the like count, buffered or last as the comment row stays locked until commit
+    if (likeCounter.isEnabled()) {
+      // The pages get invalidated by the flush
+      likeCounter.add(commentId, 1);
+      eventComment.setLikeCount(eventComment.getLikeCount() + 1);
+    } else {
+      // The managed comment is not refreshed by the update, it gets the returned count
+      eventComment.setLikeCount(eventCommentRepository.addLikeCount(commentId, 1));
+      pageCache.invalidate(eventId);
+    }
+    likeIndex.liked(SecurityUtils.getCurrentUser().getId(), commentId);
+    publishChange(EventCommentChangeType.LIKE_COUNT_CHANGED, eventComment);
 
     return eventComment;
   }
@@ -218,29 +420,143 @@ public class EventCommentService extends BaseService {
     getEventById(eventId);
 
     // Get comment
+    long pageVersion = pageCache.getVersion(eventId);
     EventComment eventComment = getComment(eventId, commentId, false);
 
-    // Make sure liked already
-    boolean liked = eventCommentLikeRepository.existsByEventCommentIdAndUserId(commentId,
+    // Delete the like, if liked already
+    int unliked = eventCommentLikeRepository.deleteByEventCommentIdAndUserId(commentId,
         SecurityUtils.getCurrentUser().getId());
-    if (!liked) {
+    if (unliked == 0) {
       throw new EntityNotFoundException("You have not liked this comment yet");
     }
 
-    // Delete the like
-    eventCommentLikeRepository.deleteByEventCommentIdAndUserId(commentId,
-        SecurityUtils.getCurrentUser().getId());
-
-    // Decrease the like count
-    eventComment.setLikeCount(eventComment.getLikeCount() - 1);
-    eventComment = eventCommentRepository.save(eventComment);
-
     // Populate comment
-    populateComments(Arrays.asList(eventComment));
+    populateComments(Arrays.asList(eventComment), pageVersion);
+
+    // Decrease the like count, buffered or last as the comment row stays locked until commit
+    if (likeCounter.isEnabled()) {
+      // The pages get invalidated by the flush
+      likeCounter.add(commentId, -1);
+      eventComment.setLikeCount(eventComment.getLikeCount() + -1);
+    } else {
+      eventComment.setLikeCount(eventCommentRepository.addLikeCount(commentId, -1));
+      pageCache.invalidate(eventId);
+    }
+    publishChange(EventCommentChangeType.LIKE_COUNT_CHANGED, eventComment);
 
     return eventComment;
   }
 
+  /**
+   * Load a page of root comments with their first replies, without the likes of the current user.
+   * 
+   * @param eventId the event id
+   * @param criteria the normalized search criteria
+   * @param offsetPaging true if paged by offset, false if paged by cursor
+   * @param pageable the page request
+   * @return the page, with the cursor of the next page unless paged by an offset greater than 0
+   */
+  private SearchResponse<EventComment> loadPage(UUID eventId, EventCommentSearchRequest criteria,
+      boolean offsetPaging, Pageable pageable) {
+    // Make sure the event exists
+    getEventById(eventId);
+
+    // Get the root comments
+    SearchResponse<EventComment> searchResponse = new SearchResponse<>();
+    List<EventComment> comments;
+    if (offsetPaging && criteria.getOffset() > 0) {
+      // Ordered by id as well, like the first page
+      Direction direction = "ASC".equals(criteria.getSortDirection()) ? Direction.ASC
+          : Direction.DESC;
+      comments = eventCommentRepository.findAllByEventIdAndParentCommentIdIsNull(eventId,
+          new OffsetLimitPageRequest(criteria.getOffset(), criteria.getLimit(),
+              pageable.getSort().and(Sort.by(direction, "id"))));
+    } else {
+      // The first page or the page after the cursor. Fetch one more comment to know whether there
+      // is a next page
+      int limit = criteria.getLimit();
+      comments = findRootComments(eventId, criteria,
+          PageRequest.of(0, limit == Integer.MAX_VALUE ? limit : limit + 1));
+      if (comments.size() > limit) {
+        comments = new ArrayList<>(comments.subList(0, limit));
+        searchResponse.setNextCursor(
+            CommentCursor.encode(criteria.getSortBy(), comments.get(comments.size() - 1)));
+      }
+    }
+
+    // Populate
+    populateReplies(comments);
+
+    if (criteria.isIncludeCount()) {
+      searchResponse
+          .setCount(eventCommentRepository.countByEventIdAndParentCommentIdIsNull(eventId));
+    }
+    searchResponse.setRows(comments);
+
+    return searchResponse;
+  }
+
+  /**
+   * Find a page of root comments following the cursor, ordered by the sort column then id.
+   * 
+   * @param eventId the event id
+   * @param criteria the search criteria, with validated sort column and direction
+   * @param pageable the limit
+   * @return the comments
+   */
+  private List<EventComment> findRootComments(UUID eventId, EventCommentSearchRequest criteria,
+      Pageable pageable) {
+    boolean ascending = "ASC".equals(criteria.getSortDirection());
+    if (criteria.getCursor() == null) {
+      Direction direction = ascending ? Direction.ASC : Direction.DESC;
+      return eventCommentRepository.findAllByEventIdAndParentCommentIdIsNull(eventId,
+          PageRequest.of(0, pageable.getPageSize(),
+              Sort.by(direction, criteria.getSortBy()).and(Sort.by(direction, "id"))));
+    }
+
+    CommentCursor cursor = CommentCursor.decode(criteria.getCursor(), criteria.getSortBy());
+    if ("likeCount".equals(cursor.getSortBy())) {
+      return ascending
+          ? eventCommentRepository.findRootCommentsLikedMoreThan(eventId, (int) cursor.getValue(),
+              cursor.getId(), pageable)
+          : eventCommentRepository.findRootCommentsLikedLessThan(eventId, (int) cursor.getValue(),
+              cursor.getId(), pageable);
+    }
+    if ("hotScore".equals(cursor.getSortBy())) {
+      return ascending
+          ? eventCommentRepository.findRootCommentsScoredMoreThan(eventId, cursor.getHotScore(),
+              cursor.getId(), pageable)
+          : eventCommentRepository.findRootCommentsScoredLessThan(eventId, cursor.getHotScore(),
+              cursor.getId(), pageable);
+    }
+    return ascending
+        ? eventCommentRepository.findRootCommentsCreatedAfter(eventId, cursor.getCreatedAt(),
+            cursor.getId(), pageable)
+        : eventCommentRepository.findRootCommentsCreatedBefore(eventId, cursor.getCreatedAt(),
+            cursor.getId(), pageable);
+  }
+
+  /**
+   * Publish a comment change, streamed once the transaction commits.
+   * 
+   * @param type the change type
+   * @param eventComment the changed comment
+   */
+  private void publishChange(EventCommentChangeType type, EventComment eventComment) {
+    EventCommentChange change = new EventCommentChange();
+    change.setType(type);
+    change.setEventId(eventComment.getEventId());
+    change.setCommentId(eventComment.getId());
+    change.setParentCommentId(eventComment.getParentCommentId());
+    change.setLikeCount(eventComment.getLikeCount());
+    if (type != EventCommentChangeType.LIKE_COUNT_CHANGED) {
+      EventComment comment = new EventComment();
+      BeanUtils.copyProperties(eventComment, comment, "childComments", "likedByMe");
+      change.setComment(comment);
+    }
+    eventPublisher.publishEvent(change);
+  }
+
   /**
    * Validate the parent comment.
    * 
@@ -304,40 +620,80 @@ public class EventCommentService extends BaseService {
   }
 
   /**
-   * Populate child comments and flags.
+   * Populate the first replies, reply counts, flags and buffered like counts, loading the first
+   * reply ids and reply counts in one query, then the comments with the likes of the current user
+   * in another.
    * 
    * @param comments the root comment
+   * @param pageVersion the page version of the event, read before loading the comments
    */
-  private void populateComments(List<EventComment> comments) {
-    List<UUID> commentIds = comments.stream().map(EventComment::getId).collect(Collectors.toList());
-
-    // Get the child comments
-    List<EventComment> childComments = eventCommentRepository.findByParentCommentIdIn(commentIds);
-
-    // Map child comments to the parent comments
-    comments.forEach(comment -> {
-      comment.setChildComments(childComments.stream().filter(childComment -> {
-        return childComment.getParentCommentId().equals(comment.getId());
-      }).collect(Collectors.toList()));
-    });
-
-    // Calculate like by me for each comment
-    childComments.forEach(childComment -> {
-      commentIds.add(childComment.getId());
-    });
-    List<EventCommentLike> likes = eventCommentLikeRepository
-        .findByEventCommentIdInAndUserId(commentIds, SecurityUtils.getCurrentUser().getId());
-
-    comments.forEach(comment -> {
-      boolean likedByMe =
-          likes.stream().anyMatch(like -> like.getEventCommentId().equals(comment.getId()));
-      comment.setLikedByMe(likedByMe);
-
-      comment.getChildComments().forEach(childComment -> {
-        boolean childLikedByMe =
-            likes.stream().anyMatch(like -> like.getEventCommentId().equals(childComment.getId()));
-        childComment.setLikedByMe(childLikedByMe);
-      });
-    });
+  private void populateComments(List<EventComment> comments, long pageVersion) {
+    if (comments.isEmpty()) {
+      return;
+    }
+
+    // Get the first replies and the reply counts
+    Map<UUID, Integer> replyCounts = new HashMap<>();
+    Set<UUID> ids = findFirstReplyIds(comments, replyCounts);
+
+    // Get the comments and replies with the likes of the current user
+    List<Object[]> rows =
+        eventCommentRepository.findWithUserLikeCount(ids, SecurityUtils.getCurrentUser().getId());
+    List<EventComment> related = new ArrayList<>(rows.size());
+    Set<UUID> likedIds = new HashSet<>();
+    for (Object[] row : rows) {
+      EventComment comment = (EventComment) row[0];
+      related.add(comment);
+      if (((Number) row[1]).longValue() > 0) {
+        likedIds.add(comment.getId());
+      }
+    }
+
+    CommentTreeAssembler.assemble(comments, related, likedIds);
+    comments.forEach(
+        comment -> comment.setReplyCount(replyCounts.getOrDefault(comment.getId(), 0)));
+
+    // Include the like count changes not flushed yet
+    likeCounter.overlay(comments, pageVersion);
+  }
+
+  /**
+   * Populate the first replies and reply counts, the user-independent part of comments.
+   * 
+   * @param comments the root comment
+   */
+  private void populateReplies(List<EventComment> comments) {
+    if (comments.isEmpty()) {
+      return;
+    }
+
+    Map<UUID, Integer> replyCounts = new HashMap<>();
+    Set<UUID> ids = findFirstReplyIds(comments, replyCounts);
+
+    CommentTreeAssembler.assemble(comments, eventCommentRepository.findWithUserByIdIn(ids),
+        Collections.emptySet());
+    comments.forEach(
+        comment -> comment.setReplyCount(replyCounts.getOrDefault(comment.getId(), 0)));
+  }
+
+  /**
+   * Find the ids of the first replies of comments, and their reply counts.
+   * 
+   * @param comments the comments
+   * @param replyCounts the map to put the reply counts to, per comment id
+   * @return the ids of the comments and of their first replies
+   */
+  private Set<UUID> findFirstReplyIds(List<EventComment> comments,
+      Map<UUID, Integer> replyCounts) {
+    Set<UUID> commentIds = comments.stream().map(EventComment::getId).collect(Collectors.toSet());
+    Set<UUID> ids = new HashSet<>(commentIds);
+    for (Object[] row : eventCommentRepository.findFirstReplyIdsAndReplyCount(commentIds,
+        configuration.getReplyPreviewSize())) {
+      replyCounts.put(UUID.fromString((String) row[0]), ((Number) row[2]).intValue());
+      if (row[1] != null) {
+        ids.add(UUID.fromString((String) row[1]));
+      }
+    }
+    return ids;
   }
 }
@@ -0,0 +1,380 @@
+package com.doppler.services;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import com.doppler.entities.responses.EventCommentChange;
+import com.doppler.services.config.EventCommentStreamConfiguration;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * The in-process hub streaming the comment changes of events to their subscribers over
+ * Server-Sent Events. Idle streams hold no thread, the committed changes are serialized once and
+ * queued to the subscribers of the event by a few fan-out threads. The changes of an event all go
+ * through the same fan-out thread, so that they reach the subscribers in order.
+ *
+ * <p>
+ * The fan-out threads never write to the streams: each subscriber has a small queue of changes,
+ * drained by one of the send threads at a time. A subscriber whose queue is full, or whose write
+ * has been blocked for too long, is closed as too slow rather than holding back the others. A
+ * blocked write still holds its send thread until the connection times out.
+ */
+@Component
+public class EventCommentStreamHub {
+
+  /**
+   * The logger.
+   */
+  private static final Logger LOGGER = LoggerFactory.getLogger(EventCommentStreamHub.class);
+
+  /**
+   * The event comment stream configuration.
+   */
+  private final EventCommentStreamConfiguration configuration;
+
+  /**
+   * The object mapper serializing the changes.
+   */
+  private final ObjectMapper objectMapper;
+
+  /**
+   * The subscribers per event id.
+   */
+  private final Map<UUID, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+
+  /**
+   * The number of open streams.
+   */
+  private final AtomicInteger connections = new AtomicInteger();
+
+  /**
+   * The single thread executors queuing the changes, each event is assigned one by its id. Changes
+   * are dropped when the executor of their event is saturated.
+   */
+  private final ThreadPoolExecutor[] fanOutExecutors;
+
+  /**
+   * The executor writing the queued changes to the streams.
+   */
+  private final ThreadPoolExecutor sendExecutor;
+
+  /**
+   * The number of changes dropped.
+   */
+  private final Counter dropped;
+
+  /**
+   * The number of streams closed as too slow.
+   */
+  private final Counter slow;
+
+  /**
+   * Create a new instance.
+   *
+   * @param configuration the event comment stream configuration
+   * @param objectMapper the object mapper
+   * @param meterRegistry the meter registry
+   */
+  public EventCommentStreamHub(EventCommentStreamConfiguration configuration,
+      ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+    this.configuration = configuration;
+    this.objectMapper = objectMapper;
+    this.fanOutExecutors = new ThreadPoolExecutor[configuration.getFanOutThreads()];
+    CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("comment-stream-");
+    int queueCapacity =
+        Math.max(1, configuration.getFanOutQueueCapacity() / configuration.getFanOutThreads());
+    for (int i = 0; i < fanOutExecutors.length; i++) {
+      fanOutExecutors[i] = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+          new ArrayBlockingQueue<>(queueCapacity), threadFactory,
+          new ThreadPoolExecutor.AbortPolicy());
+    }
+    // At most one send task per subscriber is queued
+    this.sendExecutor = new ThreadPoolExecutor(configuration.getSendThreads(),
+        configuration.getSendThreads(), 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+        new CustomizableThreadFactory("comment-stream-send-"));
+    this.dropped = Counter.builder("event.comment.stream.dropped")
+        .description("The number of comment changes dropped as the fan-out was saturated")
+        .register(meterRegistry);
+    this.slow = Counter.builder("event.comment.stream.slow")
+        .description("The number of comment streams closed as too slow").register(meterRegistry);
+    Gauge.builder("event.comment.stream.connections", connections, AtomicInteger::get)
+        .description("The number of open comment streams").register(meterRegistry);
+  }
+
+  /**
+   * Subscribe to the comment changes of an event.
+   *
+   * @param eventId the event id
+   * @return the stream
+   * @throws RejectedExecutionException if the maximum number of streams is reached
+   */
+  public SseEmitter subscribe(UUID eventId) {
+    SseEmitter emitter = new SseEmitter(configuration.getTimeoutInMillis());
+    subscribe(eventId, emitter);
+    return emitter;
+  }
+
+  /**
+   * Subscribe a stream to the comment changes of an event.
+   *
+   * @param eventId the event id
+   * @param emitter the stream
+   * @throws RejectedExecutionException if the maximum number of streams is reached
+   */
+  void subscribe(UUID eventId, SseEmitter emitter) {
+    if (connections.incrementAndGet() > configuration.getMaxConnections()) {
+      connections.decrementAndGet();
+      throw new RejectedExecutionException("Too many comment streams");
+    }
+
+    Subscriber subscriber = new Subscriber(eventId, emitter);
+    do {
+      subscriber.subscribedTo =
+          subscribers.computeIfAbsent(eventId, key -> ConcurrentHashMap.newKeySet());
+      subscriber.subscribedTo.add(subscriber);
+      // Retry if the set has been removed as empty meanwhile
+    } while (subscribers.get(eventId) != subscriber.subscribedTo);
+
+    emitter.onCompletion(subscriber::unsubscribe);
+    emitter.onTimeout(subscriber::unsubscribe);
+    emitter.onError(ex -> subscriber.unsubscribe());
+  }
+
+  /**
+   * Publish a committed comment change to the subscribers of its event.
+   *
+   * @param change the change
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void publish(EventCommentChange change) {
+    Set<Subscriber> eventSubscribers = subscribers.get(change.getEventId());
+    if (eventSubscribers == null || eventSubscribers.isEmpty()) {
+      return;
+    }
+
+    String data;
+    try {
+      data = objectMapper.writeValueAsString(change);
+    } catch (JsonProcessingException ex) {
+      LOGGER.warn("Failed to serialize the comment change {}: {}", change, ex.getMessage());
+      return;
+    }
+
+    String name = change.getType().name();
+    try {
+      getFanOutExecutor(change.getEventId()).execute(() -> queue(eventSubscribers,
+          () -> SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON)));
+    } catch (RejectedExecutionException ex) {
+      dropped.increment();
+    }
+  }
+
+  /**
+   * Send a heartbeat to all subscribers, the streams whose connection is closed get removed.
+   */
+  @Scheduled(fixedDelayString = "${event-comment-stream.heartbeat-interval-in-millis:30000}")
+  public void heartbeat() {
+    subscribers.forEach((eventId, eventSubscribers) -> {
+      try {
+        getFanOutExecutor(eventId).execute(
+            () -> queue(eventSubscribers, () -> SseEmitter.event().comment("heartbeat")));
+      } catch (RejectedExecutionException ex) {
+        // Skipped, the next heartbeat follows shortly
+      }
+    });
+  }
+
+  /**
+   * Close all streams.
+   */
+  @PreDestroy
+  public void close() {
+    for (ThreadPoolExecutor fanOutExecutor : fanOutExecutors) {
+      fanOutExecutor.shutdownNow();
+    }
+    sendExecutor.shutdownNow();
+    subscribers.values().forEach(eventSubscribers -> eventSubscribers
+        .forEach(subscriber -> subscriber.emitter.complete()));
+  }
+
+  /**
+   * Get the fan-out executor of an event.
+   *
+   * @param eventId the event id
+   * @return the executor
+   */
+  private ThreadPoolExecutor getFanOutExecutor(UUID eventId) {
+    return fanOutExecutors[Math.floorMod(eventId.hashCode(), fanOutExecutors.length)];
+  }
+
+  /**
+   * Queue an event to subscribers, closing the ones too slow.
+   *
+   * @param eventSubscribers the subscribers
+   * @param event the event builder, a builder is consumed per subscriber
+   */
+  private void queue(Set<Subscriber> eventSubscribers,
+      Supplier<SseEmitter.SseEventBuilder> event) {
+    for (Subscriber subscriber : eventSubscribers) {
+      subscriber.queue(event.get());
+    }
+  }
+
+  /**
+   * A subscriber, with the queue of the events to send to its stream.
+   */
+  private final class Subscriber {
+
+    /**
+     * The event id.
+     */
+    private final UUID eventId;
+
+    /**
+     * The stream.
+     */
+    private final SseEmitter emitter;
+
+    /**
+     * The events to send.
+     */
+    private final BlockingQueue<SseEmitter.SseEventBuilder> events;
+
+    /**
+     * Whether a send task is queued or running.
+     */
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    /**
+     * The subscribers of the event the subscriber was added to.
+     */
+    private Set<Subscriber> subscribedTo;
+
+    /**
+     * Whether an event is being written.
+     */
+    private volatile boolean sending;
+
+    /**
+     * The time in nanoseconds the event being written started to be written.
+     */
+    private volatile long sendingSince;
+
+    /**
+     * Whether the subscriber is closed, the stream gets completed by the send task.
+     */
+    private volatile boolean closed;
+
+    /**
+     * Create a new instance.
+     *
+     * @param eventId the event id
+     * @param emitter the stream
+     */
+    private Subscriber(UUID eventId, SseEmitter emitter) {
+      this.eventId = eventId;
+      this.emitter = emitter;
+      this.events = new ArrayBlockingQueue<>(configuration.getSubscriberQueueCapacity());
+    }
+
+    /**
+     * Queue an event to send, closing the subscriber if too slow. Never blocks.
+     *
+     * @param event the event
+     */
+    private void queue(SseEmitter.SseEventBuilder event) {
+      if (closed) {
+        return;
+      }
+      if (sending && System.nanoTime() - sendingSince > TimeUnit.MILLISECONDS
+          .toNanos(configuration.getSlowSubscriberTimeoutInMillis()) || !events.offer(event)) {
+        slow.increment();
+        closed = true;
+        events.clear();
+        unsubscribe();
+      }
+      drain();
+    }
+
+    /**
+     * Start a send task unless one is queued or running already.
+     */
+    private void drain() {
+      if (draining.compareAndSet(false, true)) {
+        try {
+          sendExecutor.execute(this::send);
+        } catch (RejectedExecutionException ex) {
+          // Shutting down
+          draining.set(false);
+        }
+      }
+    }
+
+    /**
+     * Send the queued events, then complete the stream if closed meanwhile.
+     */
+    private void send() {
+      do {
+        SseEmitter.SseEventBuilder event;
+        while (!closed && (event = events.poll()) != null) {
+          sendingSince = System.nanoTime();
+          sending = true;
+          try {
+            emitter.send(event);
+          } catch (IOException | IllegalStateException ex) {
+            // The client is gone
+            unsubscribe();
+            events.clear();
+            emitter.completeWithError(ex);
+            return;
+          } finally {
+            sending = false;
+          }
+        }
+        if (closed) {
+          // Completed by the send task, as the completion waits for any write in progress
+          events.clear();
+          emitter.complete();
+          return;
+        }
+        draining.set(false);
+        // Send again if an event was queued after the last poll
+      } while (!closed && !events.isEmpty() && draining.compareAndSet(false, true));
+    }
+
+    /**
+     * Remove the subscriber from the subscribers of its event.
+     */
+    private void unsubscribe() {
+      closed = true;
+      if (subscribedTo.remove(this)) {
+        connections.decrementAndGet();
+      }
+      subscribers.computeIfPresent(eventId, (key, set) -> set.isEmpty() ? null : set);
+    }
+  }
+}
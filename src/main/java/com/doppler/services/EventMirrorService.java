@@ -0,0 +1,189 @@
+package com.doppler.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import com.doppler.entities.Event;
+import com.doppler.entities.EventSession;
+import com.doppler.entities.UserEvent;
+import com.doppler.entities.requests.EventSearchRequest;
+import com.doppler.entities.requests.EventStatus;
+import com.doppler.entities.responses.SearchResponse;
+import com.doppler.repositories.EventRepository;
+import com.doppler.repositories.EventSessionRepository;
+import com.doppler.repositories.UserEventRepository;
+import com.doppler.security.SecurityUtils;
+
+/**
+ * The service provides operations on the local mirror of the backend events.
+ */
+@Service
+@Transactional
+public class EventMirrorService extends BaseService {
+
+  /**
+   * The maximum number of events flagged as removed per query.
+   */
+  private static final int REMOVE_BATCH_SIZE = 1000;
+
+  /**
+   * The event repository.
+   */
+  @Autowired
+  private EventRepository eventRepository;
+
+  /**
+   * The event session repository.
+   */
+  @Autowired
+  private EventSessionRepository eventSessionRepository;
+
+  /**
+   * The user event repository.
+   */
+  @Autowired
+  private UserEventRepository userEventRepository;
+
+  /**
+   * Search the mirrored events.
+   * 
+   * @param criteria the search criteria
+   * @return the search result
+   * @throws IllegalArgumentException if the paging or sorting criteria are invalid
+   */
+  @Transactional(readOnly = true)
+  public SearchResponse<Event> search(EventSearchRequest criteria) {
+    Pageable pageable = createPageRequest(criteria, Arrays.asList("firstSessionStart"),
+        "firstSessionStart", "asc");
+
+    Date now = new Date();
+    Date lastSessionEndFrom = criteria.getStatus() == EventStatus.UPCOMING ? now : null;
+    Date lastSessionEndTo = criteria.getStatus() == EventStatus.PAST ? now : null;
+    Set<UUID> myEventIds = getMyEventIds();
+
+    SearchResponse<Event> searchResponse = new SearchResponse<>();
+    Page<Event> page;
+    if (criteria.isOnlyMyEvents()) {
+      if (myEventIds.isEmpty()) {
+        return searchResponse;
+      }
+      page = eventRepository.search(uuidToString(criteria.getTopicId()), lastSessionEndFrom,
+          lastSessionEndTo, new ArrayList<>(myEventIds), pageable);
+    } else {
+      page = eventRepository.search(uuidToString(criteria.getTopicId()), lastSessionEndFrom,
+          lastSessionEndTo, pageable);
+    }
+
+    page.getContent().forEach(event -> populate(event, myEventIds));
+    searchResponse.setCount(page.getTotalElements());
+    searchResponse.setRows(page.getContent());
+
+    return searchResponse;
+  }
+
+  /**
+   * Get a mirrored event by id.
+   * 
+   * @param id the id
+   * @return the event, null if not mirrored or removed
+   */
+  @Transactional(readOnly = true)
+  public Event get(UUID id) {
+    Event event = eventRepository.findByIdAndRemovedFalse(id).orElse(null);
+    if (event != null) {
+      populate(event, getMyEventIds());
+    }
+    return event;
+  }
+
+  /**
+   * Get mirrored events by ids with one query.
+   * 
+   * @param ids the ids
+   * @return the mirrored events, the ids not mirrored or removed are absent
+   */
+  @Transactional(readOnly = true)
+  public List<Event> getAll(Collection<UUID> ids) {
+    List<Event> events = eventRepository.findByIdInAndRemovedFalse(ids);
+    Set<UUID> myEventIds = getMyEventIds();
+    events.forEach(event -> populate(event, myEventIds));
+    return events;
+  }
+
+  /**
+   * Create or update mirrored events with their sessions and tags.
+   * 
+   * @param events the events pulled from the backend
+   * @param syncedAt the start time of the pull
+   */
+  public void save(List<Event> events, Date syncedAt) {
+    for (Event event : events) {
+      List<EventSession> sessions = event.getSessions();
+      if (sessions == null) {
+        event.setSessions(Collections.emptyList());
+      } else {
+        // The first and last session dates are computed from the ordered sessions
+        sessions.sort(Comparator.comparing(EventSession::getStart,
+            Comparator.nullsLast(Comparator.naturalOrder())));
+        event.setSessions(eventSessionRepository.saveAll(sessions));
+      }
+      event.setIsMyEvent(null);
+      event.setSyncedAt(syncedAt);
+      event.setRemoved(false);
+      eventRepository.save(event);
+    }
+  }
+
+  /**
+   * Flag as removed the mirrored events a full pull did not return. The events saved since the
+   * pull started, by a pull of another instance, are kept.
+   * 
+   * @param pulledIds the ids of the events returned by the full pull
+   * @param syncedAt the start time of the full pull
+   * @return the number of removed events
+   */
+  public int removeMissing(Set<UUID> pulledIds, Date syncedAt) {
+    List<UUID> missingIds = eventRepository.findIdsNotSyncedSince(syncedAt).stream()
+        .filter(id -> !pulledIds.contains(id)).collect(Collectors.toList());
+    for (int from = 0; from < missingIds.size(); from += REMOVE_BATCH_SIZE) {
+      eventRepository.markRemoved(
+          missingIds.subList(from, Math.min(from + REMOVE_BATCH_SIZE, missingIds.size())));
+    }
+    return missingIds.size();
+  }
+
+  /**
+   * Get the ids of the events the current user registered to.
+   * 
+   * @return the event ids
+   */
+  private Set<UUID> getMyEventIds() {
+    return userEventRepository.findByUserId(SecurityUtils.getCurrentUser().getId()).stream()
+        .map(UserEvent::getEventId).collect(Collectors.toSet());
+  }
+
+  /**
+   * Load the lazy collections of an event, and flag whether the current user registered to it.
+   * 
+   * @param event the event
+   * @param myEventIds the ids of the events the current user registered to
+   */
+  private void populate(Event event, Set<UUID> myEventIds) {
+    Hibernate.initialize(event.getSessions());
+    Hibernate.initialize(event.getTags());
+    event.setIsMyEvent(myEventIds.contains(event.getId()));
+  }
+}
@@ -1,11 +1,16 @@
 package com.doppler.services;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.util.UriComponentsBuilder;
 
@@ -47,43 +52,112 @@ public class EventService extends BaseService {
 	@Autowired
 	private NotificationContentConfiguration notificationContentConfiguration;
 
+	/**
+	 * The asynchronous backend API service.
+	 */
+	@Autowired
+	private AsyncBackendAPIService asyncApiService;
+
+	/**
+	 * The local event mirror service.
+	 */
+	@Autowired
+	private EventMirrorService eventMirrorService;
+
+	/**
+	 * The event synchronizer.
+	 */
+	@Autowired
+	private EventSynchronizer eventSynchronizer;
+
+	/**
+	 * The event batch loader.
+	 */
 	@Autowired
-	private BackendAPIService apiService;
+	private EventBatchLoader eventBatchLoader;
 
 	/**
-	 * Search events.
+	 * Search events from the local mirror, or asynchronously from the backend if the mirror is
+	 * stale. No transaction is held while waiting for the backend.
 	 * 
 	 * @param criteria the search criteria
-	 * @return the search result
+	 * @return the future search result
 	 */
-	@SuppressWarnings("unchecked")
-	@Transactional(readOnly = true)
-	public SearchResponse<Event> search(EventSearchRequest criteria) {
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	public CompletableFuture<SearchResponse<Event>> search(EventSearchRequest criteria) {
+		if (eventSynchronizer.isFresh()) {
+			return CompletableFuture.completedFuture(eventMirrorService.search(criteria));
+		}
+
 		UriComponentsBuilder builder = UriComponentsBuilder.fromHttpUrl(ApiConstants.BASE_URI + EVENTS_URL)
 				.queryParam("limit", criteria.getLimit()).queryParam("offset", criteria.getOffset())
 				.queryParam("sortBy", criteria.getSortBy()).queryParam("sortDirection", criteria.getSortDirection())
 				.queryParam("eventStatus", criteria.getStatus()).queryParam("topicId", criteria.getTopicId());
 
-		return apiService.getForEntity(SearchResponse.class, Event.class, builder.toUriString());
+		return (CompletableFuture) asyncApiService.getForEntity(SearchResponse.class, Event.class,
+				builder.toUriString());
 	}
 
 	/**
-	 * Get an event by id.
+	 * Get an event by id, from the local mirror if it is recent enough. The event is cached for the
+	 * current request. No transaction is held while waiting for the backend.
 	 * 
 	 * @param id the id
-	 * @return the event
+	 * @return the event, null if not found
 	 */
-	@Transactional(readOnly = true)
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
 	public Event get(UUID id) {
-		return apiService.getForEntity(Event.class, ApiConstants.BASE_URI + EVENTS_URL + "/{id}", id);
+		return getAll(Collections.singleton(id)).get(id);
+	}
+
+	/**
+	 * Get events by ids with one mirror query and concurrent backend calls for the events not
+	 * mirrored. The events are cached for the current request. No transaction is held while waiting
+	 * for the backend.
+	 * 
+	 * @param ids the ids
+	 * @return the found events by id, the ids not found are absent
+	 */
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	public Map<UUID, Event> getAll(Collection<UUID> ids) {
+		return eventBatchLoader.load(ids);
+	}
+
+	/**
+	 * Get an event by id from the local mirror, or asynchronously from the backend if the mirror is
+	 * stale or does not have the event yet. No transaction is held while waiting for the backend.
+	 * 
+	 * @param id the id
+	 * @return the future event
+	 */
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	public CompletableFuture<Event> getAsync(UUID id) {
+		Event event = getMirrored(id);
+		if (event != null) {
+			return CompletableFuture.completedFuture(event);
+		}
+		return asyncApiService.getForEntity(Event.class, ApiConstants.BASE_URI + EVENTS_URL + "/{id}", id);
+	}
+
+	/**
+	 * Get an event from the local mirror.
+	 * 
+	 * @param id the id
+	 * @return the event, null if the mirror is stale or does not have the event
+	 */
+	private Event getMirrored(UUID id) {
+		return eventSynchronizer.isFresh() ? eventMirrorService.get(id) : null;
 	}
 
 	/**
-	 * Share event to other users.
+	 * Share event to other users. No transaction is held while waiting for the backend, the
+	 * notifications are saved in their own transaction.
 	 * 
 	 * @param eventId the event id
 	 * @param request the request
 	 */
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
 	public void share(UUID eventId, List<UserIdRequest> request) {
 		// Validate
 		validateList(request, "request");
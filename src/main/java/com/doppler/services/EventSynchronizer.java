@@ -0,0 +1,256 @@
+package com.doppler.services;
+
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.util.UriComponentsBuilder;
+import com.doppler.entities.Event;
+import com.doppler.entities.SyncState;
+import com.doppler.entities.responses.SearchResponse;
+import com.doppler.repositories.SyncStateRepository;
+import com.doppler.services.config.EventSyncConfiguration;
+import com.doppler.util.ApiConstants;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * The background job keeping the local event mirror current. Each pull asks the backend for the
+ * events changed since the watermark, and a full pull is made periodically. The mirrored events a
+ * full pull does not return are flagged as removed.
+ */
+@Component
+public class EventSynchronizer {
+
+  /**
+   * The logger.
+   */
+  private static final Logger LOGGER = LoggerFactory.getLogger(EventSynchronizer.class);
+
+  /**
+   * The name of the event synchronization state.
+   */
+  private static final String SYNC_NAME = "events";
+
+  /**
+   * The backend events url.
+   */
+  private static final String EVENTS_URL = ApiConstants.BASE_URI + "/events";
+
+  /**
+   * The event sync configuration.
+   */
+  @Autowired
+  private EventSyncConfiguration configuration;
+
+  /**
+   * The sync state repository.
+   */
+  @Autowired
+  private SyncStateRepository syncStateRepository;
+
+  /**
+   * The event mirror service.
+   */
+  @Autowired
+  private EventMirrorService eventMirrorService;
+
+  /**
+   * The backend API service.
+   */
+  @Autowired
+  private BackendAPIService apiService;
+
+  /**
+   * The backend login service.
+   */
+  @Autowired
+  private LoginRestService loginService;
+
+  /**
+   * The number of events pulled.
+   */
+  private final Counter pulledEvents;
+
+  /**
+   * The number of failed pulls.
+   */
+  private final Counter failures;
+
+  /**
+   * The backend token of the admin user performing the pulls.
+   */
+  private volatile String adminToken;
+
+  /**
+   * The end time in milliseconds of the last successful pull, 0 if none.
+   */
+  private volatile long lastSuccess;
+
+  /**
+   * Create a new instance.
+   *
+   * @param meterRegistry the meter registry
+   */
+  public EventSynchronizer(MeterRegistry meterRegistry) {
+    pulledEvents = Counter.builder("event.sync.events")
+        .description("The number of events pulled from the backend").register(meterRegistry);
+    failures = Counter.builder("event.sync.failures")
+        .description("The number of failed event pulls").register(meterRegistry);
+    Gauge.builder("event.sync.staleness", this, synchronizer -> synchronizer.lastSuccess == 0
+        ? Double.NaN : (System.currentTimeMillis() - synchronizer.lastSuccess) / 1000.0)
+        .description("The age in seconds of the last successful event pull")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Load the time of the last successful pull, so that a restarted instance serves the mirror
+   * right away if it is recent enough instead of waiting for its first pull.
+   */
+  @PostConstruct
+  public void init() {
+    if (!configuration.isEnabled()) {
+      return;
+    }
+
+    try {
+      syncStateRepository.findById(SYNC_NAME).map(SyncState::getLastSuccess)
+          .ifPresent(date -> lastSuccess = date.getTime());
+    } catch (RuntimeException ex) {
+      // The mirror is served once this instance has pulled the events
+      LOGGER.warn("Event sync state not loaded {}", ex.getMessage());
+    }
+  }
+
+  /**
+   * Check whether the mirror is recent enough to be served instead of the backend.
+   *
+   * @return true if the mirror can be served
+   */
+  public boolean isFresh() {
+    return configuration.isEnabled() && lastSuccess > 0 && System.currentTimeMillis()
+        - lastSuccess <= TimeUnit.SECONDS.toMillis(configuration.getMaxStalenessInSeconds());
+  }
+
+  /**
+   * Pull the changed events from the backend into the mirror.
+   */
+  @Scheduled(fixedDelayString = "${event-sync.interval-in-millis:60000}")
+  public void synchronize() {
+    if (!configuration.isEnabled()) {
+      return;
+    }
+
+    try {
+      SyncState state = syncStateRepository.findById(SYNC_NAME).orElseGet(() -> {
+        SyncState newState = new SyncState();
+        newState.setName(SYNC_NAME);
+        return newState;
+      });
+
+      Date startedAt = new Date();
+      boolean full = state.getWatermark() == null || state.getLastFullSync() == null
+          || startedAt.getTime() - state.getLastFullSync().getTime() >= TimeUnit.HOURS
+              .toMillis(configuration.getFullSyncIntervalInHours());
+      Date since = full ? null
+          : new Date(state.getWatermark().getTime()
+              - TimeUnit.SECONDS.toMillis(configuration.getWatermarkOverlapInSeconds()));
+
+      Set<UUID> pulledIds = new HashSet<>();
+      long count = pull(since, startedAt, pulledIds);
+
+      state.setWatermark(startedAt);
+      if (full) {
+        // The events shifted between the pages if the count does not match, so some may have been
+        // skipped: nothing is removed and the full pull is made again at the next pull
+        if (pulledIds.size() == count) {
+          int removed = eventMirrorService.removeMissing(pulledIds, startedAt);
+          state.setLastFullSync(startedAt);
+          LOGGER.info("Removed {} events no longer returned by the backend", removed);
+        } else {
+          LOGGER.warn("Events changed during the full pull, {} pulled of {}", pulledIds.size(),
+              count);
+        }
+      }
+      state.setLastSuccess(new Date());
+      syncStateRepository.save(state);
+      lastSuccess = state.getLastSuccess().getTime();
+
+      LOGGER.info("Pulled {} events from the backend, full {}", pulledIds.size(), full);
+    } catch (RuntimeException ex) {
+      failures.increment();
+      LOGGER.warn("Event pull failed {}", ex.getMessage());
+    }
+  }
+
+  /**
+   * Pull the events changed since a time, page by page.
+   *
+   * @param since the time, null to pull all events
+   * @param startedAt the start time of the pull
+   * @param pulledIds the set the ids of the pulled events are added to
+   * @return the total number of events reported by the last page, -1 if no data
+   */
+  private long pull(Date since, Date startedAt, Set<UUID> pulledIds) {
+    int offset = 0;
+    while (true) {
+      SearchResponse<Event> page = fetchPage(since, offset);
+      List<Event> rows = page != null ? page.getRows() : null;
+      if (rows == null || rows.isEmpty()) {
+        return page != null && page.getCount() != null ? page.getCount() : -1;
+      }
+
+      eventMirrorService.save(rows, startedAt);
+      rows.forEach(event -> pulledIds.add(event.getId()));
+      pulledEvents.increment(rows.size());
+      offset += rows.size();
+      if (offset >= page.getCount()) {
+        return page.getCount();
+      }
+    }
+  }
+
+  /**
+   * Fetch a page of events, logging in again once if the admin token is rejected.
+   *
+   * @param since the time the events changed since, null for all events
+   * @param offset the page offset
+   * @return the page, null if no data
+   */
+  @SuppressWarnings("unchecked")
+  private SearchResponse<Event> fetchPage(Date since, int offset) {
+    UriComponentsBuilder builder = UriComponentsBuilder.fromHttpUrl(EVENTS_URL)
+        .queryParam("limit", configuration.getPageSize()).queryParam("offset", offset)
+        .queryParam("sortBy", "firstSessionStart").queryParam("sortDirection", "asc");
+    if (since != null) {
+      builder.queryParam("updatedSince", DateTimeFormatter.ISO_INSTANT.format(since.toInstant()));
+    }
+    String url = builder.toUriString();
+
+    if (adminToken == null) {
+      adminToken = loginService.login();
+    }
+    try {
+      return apiService.getForEntityWithToken(adminToken, SearchResponse.class, Event.class, url);
+    } catch (HttpClientErrorException ex) {
+      if (ex.getStatusCode() != HttpStatus.UNAUTHORIZED
+          && ex.getStatusCode() != HttpStatus.FORBIDDEN) {
+        throw ex;
+      }
+      adminToken = loginService.login();
+      return apiService.getForEntityWithToken(adminToken, SearchResponse.class, Event.class, url);
+    }
+  }
+}
@@ -0,0 +1,163 @@
+package com.doppler.services;
+
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The Bloom filter of the comments liked by a user. A negative answer is exact, a positive answer
+ * may be false and must be checked. Comments can be added concurrently with lookups, but not
+ * removed, un-liked comments remain positive until the filter gets rebuilt. The filter knows the
+ * likes up to its like version, those of the user beyond it are missed.
+ */
+final class LikedCommentFilter {
+
+  /**
+   * The minimum number of comments a filter is sized for.
+   */
+  private static final int MIN_CAPACITY = 64;
+
+  /**
+   * The bits.
+   */
+  private final AtomicLongArray bits;
+
+  /**
+   * The number of bits.
+   */
+  private final long bitCount;
+
+  /**
+   * The number of hash functions.
+   */
+  private final int hashCount;
+
+  /**
+   * The number of comments the filter is sized for at the target false positive rate.
+   */
+  private final int capacity;
+
+  /**
+   * The number of comments added.
+   */
+  private final AtomicInteger size = new AtomicInteger();
+
+  /**
+   * The like version of the user the filter knows the likes of.
+   */
+  private final AtomicLong likeVersion;
+
+  /**
+   * Create a new instance sized for twice the given comments, leaving room for new likes.
+   *
+   * @param likedIds the ids of the liked comments
+   * @param likeVersion the like version of the user, read before the liked comments
+   * @param falsePositiveRate the target false positive rate
+   */
+  LikedCommentFilter(Collection<UUID> likedIds, long likeVersion, double falsePositiveRate) {
+    this.likeVersion = new AtomicLong(likeVersion);
+    capacity = Math.max(MIN_CAPACITY, likedIds.size() * 2);
+    long optimalBits =
+        (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+    bits = new AtomicLongArray((int) ((optimalBits + 63) / 64));
+    bitCount = bits.length() * 64L;
+    hashCount = Math.max(1, (int) Math.round((double) bitCount / capacity * Math.log(2)));
+    likedIds.forEach(this::add);
+  }
+
+  /**
+   * Add a liked comment.
+   *
+   * @param commentId the comment id
+   */
+  void add(UUID commentId) {
+    long hash = hash(commentId);
+    int hash1 = (int) hash;
+    int hash2 = (int) (hash >>> 32);
+    for (int i = 1; i <= hashCount; i++) {
+      long index = ((hash1 + i * hash2) & Integer.MAX_VALUE) % bitCount;
+      long mask = 1L << index;
+      int word = (int) (index >>> 6);
+      long value;
+      do {
+        value = bits.get(word);
+      } while ((value & mask) == 0 && !bits.compareAndSet(word, value, value | mask));
+    }
+    size.incrementAndGet();
+  }
+
+  /**
+   * Add a like made through this instance, moving the like version past it.
+   *
+   * @param commentId the liked comment id
+   */
+  void liked(UUID commentId) {
+    add(commentId);
+    likeVersion.incrementAndGet();
+  }
+
+  /**
+   * Get the like version of the user the filter knows the likes of.
+   *
+   * @return the like version
+   */
+  long getLikeVersion() {
+    return likeVersion.get();
+  }
+
+  /**
+   * Check whether a comment may have been liked.
+   *
+   * @param commentId the comment id
+   * @return false if not liked, true if possibly liked
+   */
+  boolean mightContain(UUID commentId) {
+    long hash = hash(commentId);
+    int hash1 = (int) hash;
+    int hash2 = (int) (hash >>> 32);
+    for (int i = 1; i <= hashCount; i++) {
+      long index = ((hash1 + i * hash2) & Integer.MAX_VALUE) % bitCount;
+      if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Check whether more comments have been added than the filter is sized for, i.e. whether the
+   * false positive rate exceeds its target.
+   *
+   * @return true if the filter should be rebuilt
+   */
+  boolean isSaturated() {
+    return size.get() > capacity;
+  }
+
+  /**
+   * Get the memory used by the bits.
+   *
+   * @return the number of bytes
+   */
+  int getSizeInBytes() {
+    return bits.length() * 8;
+  }
+
+  /**
+   * Hash a comment id, mixing both halves with the MurmurHash3 finalizer.
+   *
+   * @param commentId the comment id
+   * @return the hash
+   */
+  private static long hash(UUID commentId) {
+    long hash = commentId.getMostSignificantBits() * 31 + commentId.getLeastSignificantBits();
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+}
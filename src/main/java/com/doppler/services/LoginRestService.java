@@ -4,20 +4,11 @@ import static com.doppler.util.ApiConstants.ADMIN_USER_KEY;
 import static com.doppler.util.ApiConstants.BASE_URI;
 import static com.doppler.util.ApiConstants.USER_KEY;
 
-import javax.servlet.http.HttpServletRequest;
-
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Service;
 
-import com.doppler.entities.User;
 import com.doppler.entities.requests.LoginRestServiceRequest;
 import com.doppler.entities.responses.LoginRestServiceResponse;
-import com.doppler.repositories.UserRepository;
-import com.doppler.security.BearerTokenFilter;
-import com.doppler.security.SecurityUtils;
 
 @Service
 public class LoginRestService {
@@ -27,23 +18,14 @@ public class LoginRestService {
 	@Autowired
 	private RestTemplateService helper;
 
-	@Autowired
-	private HttpServletRequest request;
-
-	/**
-	 * The user repository.
-	 */
-	@Autowired
-	private UserRepository userRepository;
-
-	private LoginRestServiceRequest loginDetails = new LoginRestServiceRequest();
-
 	public String login() {
+		LoginRestServiceRequest loginDetails = new LoginRestServiceRequest();
 		loginDetails.setKey(ADMIN_USER_KEY);
 		return performLoginAndRetrieveToken(loginDetails);
 	}
 
 	public String userLogin() {
+		LoginRestServiceRequest loginDetails = new LoginRestServiceRequest();
 		loginDetails.setKey(USER_KEY);
 		return performLoginAndRetrieveToken(loginDetails);
 	}
@@ -56,24 +38,4 @@ public class LoginRestService {
 		}
 		return null;
 	}
-
-	public void reauthenticateBackendServer() {
-		// Re authenticate to the backend server
-		String token = userLogin();
-
-		// Update the retrieved token in the database.
-		User user = userRepository.findByEmailIgnoreCase(SecurityUtils.getCurrentUser().getEmail());
-		user.setBackendToken(token);
-		userRepository.save(user);
-
-		// Update the user token on the Security context
-		updateUserToSecurityContext(user, request);
-	}
-
-	public static void updateUserToSecurityContext(User user, HttpServletRequest request) {
-		UsernamePasswordAuthenticationToken authentication = BearerTokenFilter
-				.getUsernamePasswordAuthenticationToken(user);
-		authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-		SecurityContextHolder.getContext().setAuthentication(authentication);
-	}
 }
@@ -1,15 +1,22 @@
 package com.doppler.services;
 
 import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import javax.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import com.doppler.entities.Event;
 import com.doppler.entities.Notification;
 import com.doppler.entities.requests.PagingAndSortingSearchRequest;
 import com.doppler.entities.responses.SearchResponse;
@@ -23,6 +30,11 @@ import com.doppler.security.SecurityUtils;
 @Transactional
 public class NotificationService extends BaseService {
 
+  /**
+   * The logger.
+   */
+  private static final Logger LOGGER = LoggerFactory.getLogger(NotificationService.class);
+
   /**
    * The notification repository.
    */
@@ -30,12 +42,19 @@ public class NotificationService extends BaseService {
   private NotificationRepository notificationRepository;
 
   /**
-   * Search notifications of the current user.
+   * The event service.
+   */
+  @Autowired
+  private EventService eventService;
+
+  /**
+   * Search notifications of the current user. The related events of the page are resolved in one
+   * batch, no transaction is held while waiting for the backend.
    * 
    * @param criteria the search criteria
    * @return the search result
    */
-  @Transactional(readOnly = true)
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
   public SearchResponse<Notification> search(PagingAndSortingSearchRequest criteria) {
     // Sort by createdAt descending
     criteria.setSortBy("createdAt");
@@ -50,9 +69,42 @@ public class NotificationService extends BaseService {
     searchResponse.setCount(page.getTotalElements());
     searchResponse.setRows(page.getContent());
 
+    setRelatedEvents(page.getContent());
     return searchResponse;
   }
 
+  /**
+   * Set the related events of notifications with one batch lookup. The notifications are still
+   * listed if the events cannot be loaded, without their related events.
+   *
+   * @param notifications the notifications
+   */
+  private void setRelatedEvents(Iterable<Notification> notifications) {
+    Set<UUID> eventIds = new LinkedHashSet<>();
+    for (Notification notification : notifications) {
+      if (Event.class.getSimpleName().equals(notification.getRelatedObjectType())
+          && notification.getRelatedObjectId() != null) {
+        eventIds.add(notification.getRelatedObjectId());
+      }
+    }
+    if (eventIds.isEmpty()) {
+      return;
+    }
+
+    Map<UUID, Event> events;
+    try {
+      events = eventService.getAll(eventIds);
+    } catch (RuntimeException ex) {
+      LOGGER.warn("Failed to load the related events of notifications", ex);
+      return;
+    }
+    for (Notification notification : notifications) {
+      if (Event.class.getSimpleName().equals(notification.getRelatedObjectType())) {
+        notification.setRelatedEvent(events.get(notification.getRelatedObjectId()));
+      }
+    }
+  }
+
   /**
    * Mark a notification as read.
    * 
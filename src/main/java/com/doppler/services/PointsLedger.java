@@ -0,0 +1,91 @@
+package com.doppler.services;
+
+import java.util.UUID;
+import javax.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import com.doppler.entities.UserRewardPoint;
+import com.doppler.repositories.UserRepository;
+import com.doppler.repositories.UserRewardPointRepository;
+
+/**
+ * The service awarding reward points. Each award appends to the reward points ledger and adds to
+ * the user points with an atomic increment in the same transaction, so that concurrent awards to
+ * the same user are never lost and the user row is not rewritten.
+ */
+@Service
+@Transactional
+public class PointsLedger {
+
+  /**
+   * The user repository.
+   */
+  @Autowired
+  private UserRepository userRepository;
+
+  /**
+   * The user reward point repository.
+   */
+  @Autowired
+  private UserRewardPointRepository userRewardPointRepository;
+
+  /**
+   * The cache of the authenticated users.
+   */
+  @Autowired
+  private AuthenticationCache authenticationCache;
+
+  /**
+   * Award points to a user.
+   *
+   * @param userId the user id
+   * @param points the points
+   * @param description the description
+   * @return the user reward point
+   * @throws EntityNotFoundException if the user does not exist
+   */
+  public UserRewardPoint award(UUID userId, int points, String description) {
+    if (userRepository.addPoints(userId, points) == 0) {
+      throw new EntityNotFoundException("User does not exist with id = " + userId);
+    }
+
+    return append(userId, points, description);
+  }
+
+  /**
+   * Award points to a new user, and mark it as existing. Awarded only once, even to concurrent
+   * requests.
+   *
+   * @param userId the user id
+   * @param points the points
+   * @param description the description
+   * @return the user reward point, null if the user is not new
+   */
+  public UserRewardPoint awardNewUser(UUID userId, int points, String description) {
+    if (userRepository.addPointsIfNew(userId, points, System.currentTimeMillis()) == 0) {
+      return null;
+    }
+
+    return append(userId, points, description);
+  }
+
+  /**
+   * Append an award to the ledger.
+   *
+   * @param userId the user id
+   * @param points the points
+   * @param description the description
+   * @return the user reward point
+   */
+  private UserRewardPoint append(UUID userId, int points, String description) {
+    authenticationCache.invalidate(userId);
+
+    UserRewardPoint userRewardPoint = new UserRewardPoint();
+    userRewardPoint.setDescription(description);
+    userRewardPoint.setPoints(points);
+    userRewardPoint.setUserId(userId);
+
+    return userRewardPointRepository.save(userRewardPoint);
+  }
+}
@@ -0,0 +1,135 @@
+package com.doppler.services;
+
+import java.util.List;
+import java.util.UUID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import com.doppler.repositories.UserRepository;
+import com.doppler.services.config.PointsReconciliationConfiguration;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * The background job checking the invariant that the points of each user are the sum of its
+ * reward points ledger. Users are read in batches by id, each batch compares the balances with the
+ * ledger sums in one statement.
+ */
+@Component
+public class PointsReconciler {
+
+  /**
+   * The logger.
+   */
+  private static final Logger LOGGER = LoggerFactory.getLogger(PointsReconciler.class);
+
+  /**
+   * The least user id.
+   */
+  private static final UUID FIRST_ID = new UUID(0, 0);
+
+  /**
+   * The points reconciliation configuration.
+   */
+  @Autowired
+  private PointsReconciliationConfiguration configuration;
+
+  /**
+   * The user repository.
+   */
+  @Autowired
+  private UserRepository userRepository;
+
+  /**
+   * The cache of the authenticated users.
+   */
+  @Autowired
+  private AuthenticationCache authenticationCache;
+
+  /**
+   * The number of checked users.
+   */
+  private final Counter checkedUsers;
+
+  /**
+   * The number of users whose points did not match the ledger.
+   */
+  private final Counter mismatches;
+
+  /**
+   * The number of users whose points were reset to the ledger sum.
+   */
+  private final Counter repairs;
+
+  /**
+   * Create a new instance.
+   *
+   * @param meterRegistry the meter registry
+   */
+  public PointsReconciler(MeterRegistry meterRegistry) {
+    checkedUsers = Counter.builder("points.reconciliation.users")
+        .description("The number of users checked against the ledger").register(meterRegistry);
+    mismatches = Counter.builder("points.reconciliation.mismatches")
+        .description("The number of users whose points did not match the ledger")
+        .register(meterRegistry);
+    repairs = Counter.builder("points.reconciliation.repairs")
+        .description("The number of users whose points were reset to the ledger sum")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Check the points of all users against the ledger.
+   */
+  @Scheduled(fixedDelayString = "${points-reconciliation.interval-in-millis:3600000}")
+  public void check() {
+    if (!configuration.isEnabled()) {
+      return;
+    }
+
+    try {
+      int found = reconcile(configuration.isRepair());
+      LOGGER.info("Found {} users whose points do not match the ledger", found);
+    } catch (RuntimeException ex) {
+      LOGGER.warn("Points reconciliation failed {}", ex.getMessage());
+    }
+  }
+
+  /**
+   * Check the points of all users against the ledger. A repair only applies if the points did not
+   * change since they were read, an award in between is left for the next check.
+   *
+   * @param repair whether the points not matching the ledger are reset to the ledger sum
+   * @return the number of users whose points did not match the ledger
+   */
+  public int reconcile(boolean repair) {
+    int found = 0;
+    UUID after = FIRST_ID;
+    while (true) {
+      List<Object[]> rows =
+          userRepository.findPointsAndLedgerSumsAfter(after, configuration.getBatchSize());
+      for (Object[] row : rows) {
+        after = UUID.fromString((String) row[0]);
+        int points = ((Number) row[1]).intValue();
+        long ledgerSum = ((Number) row[2]).longValue();
+        if (points == ledgerSum) {
+          continue;
+        }
+
+        found++;
+        mismatches.increment();
+        LOGGER.warn("User {} has {} points, the ledger sum is {}", after, points, ledgerSum);
+        if (repair && userRepository.updatePoints(after, points, (int) ledgerSum) > 0) {
+          authenticationCache.invalidate(after);
+          repairs.increment();
+        }
+      }
+
+      checkedUsers.increment(rows.size());
+      if (rows.size() < configuration.getBatchSize()) {
+        return found;
+      }
+    }
+  }
+}
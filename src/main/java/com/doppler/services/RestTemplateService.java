@@ -9,28 +9,27 @@ import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestClientException;
 
-import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.type.CollectionType;
 
 @Service
 public class RestTemplateService extends AbstractRestTemplateHandler{
 
 
 	@Autowired
-	public RestTemplateService(RestTemplateBuilder restTemplateBuilder, ObjectMapper objectMapper) {
-		super(restTemplateBuilder, objectMapper);
+	public RestTemplateService(RestTemplateBuilder restTemplateBuilder, ClientHttpRequestFactory requestFactory,
+			ObjectMapper objectMapper) {
+		super(restTemplateBuilder, requestFactory, objectMapper);
 	}
 
 	public <T> T getForEntity(Class<T> clazz, String url, Object... uriVariables) {
 		try {
-			ResponseEntity<String> response = restTemplate.getForEntity(url, String.class, uriVariables);
-			JavaType javaType = objectMapper.getTypeFactory().constructType(clazz);
-			return readValue(response, javaType);
+			ResponseEntity<T> response = exchange(url, HttpMethod.GET, null, getJavaType(clazz), uriVariables);
+			return response.getBody();
 		} catch (HttpClientErrorException exception) {
 			if (exception.getStatusCode() == HttpStatus.NOT_FOUND) {
 				LOGGER.info("No data found {}", url);
@@ -43,9 +42,9 @@ public class RestTemplateService extends AbstractRestTemplateHandler{
 
 	public <T> List<T> getForList(Class<T> clazz, String url, Object... uriVariables) {
 		try {
-			ResponseEntity<String> response = restTemplate.getForEntity(url, String.class, uriVariables);
-			CollectionType collectionType = objectMapper.getTypeFactory().constructCollectionType(List.class, clazz);
-			return readValue(response, collectionType);
+			ResponseEntity<List<T>> response = exchange(url, HttpMethod.GET, null, getJavaType(List.class, clazz),
+					uriVariables);
+			return response.getBody();
 		} catch (HttpClientErrorException exception) {
 			if (exception.getStatusCode() == HttpStatus.NOT_FOUND) {
 				LOGGER.info("No data found {}", url);
@@ -58,17 +57,14 @@ public class RestTemplateService extends AbstractRestTemplateHandler{
 
 	public <T, R> T postForEntity(Class<T> clazz, String url, R body, Object... uriVariables) {
 		HttpEntity<R> request = new HttpEntity<>(body);
-		ResponseEntity<String> response = restTemplate.postForEntity(url, request, String.class, uriVariables);
-		JavaType javaType = objectMapper.getTypeFactory().constructType(clazz);
-		return readValue(response, javaType);
+		ResponseEntity<T> response = exchange(url, HttpMethod.POST, request, getJavaType(clazz), uriVariables);
+		return response.getBody();
 	}
 
 	public <T, R> T putForEntity(Class<T> clazz, String url, R body, Object... uriVariables) {
 		HttpEntity<R> request = new HttpEntity<>(body);
-		ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.PUT, request, String.class,
-				uriVariables);
-		JavaType javaType = objectMapper.getTypeFactory().constructType(clazz);
-		return readValue(response, javaType);
+		ResponseEntity<T> response = exchange(url, HttpMethod.PUT, request, getJavaType(clazz), uriVariables);
+		return response.getBody();
 	}
 
 	public void delete(String url, Object... uriVariables) {
@@ -4,11 +4,13 @@ import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 import javax.persistence.EntityNotFoundException;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.util.UriComponentsBuilder;
 
@@ -43,22 +45,26 @@ public class RewardService extends BaseService {
 	@Autowired
 	private UserRewardRepository userRewardRepository;
 
+	/**
+	 * The asynchronous backend API service.
+	 */
 	@Autowired
-	private BackendAPIService restApiService;
+	private AsyncBackendAPIService asyncApiService;
 
 	/**
-	 * Search rewards.
+	 * Search rewards asynchronously, no transaction is held while waiting for the backend.
 	 * 
 	 * @param criteria the search criteria
-	 * @return the search result
+	 * @return the future search result
 	 */
-	@SuppressWarnings("unchecked")
-	@Transactional(readOnly = true)
-	public SearchResponse<Reward> search(PagingAndSortingSearchRequest criteria) {
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	public CompletableFuture<SearchResponse<Reward>> search(PagingAndSortingSearchRequest criteria) {
 		UriComponentsBuilder builder = UriComponentsBuilder.fromHttpUrl(ApiConstants.BASE_URI + REWARD_URL)
 				.queryParam("limit", criteria.getLimit()).queryParam("offset", criteria.getOffset())
 				.queryParam("sortBy", criteria.getSortBy()).queryParam("sortDirection", criteria.getSortDirection());
-		return restApiService.getForEntity(SearchResponse.class, Reward.class, builder.toUriString());
+		return (CompletableFuture) asyncApiService.getForEntity(SearchResponse.class, Reward.class,
+				builder.toUriString());
 	}
 
 	/**
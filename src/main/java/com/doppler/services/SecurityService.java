@@ -1,9 +1,15 @@
 package com.doppler.services;
 
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import com.doppler.entities.User;
 import com.doppler.entities.requests.LoginRequest;
@@ -28,6 +34,18 @@ public class SecurityService {
   @Autowired
   LoginRestService loginService;
 
+  /**
+   * The cache of the authenticated users.
+   */
+  @Autowired
+  private AuthenticationCache authenticationCache;
+
+  /**
+   * The backend token manager.
+   */
+  @Autowired
+  private BackendTokenManager tokenManager;
+
   /**
    * The token utils.
    */
@@ -35,29 +53,68 @@ public class SecurityService {
   private TokenUtils tokenUtils;
 
   /**
-   * Login a user.
+   * The executor performing the SSO authentication.
+   */
+  @Autowired
+  @Qualifier("backendThreadPool")
+  private Executor executor;
+
+  /**
+   * Login a user. The SSO authentication is performed concurrently with looking up the user and
+   * its backend token, and outside of any transaction. Nothing is persisted and no backend login is
+   * performed unless the SSO authentication succeeds.
    * 
    * @param request the login request
    * @return the login response
    */
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
   public LoginResponse login(LoginRequest request) {
-    // Authenticate
-    User user = authenticateWithSSO(request);
-
-    // Check if registered or not
-    User dbUser = userRepository.findByEmailIgnoreCase(request.getEmail());
-    if (dbUser != null) {
-      user.setId(dbUser.getId());
-      user.setPoints(dbUser.getPoints());
-      user.setIsNew(dbUser.getIsNew());
-      user.setNotifiedByNewEvents(dbUser.isNotifiedByNewEvents());
+    // Authenticate with SSO, concurrently with looking up the registered user
+    CompletableFuture<User> ssoUser = new CompletableFuture<>();
+    executor.execute(() -> {
+      try {
+        ssoUser.complete(authenticateWithSSO(request));
+      } catch (Throwable ex) {
+        ssoUser.completeExceptionally(ex);
+      }
+    });
+    List<Object[]> registered = userRepository.findIdAndBackendTokenByEmail(request.getEmail());
+
+    User user;
+    try {
+      user = ssoUser.join();
+    } catch (CompletionException ex) {
+      if (ex.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) ex.getCause();
+      }
+      throw ex;
+    }
+
+    // The user is keyed on the SSO email, look it up again if it is not the requested one
+    if (!user.getEmail().equalsIgnoreCase(request.getEmail())) {
+      registered = userRepository.findIdAndBackendTokenByEmail(user.getEmail());
+    }
+
+    // Reuse the backend token of a registered user while still valid
+    String backendToken;
+    if (registered.isEmpty()) {
+      backendToken = loginService.userLogin();
+    } else {
+      User dbUser = new User();
+      dbUser.setId((UUID) registered.get(0)[0]);
+      dbUser.setBackendToken((String) registered.get(0)[1]);
+      backendToken = tokenManager.getToken(dbUser);
     }
-    doBackendLogin(user);
-    // Save
-    user = userRepository.save(user);
+
+    // Create or update the user in one statement
+    user.setId(UUID.randomUUID());
+    user.setBackendToken(backendToken);
+    user = userRepository.upsertByEmail(user, System.currentTimeMillis());
+    authenticationCache.invalidate(user.getId());
+    tokenManager.update(user.getId(), user.getBackendToken());
 
     // Generate token
-    String accessToken = tokenUtils.createJwtToken(user.getId());
+    String accessToken = tokenUtils.createJwtToken(user);
 
     // Build the response
     LoginResponse response = new LoginResponse();
@@ -78,13 +135,13 @@ public class SecurityService {
   }
 
   /**
-   * Authenticate with SSO.
+   * Authenticate with SSO. Package-private, so that tests can stub it.
    * 
    * @param request the request
    * @return the user
    * @throws BadCredentialsException if the email or password is incorrect
    */
-  private User authenticateWithSSO(LoginRequest request) throws BadCredentialsException {
+  User authenticateWithSSO(LoginRequest request) throws BadCredentialsException {
     // FIXME this is a mock
 
     User user = new User();
@@ -99,10 +156,4 @@ public class SecurityService {
 
     return user;
   }
-  
-  
-  private User doBackendLogin(User user) {
-	  user.setBackendToken(loginService.userLogin());
-	  return user;
-  }
 }
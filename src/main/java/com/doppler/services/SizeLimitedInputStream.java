@@ -0,0 +1,113 @@
+package com.doppler.services;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * The input stream which fails once more than a maximum number of bytes have been read.
+ */
+class SizeLimitedInputStream extends FilterInputStream {
+
+  /**
+   * The maximum number of bytes to read.
+   */
+  private final long maxSize;
+
+  /**
+   * The number of bytes read so far.
+   */
+  private long count;
+
+  /**
+   * Create a new instance.
+   *
+   * @param in the underlying input stream
+   * @param maxSize the maximum number of bytes to read
+   */
+  SizeLimitedInputStream(InputStream in, long maxSize) {
+    super(in);
+    this.maxSize = maxSize;
+  }
+
+  /*
+   * (non-Javadoc)
+   *
+   * @see java.io.FilterInputStream#read()
+   */
+  @Override
+  public int read() throws IOException {
+    int value = super.read();
+    if (value >= 0) {
+      count(1);
+    }
+    return value;
+  }
+
+  /*
+   * (non-Javadoc)
+   *
+   * @see java.io.FilterInputStream#read(byte[], int, int)
+   */
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    int read = super.read(b, off, len);
+    if (read > 0) {
+      count(read);
+    }
+    return read;
+  }
+
+  /*
+   * (non-Javadoc)
+   *
+   * @see java.io.FilterInputStream#skip(long)
+   */
+  @Override
+  public long skip(long n) throws IOException {
+    long skipped = super.skip(n);
+    count(skipped);
+    return skipped;
+  }
+
+  /*
+   * (non-Javadoc)
+   *
+   * @see java.io.FilterInputStream#markSupported()
+   */
+  @Override
+  public boolean markSupported() {
+    return false;
+  }
+
+  /**
+   * Count the bytes read.
+   *
+   * @param bytes the number of bytes read
+   * @throws SizeExceededException if the maximum size is exceeded
+   */
+  private void count(long bytes) throws SizeExceededException {
+    count += bytes;
+    if (count > maxSize) {
+      throw new SizeExceededException(
+          "Response exceeds the maximum size of " + maxSize + " bytes");
+    }
+  }
+
+  /**
+   * The exception thrown once more than the maximum number of bytes have been read.
+   */
+  static class SizeExceededException extends IOException {
+
+    private static final long serialVersionUID = 6127954303834117952L;
+
+    /**
+     * Create a new instance.
+     *
+     * @param message the message
+     */
+    SizeExceededException(String message) {
+      super(message);
+    }
+  }
+}
@@ -2,10 +2,12 @@ package com.doppler.services;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.doppler.entities.SurveyAnswer;
@@ -74,16 +76,22 @@ public class SurveyService extends BaseService {
   private BackendAPIService restApiService;
 
   /**
-   * Get all survey questions of an event.
+   * The asynchronous backend API service.
+   */
+  @Autowired
+  private AsyncBackendAPIService asyncApiService;
+
+  /**
+   * Get all survey questions of an event asynchronously, no transaction is held while waiting for
+   * the backend.
    * 
    * @param eventId the event id
-   * @return the survey questions
+   * @return the future survey questions
    */
-	@Transactional(readOnly = false)
-	public List<SurveyQuestion> getSurveyQuestions(UUID eventId) {
-		List<SurveyQuestion> surveyQuestion = restApiService.getForList(SurveyQuestion.class,
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	public CompletableFuture<List<SurveyQuestion>> getSurveyQuestions(UUID eventId) {
+		return asyncApiService.getForList(SurveyQuestion.class,
 				ApiConstants.BASE_URI + SURVEYS_URI + "/{eventId}" + RETRIEVEQUESTIONS_URI, eventId);
-		return surveyQuestion;
 	}
 
   /**
@@ -1,9 +1,11 @@
 package com.doppler.services;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.doppler.entities.Topic;
@@ -19,9 +21,15 @@ public class TopicService extends BaseService {
 	private static final String TOPIC_URL = "/topics";
 
 	@Autowired
-	BackendAPIService apiService;
+	AsyncBackendAPIService apiService;
 
-	public List<Topic> retrieveTopics() {
+	/**
+	 * Get all topics asynchronously, no transaction is held while waiting for the backend.
+	 *
+	 * @return the future topics
+	 */
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	public CompletableFuture<List<Topic>> retrieveTopics() {
 		return apiService.getForList(Topic.class, ApiConstants.BASE_URI + TOPIC_URL);
 	}
 }
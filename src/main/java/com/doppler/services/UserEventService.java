@@ -16,7 +16,6 @@ import com.doppler.entities.requests.UserIdRequest;
 import com.doppler.repositories.EventRepository;
 import com.doppler.repositories.UserEventRepository;
 import com.doppler.repositories.UserRepository;
-import com.doppler.repositories.UserRewardPointRepository;
 import com.doppler.security.SecurityUtils;
 import com.doppler.services.config.UserRewardPointDescriptionConfiguration;
 
@@ -46,10 +45,10 @@ public class UserEventService extends BaseService {
   private UserRepository userRepository;
 
   /**
-   * The user reward point repository.
+   * The reward points ledger.
    */
   @Autowired
-  private UserRewardPointRepository userRewardPointRepository;
+  private PointsLedger pointsLedger;
 
   /**
    * The user reward point description configuration.
@@ -80,17 +79,8 @@ public class UserEventService extends BaseService {
     userEventRepository.save(userEvent);
 
     // Add points for user
-    currentUser.setPoints(currentUser.getPoints() + event.getPointsForRegistering());
-    userRepository.save(currentUser);
-
-    // Create UserRewardPoint
-    UserRewardPoint userRewardPoint = new UserRewardPoint();
-    userRewardPoint.setDescription(String
+    return pointsLedger.award(currentUser.getId(), event.getPointsForRegistering(), String
         .format(userRewardPointDescriptionConfiguration.getRegisterEvent(), event.getTitle()));
-    userRewardPoint.setPoints(event.getPointsForRegistering());
-    userRewardPoint.setUserId(currentUser.getId());
-
-    return userRewardPointRepository.save(userRewardPoint);
   }
 
   /**
@@ -150,16 +140,7 @@ public class UserEventService extends BaseService {
     User user = optionalUser.get();
 
     // Add points for user
-    user.setPoints(user.getPoints() + event.getPointsForScanningTicket());
-    userRepository.save(user);
-
-    // Create UserRewardPoint
-    UserRewardPoint userRewardPoint = new UserRewardPoint();
-    userRewardPoint.setDescription(
+    return pointsLedger.award(user.getId(), event.getPointsForScanningTicket(),
         String.format(userRewardPointDescriptionConfiguration.getScanTicket(), event.getTitle()));
-    userRewardPoint.setPoints(event.getPointsForScanningTicket());
-    userRewardPoint.setUserId(user.getId());
-
-    return userRewardPointRepository.save(userRewardPoint);
   }
 }
@@ -2,6 +2,8 @@ package com.doppler.services;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.UUID;
+import javax.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -31,6 +33,12 @@ public class UserService extends BaseService {
 	@Autowired
 	private UserRepository userRepository;
 
+	/**
+	 * The cache of the authenticated users.
+	 */
+	@Autowired
+	private AuthenticationCache authenticationCache;
+
 	@Autowired
 	private BackendAPIService backendAPIService;
 
@@ -54,15 +62,19 @@ public class UserService extends BaseService {
 	}
 
 	/**
-	 * Update user setting.
+	 * Update user setting. Only the setting column is updated, the principal of the current user may
+	 * be a partial copy that must not be saved over the user.
 	 * 
 	 * @param userSetting the user setting
 	 * @return the updated user setting
 	 */
 	public UserSetting updateSetting(UserSetting userSetting) {
-		User user = SecurityUtils.getCurrentUser();
-		user.setNotifiedByNewEvents(userSetting.getNotifiedByNewEvents());
-		userRepository.save(user);
+		UUID userId = SecurityUtils.getCurrentUser().getId();
+		if (userRepository.updateNotifiedByNewEvents(userId, userSetting.getNotifiedByNewEvents(),
+				System.currentTimeMillis()) == 0) {
+			throw new EntityNotFoundException("User does not exist with id = " + userId);
+		}
+		authenticationCache.invalidate(userId);
 
 		return userSetting;
 	}
@@ -14,8 +14,6 @@ import com.doppler.entities.UserRewardPoint;
 import com.doppler.entities.UserTopic;
 import com.doppler.entities.requests.UserTopicRequest;
 import com.doppler.repositories.TopicRepository;
-import com.doppler.repositories.UserRepository;
-import com.doppler.repositories.UserRewardPointRepository;
 import com.doppler.repositories.UserTopicRepository;
 import com.doppler.security.SecurityUtils;
 import com.doppler.services.config.UserRewardPointDescriptionConfiguration;
@@ -40,16 +38,10 @@ public class UserTopicService extends BaseService {
   private UserTopicRepository userTopicRepository;
 
   /**
-   * The user repository.
+   * The reward points ledger.
    */
   @Autowired
-  private UserRepository userRepository;
-
-  /**
-   * The user reward point repository.
-   */
-  @Autowired
-  private UserRewardPointRepository userRewardPointRepository;
+  private PointsLedger pointsLedger;
 
   /**
    * The points earned for completing profile.
@@ -114,19 +106,10 @@ public class UserTopicService extends BaseService {
 
     userTopics = userTopicRepository.saveAll(userTopics);
 
-    // Add points for new user
+    // Add points for new user, only once even if the profile gets completed concurrently
     if (userTopics.size() > 0 && currentUser.getIsNew()) {
-      currentUser.setIsNew(false);
-      currentUser.setPoints(currentUser.getPoints() + pointsForCompletingProfile);
-      userRepository.save(currentUser);
-
-      // Create user reward point
-      UserRewardPoint userRewardPoint = new UserRewardPoint();
-      userRewardPoint.setPoints(pointsForCompletingProfile);
-      userRewardPoint.setUserId(currentUser.getId());
-      userRewardPoint.setDescription(userRewardPointDescriptionConfiguration.getCompleteProfile());
-
-      return userRewardPointRepository.save(userRewardPoint);
+      return pointsLedger.awardNewUser(currentUser.getId(), pointsForCompletingProfile,
+          userRewardPointDescriptionConfiguration.getCompleteProfile());
     }
 
     return null;
@@ -0,0 +1,45 @@
+package com.doppler.services.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * The authentication cache configurations, should be loaded from properties.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "authentication-cache")
+@Getter
+@Setter
+public class AuthenticationCacheConfiguration {
+
+  /**
+   * Whether verified tokens and their users are cached, otherwise every request verifies its token
+   * and loads its user.
+   */
+  private boolean enabled = true;
+
+  /**
+   * The maximum number of cached verified tokens, and of cached users.
+   */
+  private long maximumSize = 10000;
+
+  /**
+   * The time in seconds after which a cached user is reloaded, bounding the staleness of the
+   * changes not made through this instance.
+   */
+  private long userExpireAfterWriteInSeconds = 300;
+
+  /**
+   * The maximum number of cached user principal versions, checked by the tokens carrying the
+   * principal fields.
+   */
+  private long versionMaximumSize = 100000;
+
+  /**
+   * The time in seconds after which a cached principal version is reloaded, bounding how long the
+   * tokens issued before a change made by another instance are trusted.
+   */
+  private long versionExpireAfterWriteInSeconds = 30;
+}
@@ -0,0 +1,68 @@
+package com.doppler.services.config;
+
+import java.util.concurrent.Executor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutor;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * The asynchronous backend client configurations, should be loaded from properties.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "backend.async")
+@Getter
+@Setter
+public class BackendAsyncConfiguration {
+
+  /**
+   * The number of threads kept to perform backend calls.
+   */
+  private int corePoolSize = 20;
+
+  /**
+   * The maximum number of threads to perform backend calls.
+   */
+  private int maxPoolSize = 100;
+
+  /**
+   * The maximum number of backend calls waiting for a thread, calls are rejected beyond it.
+   */
+  private int queueCapacity = 500;
+
+  /**
+   * The maximum number of backend calls a batch lookup has in flight, the ids beyond it wait for
+   * the previous calls so a large batch does not exhaust the queue.
+   */
+  private int batchSize = 20;
+
+  /**
+   * Create the thread pool performing backend calls.
+   *
+   * @return the thread pool
+   */
+  @Bean
+  public ThreadPoolTaskExecutor backendThreadPool() {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(corePoolSize);
+    executor.setMaxPoolSize(maxPoolSize);
+    executor.setQueueCapacity(queueCapacity);
+    executor.setThreadNamePrefix("backend-");
+    return executor;
+  }
+
+  /**
+   * Create the executor performing backend calls on behalf of the current user, the security
+   * context of the submitting thread gets propagated.
+   *
+   * @param backendThreadPool the thread pool
+   * @return the executor
+   */
+  @Bean
+  public Executor backendExecutor(ThreadPoolTaskExecutor backendThreadPool) {
+    return new DelegatingSecurityContextExecutor(backendThreadPool);
+  }
+}
@@ -0,0 +1,41 @@
+package com.doppler.services.config;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * The backend response cache configurations, should be loaded from properties.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "backend.cache")
+@Getter
+@Setter
+public class BackendCacheConfiguration {
+
+  /**
+   * The maximum number of cached responses per endpoint family.
+   */
+  private long maximumSize = 1000;
+
+  /**
+   * The number of seconds an expired response may still be served while it gets refreshed in the
+   * background.
+   */
+  private long staleWhileRevalidateInSeconds = 60;
+
+  /**
+   * The number of seconds a response is still kept after the stale-while-revalidate window, only
+   * served if it cannot be fetched again because the backend is unavailable.
+   */
+  private long staleIfErrorInSeconds = 300;
+
+  /**
+   * The time-to-live in seconds per endpoint family (e.g. "events", "topics"). Families without a
+   * TTL are not cached.
+   */
+  private Map<String, Long> ttlInSeconds = new HashMap<>();
+}
@@ -0,0 +1,52 @@
+package com.doppler.services.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * The circuit breaker and bulkhead configurations applied per backend endpoint family, should be
+ * loaded from properties.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "backend.circuit-breaker")
+@Getter
+@Setter
+public class BackendCircuitBreakerConfiguration {
+
+  /**
+   * The failure rate in percent of the recent calls at which the circuit opens.
+   */
+  private int failureRateThreshold = 50;
+
+  /**
+   * The number of recent calls the failure rate is computed over.
+   */
+  private int slidingWindowSize = 20;
+
+  /**
+   * The minimum number of recorded calls before the failure rate is evaluated.
+   */
+  private int minimumCalls = 10;
+
+  /**
+   * The duration in milliseconds the circuit stays open before trial calls are let through.
+   */
+  private long openDurationInMillis = 30000;
+
+  /**
+   * The number of successful trial calls which close a half-open circuit.
+   */
+  private int halfOpenCalls = 3;
+
+  /**
+   * The maximum number of concurrent backend calls per endpoint family.
+   */
+  private int maxConcurrentCalls = 20;
+
+  /**
+   * The maximum duration in milliseconds to wait for a free slot of a full bulkhead.
+   */
+  private long maxWaitInMillis = 100;
+}
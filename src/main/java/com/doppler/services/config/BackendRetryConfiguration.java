@@ -0,0 +1,79 @@
+package com.doppler.services.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * The retry and hedging configurations of idempotent backend GETs, should be loaded from
+ * properties.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "backend.retry")
+@Getter
+@Setter
+public class BackendRetryConfiguration {
+
+  /**
+   * The maximum number of attempts of a GET, including the first one.
+   */
+  private int maxAttempts = 3;
+
+  /**
+   * The backoff in milliseconds before the first retry.
+   */
+  private long initialBackoffInMillis = 50;
+
+  /**
+   * The maximum backoff in milliseconds between two attempts.
+   */
+  private long maxBackoffInMillis = 1000;
+
+  /**
+   * The backoff multiplier applied after each retry.
+   */
+  private double backoffMultiplier = 2;
+
+  /**
+   * The ratio of retries and hedged requests to requests allowed by the retry budget.
+   */
+  private double budgetRatio = 0.1;
+
+  /**
+   * The number of retries per second always allowed by the retry budget, so that low traffic can
+   * still be retried.
+   */
+  private double budgetMinRetriesPerSecond = 10;
+
+  /**
+   * The maximum number of retries the retry budget can accumulate.
+   */
+  private double budgetMaxRetries = 100;
+
+  /**
+   * Whether a GET is hedged, i.e. sent a second time when the first attempt is slower than the
+   * hedge delay.
+   */
+  private boolean hedgingEnabled = true;
+
+  /**
+   * The latency percentile of the endpoint family used as hedge delay.
+   */
+  private double hedgePercentile = 0.95;
+
+  /**
+   * The minimum hedge delay in milliseconds.
+   */
+  private long minHedgeDelayInMillis = 20;
+
+  /**
+   * The minimum number of recorded latencies of the endpoint family before GETs are hedged.
+   */
+  private long hedgeMinSamples = 100;
+
+  /**
+   * The maximum number of threads performing hedged GETs.
+   */
+  private int hedgeThreads = 50;
+}
@@ -0,0 +1,26 @@
+package com.doppler.services.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * The backend token configurations, should be loaded from properties.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "backend.token")
+@Getter
+@Setter
+public class BackendTokenConfiguration {
+
+  /**
+   * How long in seconds before its expiry a backend token gets refreshed in the background.
+   */
+  private long refreshAheadInSeconds = 60;
+
+  /**
+   * The maximum number of backend tokens kept in memory.
+   */
+  private long maximumSize = 10000;
+}
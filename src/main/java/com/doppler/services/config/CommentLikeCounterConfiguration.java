@@ -0,0 +1,40 @@
+package com.doppler.services.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * The comment like counting configurations, should be loaded from properties.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "comment-like-counter")
+@Getter
+@Setter
+public class CommentLikeCounterConfiguration {
+
+  /**
+   * Whether like count changes are buffered in memory and flushed in batches, instead of updating
+   * the comment row on every like.
+   */
+  private boolean writeBehind = false;
+
+  /**
+   * The delay in milliseconds between two flushes of the buffered like count changes.
+   */
+  private long flushIntervalInMillis = 500;
+
+  /**
+   * The age in seconds after which the like changes are replayed, i.e. the like counts of the
+   * comments whose likes changed before and not since are recomputed from the likes, recovering the
+   * changes buffered but not flushed by a crashed instance. The changes buffered for more than half
+   * of it are dropped rather than flushed, they are left to the replay.
+   */
+  private int replayDelayInSeconds = 60;
+
+  /**
+   * The delay in milliseconds between two replays of the like changes.
+   */
+  private long replayIntervalInMillis = 10000;
+}
@@ -0,0 +1,80 @@
+package com.doppler.services.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * The event comment configurations, should be loaded from properties.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "event-comment")
+@Getter
+@Setter
+public class EventCommentConfiguration {
+
+  /**
+   * The maximum number of replies returned with each root comment, the others are loaded page by
+   * page.
+   */
+  private int replyPreviewSize = 3;
+
+  /**
+   * The default number of replies per page when loading the replies of a root comment.
+   */
+  private int replyPageSize = 20;
+
+  /**
+   * The default number of comments per page when searching the comment contents.
+   */
+  private int searchPageSize = 20;
+
+  /**
+   * Whether the user-independent part of comment pages is cached, the likes of the current user
+   * are applied per request.
+   */
+  private boolean pageCacheEnabled = true;
+
+  /**
+   * The maximum number of cached comment pages.
+   */
+  private long pageCacheMaximumSize = 1000;
+
+  /**
+   * The time in seconds after which a cached comment page expires, bounding the staleness of the
+   * comment authors and of the changes made through other instances.
+   */
+  private long pageCacheExpireAfterWriteInSeconds = 10;
+
+  /**
+   * The maximum memory in bytes used by the filters of the comments liked by each user, the least
+   * recently used filters are evicted beyond it.
+   */
+  private long likedFilterMaximumBytes = 64 * 1024 * 1024;
+
+  /**
+   * The target false positive rate of the liked comment filters, the positives are checked in the
+   * database.
+   */
+  private double likedFilterFalsePositiveRate = 0.01;
+
+  /**
+   * The time in seconds after which a liked comment filter is rebuilt, dropping the un-liked
+   * comments it still holds.
+   */
+  private long likedFilterExpireAfterWriteInSeconds = 60;
+
+  /**
+   * The maximum number of cached user like versions, checked to rebuild the liked comment filters
+   * missing the likes made through other instances.
+   */
+  private long likedVersionMaximumSize = 100000;
+
+  /**
+   * The time in seconds after which a cached user like version is reloaded, bounding how long the
+   * likes made through other instances are missed (likedByMe false). 0 to read the like version
+   * on every lookup, so that the answers are exact.
+   */
+  private long likedVersionExpireAfterWriteInSeconds = 0;
+}
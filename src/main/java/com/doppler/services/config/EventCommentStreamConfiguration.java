@@ -0,0 +1,62 @@
+package com.doppler.services.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * The event comment stream configurations, should be loaded from properties.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "event-comment-stream")
+@Getter
+@Setter
+public class EventCommentStreamConfiguration {
+
+  /**
+   * The time in milliseconds after which a stream is closed, clients are expected to reconnect.
+   */
+  private long timeoutInMillis = 30 * 60 * 1000;
+
+  /**
+   * The delay in milliseconds between two heartbeats, detecting the closed connections.
+   */
+  private long heartbeatIntervalInMillis = 30000;
+
+  /**
+   * The maximum number of open streams, new streams are rejected beyond it. Tomcat must accept as
+   * many connections, see server.tomcat.max-connections.
+   */
+  private int maxConnections = 50000;
+
+  /**
+   * The number of threads queuing the changes to the streams. The changes of an event are all
+   * queued by the same thread.
+   */
+  private int fanOutThreads = 2;
+
+  /**
+   * The maximum number of changes waiting to be queued, split across the threads. Changes are
+   * dropped beyond it.
+   */
+  private int fanOutQueueCapacity = 10000;
+
+  /**
+   * The maximum number of changes waiting to be sent to a stream, the stream is closed as too slow
+   * beyond it.
+   */
+  private int subscriberQueueCapacity = 32;
+
+  /**
+   * The time in milliseconds a write to a stream may be blocked before the stream is closed as too
+   * slow.
+   */
+  private long slowSubscriberTimeoutInMillis = 5000;
+
+  /**
+   * The number of threads writing the changes to the streams, a stream being written by one thread
+   * at a time. A write blocked by a slow client holds its thread until the connection times out.
+   */
+  private int sendThreads = 16;
+}
@@ -0,0 +1,49 @@
+package com.doppler.services.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * The configurations of the local event mirror synchronized from the backend, should be loaded
+ * from properties.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "event-sync")
+@Getter
+@Setter
+public class EventSyncConfiguration {
+
+  /**
+   * Whether events are synchronized to and served from the local mirror.
+   */
+  private boolean enabled = true;
+
+  /**
+   * The delay in milliseconds between two pulls.
+   */
+  private long intervalInMillis = 60000;
+
+  /**
+   * The number of events pulled per backend request.
+   */
+  private int pageSize = 100;
+
+  /**
+   * The maximum age in seconds of the last successful pull for the mirror to be served, the
+   * backend is called otherwise.
+   */
+  private long maxStalenessInSeconds = 300;
+
+  /**
+   * The interval in hours between two full pulls, the other pulls only ask for changed events.
+   */
+  private long fullSyncIntervalInHours = 24;
+
+  /**
+   * The overlap in seconds subtracted from the watermark, to tolerate clock skew with the
+   * backend.
+   */
+  private long watermarkOverlapInSeconds = 60;
+}
@@ -0,0 +1,38 @@
+package com.doppler.services.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * The configurations of the check of the user points against the reward points ledger, should be
+ * loaded from properties.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "points-reconciliation")
+@Getter
+@Setter
+public class PointsReconciliationConfiguration {
+
+  /**
+   * Whether the user points are periodically checked against the ledger.
+   */
+  private boolean enabled = true;
+
+  /**
+   * The delay in milliseconds between two checks.
+   */
+  private long intervalInMillis = 3600000;
+
+  /**
+   * The number of users checked per query.
+   */
+  private int batchSize = 1000;
+
+  /**
+   * Whether the points of the users not matching the ledger are reset to the ledger sum, otherwise
+   * they are only reported.
+   */
+  private boolean repair = false;
+}
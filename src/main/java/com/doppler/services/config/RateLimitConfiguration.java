@@ -0,0 +1,90 @@
+package com.doppler.services.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * The rate limit configurations, should be loaded from properties.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "rate-limit")
+@Getter
+@Setter
+public class RateLimitConfiguration {
+
+  /**
+   * Whether the requests are rate limited per principal.
+   */
+  private boolean enabled = true;
+
+  /**
+   * The budget of the read requests (GET, HEAD and OPTIONS) of each user.
+   */
+  private Budget userRead = new Budget(100, 50);
+
+  /**
+   * The budget of the other requests of each user.
+   */
+  private Budget userWrite = new Budget(20, 5);
+
+  /**
+   * The budget of the read requests made with the machine-2-machine token, shared by all machine
+   * clients.
+   */
+  private Budget m2mRead = new Budget(500, 250);
+
+  /**
+   * The budget of the other requests made with the machine-2-machine token, shared by all machine
+   * clients.
+   */
+  private Budget m2mWrite = new Budget(100, 50);
+
+  /**
+   * The maximum number of token buckets kept, two per principal, the least recently used are
+   * dropped beyond it.
+   */
+  private long maximumBuckets = 200000;
+
+  /**
+   * The time in seconds after which the budget of an idle principal is dropped, it is full again
+   * by then with the default budgets.
+   */
+  private long idleTimeoutInSeconds = 60;
+
+  /**
+   * The token bucket budget of a kind of requests.
+   */
+  @Getter
+  @Setter
+  public static class Budget {
+
+    /**
+     * The maximum number of requests in a burst.
+     */
+    private int capacity;
+
+    /**
+     * The number of requests per second allowed in the long run.
+     */
+    private double refillPerSecond;
+
+    /**
+     * Create a new instance.
+     */
+    public Budget() {
+    }
+
+    /**
+     * Create a new instance.
+     *
+     * @param capacity the maximum number of requests in a burst
+     * @param refillPerSecond the number of requests per second allowed in the long run
+     */
+    public Budget(int capacity, double refillPerSecond) {
+      this.capacity = capacity;
+      this.refillPerSecond = refillPerSecond;
+    }
+  }
+}
@@ -0,0 +1,160 @@
+package com.doppler.services.config;
+
+import java.util.concurrent.TimeUnit;
+import org.apache.http.HeaderElement;
+import org.apache.http.HeaderElementIterator;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.message.BasicHeaderElementIterator;
+import org.apache.http.protocol.HTTP;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * The HTTP client configurations used to call the remote backend, should be loaded from
+ * properties.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "rest-client")
+@Getter
+@Setter
+public class RestClientConfiguration {
+
+  /**
+   * The maximum number of pooled connections across all routes.
+   */
+  private int maxConnections = 200;
+
+  /**
+   * The maximum number of pooled connections per route (host and port).
+   */
+  private int maxConnectionsPerRoute = 50;
+
+  /**
+   * The timeout in milliseconds to establish a connection.
+   */
+  private int connectTimeout = 2000;
+
+  /**
+   * The timeout in milliseconds waiting for data (socket read timeout).
+   */
+  private int readTimeout = 5000;
+
+  /**
+   * The timeout in milliseconds to acquire a connection from the pool.
+   */
+  private int poolAcquireTimeout = 1000;
+
+  /**
+   * The keep-alive duration in milliseconds when the server does not send a Keep-Alive header.
+   */
+  private long keepAlive = 30000;
+
+  /**
+   * The idle duration in milliseconds after which a pooled connection gets closed.
+   */
+  private long idleTimeout = 60000;
+
+  /**
+   * The maximum size in bytes of a decoded response body.
+   */
+  private long maxResponseSize = 10 * 1024 * 1024;
+
+  /**
+   * The inactivity period in milliseconds after which a pooled connection is re-validated before
+   * being leased.
+   */
+  private int validateAfterInactivity = 2000;
+
+  /**
+   * Create the pooled connection manager shared by all backend clients.
+   *
+   * @param meterRegistry the meter registry to publish the pool metrics to
+   * @return the connection manager
+   */
+  @Bean(destroyMethod = "close")
+  public PoolingHttpClientConnectionManager restClientConnectionManager(
+      MeterRegistry meterRegistry) {
+    PoolingHttpClientConnectionManager connectionManager =
+        new PoolingHttpClientConnectionManager();
+    connectionManager.setMaxTotal(maxConnections);
+    connectionManager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+    connectionManager.setValidateAfterInactivity(validateAfterInactivity);
+
+    // Pool saturation metrics
+    Gauge.builder("rest.client.pool.leased", connectionManager,
+        manager -> manager.getTotalStats().getLeased())
+        .description("The number of connections currently in use").register(meterRegistry);
+    Gauge.builder("rest.client.pool.available", connectionManager,
+        manager -> manager.getTotalStats().getAvailable())
+        .description("The number of idle connections kept alive in the pool")
+        .register(meterRegistry);
+    Gauge.builder("rest.client.pool.pending", connectionManager,
+        manager -> manager.getTotalStats().getPending())
+        .description("The number of requests waiting for a connection").register(meterRegistry);
+    Gauge.builder("rest.client.pool.max", connectionManager,
+        manager -> manager.getTotalStats().getMax())
+        .description("The maximum number of connections in the pool").register(meterRegistry);
+
+    return connectionManager;
+  }
+
+  /**
+   * Create the request factory backed by the pooled, keep-alive HTTP client.
+   *
+   * @param connectionManager the pooled connection manager
+   * @return the request factory
+   */
+  @Bean
+  public ClientHttpRequestFactory restClientHttpRequestFactory(
+      PoolingHttpClientConnectionManager connectionManager) {
+    RequestConfig requestConfig = RequestConfig.custom() //
+        .setConnectTimeout(connectTimeout) //
+        .setSocketTimeout(readTimeout) //
+        .setConnectionRequestTimeout(poolAcquireTimeout) //
+        .build();
+
+    CloseableHttpClient httpClient = HttpClients.custom() //
+        .setConnectionManager(connectionManager) //
+        .setDefaultRequestConfig(requestConfig) //
+        .setKeepAliveStrategy(keepAliveStrategy()) //
+        .evictExpiredConnections() //
+        .evictIdleConnections(idleTimeout, TimeUnit.MILLISECONDS) //
+        .build();
+
+    return new HttpComponentsClientHttpRequestFactory(httpClient);
+  }
+
+  /**
+   * Create the keep-alive strategy, honors the server Keep-Alive timeout when present.
+   *
+   * @return the keep-alive strategy
+   */
+  private ConnectionKeepAliveStrategy keepAliveStrategy() {
+    return (response, context) -> {
+      HeaderElementIterator iterator =
+          new BasicHeaderElementIterator(response.headerIterator(HTTP.CONN_KEEP_ALIVE));
+      while (iterator.hasNext()) {
+        HeaderElement element = iterator.nextElement();
+        if ("timeout".equalsIgnoreCase(element.getName()) && element.getValue() != null) {
+          try {
+            return Long.parseLong(element.getValue()) * 1000;
+          } catch (NumberFormatException ex) {
+            // Fall back to the configured keep-alive
+          }
+        }
+      }
+      return keepAlive;
+    };
+  }
+}
@@ -0,0 +1,37 @@
+package com.doppler.services.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * The scheduled jobs configurations, should be loaded from properties.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "scheduling")
+@Getter
+@Setter
+public class SchedulingConfiguration {
+
+  /**
+   * The number of threads running the scheduled jobs, one per job so that a long event pull or
+   * points reconciliation does not delay the like count flushes and the stream heartbeats.
+   */
+  private int poolSize = 5;
+
+  /**
+   * Create the scheduler running the scheduled jobs, instead of the single thread by default.
+   *
+   * @return the scheduler
+   */
+  @Bean
+  public ThreadPoolTaskScheduler taskScheduler() {
+    ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+    scheduler.setPoolSize(poolSize);
+    scheduler.setThreadNamePrefix("scheduling-");
+    return scheduler;
+  }
+}
@@ -1,6 +1,7 @@
 package com.doppler.controllers;
 
 import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import java.sql.Connection;
 import java.sql.SQLException;
@@ -16,6 +17,9 @@ import org.springframework.jdbc.datasource.init.ScriptException;
 import org.springframework.jdbc.datasource.init.ScriptUtils;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 import com.doppler.entities.requests.LoginRequest;
@@ -118,6 +122,22 @@ public abstract class BaseControllerTest {
         });
   }
 
+  /**
+   * Perform a request, dispatching the asynchronous result if the endpoint is asynchronous.
+   * 
+   * @param requestBuilder the request builder
+   * @return the result actions
+   * @throws Exception if any error occurs
+   */
+  protected static ResultActions performAsync(RequestBuilder requestBuilder) throws Exception {
+    ResultActions resultActions = mockMvc.perform(requestBuilder);
+    MvcResult result = resultActions.andReturn();
+    if (result.getRequest().isAsyncStarted()) {
+      return mockMvc.perform(asyncDispatch(result));
+    }
+    return resultActions;
+  }
+
   /**
    * Remove test data.
    * 
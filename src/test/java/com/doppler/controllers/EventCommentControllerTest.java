@@ -7,11 +7,13 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import java.util.UUID;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
+import com.jayway.jsonpath.JsonPath;
 import com.doppler.entities.EventComment;
 import com.doppler.entities.requests.EventCommentRequest;
 import com.doppler.repositories.EventCommentRepository;
@@ -50,7 +52,8 @@ public class EventCommentControllerTest extends BaseControllerTest {
         .andExpect(jsonPath("$.rows[0].createdAt").exists())
         .andExpect(jsonPath("$.rows[0].childComments", hasSize(0))) //
         .andExpect(jsonPath("$.rows[0].likedByMe", equalTo(true)))
-        .andExpect(jsonPath("$.rows[1].childComments", hasSize(2)));
+        .andExpect(jsonPath("$.rows[1].childComments", hasSize(2)))
+        .andExpect(jsonPath("$.rows[1].replyCount", equalTo(2)));
 
     // Paging
     mockMvc
@@ -58,9 +61,19 @@ public class EventCommentControllerTest extends BaseControllerTest {
             .header("Authorization", super.userBearerToken))
         .andExpect(status().is(200)) //
         .andExpect(jsonPath("$.count", equalTo(2))) //
+        .andExpect(jsonPath("$.nextCursor").doesNotExist()) //
         .andExpect(jsonPath("$.rows", hasSize(1))) //
         .andExpect(jsonPath("$.rows[0].id", equalTo("00000000-0000-0000-0000-000000000001")));
 
+    // First page by offset, with the cursor of the next page
+    mockMvc
+        .perform(get("/events/00000000-0000-0000-0002-000000000001/comments?limit=1&offset=0")
+            .header("Authorization", super.userBearerToken))
+        .andExpect(status().is(200)) //
+        .andExpect(jsonPath("$.nextCursor").exists()) //
+        .andExpect(jsonPath("$.rows", hasSize(1))) //
+        .andExpect(jsonPath("$.rows[0].id", equalTo("00000000-0000-0000-0000-000000000002")));
+
     // Paging and sorting
     mockMvc.perform(get(
         "/events/00000000-0000-0000-0002-000000000001/comments?limit=1&offset=1&sortBy=likeCount&sortDirection=desc")
@@ -78,6 +91,44 @@ public class EventCommentControllerTest extends BaseControllerTest {
         .andExpect(jsonPath("$.count", equalTo(2))) //
         .andExpect(jsonPath("$.rows", hasSize(1)))
         .andExpect(jsonPath("$.rows[0].id", equalTo("00000000-0000-0000-0000-000000000001")));
+
+    // Cursor paging without count
+    String nextCursor = JsonPath.read(mockMvc.perform(get(
+        "/events/00000000-0000-0000-0002-000000000001/comments?limit=1&includeCount=false")
+            .header("Authorization", super.userBearerToken))
+        .andExpect(status().is(200)) //
+        .andExpect(jsonPath("$.count").doesNotExist()) //
+        .andExpect(jsonPath("$.rows", hasSize(1)))
+        .andExpect(jsonPath("$.rows[0].id", equalTo("00000000-0000-0000-0000-000000000002")))
+        .andReturn().getResponse().getContentAsString(), "$.nextCursor");
+
+    mockMvc
+        .perform(get("/events/00000000-0000-0000-0002-000000000001/comments?limit=1&cursor="
+            + nextCursor).header("Authorization", super.userBearerToken))
+        .andExpect(status().is(200)) //
+        .andExpect(jsonPath("$.count", equalTo(2))) //
+        .andExpect(jsonPath("$.nextCursor").doesNotExist()) //
+        .andExpect(jsonPath("$.rows", hasSize(1)))
+        .andExpect(jsonPath("$.rows[0].id", equalTo("00000000-0000-0000-0000-000000000001")))
+        .andExpect(jsonPath("$.rows[0].childComments", hasSize(2)));
+
+    // Cursor paging sorting hotScore, the fresher comment first despite fewer likes
+    nextCursor = JsonPath.read(mockMvc.perform(get(
+        "/events/00000000-0000-0000-0002-000000000001/comments?limit=1&sortBy=hotScore&sortDirection=desc")
+            .header("Authorization", super.userBearerToken))
+        .andExpect(status().is(200)) //
+        .andExpect(jsonPath("$.rows", hasSize(1)))
+        .andExpect(jsonPath("$.rows[0].id", equalTo("00000000-0000-0000-0000-000000000002")))
+        .andExpect(jsonPath("$.rows[0].hotScore").doesNotExist())
+        .andReturn().getResponse().getContentAsString(), "$.nextCursor");
+
+    mockMvc.perform(get(
+        "/events/00000000-0000-0000-0002-000000000001/comments?limit=1&sortBy=hotScore&sortDirection=desc&cursor="
+            + nextCursor).header("Authorization", super.userBearerToken))
+        .andExpect(status().is(200)) //
+        .andExpect(jsonPath("$.nextCursor").doesNotExist()) //
+        .andExpect(jsonPath("$.rows", hasSize(1)))
+        .andExpect(jsonPath("$.rows[0].id", equalTo("00000000-0000-0000-0000-000000000001")));
   }
 
   /**
@@ -110,6 +161,16 @@ public class EventCommentControllerTest extends BaseControllerTest {
             .header("Authorization", super.userBearerToken))
         .andExpect(status().is(400));
 
+    // Invalid cursor
+    mockMvc.perform(get("/events/00000000-0000-0000-0002-000000000001/comments?cursor=invalid")
+        .header("Authorization", super.userBearerToken)).andExpect(status().is(400));
+
+    // Cursor with offset
+    mockMvc.perform(get(
+        "/events/00000000-0000-0000-0002-000000000001/comments?offset=0&cursor=invalid")
+            .header("Authorization", super.userBearerToken))
+        .andExpect(status().is(400));
+
     // Unauthorized
     mockMvc.perform(get("/events/00000000-0000-0000-0002-000000000001/comments"))
         .andExpect(status().is(401));
@@ -119,6 +180,162 @@ public class EventCommentControllerTest extends BaseControllerTest {
         .header("Authorization", super.userBearerToken)).andExpect(status().is(404));
   }
 
+  /**
+   * Tests for stream() method.
+   * 
+   * @throws Exception if any error occurs
+   */
+  @Test
+  public void stream() throws Exception {
+    mockMvc
+        .perform(get("/events/00000000-0000-0000-0002-000000000001/comments/stream")
+            .header("Authorization", super.userBearerToken))
+        .andExpect(status().is(200)) //
+        .andExpect(request().asyncStarted());
+
+    // Unauthorized
+    mockMvc.perform(get("/events/00000000-0000-0000-0002-000000000001/comments/stream"))
+        .andExpect(status().is(401));
+
+    // Non-existed event id
+    mockMvc.perform(get("/events/00000000-0000-0000-0002-000000000009/comments/stream")
+        .header("Authorization", super.userBearerToken)).andExpect(status().is(404));
+  }
+
+  /**
+   * Positive tests for searchReplies() method.
+   * 
+   * @throws Exception if any error occurs
+   */
+  @Test
+  public void searchReplies_200() throws Exception {
+    String nextCursor = JsonPath.read(mockMvc.perform(get(
+        "/events/00000000-0000-0000-0002-000000000001/comments/00000000-0000-0000-0000-000000000001/replies?limit=1")
+            .header("Authorization", super.userBearerToken))
+        .andExpect(status().is(200)) //
+        .andExpect(jsonPath("$.count", equalTo(2))) //
+        .andExpect(jsonPath("$.rows", hasSize(1)))
+        .andExpect(jsonPath("$.rows[0].id", equalTo("00000000-0000-0000-0000-000000000003")))
+        .andExpect(jsonPath("$.rows[0].likedByMe", equalTo(true)))
+        .andReturn().getResponse().getContentAsString(), "$.nextCursor");
+
+    mockMvc.perform(get(
+        "/events/00000000-0000-0000-0002-000000000001/comments/00000000-0000-0000-0000-000000000001/replies?includeCount=false&cursor="
+            + nextCursor).header("Authorization", super.userBearerToken))
+        .andExpect(status().is(200)) //
+        .andExpect(jsonPath("$.count").doesNotExist()) //
+        .andExpect(jsonPath("$.nextCursor").doesNotExist()) //
+        .andExpect(jsonPath("$.rows", hasSize(1)))
+        .andExpect(jsonPath("$.rows[0].id", equalTo("00000000-0000-0000-0000-000000000004")))
+        .andExpect(jsonPath("$.rows[0].likedByMe", equalTo(false)));
+  }
+
+  /**
+   * Negative tests for searchReplies() method.
+   * 
+   * @throws Exception if any error occurs
+   */
+  @Test
+  public void searchReplies_40x() throws Exception {
+    // Invalid limit
+    mockMvc.perform(get(
+        "/events/00000000-0000-0000-0002-000000000001/comments/00000000-0000-0000-0000-000000000001/replies?limit=0")
+            .header("Authorization", super.userBearerToken))
+        .andExpect(status().is(400));
+
+    // Invalid cursor
+    mockMvc.perform(get(
+        "/events/00000000-0000-0000-0002-000000000001/comments/00000000-0000-0000-0000-000000000001/replies?cursor=invalid")
+            .header("Authorization", super.userBearerToken))
+        .andExpect(status().is(400));
+
+    // Not a root comment
+    mockMvc.perform(get(
+        "/events/00000000-0000-0000-0002-000000000001/comments/00000000-0000-0000-0000-000000000003/replies")
+            .header("Authorization", super.userBearerToken))
+        .andExpect(status().is(400));
+
+    // Comment of another event
+    mockMvc.perform(get(
+        "/events/00000000-0000-0000-0002-000000000002/comments/00000000-0000-0000-0000-000000000001/replies")
+            .header("Authorization", super.userBearerToken))
+        .andExpect(status().is(400));
+
+    // Unauthorized
+    mockMvc.perform(get(
+        "/events/00000000-0000-0000-0002-000000000001/comments/00000000-0000-0000-0000-000000000001/replies"))
+        .andExpect(status().is(401));
+
+    // Non-existed comment id
+    mockMvc.perform(get(
+        "/events/00000000-0000-0000-0002-000000000001/comments/00000000-0000-0000-0000-000000000009/replies")
+            .header("Authorization", super.userBearerToken))
+        .andExpect(status().is(404));
+  }
+
+  /**
+   * Positive tests for searchContent() method.
+   * 
+   * @throws Exception if any error occurs
+   */
+  @Test
+  public void searchContent_200() throws Exception {
+    // Equally relevant, newest first
+    mockMvc
+        .perform(get("/events/00000000-0000-0000-0002-000000000001/comments/search?query=Contents")
+            .header("Authorization", super.userBearerToken))
+        .andExpect(status().is(200)) //
+        .andExpect(jsonPath("$.count", equalTo(4))) //
+        .andExpect(jsonPath("$.rows", hasSize(4)))
+        .andExpect(jsonPath("$.rows[0].id", equalTo("00000000-0000-0000-0000-000000000004")))
+        .andExpect(jsonPath("$.rows[3].id", equalTo("00000000-0000-0000-0000-000000000001")));
+
+    // Populated, paging without count
+    mockMvc.perform(get(
+        "/events/00000000-0000-0000-0002-000000000001/comments/search?query=content 1&offset=0&limit=1&includeCount=false")
+            .header("Authorization", super.userBearerToken))
+        .andExpect(status().is(200)) //
+        .andExpect(jsonPath("$.count").doesNotExist()) //
+        .andExpect(jsonPath("$.rows", hasSize(1)))
+        .andExpect(jsonPath("$.rows[0].id", equalTo("00000000-0000-0000-0000-000000000001")))
+        .andExpect(jsonPath("$.rows[0].childComments", hasSize(2)))
+        .andExpect(jsonPath("$.rows[0].replyCount", equalTo(2)));
+
+    // Not found
+    mockMvc
+        .perform(get("/events/00000000-0000-0000-0002-000000000001/comments/search?query=unknown")
+            .header("Authorization", super.userBearerToken))
+        .andExpect(status().is(200)) //
+        .andExpect(jsonPath("$.count", equalTo(0))) //
+        .andExpect(jsonPath("$.rows", hasSize(0)));
+  }
+
+  /**
+   * Negative tests for searchContent() method.
+   * 
+   * @throws Exception if any error occurs
+   */
+  @Test
+  public void searchContent_40x() throws Exception {
+    // Missing query
+    mockMvc.perform(get("/events/00000000-0000-0000-0002-000000000001/comments/search")
+        .header("Authorization", super.userBearerToken)).andExpect(status().is(400));
+
+    // Invalid paging
+    mockMvc.perform(get(
+        "/events/00000000-0000-0000-0002-000000000001/comments/search?query=content&offset=-1&limit=0")
+            .header("Authorization", super.userBearerToken))
+        .andExpect(status().is(400));
+
+    // Unauthorized
+    mockMvc.perform(get("/events/00000000-0000-0000-0002-000000000001/comments/search?query=content"))
+        .andExpect(status().is(401));
+
+    // Non-existed event id
+    mockMvc.perform(get("/events/00000000-0000-0000-0002-000000000009/comments/search?query=content")
+        .header("Authorization", super.userBearerToken)).andExpect(status().is(404));
+  }
+
   /**
    * Positive tests for create() method.
    * 
@@ -37,7 +37,7 @@ public class EventControllerTest extends BaseControllerTest {
   public void search_200() throws Exception {
 
     // No filter
-    mockMvc.perform(get("/events").header("Authorization", super.userBearerToken))
+    performAsync(get("/events").header("Authorization", super.userBearerToken))
         .andExpect(status().is(200)) //
         .andExpect(jsonPath("$.count", equalTo(5))) //
         .andExpect(jsonPath("$.rows", hasSize(5))) //
@@ -60,15 +60,14 @@ public class EventControllerTest extends BaseControllerTest {
         .andExpect(jsonPath("$.rows[0].isMyEvent", equalTo(true)));
 
     // Paging
-    mockMvc.perform(get("/events?limit=1&offset=1").header("Authorization", super.userBearerToken))
+    performAsync(get("/events?limit=1&offset=1").header("Authorization", super.userBearerToken))
         .andExpect(status().is(200)) //
         .andExpect(jsonPath("$.count", equalTo(5))) //
         .andExpect(jsonPath("$.rows", hasSize(1))) //
         .andExpect(jsonPath("$.rows[0].id", equalTo("00000000-0000-0000-0002-000000000004")));
 
     // Paging and sorting
-    mockMvc
-        .perform(get("/events?limit=1&offset=1&sortBy=firstSessionStart&sortDirection=asc")
+    performAsync(get("/events?limit=1&offset=1&sortBy=firstSessionStart&sortDirection=asc")
             .header("Authorization", super.userBearerToken))
         .andExpect(status().is(200)) //
         .andExpect(jsonPath("$.count", equalTo(5))) //
@@ -76,7 +75,7 @@ public class EventControllerTest extends BaseControllerTest {
         .andExpect(jsonPath("$.rows[0].id", equalTo("00000000-0000-0000-0002-000000000004")));
 
     // topicId
-    mockMvc.perform(get(
+    performAsync(get(
         "/events?limit=1&offset=0&sortBy=firstSessionStart&sortDirection=asc&topicId=00000000-0000-0000-0001-000000000001")
             .header("Authorization", super.userBearerToken))
         .andExpect(status().is(200)) //
@@ -85,7 +84,7 @@ public class EventControllerTest extends BaseControllerTest {
         .andExpect(jsonPath("$.rows[0].id", equalTo("00000000-0000-0000-0002-000000000001")));
 
     // onlyMyEvents
-    mockMvc.perform(
+    performAsync(
         get("/events?limit=3&offset=0&sortBy=firstSessionStart&sortDirection=asc&onlyMyEvents=true")
             .header("Authorization", super.userBearerToken))
         .andExpect(status().is(200)) //
@@ -94,22 +93,21 @@ public class EventControllerTest extends BaseControllerTest {
         .andExpect(jsonPath("$.rows[0].id", equalTo("00000000-0000-0000-0002-000000000003")));
 
     // UPCOMING
-    mockMvc.perform(get("/events?status=UPCOMING").header("Authorization", super.userBearerToken))
+    performAsync(get("/events?status=UPCOMING").header("Authorization", super.userBearerToken))
         .andExpect(status().is(200)) //
         .andExpect(jsonPath("$.count", equalTo(2))) //
         .andExpect(jsonPath("$.rows", hasSize(2)))
         .andExpect(jsonPath("$.rows[0].id", equalTo("00000000-0000-0000-0002-000000000001")));
 
     // PAST
-    mockMvc.perform(get("/events?status=PAST").header("Authorization", super.userBearerToken))
+    performAsync(get("/events?status=PAST").header("Authorization", super.userBearerToken))
         .andExpect(status().is(200)) //
         .andExpect(jsonPath("$.count", equalTo(3))) //
         .andExpect(jsonPath("$.rows", hasSize(3)))
         .andExpect(jsonPath("$.rows[0].id", equalTo("00000000-0000-0000-0002-000000000003")));
 
     // All filters
-    mockMvc
-        .perform(get("/events?limit=3&offset=0&sortBy=firstSessionStart&sortDirection=asc&"
+    performAsync(get("/events?limit=3&offset=0&sortBy=firstSessionStart&sortDirection=asc&"
             + "topicId=00000000-0000-0000-0001-000000000001&onlyMyEvents=true&status=UPCOMING")
                 .header("Authorization", super.userBearerToken))
         .andExpect(status().is(200)) //
@@ -127,34 +125,32 @@ public class EventControllerTest extends BaseControllerTest {
   public void search_40x() throws Exception {
 
     // Invalid paging
-    mockMvc.perform(get("/events?limit=0&offset=-1").header("Authorization", super.userBearerToken))
+    performAsync(get("/events?limit=0&offset=-1").header("Authorization", super.userBearerToken))
         .andExpect(status().is(400));
 
     // Invalid sortBy
-    mockMvc.perform(get("/events?sortBy=invalid").header("Authorization", super.userBearerToken))
+    performAsync(get("/events?sortBy=invalid").header("Authorization", super.userBearerToken))
         .andExpect(status().is(400));
 
     // Invalid sortDirection
-    mockMvc
-        .perform(
+    performAsync(
             get("/events?sortDirection=invalid").header("Authorization", super.userBearerToken))
         .andExpect(status().is(400));
 
     // Invalid topicId
-    mockMvc.perform(get("/events?topicId=invalid").header("Authorization", super.userBearerToken))
+    performAsync(get("/events?topicId=invalid").header("Authorization", super.userBearerToken))
         .andExpect(status().is(400));
 
     // Invalid onlyMyEvents
-    mockMvc
-        .perform(get("/events?onlyMyEvents=invalid").header("Authorization", super.userBearerToken))
+    performAsync(get("/events?onlyMyEvents=invalid").header("Authorization", super.userBearerToken))
         .andExpect(status().is(400));
 
     // Invalid status
-    mockMvc.perform(get("/events?status=invalid").header("Authorization", super.userBearerToken))
+    performAsync(get("/events?status=invalid").header("Authorization", super.userBearerToken))
         .andExpect(status().is(400));
 
     // Unauthorized
-    mockMvc.perform(get("/events?status=invalid")).andExpect(status().is(401));
+    performAsync(get("/events?status=invalid")).andExpect(status().is(401));
   }
 
   /**
@@ -164,8 +160,7 @@ public class EventControllerTest extends BaseControllerTest {
    */
   @Test
   public void get_200() throws Exception {
-    mockMvc
-        .perform(get("/events/00000000-0000-0000-0002-000000000002").header("Authorization",
+    performAsync(get("/events/00000000-0000-0000-0002-000000000002").header("Authorization",
             super.userBearerToken))
         .andExpect(status().is(200)) //
         .andExpect(jsonPath("$.id", equalTo("00000000-0000-0000-0002-000000000002")))
@@ -195,15 +190,15 @@ public class EventControllerTest extends BaseControllerTest {
   public void get_40x() throws Exception {
 
     // Invalid id
-    mockMvc.perform(get("/events/invalid").header("Authorization", super.userBearerToken))
+    performAsync(get("/events/invalid").header("Authorization", super.userBearerToken))
         .andExpect(status().is(400));
 
     // Unauthorized
-    mockMvc.perform(get("/events/00000000-0000-0000-0002-000000000002"))
+    performAsync(get("/events/00000000-0000-0000-0002-000000000002"))
         .andExpect(status().is(401));
 
     // Not found
-    mockMvc.perform(get("/events/00000000-0000-0000-0002-000000000009").header("Authorization",
+    performAsync(get("/events/00000000-0000-0000-0002-000000000009").header("Authorization",
         super.userBearerToken)).andExpect(status().is(404));
   }
 
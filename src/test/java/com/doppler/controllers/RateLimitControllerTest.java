@@ -0,0 +1,76 @@
+package com.doppler.controllers;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import com.doppler.services.config.RateLimitConfiguration;
+import com.doppler.services.config.RateLimitConfiguration.Budget;
+
+/**
+ * Tests for the rate limiting of the API, enabled with a small read budget.
+ */
+public class RateLimitControllerTest extends BaseControllerTest {
+
+  /**
+   * The rate limit configuration.
+   */
+  @Autowired
+  private RateLimitConfiguration rateLimitConfiguration;
+
+  /**
+   * The read budget of the users configured.
+   */
+  private Budget userRead;
+
+  /**
+   * Enable the rate limiting, 2 reads and then 1 read per 1000 seconds.
+   *
+   * @throws Exception if any error occurs
+   */
+  @Before
+  @Override
+  public void before() throws Exception {
+    super.before();
+    userRead = rateLimitConfiguration.getUserRead();
+    rateLimitConfiguration.setUserRead(new Budget(2, 0.001));
+    rateLimitConfiguration.setEnabled(true);
+  }
+
+  /**
+   * Disable the rate limiting again.
+   */
+  @After
+  public void after() {
+    rateLimitConfiguration.setEnabled(false);
+    rateLimitConfiguration.setUserRead(userRead);
+  }
+
+  /**
+   * The requests beyond the budget of a user are rejected with 429.
+   *
+   * @throws Exception if any error occurs
+   */
+  @Test
+  public void userRead_429() throws Exception {
+    mockMvc.perform(get("/userSettings").header("Authorization", super.userBearerToken))
+        .andExpect(status().is(200));
+    mockMvc.perform(get("/userSettings").header("Authorization", super.userBearerToken))
+        .andExpect(status().is(200));
+
+    mockMvc.perform(get("/userSettings").header("Authorization", super.userBearerToken))
+        .andExpect(status().is(429)) //
+        .andExpect(header().string("Retry-After", "1000")) //
+        .andExpect(jsonPath("$.message", equalTo("Too many requests")));
+
+    // Other users and anonymous requests are not limited
+    mockMvc.perform(get("/userSettings").header("Authorization", super.user2BearerToken))
+        .andExpect(status().is(200));
+    mockMvc.perform(get("/userSettings")).andExpect(status().is(401));
+  }
+}
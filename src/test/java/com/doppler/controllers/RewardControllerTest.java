@@ -22,7 +22,7 @@ public class RewardControllerTest extends BaseControllerTest {
   public void search_200() throws Exception {
 
     // No filter
-    mockMvc.perform(get("/rewards").header("Authorization", super.userBearerToken))
+    performAsync(get("/rewards").header("Authorization", super.userBearerToken))
         .andExpect(status().is(200)) //
         .andExpect(jsonPath("$.count", equalTo(5))) //
         .andExpect(jsonPath("$.rows", hasSize(5))) //
@@ -32,15 +32,14 @@ public class RewardControllerTest extends BaseControllerTest {
         .andExpect(jsonPath("$.rows[0].pointsRequired", equalTo(10)));
 
     // Paging
-    mockMvc.perform(get("/rewards?limit=1&offset=2").header("Authorization", super.userBearerToken))
+    performAsync(get("/rewards?limit=1&offset=2").header("Authorization", super.userBearerToken))
         .andExpect(status().is(200)) //
         .andExpect(jsonPath("$.count", equalTo(5))) //
         .andExpect(jsonPath("$.rows", hasSize(1))) //
         .andExpect(jsonPath("$.rows[0].id", equalTo("00000000-0000-0000-0000-000000000003")));
 
     // Sorting
-    mockMvc
-        .perform(get("/rewards?limit=5&offset=0&sortBy=pointsRequired&sortDirection=desc")
+    performAsync(get("/rewards?limit=5&offset=0&sortBy=pointsRequired&sortDirection=desc")
             .header("Authorization", super.userBearerToken))
         .andExpect(status().is(200)) //
         .andExpect(jsonPath("$.count", equalTo(5))) //
@@ -57,19 +56,19 @@ public class RewardControllerTest extends BaseControllerTest {
   public void search_40x() throws Exception {
 
     // Invalid paging
-    mockMvc.perform(get("/rewards?limit=0&offset=-1&sortBy=pointsRequired&sortDirection=desc")
+    performAsync(get("/rewards?limit=0&offset=-1&sortBy=pointsRequired&sortDirection=desc")
         .header("Authorization", super.userBearerToken)).andExpect(status().is(400));
 
     // Invalid sortBy
-    mockMvc.perform(get("/rewards?limit=1&offset=1&sortBy=id&sortDirection=desc")
+    performAsync(get("/rewards?limit=1&offset=1&sortBy=id&sortDirection=desc")
         .header("Authorization", super.userBearerToken)).andExpect(status().is(400));
 
     // Invalid sortDirection
-    mockMvc.perform(get("/rewards?limit=1&offset=1&sortBy=title&sortDirection=invalid")
+    performAsync(get("/rewards?limit=1&offset=1&sortBy=title&sortDirection=invalid")
         .header("Authorization", super.userBearerToken)).andExpect(status().is(400));
 
     // Unauthorized
-    mockMvc.perform(get("/users")).andExpect(status().is(401));
+    performAsync(get("/users")).andExpect(status().is(401));
   }
 
   /**
@@ -120,7 +119,7 @@ public class RewardControllerTest extends BaseControllerTest {
    */
   @Test
   public void getAllCurrentUserRewards_200() throws Exception {
-    mockMvc.perform(get("/myRewards").header("Authorization", super.userBearerToken))
+    performAsync(get("/myRewards").header("Authorization", super.userBearerToken))
         .andExpect(status().is(200)) //
         .andExpect(jsonPath("$", hasSize(4))) //
         .andExpect(jsonPath("$[0].id", equalTo("00000000-0000-0000-0000-000000000001")))
@@ -137,6 +136,6 @@ public class RewardControllerTest extends BaseControllerTest {
   public void getAllCurrentUserRewards_40x() throws Exception {
 
     // Unauthorized
-    mockMvc.perform(get("/myRewards")).andExpect(status().is(401));
+    performAsync(get("/myRewards")).andExpect(status().is(401));
   }
 }
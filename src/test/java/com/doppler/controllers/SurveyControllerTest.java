@@ -21,8 +21,7 @@ public class SurveyControllerTest extends BaseControllerTest {
    */
   @Test
   public void getSurveyQuestions_200() throws Exception {
-    mockMvc
-        .perform(get("/events/00000000-0000-0000-0002-000000000001/survey").header("Authorization",
+    performAsync(get("/events/00000000-0000-0000-0002-000000000001/survey").header("Authorization",
             super.userBearerToken))
         .andExpect(status().is(200)) //
         .andExpect(jsonPath("$", hasSize(3))) //
@@ -44,19 +43,19 @@ public class SurveyControllerTest extends BaseControllerTest {
   public void getSurveyQuestions_40x() throws Exception {
 
     // Invalid id
-    mockMvc.perform(get("/events/invalid/survey").header("Authorization", super.userBearerToken))
+    performAsync(get("/events/invalid/survey").header("Authorization", super.userBearerToken))
         .andExpect(status().is(400));
 
     // Unauthorized
-    mockMvc.perform(get("/events/00000000-0000-0000-0002-000000000001/survey"))
+    performAsync(get("/events/00000000-0000-0000-0002-000000000001/survey"))
         .andExpect(status().is(401));
 
     // Not attended yet
-    mockMvc.perform(get("/events/00000000-0000-0000-0002-000000000003/survey")
+    performAsync(get("/events/00000000-0000-0000-0002-000000000003/survey")
         .header("Authorization", super.userBearerToken)).andExpect(status().is(403));
 
     // Not found
-    mockMvc.perform(get("/events/00000000-0000-0000-0002-000000000009/survey")
+    performAsync(get("/events/00000000-0000-0000-0002-000000000009/survey")
         .header("Authorization", super.userBearerToken)).andExpect(status().is(404));
   }
 
@@ -19,7 +19,7 @@ public class TopicControllerTest extends BaseControllerTest {
    */
  // @Test
   public void search_200() throws Exception {
-    mockMvc.perform(get("/topics").header("Authorization", super.userBearerToken))
+    performAsync(get("/topics").header("Authorization", super.userBearerToken))
         .andExpect(status().is(200)) //
         .andExpect(jsonPath("$", hasSize(5)))//
         .andExpect(jsonPath("$[0].id", equalTo("00000000-0000-0000-0001-000000000001")))
@@ -36,6 +36,6 @@ public class TopicControllerTest extends BaseControllerTest {
   public void search_40x() throws Exception {
 
     // Unauthorized
-    mockMvc.perform(get("/topics")).andExpect(status().is(401));
+    performAsync(get("/topics")).andExpect(status().is(401));
   }
 }
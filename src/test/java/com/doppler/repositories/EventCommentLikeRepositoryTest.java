@@ -2,6 +2,9 @@ package com.doppler.repositories;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import java.util.Date;
+import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.UUID;
 import javax.validation.ConstraintViolationException;
@@ -23,7 +26,7 @@ public class EventCommentLikeRepositoryTest extends BaseRepositoryTest<EventComm
   public void save() {
     // Create
     EventCommentLike entity = new EventCommentLike();
-    entity.setEventCommentId(UUID.fromString("00000000-0000-0000-0000-000000000001"));
+    entity.setEventCommentId(UUID.fromString("00000000-0000-0000-0000-000000000002"));
     entity.setUserId(UUID.fromString("00000000-0000-0000-0000-000000000002"));
     entity = repository.saveAndFlush(entity);
 
@@ -62,6 +65,18 @@ public class EventCommentLikeRepositoryTest extends BaseRepositoryTest<EventComm
     repository.saveAndFlush(entity);
   }
 
+  /**
+   * Negative test for save() with a comment already liked by the user.
+   */
+  @Test(expected = DataIntegrityViolationException.class)
+  public void save_createDuplicate() {
+    EventCommentLike entity = new EventCommentLike();
+    entity.setEventCommentId(UUID.fromString("00000000-0000-0000-0000-000000000001"));
+    entity.setUserId(UUID.fromString("00000000-0000-0000-0000-000000000002"));
+
+    repository.saveAndFlush(entity);
+  }
+
   /**
    * Negative test for save() with null userId.
    */
@@ -170,9 +185,10 @@ public class EventCommentLikeRepositoryTest extends BaseRepositoryTest<EventComm
   @Test
   @Transactional
   public void deleteByEventCommentIdAndUserId() {
-    ((EventCommentLikeRepository) repository).deleteByEventCommentIdAndUserId(
+    int deleted = ((EventCommentLikeRepository) repository).deleteByEventCommentIdAndUserId(
         UUID.fromString("00000000-0000-0000-0000-000000000001"),
         UUID.fromString("00000000-0000-0000-0000-000000000003"));
+    assertEquals(1, deleted);
 
     boolean existed = ((EventCommentLikeRepository) repository).existsByEventCommentIdAndUserId(
         UUID.fromString("00000000-0000-0000-0000-000000000001"),
@@ -180,4 +196,47 @@ public class EventCommentLikeRepositoryTest extends BaseRepositoryTest<EventComm
 
     assertEquals(false, existed);
   }
+
+  /**
+   * Positive test for insertIfAbsent().
+   */
+  @Test
+  @Transactional
+  public void insertIfAbsent() {
+    // Inserted
+    int inserted = ((EventCommentLikeRepository) repository).insertIfAbsent(UUID.randomUUID(),
+        UUID.fromString("00000000-0000-0000-0000-000000000002"),
+        UUID.fromString("00000000-0000-0000-0000-000000000002"), new Date());
+    assertEquals(1, inserted);
+
+    boolean existed = ((EventCommentLikeRepository) repository).existsByEventCommentIdAndUserId(
+        UUID.fromString("00000000-0000-0000-0000-000000000002"),
+        UUID.fromString("00000000-0000-0000-0000-000000000002"));
+    assertEquals(true, existed);
+
+    // Liked already
+    inserted = ((EventCommentLikeRepository) repository).insertIfAbsent(UUID.randomUUID(),
+        UUID.fromString("00000000-0000-0000-0000-000000000002"),
+        UUID.fromString("00000000-0000-0000-0000-000000000002"), new Date());
+    assertEquals(0, inserted);
+  }
+
+  /**
+   * Positive test for findEventCommentIdsByUserId().
+   */
+  @Test
+  public void findEventCommentIdsByUserId() {
+    // Found
+    List<UUID> ids = ((EventCommentLikeRepository) repository)
+        .findEventCommentIdsByUserId(UUID.fromString("00000000-0000-0000-0000-000000000001"));
+    assertEquals(3, ids.size());
+    assertTrue(ids.contains(UUID.fromString("00000000-0000-0000-0000-000000000001")));
+    assertTrue(ids.contains(UUID.fromString("00000000-0000-0000-0000-000000000002")));
+    assertTrue(ids.contains(UUID.fromString("00000000-0000-0000-0000-000000000003")));
+
+    // Not found
+    ids = ((EventCommentLikeRepository) repository)
+        .findEventCommentIdsByUserId(UUID.fromString("00000000-0000-0000-0000-000000000099"));
+    assertEquals(0, ids.size());
+  }
 }
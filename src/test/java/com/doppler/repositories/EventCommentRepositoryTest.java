@@ -2,6 +2,7 @@ package com.doppler.repositories;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import java.util.Arrays;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.UUID;
@@ -13,6 +14,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort.Direction;
+import org.springframework.transaction.annotation.Transactional;
 import com.doppler.entities.EventComment;
 
 /**
@@ -204,4 +206,149 @@ public class EventCommentRepositoryTest extends BaseRepositoryTest<EventComment>
     entities = pagedEntities.getContent();
     assertEquals(0, entities.size());
   }
+
+  /**
+   * Positive test for findWithUserLikeCount().
+   */
+  @Test
+  public void findWithUserLikeCount() {
+    // Found
+    List<Object[]> rows = ((EventCommentRepository) repository).findWithUserLikeCount(
+        Arrays.asList(UUID.fromString("00000000-0000-0000-0000-000000000001"),
+            UUID.fromString("00000000-0000-0000-0000-000000000003"),
+            UUID.fromString("00000000-0000-0000-0000-000000000004")),
+        UUID.fromString("00000000-0000-0000-0000-000000000001"));
+
+    assertEquals(3, rows.size());
+    assertEquals(UUID.fromString("00000000-0000-0000-0000-000000000001"),
+        ((EventComment) rows.get(0)[0]).getId());
+    assertEquals(1L, ((Number) rows.get(0)[1]).longValue());
+    assertEquals(UUID.fromString("00000000-0000-0000-0000-000000000003"),
+        ((EventComment) rows.get(1)[0]).getId());
+    assertEquals(1L, ((Number) rows.get(1)[1]).longValue());
+    assertEquals(UUID.fromString("00000000-0000-0000-0000-000000000004"),
+        ((EventComment) rows.get(2)[0]).getId());
+    assertEquals(0L, ((Number) rows.get(2)[1]).longValue());
+
+    // Not found
+    rows = ((EventCommentRepository) repository).findWithUserLikeCount(
+        Arrays.asList(UUID.fromString("00000000-0000-0000-0000-000000000009")),
+        UUID.fromString("00000000-0000-0000-0000-000000000001"));
+    assertEquals(0, rows.size());
+  }
+
+  /**
+   * Positive test for findFirstReplyIdsAndReplyCount().
+   */
+  @Test
+  public void findFirstReplyIdsAndReplyCount() {
+    List<Object[]> rows = ((EventCommentRepository) repository).findFirstReplyIdsAndReplyCount(
+        Arrays.asList(UUID.fromString("00000000-0000-0000-0000-000000000001"),
+            UUID.fromString("00000000-0000-0000-0000-000000000002")),
+        1);
+
+    assertEquals(2, rows.size());
+    Object[] row = rows.get(0)[0].equals("00000000-0000-0000-0000-000000000001") ? rows.get(0)
+        : rows.get(1);
+    assertEquals("00000000-0000-0000-0000-000000000003", row[1]);
+    assertEquals(2L, ((Number) row[2]).longValue());
+
+    row = rows.get(0)[0].equals("00000000-0000-0000-0000-000000000002") ? rows.get(0)
+        : rows.get(1);
+    assertEquals(null, row[1]);
+    assertEquals(0L, ((Number) row[2]).longValue());
+  }
+
+  /**
+   * Positive test for findRepliesCreatedAfter().
+   */
+  @Test
+  public void findRepliesCreatedAfter() {
+    EventComment reply =
+        repository.findById(UUID.fromString("00000000-0000-0000-0000-000000000003")).get();
+    List<EventComment> replies = ((EventCommentRepository) repository).findRepliesCreatedAfter(
+        UUID.fromString("00000000-0000-0000-0000-000000000001"), reply.getCreatedAt(),
+        reply.getId(), PageRequest.of(0, 10));
+
+    assertEquals(1, replies.size());
+    assertEquals(UUID.fromString("00000000-0000-0000-0000-000000000004"), replies.get(0).getId());
+  }
+
+  /**
+   * Positive test for addLikeCount().
+   */
+  @Test
+  @Transactional
+  public void addLikeCount() {
+    int likeCount = ((EventCommentRepository) repository)
+        .addLikeCount(UUID.fromString("00000000-0000-0000-0000-000000000001"), 1);
+    assertEquals(4, likeCount);
+
+    likeCount = ((EventCommentRepository) repository)
+        .addLikeCount(UUID.fromString("00000000-0000-0000-0000-000000000001"), -2);
+    assertEquals(2, likeCount);
+  }
+
+  /**
+   * Positive test for updateLikeCount().
+   */
+  @Test
+  @Transactional
+  public void updateLikeCount() {
+    int updated = ((EventCommentRepository) repository)
+        .updateLikeCount(UUID.fromString("00000000-0000-0000-0000-000000000001"), 2);
+    assertEquals(1, updated);
+
+    int likeCount = ((EventCommentRepository) repository)
+        .addLikeCount(UUID.fromString("00000000-0000-0000-0000-000000000001"), 0);
+    assertEquals(5, likeCount);
+
+    // Deleted comment
+    updated = ((EventCommentRepository) repository)
+        .updateLikeCount(UUID.fromString("00000000-0000-0000-0000-0000000000ff"), 2);
+    assertEquals(0, updated);
+  }
+
+  /**
+   * Positive test for insertLikeChange(), reconcileLikeCountsChangedBefore() and
+   * deleteLikeChangesBefore(). The changes are recorded after the transaction start, so a delay of
+   * -1 second covers them.
+   */
+  @Test
+  @Transactional
+  public void reconcileLikeCountsChangedBefore() {
+    // Drifted
+    UUID id = UUID.fromString("00000000-0000-0000-0000-000000000001");
+    ((EventCommentRepository) repository).addLikeCount(id, 5);
+    assertEquals(1, ((EventCommentRepository) repository).insertLikeChange(id));
+
+    // Changed too recently
+    int updated = ((EventCommentRepository) repository).reconcileLikeCountsChangedBefore(60);
+    assertEquals(0, updated);
+    assertEquals(0, ((EventCommentRepository) repository).deleteLikeChangesBefore(60));
+
+    // Changed before the delay
+    updated = ((EventCommentRepository) repository).reconcileLikeCountsChangedBefore(-1);
+    assertEquals(1, updated);
+    assertEquals(3, ((EventCommentRepository) repository).addLikeCount(id, 0));
+
+    // Consistent
+    updated = ((EventCommentRepository) repository).reconcileLikeCountsChangedBefore(-1);
+    assertEquals(0, updated);
+    assertEquals(1, ((EventCommentRepository) repository).deleteLikeChangesBefore(-1));
+  }
+
+  /**
+   * Positive test for findIdAndEventIdByIdIn().
+   */
+  @Test
+  public void findIdAndEventIdByIdIn() {
+    List<Object[]> rows = ((EventCommentRepository) repository).findIdAndEventIdByIdIn(
+        Arrays.asList(UUID.fromString("00000000-0000-0000-0000-000000000001"),
+            UUID.fromString("00000000-0000-0000-0000-000000000003"),
+            UUID.fromString("00000000-0000-0000-0000-000000000005")));
+
+    assertEquals(3, rows.size());
+    assertEquals(2, rows.stream().map(row -> row[1]).distinct().count());
+  }
 }
@@ -3,6 +3,7 @@ package com.doppler.repositories;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.UUID;
@@ -168,4 +169,194 @@ public class UserRepositoryTest extends BaseRepositoryTest<User> {
     users = ((UserRepository) repository).findByFullNameContainingIgnoreCase("notfound");
     assertEquals(0, users.size());
   }
+
+  /**
+   * Positive test for findPrincipalVersionById().
+   */
+  @Test
+  public void findPrincipalVersionById() {
+    // Found
+    UUID id = UUID.fromString("00000000-0000-0000-0000-000000000001");
+    assertEquals(Long.valueOf(0), ((UserRepository) repository).findPrincipalVersionById(id));
+
+    // Bumped by an update
+    User user = repository.findById(id).get();
+    user.setNotifiedByNewEvents(false);
+    repository.saveAndFlush(user);
+    assertTrue(((UserRepository) repository).findPrincipalVersionById(id) > 0);
+
+    // Not found
+    assertNull(((UserRepository) repository)
+        .findPrincipalVersionById(UUID.fromString("00000000-0000-0000-0000-000000000009")));
+  }
+
+  /**
+   * Positive test for findBackendTokenById().
+   */
+  @Test
+  public void findBackendTokenById() {
+    UUID id = UUID.fromString("00000000-0000-0000-0000-000000000001");
+    ((UserRepository) repository).updateBackendToken(id, "backend token");
+    assertEquals("backend token", ((UserRepository) repository).findBackendTokenById(id));
+
+    // Not found
+    assertNull(((UserRepository) repository)
+        .findBackendTokenById(UUID.fromString("00000000-0000-0000-0000-000000000009")));
+  }
+
+  /**
+   * Positive test for findIdAndBackendTokenByEmail().
+   */
+  @Test
+  public void findIdAndBackendTokenByEmail() {
+    // Found, case insensitive
+    List<Object[]> rows =
+        ((UserRepository) repository).findIdAndBackendTokenByEmail("User1@Doppler.com");
+    assertEquals(1, rows.size());
+    assertEquals(UUID.fromString("00000000-0000-0000-0000-000000000001"), rows.get(0)[0]);
+    assertNull(rows.get(0)[1]);
+
+    // Not found
+    rows = ((UserRepository) repository).findIdAndBackendTokenByEmail("user9@doppler.com");
+    assertEquals(0, rows.size());
+  }
+
+  /**
+   * Positive tests for upsertByEmail().
+   */
+  @Test
+  public void upsertByEmail() {
+    // Create
+    User user = new User();
+    user.setId(UUID.randomUUID());
+    user.setEmail("user.new@doppler.com");
+    user.setFullName("full name");
+    user.setPhoneNumber("0123456");
+    user.setBackendToken("backend token");
+    User dbUser = ((UserRepository) repository).upsertByEmail(user, 1000);
+
+    assertEquals(user.getId(), dbUser.getId());
+    assertEquals("full name", dbUser.getFullName());
+    assertNull(dbUser.getDivision());
+    assertTrue(dbUser.getIsNew());
+    assertEquals(1000, dbUser.getPrincipalVersion());
+
+    // Update an existing user, keeping the points and flags
+    user = new User();
+    user.setId(UUID.randomUUID());
+    user.setEmail("User1@doppler.com");
+    user.setFullName("full name new");
+    user.setPhoneNumber("0123456");
+    dbUser = ((UserRepository) repository).upsertByEmail(user, 1000);
+
+    assertEquals(UUID.fromString("00000000-0000-0000-0000-000000000001"), dbUser.getId());
+    assertEquals("User1@doppler.com", dbUser.getEmail());
+    assertEquals("full name new", dbUser.getFullName());
+    assertEquals(100, dbUser.getPoints());
+    assertFalse(dbUser.getIsNew());
+    assertEquals(1000, dbUser.getPrincipalVersion());
+  }
+
+  /**
+   * Positive test for updateNotifiedByNewEvents().
+   */
+  @Test
+  public void updateNotifiedByNewEvents() {
+    UUID id = UUID.fromString("00000000-0000-0000-0000-000000000001");
+    long version = ((UserRepository) repository).findPrincipalVersionById(id);
+    assertEquals(1, ((UserRepository) repository).updateNotifiedByNewEvents(id, false, 1000));
+    User dbUser = repository.findById(id).get();
+    assertFalse(dbUser.isNotifiedByNewEvents());
+    assertEquals(100, dbUser.getPoints());
+    assertTrue(dbUser.getPrincipalVersion() > version);
+
+    // Not found
+    assertEquals(0, ((UserRepository) repository).updateNotifiedByNewEvents(
+        UUID.fromString("00000000-0000-0000-0000-000000000009"), false, 1000));
+  }
+
+  /**
+   * Positive test for addPoints().
+   */
+  @Test
+  public void addPoints() {
+    UUID id = UUID.fromString("00000000-0000-0000-0000-000000000001");
+    assertEquals(1, ((UserRepository) repository).addPoints(id, 10));
+    assertEquals(110, repository.findById(id).get().getPoints());
+
+    // Not found
+    assertEquals(0, ((UserRepository) repository)
+        .addPoints(UUID.fromString("00000000-0000-0000-0000-000000000009"), 10));
+  }
+
+  /**
+   * Positive test for addPointsIfNew().
+   */
+  @Test
+  public void addPointsIfNew() {
+    // New user
+    UUID id = UUID.fromString("00000000-0000-0000-0000-000000000005");
+    assertEquals(1, ((UserRepository) repository).addPointsIfNew(id, 20, 1000));
+    User dbUser = repository.findById(id).get();
+    assertEquals(20, dbUser.getPoints());
+    assertFalse(dbUser.getIsNew());
+    assertTrue(dbUser.getPrincipalVersion() >= 1000);
+
+    // Not new any more
+    assertEquals(0, ((UserRepository) repository).addPointsIfNew(id, 20, 1000));
+    assertEquals(20, repository.findById(id).get().getPoints());
+  }
+
+  /**
+   * Positive test for updatePoints().
+   */
+  @Test
+  public void updatePoints() {
+    UUID id = UUID.fromString("00000000-0000-0000-0000-000000000001");
+
+    // Changed since read
+    assertEquals(0, ((UserRepository) repository).updatePoints(id, 99, 10));
+    assertEquals(100, repository.findById(id).get().getPoints());
+
+    assertEquals(1, ((UserRepository) repository).updatePoints(id, 100, 10));
+    assertEquals(10, repository.findById(id).get().getPoints());
+  }
+
+  /**
+   * Positive test for findPointsAndLedgerSumsAfter().
+   */
+  @Test
+  public void findPointsAndLedgerSumsAfter() {
+    List<Object[]> rows = ((UserRepository) repository)
+        .findPointsAndLedgerSumsAfter(new UUID(0, 0), 2);
+
+    assertEquals(2, rows.size());
+    assertEquals("00000000-0000-0000-0000-000000000001", rows.get(0)[0]);
+    assertEquals(100, ((Number) rows.get(0)[1]).intValue());
+    assertEquals(10, ((Number) rows.get(0)[2]).longValue());
+    assertEquals("00000000-0000-0000-0000-000000000002", rows.get(1)[0]);
+    assertEquals(5, ((Number) rows.get(1)[2]).longValue());
+
+    // Next batch
+    rows = ((UserRepository) repository).findPointsAndLedgerSumsAfter(
+        UUID.fromString("00000000-0000-0000-0000-000000000004"), 2);
+    assertEquals(1, rows.size());
+    assertEquals("00000000-0000-0000-0000-000000000005", rows.get(0)[0]);
+    assertEquals(0, ((Number) rows.get(0)[2]).longValue());
+  }
+
+  /**
+   * Saving a stale copy of a user does not overwrite its points.
+   */
+  @Test
+  public void save_pointsNotUpdated() {
+    UUID id = UUID.fromString("00000000-0000-0000-0000-000000000001");
+    User user = repository.findById(id).get();
+    ((UserRepository) repository).addPoints(id, 10);
+
+    user.setNotifiedByNewEvents(false);
+    repository.saveAndFlush(user);
+
+    assertEquals(110, repository.findById(id).get().getPoints());
+  }
 }
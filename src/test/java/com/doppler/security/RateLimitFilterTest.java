@@ -0,0 +1,172 @@
+package com.doppler.security;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import com.doppler.entities.User;
+
+/**
+ * The unit tests for RateLimitFilter.
+ */
+public class RateLimitFilterTest {
+
+  /**
+   * The user id.
+   */
+  private static final UUID USER_ID = UUID.fromString("00000000-0000-0000-0000-000000000001");
+
+  /**
+   * The rate limiter.
+   */
+  private RateLimiter rateLimiter;
+
+  /**
+   * The filter.
+   */
+  private RateLimitFilter filter;
+
+  /**
+   * The filter chain.
+   */
+  private MockFilterChain chain;
+
+  /**
+   * The response.
+   */
+  private MockHttpServletResponse response;
+
+  /**
+   * Create the filter with a mocked rate limiter.
+   */
+  @Before
+  public void before() {
+    rateLimiter = mock(RateLimiter.class);
+    when(rateLimiter.isEnabled()).thenReturn(true);
+    filter = new RateLimitFilter(rateLimiter);
+    chain = new MockFilterChain();
+    response = new MockHttpServletResponse();
+  }
+
+  /**
+   * Clear the security context.
+   */
+  @After
+  public void after() {
+    SecurityContextHolder.clearContext();
+  }
+
+  /**
+   * Anonymous requests are not limited.
+   *
+   * @throws Exception if any error occurs
+   */
+  @Test
+  public void doFilter_anonymous() throws Exception {
+    filter.doFilter(new MockHttpServletRequest("GET", "/events"), response, chain);
+
+    assertNotNull(chain.getRequest());
+    verify(rateLimiter, never()).tryAcquire(anyString(), anyBoolean(), anyBoolean());
+  }
+
+  /**
+   * Nothing is limited when the rate limiting is disabled.
+   *
+   * @throws Exception if any error occurs
+   */
+  @Test
+  public void doFilter_disabled() throws Exception {
+    authenticateUser();
+    when(rateLimiter.isEnabled()).thenReturn(false);
+
+    filter.doFilter(new MockHttpServletRequest("POST", "/events"), response, chain);
+
+    assertNotNull(chain.getRequest());
+    verify(rateLimiter, never()).tryAcquire(anyString(), anyBoolean(), anyBoolean());
+  }
+
+  /**
+   * Admitted requests are keyed by user id or machine token, and by reads or writes.
+   *
+   * @throws Exception if any error occurs
+   */
+  @Test
+  public void doFilter_admitted() throws Exception {
+    authenticateUser();
+    filter.doFilter(new MockHttpServletRequest("GET", "/events"), response, chain);
+    assertNotNull(chain.getRequest());
+    verify(rateLimiter).tryAcquire(USER_ID.toString(), false, false);
+
+    filter.doFilter(new MockHttpServletRequest("DELETE", "/events"), response,
+        new MockFilterChain());
+    verify(rateLimiter).tryAcquire(USER_ID.toString(), false, true);
+
+    SecurityContextHolder.getContext().setAuthentication(
+        new UsernamePasswordAuthenticationToken("m2m", null, Collections.emptyList()));
+    filter.doFilter(new MockHttpServletRequest("HEAD", "/events"), response,
+        new MockFilterChain());
+    verify(rateLimiter).tryAcquire("m2m", true, false);
+  }
+
+  /**
+   * Rejected requests get a 429 with the seconds to wait, rounded up.
+   *
+   * @throws Exception if any error occurs
+   */
+  @Test
+  public void doFilter_rejected() throws Exception {
+    authenticateUser();
+    when(rateLimiter.tryAcquire(USER_ID.toString(), false, true))
+        .thenReturn(TimeUnit.MILLISECONDS.toNanos(1500));
+
+    filter.doFilter(new MockHttpServletRequest("POST", "/events"), response, chain);
+
+    assertNull(chain.getRequest());
+    assertEquals(429, response.getStatus());
+    assertEquals("2", response.getHeader("Retry-After"));
+    assertTrue(response.getContentAsString().contains("Too many requests"));
+  }
+
+  /**
+   * The seconds to wait are never 0.
+   *
+   * @throws Exception if any error occurs
+   */
+  @Test
+  public void doFilter_rejectedShortWait() throws Exception {
+    authenticateUser();
+    when(rateLimiter.tryAcquire(USER_ID.toString(), false, false)).thenReturn(1L);
+
+    filter.doFilter(new MockHttpServletRequest("GET", "/events"), response, chain);
+
+    assertEquals(429, response.getStatus());
+    assertEquals("1", response.getHeader("Retry-After"));
+  }
+
+  /**
+   * Authenticate the user in the security context.
+   */
+  private static void authenticateUser() {
+    User user = new User();
+    user.setId(USER_ID);
+    SecurityContextHolder.getContext().setAuthentication(
+        new UsernamePasswordAuthenticationToken(user, null, Collections.emptyList()));
+  }
+}
@@ -0,0 +1,120 @@
+package com.doppler.security;
+
+import static org.junit.Assert.assertEquals;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import com.doppler.services.config.RateLimitConfiguration;
+import com.doppler.services.config.RateLimitConfiguration.Budget;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * The unit tests for RateLimiter, with a fixed clock.
+ */
+public class RateLimiterTest {
+
+  /**
+   * One second in nanoseconds.
+   */
+  private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  /**
+   * The current time in nanoseconds.
+   */
+  private AtomicLong now;
+
+  /**
+   * The meter registry.
+   */
+  private MeterRegistry meterRegistry;
+
+  /**
+   * The rate limiter, with small budgets.
+   */
+  private RateLimiter rateLimiter;
+
+  /**
+   * Create the rate limiter.
+   */
+  @Before
+  public void before() {
+    RateLimitConfiguration config = new RateLimitConfiguration();
+    config.setUserRead(new Budget(2, 1));
+    config.setUserWrite(new Budget(1, 1));
+    config.setM2mRead(new Budget(4, 2));
+    config.setM2mWrite(new Budget(1, 0.5));
+    now = new AtomicLong(1000 * SECOND);
+    meterRegistry = new SimpleMeterRegistry();
+
+    rateLimiter = new RateLimiter();
+    ReflectionTestUtils.setField(rateLimiter, "config", config);
+    ReflectionTestUtils.setField(rateLimiter, "meterRegistry", meterRegistry);
+    ReflectionTestUtils.setField(rateLimiter, "clock", (LongSupplier) now::get);
+    rateLimiter.init();
+  }
+
+  /**
+   * Each principal has its own budget.
+   */
+  @Test
+  public void tryAcquire_perPrincipal() {
+    assertEquals(0, rateLimiter.tryAcquire("user1", false, false));
+    assertEquals(0, rateLimiter.tryAcquire("user1", false, false));
+    assertEquals(SECOND, rateLimiter.tryAcquire("user1", false, false));
+
+    assertEquals(0, rateLimiter.tryAcquire("user2", false, false));
+    assertEquals(0, rateLimiter.tryAcquire("user2", false, false));
+  }
+
+  /**
+   * Reads and writes have separate budgets, and so have users and the machine token.
+   */
+  @Test
+  public void tryAcquire_perKind() {
+    assertEquals(0, rateLimiter.tryAcquire("user1", false, true));
+    assertEquals(SECOND, rateLimiter.tryAcquire("user1", false, true));
+    assertEquals(0, rateLimiter.tryAcquire("user1", false, false));
+
+    for (int i = 0; i < 4; i++) {
+      assertEquals(0, rateLimiter.tryAcquire("m2m", true, false));
+    }
+    assertEquals(SECOND / 2, rateLimiter.tryAcquire("m2m", true, false));
+    assertEquals(0, rateLimiter.tryAcquire("m2m", true, true));
+    assertEquals(2 * SECOND, rateLimiter.tryAcquire("m2m", true, true));
+  }
+
+  /**
+   * The budget refills with time.
+   */
+  @Test
+  public void tryAcquire_refill() {
+    rateLimiter.tryAcquire("user1", false, false);
+    rateLimiter.tryAcquire("user1", false, false);
+    assertEquals(SECOND, rateLimiter.tryAcquire("user1", false, false));
+
+    now.addAndGet(SECOND / 4);
+    assertEquals(3 * SECOND / 4, rateLimiter.tryAcquire("user1", false, false));
+
+    now.addAndGet(3 * SECOND / 4);
+    assertEquals(0, rateLimiter.tryAcquire("user1", false, false));
+    assertEquals(SECOND, rateLimiter.tryAcquire("user1", false, false));
+  }
+
+  /**
+   * The rejected requests and the buckets are measured.
+   */
+  @Test
+  public void tryAcquire_metrics() {
+    rateLimiter.tryAcquire("user1", false, true);
+    rateLimiter.tryAcquire("user1", false, true);
+    rateLimiter.tryAcquire("user1", false, true);
+    rateLimiter.tryAcquire("user2", false, false);
+
+    assertEquals(2, meterRegistry.counter("rate.limit.rejected", "route", "user.write").count(), 0);
+    assertEquals(2, meterRegistry.get("rate.limit.buckets").gauge().value(), 0);
+  }
+}
@@ -0,0 +1,69 @@
+package com.doppler.security;
+
+import static org.junit.Assert.assertEquals;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+/**
+ * The unit tests for TokenBucket, with a fixed clock.
+ */
+public class TokenBucketTest {
+
+  /**
+   * One second in nanoseconds.
+   */
+  private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  /**
+   * A full bucket admits a burst of its capacity, then one request per refill interval.
+   */
+  @Test
+  public void tryAcquire_burst() {
+    TokenBucket bucket = new TokenBucket(3, 1, 0);
+
+    assertEquals(0, bucket.tryAcquire(0));
+    assertEquals(0, bucket.tryAcquire(0));
+    assertEquals(0, bucket.tryAcquire(0));
+    assertEquals(SECOND, bucket.tryAcquire(0));
+
+    // Rejected requests take no token
+    assertEquals(SECOND / 2, bucket.tryAcquire(SECOND / 2));
+    assertEquals(0, bucket.tryAcquire(SECOND));
+    assertEquals(SECOND, bucket.tryAcquire(SECOND));
+  }
+
+  /**
+   * An idle bucket refills up to its capacity, never beyond.
+   */
+  @Test
+  public void tryAcquire_refill() {
+    TokenBucket bucket = new TokenBucket(2, 4, 0);
+    assertEquals(0, bucket.tryAcquire(0));
+    assertEquals(0, bucket.tryAcquire(0));
+    assertEquals(SECOND / 4, bucket.tryAcquire(0));
+
+    // Half a second refills the two tokens
+    assertEquals(0, bucket.tryAcquire(SECOND / 2));
+    assertEquals(0, bucket.tryAcquire(SECOND / 2));
+    assertEquals(SECOND / 4, bucket.tryAcquire(SECOND / 2));
+
+    // An hour idle still refills only two tokens
+    long later = TimeUnit.HOURS.toNanos(1);
+    assertEquals(0, bucket.tryAcquire(later));
+    assertEquals(0, bucket.tryAcquire(later));
+    assertEquals(SECOND / 4, bucket.tryAcquire(later));
+  }
+
+  /**
+   * A fractional refill rate takes more than a second per token.
+   */
+  @Test
+  public void tryAcquire_slowRefill() {
+    TokenBucket bucket = new TokenBucket(1, 0.5, 0);
+
+    assertEquals(0, bucket.tryAcquire(0));
+    assertEquals(2 * SECOND, bucket.tryAcquire(0));
+    assertEquals(SECOND, bucket.tryAcquire(SECOND));
+    assertEquals(0, bucket.tryAcquire(2 * SECOND));
+  }
+}
@@ -0,0 +1,119 @@
+package com.doppler.services;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import com.doppler.exceptions.BackendResponseTooLargeException;
+import com.doppler.services.config.RestClientConfiguration;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * The unit tests for AbstractRestTemplateHandler.readValue().
+ */
+public class AbstractRestTemplateHandlerTest {
+
+  /**
+   * The handler, accepting responses of at most 32 bytes.
+   */
+  private RestTemplateService handler;
+
+  /**
+   * The type to decode the responses to.
+   */
+  private JavaType mapType;
+
+  /**
+   * Create the handler.
+   */
+  @Before
+  public void before() {
+    RestClientConfiguration configuration = new RestClientConfiguration();
+    configuration.setMaxResponseSize(32);
+    handler = new RestTemplateService(new RestTemplateBuilder(),
+        new SimpleClientHttpRequestFactory(), new ObjectMapper());
+    ReflectionTestUtils.setField(handler, "restClientConfiguration", configuration);
+    mapType = handler.getJavaType(Map.class);
+  }
+
+  /**
+   * A response within the maximum size is decoded.
+   *
+   * @throws Exception if any error occurs
+   */
+  @Test
+  public void readValue() throws Exception {
+    Map<String, Object> value = handler.readValue(response("{\"title\":\"event\"}", true),
+        mapType);
+
+    assertEquals("event", value.get("title"));
+  }
+
+  /**
+   * A response declaring a length beyond the maximum size is not read.
+   *
+   * @throws Exception if any error occurs
+   */
+  @Test(expected = BackendResponseTooLargeException.class)
+  public void readValue_contentLengthTooLarge() throws Exception {
+    handler.readValue(response("{\"title\":\"" + repeat(40) + "\"}", true), mapType);
+  }
+
+  /**
+   * A response without length is discarded once it exceeds the maximum size.
+   *
+   * @throws Exception if any error occurs
+   */
+  @Test(expected = BackendResponseTooLargeException.class)
+  public void readValue_streamTooLarge() throws Exception {
+    handler.readValue(response("{\"title\":\"" + repeat(40) + "\"}", false), mapType);
+  }
+
+  /**
+   * A malformed response is still decoded as no data.
+   *
+   * @throws Exception if any error occurs
+   */
+  @Test
+  public void readValue_malformed() throws Exception {
+    assertNull(handler.readValue(response("{\"title\":", true), mapType));
+  }
+
+  /**
+   * Create a 200 response.
+   *
+   * @param body the body
+   * @param withLength whether the Content-Length header is set
+   * @return the response
+   */
+  private static MockClientHttpResponse response(String body, boolean withLength) {
+    byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+    MockClientHttpResponse response = new MockClientHttpResponse(bytes, HttpStatus.OK);
+    if (withLength) {
+      response.getHeaders().setContentLength(bytes.length);
+    }
+    return response;
+  }
+
+  /**
+   * Create a string of a repeated letter.
+   *
+   * @param count the length of the string
+   * @return the string
+   */
+  private static String repeat(int count) {
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < count; i++) {
+      builder.append('a');
+    }
+    return builder.toString();
+  }
+}
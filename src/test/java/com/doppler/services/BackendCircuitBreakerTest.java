@@ -0,0 +1,302 @@
+package com.doppler.services;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import com.doppler.exceptions.BackendUnavailableException;
+import com.doppler.services.config.BackendCircuitBreakerConfiguration;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * The unit tests for BackendCircuitBreaker.
+ */
+public class BackendCircuitBreakerTest {
+
+  /**
+   * The endpoint family.
+   */
+  private static final String FAMILY = "events";
+
+  /**
+   * The number of calls the failure rate is computed over.
+   */
+  private static final int WINDOW = 4;
+
+  /**
+   * The circuit breaker configuration, opening at half of the last 4 calls failing.
+   */
+  private BackendCircuitBreakerConfiguration configuration;
+
+  /**
+   * The meter registry.
+   */
+  private MeterRegistry meterRegistry;
+
+  /**
+   * The executor making the calls kept in flight.
+   */
+  private ExecutorService executor;
+
+  /**
+   * Create the configuration.
+   */
+  @Before
+  public void before() {
+    configuration = new BackendCircuitBreakerConfiguration();
+    configuration.setSlidingWindowSize(WINDOW);
+    configuration.setMinimumCalls(WINDOW);
+    configuration.setFailureRateThreshold(50);
+    configuration.setHalfOpenCalls(2);
+    configuration.setMaxWaitInMillis(0);
+    meterRegistry = new SimpleMeterRegistry();
+    executor = Executors.newSingleThreadExecutor();
+  }
+
+  /**
+   * Stop the executor.
+   */
+  @After
+  public void after() {
+    executor.shutdownNow();
+  }
+
+  /**
+   * The circuit opens once the failure rate reaches the threshold, then rejects the calls without
+   * making them.
+   */
+  @Test
+  public void execute_open() {
+    BackendCircuitBreaker circuitBreaker =
+        new BackendCircuitBreaker(configuration, meterRegistry);
+    AtomicInteger calls = new AtomicInteger();
+
+    circuitBreaker.execute(FAMILY, () -> "ok");
+    circuitBreaker.execute(FAMILY, () -> "ok");
+    assertThrows(ResourceAccessException.class, () -> circuitBreaker.execute(FAMILY,
+        failing(calls, new ResourceAccessException("timeout"))));
+    assertEquals(BackendCircuitBreaker.State.CLOSED.ordinal(), getState(), 0);
+    assertThrows(HttpServerErrorException.class, () -> circuitBreaker.execute(FAMILY,
+        failing(calls, new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE))));
+    assertEquals(BackendCircuitBreaker.State.OPEN.ordinal(), getState(), 0);
+
+    assertThrows(BackendUnavailableException.class, () -> circuitBreaker.execute(FAMILY,
+        failing(calls, new ResourceAccessException("timeout"))));
+    assertEquals(2, calls.get());
+    assertEquals(1, getRejected("open"), 0);
+  }
+
+  /**
+   * Client errors mean the backend is up, they do not open the circuit.
+   */
+  @Test
+  public void execute_clientErrors() {
+    BackendCircuitBreaker circuitBreaker =
+        new BackendCircuitBreaker(configuration, meterRegistry);
+    AtomicInteger calls = new AtomicInteger();
+
+    for (int i = 0; i < WINDOW * 2; i++) {
+      assertThrows(HttpClientErrorException.class, () -> circuitBreaker.execute(FAMILY,
+          failing(calls, new HttpClientErrorException(HttpStatus.NOT_FOUND))));
+    }
+
+    assertEquals(WINDOW * 2, calls.get());
+    assertEquals(BackendCircuitBreaker.State.CLOSED.ordinal(), getState(), 0);
+  }
+
+  /**
+   * An open circuit becomes half-open once the open duration elapsed, and closes once the trial
+   * calls succeed.
+   */
+  @Test
+  public void execute_halfOpenSuccess() {
+    configuration.setOpenDurationInMillis(0);
+    BackendCircuitBreaker circuitBreaker =
+        new BackendCircuitBreaker(configuration, meterRegistry);
+    open(circuitBreaker);
+
+    circuitBreaker.execute(FAMILY, () -> "ok");
+    assertEquals(BackendCircuitBreaker.State.HALF_OPEN.ordinal(), getState(), 0);
+    circuitBreaker.execute(FAMILY, () -> "ok");
+    assertEquals(BackendCircuitBreaker.State.CLOSED.ordinal(), getState(), 0);
+  }
+
+  /**
+   * A failed trial call opens the circuit again.
+   */
+  @Test
+  public void execute_halfOpenFailure() {
+    configuration.setOpenDurationInMillis(0);
+    BackendCircuitBreaker circuitBreaker =
+        new BackendCircuitBreaker(configuration, meterRegistry);
+    open(circuitBreaker);
+
+    circuitBreaker.execute(FAMILY, () -> "ok");
+    assertThrows(ResourceAccessException.class, () -> circuitBreaker.execute(FAMILY,
+        failing(new AtomicInteger(), new ResourceAccessException("timeout"))));
+
+    assertEquals(BackendCircuitBreaker.State.OPEN.ordinal(), getState(), 0);
+  }
+
+  /**
+   * A half-open circuit lets a limited number of trial calls through, the others are rejected
+   * while the trial calls are in flight.
+   *
+   * @throws Exception if any error occurs
+   */
+  @Test
+  public void execute_halfOpenTrialCalls() throws Exception {
+    configuration.setOpenDurationInMillis(0);
+    configuration.setHalfOpenCalls(1);
+    BackendCircuitBreaker circuitBreaker =
+        new BackendCircuitBreaker(configuration, meterRegistry);
+    open(circuitBreaker);
+
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch unblock = new CountDownLatch(1);
+    Future<String> trial = executor.submit(() -> circuitBreaker.execute(FAMILY,
+        blocking(started, unblock)));
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+
+    assertThrows(BackendUnavailableException.class,
+        () -> circuitBreaker.execute(FAMILY, () -> "ok"));
+    assertEquals(1, getRejected("open"), 0);
+
+    unblock.countDown();
+    assertEquals("ok", trial.get(5, TimeUnit.SECONDS));
+    assertEquals(BackendCircuitBreaker.State.CLOSED.ordinal(), getState(), 0);
+  }
+
+  /**
+   * A call rejected by the full bulkhead gives back its trial permission, so that the trial calls
+   * of a half-open circuit are not used up by the rejected calls.
+   *
+   * @throws Exception if any error occurs
+   */
+  @Test
+  public void execute_bulkheadFull() throws Exception {
+    configuration.setOpenDurationInMillis(0);
+    configuration.setMaxConcurrentCalls(1);
+    BackendCircuitBreaker circuitBreaker =
+        new BackendCircuitBreaker(configuration, meterRegistry);
+    open(circuitBreaker);
+
+    // The first trial call holds the only slot
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch unblock = new CountDownLatch(1);
+    Future<String> trial = executor.submit(() -> circuitBreaker.execute(FAMILY,
+        blocking(started, unblock)));
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+
+    // Rejected by the bulkhead, not by the circuit, as the second trial permission is given back
+    for (int i = 0; i < 3; i++) {
+      assertThrows(BackendUnavailableException.class,
+          () -> circuitBreaker.execute(FAMILY, () -> "ok"));
+    }
+    assertEquals(3, getRejected("bulkhead"), 0);
+    assertEquals(0, getRejected("open"), 0);
+    assertEquals(0, meterRegistry.get("backend.bulkhead.available").gauge().value(), 0);
+
+    // The second trial permission is still available once the slot is free
+    unblock.countDown();
+    assertEquals("ok", trial.get(5, TimeUnit.SECONDS));
+    assertEquals("ok", circuitBreaker.execute(FAMILY, () -> "ok"));
+    assertEquals(BackendCircuitBreaker.State.CLOSED.ordinal(), getState(), 0);
+    assertEquals(1, meterRegistry.get("backend.bulkhead.available").gauge().value(), 0);
+  }
+
+  /**
+   * Open the circuit with failed calls.
+   *
+   * @param circuitBreaker the circuit breaker
+   */
+  private void open(BackendCircuitBreaker circuitBreaker) {
+    for (int i = 0; i < WINDOW; i++) {
+      assertThrows(ResourceAccessException.class, () -> circuitBreaker.execute(FAMILY,
+          failing(new AtomicInteger(), new ResourceAccessException("timeout"))));
+    }
+    assertEquals(BackendCircuitBreaker.State.OPEN.ordinal(), getState(), 0);
+  }
+
+  /**
+   * Get the published circuit state.
+   *
+   * @return the state ordinal
+   */
+  private double getState() {
+    return meterRegistry.get("backend.circuit.state").tag("family", FAMILY).gauge().value();
+  }
+
+  /**
+   * Get the number of rejected calls.
+   *
+   * @param reason the rejection reason
+   * @return the number of rejected calls
+   */
+  private double getRejected(String reason) {
+    return meterRegistry.counter("backend.circuit.rejected", "family", FAMILY, "reason", reason)
+        .count();
+  }
+
+  /**
+   * Create a backend call always failing.
+   *
+   * @param calls the counter of calls
+   * @param ex the exception thrown
+   * @return the call
+   */
+  private static Supplier<String> failing(AtomicInteger calls, RuntimeException ex) {
+    return () -> {
+      calls.incrementAndGet();
+      throw ex;
+    };
+  }
+
+  /**
+   * Create a backend call succeeding once unblocked.
+   *
+   * @param started the latch counted down once the call started
+   * @param unblock the latch the call waits for
+   * @return the call
+   */
+  private static Supplier<String> blocking(CountDownLatch started, CountDownLatch unblock) {
+    return () -> {
+      started.countDown();
+      try {
+        unblock.await(10, TimeUnit.SECONDS);
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+      return "ok";
+    };
+  }
+
+  /**
+   * Assert that a runnable throws an exception.
+   *
+   * @param type the expected exception type
+   * @param runnable the runnable
+   */
+  private static void assertThrows(Class<? extends RuntimeException> type, Runnable runnable) {
+    try {
+      runnable.run();
+      fail("Expected " + type.getSimpleName());
+    } catch (RuntimeException ex) {
+      assertEquals(type, ex.getClass());
+    }
+  }
+}
@@ -0,0 +1,210 @@
+package com.doppler.services;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.web.client.ResourceAccessException;
+import com.doppler.util.ApiConstants;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * The unit tests for BackendRequestCoalescer.
+ */
+public class BackendRequestCoalescerTest {
+
+  /**
+   * The number of concurrent identical requests.
+   */
+  private static final int FOLLOWERS = 4;
+
+  /**
+   * The request.
+   */
+  private static final BackendRequest REQUEST = request("token");
+
+  /**
+   * The meter registry.
+   */
+  private MeterRegistry meterRegistry;
+
+  /**
+   * The coalescer.
+   */
+  private BackendRequestCoalescer coalescer;
+
+  /**
+   * The executor making the concurrent requests.
+   */
+  private ExecutorService executor;
+
+  /**
+   * Create the coalescer.
+   */
+  @Before
+  public void before() {
+    meterRegistry = new SimpleMeterRegistry();
+    coalescer = new BackendRequestCoalescer(meterRegistry);
+    executor = Executors.newFixedThreadPool(FOLLOWERS + 1);
+  }
+
+  /**
+   * Stop the executor.
+   */
+  @After
+  public void after() {
+    executor.shutdownNow();
+  }
+
+  /**
+   * Concurrent identical requests share one call and its result.
+   *
+   * @throws Exception if any error occurs
+   */
+  @Test
+  public void execute_singleFlight() throws Exception {
+    AtomicInteger calls = new AtomicInteger();
+    CountDownLatch unblock = new CountDownLatch(1);
+    Object result = new Object();
+
+    List<Future<Object>> results = startConcurrent(() -> {
+      calls.incrementAndGet();
+      await(unblock);
+      return result;
+    });
+    unblock.countDown();
+
+    for (Future<Object> future : results) {
+      assertSame(result, future.get(5, TimeUnit.SECONDS));
+    }
+    assertEquals(1, calls.get());
+    assertEquals(0, meterRegistry.get("backend.requests.in-flight").gauge().value(), 0);
+    assertEquals(FOLLOWERS / (double) (FOLLOWERS + 1),
+        meterRegistry.get("backend.requests.coalescing.ratio").gauge().value(), 0.001);
+  }
+
+  /**
+   * The failure of a shared call is thrown to every request, and the next request calls again.
+   *
+   * @throws Exception if any error occurs
+   */
+  @Test
+  public void execute_failure() throws Exception {
+    AtomicInteger calls = new AtomicInteger();
+    CountDownLatch unblock = new CountDownLatch(1);
+    ResourceAccessException failure = new ResourceAccessException("timeout");
+
+    List<Future<Object>> results = startConcurrent(() -> {
+      calls.incrementAndGet();
+      await(unblock);
+      throw failure;
+    });
+    unblock.countDown();
+
+    for (Future<Object> future : results) {
+      try {
+        future.get(5, TimeUnit.SECONDS);
+        fail("Expected ResourceAccessException");
+      } catch (ExecutionException ex) {
+        assertSame(failure, ex.getCause());
+      }
+    }
+    assertEquals(1, calls.get());
+
+    // Not remembered once completed
+    assertEquals("ok", coalescer.execute(REQUEST, () -> "ok"));
+    assertEquals(0, meterRegistry.get("backend.requests.in-flight").gauge().value(), 0);
+  }
+
+  /**
+   * Requests differing in their auth scope are not coalesced, nor sequential requests.
+   */
+  @Test
+  public void execute_distinct() {
+    AtomicInteger calls = new AtomicInteger();
+
+    String result = coalescer.execute(REQUEST, () -> {
+      // A request of another user made while this one is in flight
+      return coalescer.execute(request("other token"), () -> {
+        calls.incrementAndGet();
+        return "ok";
+      });
+    });
+    coalescer.execute(REQUEST, () -> calls.incrementAndGet());
+
+    assertEquals("ok", result);
+    assertEquals(2, calls.get());
+    assertEquals(0, meterRegistry.get("backend.requests.coalesced").functionCounter().count(), 0);
+  }
+
+  /**
+   * Start a leading request and identical requests joining it while in flight.
+   *
+   * @param call the call of the leading request
+   * @return the results of the requests
+   * @throws Exception if any error occurs
+   */
+  private List<Future<Object>> startConcurrent(Supplier<Object> call) throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    List<Future<Object>> results = new ArrayList<>();
+    results.add(executor.submit(() -> coalescer.execute(REQUEST, () -> {
+      started.countDown();
+      return call.get();
+    })));
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+
+    for (int i = 0; i < FOLLOWERS; i++) {
+      results.add(executor.submit(() -> coalescer.execute(REQUEST, () -> {
+        throw new IllegalStateException("Not coalesced");
+      })));
+    }
+
+    // Wait for the requests to join the call in flight
+    long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+    while (meterRegistry.get("backend.requests.coalesced").functionCounter().count() < FOLLOWERS) {
+      assertTrue(System.currentTimeMillis() < deadline);
+      Thread.sleep(1);
+    }
+    return results;
+  }
+
+  /**
+   * Create a request of the events family.
+   *
+   * @param token the backend token
+   * @return the request
+   */
+  private static BackendRequest request(String token) {
+    return new BackendRequest(URI.create(ApiConstants.BASE_URI + "/events/1"), token,
+        TypeFactory.defaultInstance().constructType(String.class));
+  }
+
+  /**
+   * Wait for a latch, at most a few seconds.
+   *
+   * @param latch the latch
+   */
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(10, TimeUnit.SECONDS);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,177 @@
+package com.doppler.services;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+import java.net.URI;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.ResourceAccessException;
+import com.doppler.exceptions.BackendUnavailableException;
+import com.doppler.services.config.BackendCacheConfiguration;
+import com.doppler.util.ApiConstants;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * The unit tests for BackendResponseCache.
+ */
+public class BackendResponseCacheTest {
+
+  /**
+   * The time-to-live of the events family in seconds.
+   */
+  private static final long TTL = 30;
+
+  /**
+   * The stale-while-revalidate window in seconds.
+   */
+  private static final long STALE_WHILE_REVALIDATE = 60;
+
+  /**
+   * The request.
+   */
+  private static final BackendRequest REQUEST = new BackendRequest(
+      URI.create(ApiConstants.BASE_URI + "/events/1"), "token",
+      TypeFactory.defaultInstance().constructType(String.class));
+
+  /**
+   * The meter registry.
+   */
+  private MeterRegistry meterRegistry;
+
+  /**
+   * The cache.
+   */
+  private BackendResponseCache cache;
+
+  /**
+   * Create the cache, caching the events family.
+   */
+  @Before
+  public void before() {
+    BackendCacheConfiguration configuration = new BackendCacheConfiguration();
+    configuration.setTtlInSeconds(Collections.singletonMap("events", TTL));
+    configuration.setStaleWhileRevalidateInSeconds(STALE_WHILE_REVALIDATE);
+    meterRegistry = new SimpleMeterRegistry();
+
+    cache = new BackendResponseCache();
+    ReflectionTestUtils.setField(cache, "configuration", configuration);
+    ReflectionTestUtils.setField(cache, "meterRegistry", meterRegistry);
+  }
+
+  /**
+   * Stop the background refreshes.
+   */
+  @After
+  public void after() {
+    cache.shutdown();
+  }
+
+  /**
+   * A fetched response is served from the cache until it expires.
+   */
+  @Test
+  public void get_cached() {
+    AtomicInteger fetches = new AtomicInteger();
+
+    assertEquals("v1", cache.get(REQUEST, (request, previous) -> {
+      fetches.incrementAndGet();
+      return new BackendResponseCache.Entry("v1", null, -1);
+    }));
+    assertEquals("v1", cache.get(REQUEST, (request, previous) -> {
+      throw new IllegalStateException("Not expected to be fetched");
+    }));
+    assertEquals(1, fetches.get());
+  }
+
+  /**
+   * A response past the stale-while-revalidate window is fetched again, revalidating it.
+   */
+  @Test
+  public void get_expired() {
+    BackendResponseCache.Entry entry = expiredEntry("v1");
+
+    assertEquals("v2", cache.get(REQUEST, (request, previous) -> {
+      assertEquals(entry, previous);
+      return new BackendResponseCache.Entry("v2", null, -1);
+    }));
+  }
+
+  /**
+   * A response past the stale-while-revalidate window is served while the backend is unavailable.
+   */
+  @Test
+  public void get_expiredBackendUnavailable() {
+    expiredEntry("v1");
+
+    assertEquals("v1", cache.get(REQUEST, (request, previous) -> {
+      throw new BackendUnavailableException("Backend events is unavailable");
+    }));
+    assertEquals("v1", cache.get(REQUEST, (request, previous) -> {
+      throw new ResourceAccessException("timeout");
+    }));
+    assertEquals(2, meterRegistry.counter("backend.cache.fallbacks", "family", "events",
+        "result", "hit").count(), 0);
+  }
+
+  /**
+   * A response no longer found is not served any more.
+   */
+  @Test
+  public void get_expiredNotFound() {
+    expiredEntry("v1");
+
+    assertNull(cache.get(REQUEST, (request, previous) -> null));
+    assertNull(cache.getIfPresent(REQUEST));
+  }
+
+  /**
+   * The failure is thrown if there is no response to fall back to.
+   */
+  @Test
+  public void get_missBackendUnavailable() {
+    try {
+      cache.get(REQUEST, (request, previous) -> {
+        throw new BackendUnavailableException("Backend events is unavailable");
+      });
+      fail("BackendUnavailableException expected");
+    } catch (BackendUnavailableException ex) {
+      // Expected
+    }
+    assertEquals(1, meterRegistry.counter("backend.cache.fallbacks", "family", "events",
+        "result", "miss").count(), 0);
+  }
+
+  /**
+   * Failures other than an unavailable backend are thrown, not hidden by the stale response.
+   */
+  @Test(expected = IllegalStateException.class)
+  public void get_expiredOtherFailure() {
+    expiredEntry("v1");
+
+    cache.get(REQUEST, (request, previous) -> {
+      throw new IllegalStateException("Decoding failed");
+    });
+  }
+
+  /**
+   * Cache a response fetched past the stale-while-revalidate window.
+   *
+   * @param value the response value
+   * @return the cached entry
+   */
+  private BackendResponseCache.Entry expiredEntry(String value) {
+    BackendResponseCache.Entry entry = new BackendResponseCache.Entry(value, null, -1);
+    ReflectionTestUtils.setField(entry, "fetchedAt", System.currentTimeMillis()
+        - TimeUnit.SECONDS.toMillis(TTL + STALE_WHILE_REVALIDATE + 1));
+    cache.get(REQUEST, (request, previous) -> entry);
+    return entry;
+  }
+}
@@ -0,0 +1,263 @@
+package com.doppler.services;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import com.doppler.services.config.BackendRetryConfiguration;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * The unit tests for BackendRetrier.
+ */
+public class BackendRetrierTest {
+
+  /**
+   * The endpoint family.
+   */
+  private static final String FAMILY = "events";
+
+  /**
+   * The number of samples after which GETs are hedged.
+   */
+  private static final int HEDGE_MIN_SAMPLES = 5;
+
+  /**
+   * The retry configuration, without backoff and without budget refill.
+   */
+  private BackendRetryConfiguration configuration;
+
+  /**
+   * The meter registry.
+   */
+  private MeterRegistry meterRegistry;
+
+  /**
+   * The retrier, created by the tests once configured.
+   */
+  private BackendRetrier retrier;
+
+  /**
+   * Create the configuration.
+   */
+  @Before
+  public void before() {
+    configuration = new BackendRetryConfiguration();
+    configuration.setInitialBackoffInMillis(0);
+    configuration.setBudgetMinRetriesPerSecond(0);
+    configuration.setHedgingEnabled(false);
+    configuration.setHedgeMinSamples(HEDGE_MIN_SAMPLES);
+    meterRegistry = new SimpleMeterRegistry();
+  }
+
+  /**
+   * Stop the hedge executor.
+   */
+  @After
+  public void after() {
+    if (retrier != null) {
+      retrier.shutdown();
+    }
+  }
+
+  /**
+   * Transient failures are retried until an attempt succeeds.
+   */
+  @Test
+  public void execute_transient() {
+    retrier = new BackendRetrier(configuration, meterRegistry);
+    AtomicInteger calls = new AtomicInteger();
+
+    String result = retrier.execute(FAMILY, () -> {
+      if (calls.incrementAndGet() < 3) {
+        throw new ResourceAccessException("timeout");
+      }
+      return "ok";
+    });
+
+    assertEquals("ok", result);
+    assertEquals(3, calls.get());
+    assertEquals(2, meterRegistry.counter("backend.retry.retries", "family", FAMILY).count(), 0);
+  }
+
+  /**
+   * The last failure is thrown once the attempts are exhausted.
+   */
+  @Test
+  public void execute_maxAttempts() {
+    retrier = new BackendRetrier(configuration, meterRegistry);
+    AtomicInteger calls = new AtomicInteger();
+
+    assertThrows(HttpServerErrorException.class, () -> retrier.execute(FAMILY,
+        failing(calls, new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE))));
+    assertEquals(configuration.getMaxAttempts(), calls.get());
+  }
+
+  /**
+   * Client errors and other server errors are not retried.
+   */
+  @Test
+  public void execute_notRetryable() {
+    retrier = new BackendRetrier(configuration, meterRegistry);
+    AtomicInteger calls = new AtomicInteger();
+
+    assertThrows(HttpClientErrorException.class, () -> retrier.execute(FAMILY,
+        failing(calls, new HttpClientErrorException(HttpStatus.NOT_FOUND))));
+    assertThrows(HttpServerErrorException.class, () -> retrier.execute(FAMILY,
+        failing(calls, new HttpServerErrorException(HttpStatus.INTERNAL_SERVER_ERROR))));
+    assertEquals(2, calls.get());
+  }
+
+  /**
+   * No retry is made once the budget is spent, until requests deposit enough for another one.
+   */
+  @Test
+  public void execute_budget() {
+    configuration.setBudgetMaxRetries(1);
+    configuration.setBudgetRatio(0.5);
+    retrier = new BackendRetrier(configuration, meterRegistry);
+    AtomicInteger calls = new AtomicInteger();
+    Supplier<String> call = failing(calls, new ResourceAccessException("timeout"));
+
+    // The budget holds a single retry
+    assertThrows(ResourceAccessException.class, () -> retrier.execute(FAMILY, call));
+    assertEquals(2, calls.get());
+
+    // Spent, half a retry deposited
+    calls.set(0);
+    assertThrows(ResourceAccessException.class, () -> retrier.execute(FAMILY, call));
+    assertEquals(1, calls.get());
+
+    // Another half deposited, one retry again
+    calls.set(0);
+    assertThrows(ResourceAccessException.class, () -> retrier.execute(FAMILY, call));
+    assertEquals(2, calls.get());
+  }
+
+  /**
+   * A GET slower than the usual latency is sent a second time, the first response wins.
+   *
+   * @throws Exception if any error occurs
+   */
+  @Test
+  public void execute_hedge() throws Exception {
+    configuration.setHedgingEnabled(true);
+    retrier = new BackendRetrier(configuration, meterRegistry);
+    warmUp();
+
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicInteger calls = new AtomicInteger();
+    long start = System.nanoTime();
+    String result = retrier.execute(FAMILY, () -> {
+      if (calls.incrementAndGet() == 1) {
+        await(release);
+        return "slow";
+      }
+      return "fast";
+    });
+    long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    release.countDown();
+
+    assertEquals("fast", result);
+    assertEquals(2, calls.get());
+    assertTrue(elapsed < 5000);
+    assertEquals(1, meterRegistry.counter("backend.retry.hedges", "family", FAMILY).count(), 0);
+  }
+
+  /**
+   * A slow GET is not hedged once the budget is spent.
+   */
+  @Test
+  public void execute_hedgeBudget() {
+    configuration.setHedgingEnabled(true);
+    configuration.setBudgetMaxRetries(0);
+    retrier = new BackendRetrier(configuration, meterRegistry);
+    warmUp();
+
+    AtomicInteger calls = new AtomicInteger();
+    String result = retrier.execute(FAMILY, () -> {
+      calls.incrementAndGet();
+      sleep(100);
+      return "slow";
+    });
+
+    assertEquals("slow", result);
+    assertEquals(1, calls.get());
+    assertEquals(0, meterRegistry.counter("backend.retry.hedges", "family", FAMILY).count(), 0);
+  }
+
+  /**
+   * Record enough fast attempts for GETs to be hedged.
+   */
+  private void warmUp() {
+    for (int i = 0; i < HEDGE_MIN_SAMPLES; i++) {
+      retrier.execute(FAMILY, () -> "fast");
+    }
+  }
+
+  /**
+   * Create a backend call always failing.
+   *
+   * @param calls the number of calls made
+   * @param ex the failure
+   * @return the backend call
+   */
+  private static Supplier<String> failing(AtomicInteger calls, RuntimeException ex) {
+    return () -> {
+      calls.incrementAndGet();
+      throw ex;
+    };
+  }
+
+  /**
+   * Assert that a runnable throws an exception.
+   *
+   * @param type the expected exception type
+   * @param runnable the runnable
+   */
+  private static void assertThrows(Class<? extends RuntimeException> type, Runnable runnable) {
+    try {
+      runnable.run();
+      fail("Expected " + type.getSimpleName());
+    } catch (RuntimeException ex) {
+      assertEquals(type, ex.getClass());
+    }
+  }
+
+  /**
+   * Wait for a latch, at most a few seconds.
+   *
+   * @param latch the latch
+   */
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(10, TimeUnit.SECONDS);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Simulate the latency of a backend call.
+   *
+   * @param millis the latency in milliseconds
+   */
+  private static void sleep(long millis) {
+    try {
+      TimeUnit.MILLISECONDS.sleep(millis);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,214 @@
+package com.doppler.services;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import com.doppler.entities.User;
+import com.doppler.repositories.UserRepository;
+import com.doppler.services.config.BackendTokenConfiguration;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * The unit tests for BackendTokenManager.
+ */
+public class BackendTokenManagerTest {
+
+  /**
+   * The number of concurrent callers.
+   */
+  private static final int THREADS = 8;
+
+  /**
+   * The backend login service.
+   */
+  private LoginRestService loginService;
+
+  /**
+   * The user repository.
+   */
+  private UserRepository userRepository;
+
+  /**
+   * The background refreshes submitted, not run until the test runs them.
+   */
+  private List<Runnable> backgroundRefreshes;
+
+  /**
+   * The manager, refreshing the tokens 60 seconds ahead of their expiry.
+   */
+  private BackendTokenManager manager;
+
+  /**
+   * The user.
+   */
+  private User user;
+
+  /**
+   * The thread pool of the concurrent callers.
+   */
+  private ExecutorService pool;
+
+  /**
+   * Create the manager with mocked collaborators.
+   */
+  @Before
+  public void before() {
+    loginService = mock(LoginRestService.class);
+    userRepository = mock(UserRepository.class);
+    backgroundRefreshes = new ArrayList<>();
+
+    manager = new BackendTokenManager(new BackendTokenConfiguration());
+    ReflectionTestUtils.setField(manager, "loginService", loginService);
+    ReflectionTestUtils.setField(manager, "userRepository", userRepository);
+    ReflectionTestUtils.setField(manager, "authenticationCache", mock(AuthenticationCache.class));
+    ReflectionTestUtils.setField(manager, "objectMapper", new ObjectMapper());
+    ReflectionTestUtils.setField(manager, "executor", (Executor) backgroundRefreshes::add);
+
+    user = new User();
+    user.setId(UUID.randomUUID());
+    pool = Executors.newFixedThreadPool(THREADS);
+  }
+
+  /**
+   * Stop the concurrent callers.
+   */
+  @After
+  public void after() {
+    pool.shutdownNow();
+  }
+
+  /**
+   * An expired token is replaced by a backend login, which is persisted.
+   */
+  @Test
+  public void getToken_expired() {
+    String expired = token(-10);
+    String fresh = token(3600);
+    user.setBackendToken(expired);
+    when(loginService.userLogin()).thenReturn(fresh);
+
+    assertEquals(fresh, manager.getToken(user));
+    assertEquals(fresh, manager.getToken(user));
+
+    verify(loginService, times(1)).userLogin();
+    verify(userRepository).updateBackendToken(user.getId(), fresh);
+  }
+
+  /**
+   * A token about to expire is returned as-is and refreshed in the background.
+   */
+  @Test
+  public void getToken_refreshAhead() {
+    String expiring = token(30);
+    String fresh = token(3600);
+    user.setBackendToken(expiring);
+    when(loginService.userLogin()).thenReturn(fresh);
+
+    assertEquals(expiring, manager.getToken(user));
+    verify(loginService, never()).userLogin();
+
+    backgroundRefreshes.forEach(Runnable::run);
+    verify(loginService, times(1)).userLogin();
+    assertEquals(fresh, manager.getToken(user));
+  }
+
+  /**
+   * A background refresh submitted before the token got replaced does not log in again.
+   */
+  @Test
+  public void getToken_refreshAheadAlreadyReplaced() {
+    String expiring = token(30);
+    String fresh = token(3600);
+    user.setBackendToken(expiring);
+    when(loginService.userLogin()).thenReturn(fresh);
+
+    manager.getToken(user);
+    assertEquals(fresh, manager.refresh(user, expiring));
+
+    backgroundRefreshes.forEach(Runnable::run);
+    verify(loginService, times(1)).userLogin();
+  }
+
+  /**
+   * A rejected token is replaced even if it has not expired, once.
+   */
+  @Test
+  public void refresh_rejected() {
+    String rejected = token(3600);
+    String fresh = token(7200);
+    user.setBackendToken(rejected);
+    when(loginService.userLogin()).thenReturn(fresh);
+
+    assertEquals(rejected, manager.getToken(user));
+    assertEquals(fresh, manager.refresh(user, rejected));
+    assertEquals(fresh, manager.refresh(user, rejected));
+
+    verify(loginService, times(1)).userLogin();
+  }
+
+  /**
+   * The concurrent refreshes of a rejected token share a single backend login.
+   *
+   * @throws Exception if any error occurs
+   */
+  @Test
+  public void refresh_singleFlight() throws Exception {
+    String rejected = token(3600);
+    String fresh = token(7200);
+    user.setBackendToken(rejected);
+    manager.getToken(user);
+    when(loginService.userLogin()).thenAnswer(invocation -> {
+      TimeUnit.MILLISECONDS.sleep(100);
+      return fresh;
+    });
+
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<String>> results = new ArrayList<>();
+    for (int i = 0; i < THREADS; i++) {
+      results.add(pool.submit(() -> {
+        start.await();
+        return manager.refresh(user, rejected);
+      }));
+    }
+    start.countDown();
+
+    for (Future<String> result : results) {
+      assertEquals(fresh, result.get(10, TimeUnit.SECONDS));
+    }
+    verify(loginService, times(1)).userLogin();
+    verify(userRepository, times(1)).updateBackendToken(any(UUID.class), anyString());
+  }
+
+  /**
+   * Create a backend token.
+   *
+   * @param expiresInSeconds the number of seconds before the token expires
+   * @return the token
+   */
+  private static String token(long expiresInSeconds) {
+    long exp = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()) + expiresInSeconds;
+    String claims = "{\"exp\":" + exp + ",\"jti\":\"" + UUID.randomUUID() + "\"}";
+    return "header." + Base64.getUrlEncoder().withoutPadding()
+        .encodeToString(claims.getBytes(StandardCharsets.UTF_8)) + ".signature";
+  }
+}
@@ -0,0 +1,333 @@
+package com.doppler.services;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import com.doppler.entities.EventComment;
+import com.doppler.repositories.EventCommentRepository;
+import com.doppler.services.config.CommentLikeCounterConfiguration;
+import com.doppler.services.config.EventCommentConfiguration;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * The unit tests for CommentLikeCounter.
+ */
+public class CommentLikeCounterTest {
+
+  /**
+   * The number of concurrent threads buffering changes.
+   */
+  private static final int THREADS = 8;
+
+  /**
+   * The number of changes per thread.
+   */
+  private static final int CHANGES_PER_THREAD = 20000;
+
+  /**
+   * The comment ids.
+   */
+  private static final List<UUID> COMMENT_IDS = Arrays.asList(UUID.randomUUID(),
+      UUID.randomUUID(), UUID.randomUUID());
+
+  /**
+   * The event id of the comments.
+   */
+  private static final UUID EVENT_ID = UUID.randomUUID();
+
+  /**
+   * The id of a comment deleted before its changes are flushed.
+   */
+  private static final UUID DELETED_COMMENT_ID = UUID.randomUUID();
+
+  /**
+   * The like counts flushed to the repository, per comment id.
+   */
+  private final Map<UUID, AtomicLong> flushed = new ConcurrentHashMap<>();
+
+  /**
+   * The event comment repository.
+   */
+  private EventCommentRepository repository;
+
+  /**
+   * The comment like counter configuration.
+   */
+  private CommentLikeCounterConfiguration configuration;
+
+  /**
+   * The current time in nanoseconds.
+   */
+  private AtomicLong now;
+
+  /**
+   * Whether the flushes fail.
+   */
+  private volatile boolean failing;
+
+  /**
+   * The comment page cache.
+   */
+  private EventCommentPageCache pageCache;
+
+  /**
+   * The like counter.
+   */
+  private CommentLikeCounter counter;
+
+  /**
+   * Create the like counter with a repository recording the flushed changes.
+   */
+  @Before
+  @SuppressWarnings("unchecked")
+  public void before() {
+    repository = mock(EventCommentRepository.class);
+    when(repository.updateLikeCount(any(UUID.class), anyInt())).thenAnswer(invocation -> {
+      if (failing) {
+        throw new QueryTimeoutException("timeout");
+      }
+      if (DELETED_COMMENT_ID.equals(invocation.getArgument(0))) {
+        return 0;
+      }
+      flushed.computeIfAbsent(invocation.getArgument(0), key -> new AtomicLong())
+          .addAndGet((int) invocation.getArgument(1));
+      return 1;
+    });
+    when(repository.findIdAndEventIdByIdIn(any())).thenAnswer(invocation -> {
+      List<Object[]> rows = new ArrayList<>();
+      for (UUID commentId : (Collection<UUID>) invocation.getArgument(0)) {
+        rows.add(new Object[] {commentId, EVENT_ID});
+      }
+      return rows;
+    });
+    pageCache = new EventCommentPageCache(new EventCommentConfiguration(),
+        new SimpleMeterRegistry());
+
+    configuration = new CommentLikeCounterConfiguration();
+    configuration.setWriteBehind(true);
+    now = new AtomicLong();
+
+    counter = new CommentLikeCounter(mock(PlatformTransactionManager.class),
+        new SimpleMeterRegistry());
+    ReflectionTestUtils.setField(counter, "configuration", configuration);
+    ReflectionTestUtils.setField(counter, "eventCommentRepository", repository);
+    ReflectionTestUtils.setField(counter, "pageCache", pageCache);
+    ReflectionTestUtils.setField(counter, "clock", (LongSupplier) now::get);
+    ReflectionTestUtils.setField(counter, "flushedAt", 0L);
+  }
+
+  /**
+   * Positive test for add() and flush().
+   */
+  @Test
+  public void flush() {
+    UUID commentId = COMMENT_IDS.get(0);
+    counter.add(commentId, 1);
+    counter.add(commentId, 1);
+    counter.add(commentId, -1);
+    counter.flush();
+    assertEquals(1, flushed.get(commentId).get());
+
+    // Nothing left to flush, the idle adder gets removed
+    counter.flush();
+    counter.flush();
+    assertEquals(1, flushed.get(commentId).get());
+    assertTrue(getPending().isEmpty());
+
+    // Every change is recorded for the replay
+    verify(repository, times(3)).insertLikeChange(commentId);
+  }
+
+  /**
+   * The changes failing to flush are retried, until buffered for half of the replay delay.
+   */
+  @Test
+  public void flush_failing() {
+    UUID commentId = COMMENT_IDS.get(0);
+    failing = true;
+    counter.add(commentId, 1);
+    counter.flush();
+    assertEquals(1, getPending().get(commentId).sum());
+
+    now.addAndGet(TimeUnit.SECONDS.toNanos(configuration.getReplayDelayInSeconds() / 2));
+    counter.flush();
+    assertEquals(1, getPending().get(commentId).sum());
+
+    // Dropped, left to the replay
+    now.incrementAndGet();
+    counter.flush();
+    assertTrue(getPending().isEmpty());
+
+    failing = false;
+    counter.add(commentId, 1);
+    counter.flush();
+    assertEquals(1, flushed.get(commentId).get());
+  }
+
+  /**
+   * Positive test for replay().
+   */
+  @Test
+  public void replay() {
+    counter.replay();
+    verify(repository).reconcileLikeCountsChangedBefore(configuration.getReplayDelayInSeconds());
+    verify(repository).deleteLikeChangesBefore(configuration.getReplayDelayInSeconds());
+
+    // Nothing replayed without buffering
+    configuration.setWriteBehind(false);
+    counter.replay();
+    verify(repository).reconcileLikeCountsChangedBefore(anyInt());
+  }
+
+  /**
+   * The buffered changes are added to the loaded like counts, and the flushed changes only to the
+   * like counts loaded before the flush, so that the like counts never go back.
+   */
+  @Test
+  public void overlay() {
+    UUID commentId = COMMENT_IDS.get(0);
+    long loadedVersion = pageCache.getVersion(EVENT_ID);
+    counter.add(commentId, 1);
+    counter.add(commentId, 1);
+    assertEquals(12, overlay(commentId, 10, loadedVersion));
+
+    counter.flush();
+    assertEquals(2, flushed.get(commentId).get());
+    assertTrue(pageCache.getVersion(EVENT_ID) > loadedVersion);
+
+    // Loaded before the flush, without the flushed changes
+    assertEquals(12, overlay(commentId, 10, loadedVersion));
+    // Loaded after the flush, with the flushed changes
+    assertEquals(12, overlay(commentId, 12, pageCache.getVersion(EVENT_ID)));
+
+    counter.add(commentId, 1);
+    assertEquals(13, overlay(commentId, 10, loadedVersion));
+    assertEquals(13, overlay(commentId, 12, pageCache.getVersion(EVENT_ID)));
+  }
+
+  /**
+   * The changes of a deleted comment are dropped, without failing the changes of the others.
+   */
+  @Test
+  public void flush_deletedComment() {
+    UUID commentId = COMMENT_IDS.get(0);
+    counter.add(DELETED_COMMENT_ID, 1);
+    counter.add(commentId, 1);
+    counter.flush();
+    assertEquals(1, flushed.get(commentId).get());
+    assertEquals(0, getPending().get(DELETED_COMMENT_ID).sum());
+
+    // Not retried
+    counter.flush();
+    verify(repository).updateLikeCount(DELETED_COMMENT_ID, 1);
+    verify(repository).findIdAndEventIdByIdIn(Collections.singleton(commentId));
+  }
+
+  /**
+   * Changes buffered while flushing are all flushed, none is lost when idle adders get removed.
+   *
+   * @throws Exception if any error occurs
+   */
+  @Test
+  public void flush_concurrent() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS + 1);
+    CountDownLatch start = new CountDownLatch(1);
+    AtomicBoolean buffering = new AtomicBoolean(true);
+
+    // Flush continuously, so that adders go idle and get removed meanwhile
+    Future<?> flusher = executor.submit(() -> {
+      start.await();
+      while (buffering.get()) {
+        counter.flush();
+      }
+      return null;
+    });
+
+    List<Future<Long>> results = new ArrayList<>();
+    for (int i = 0; i < THREADS; i++) {
+      int thread = i;
+      results.add(executor.submit(() -> {
+        start.await();
+        long added = 0;
+        for (int j = 0; j < CHANGES_PER_THREAD; j++) {
+          // Like then unlike, so that the sums often drop back to 0
+          int delta = (j + thread) % 2 == 0 ? 1 : -1;
+          counter.add(COMMENT_IDS.get(j % COMMENT_IDS.size()), delta);
+          added += delta;
+        }
+        return added;
+      }));
+    }
+
+    start.countDown();
+    long added = 0;
+    for (Future<Long> result : results) {
+      added += result.get();
+    }
+    buffering.set(false);
+    flusher.get();
+    executor.shutdown();
+
+    counter.flush();
+    long total = flushed.values().stream().mapToLong(AtomicLong::get).sum();
+    assertEquals(added, total);
+    for (UUID commentId : COMMENT_IDS) {
+      assertEquals(0, getPending().containsKey(commentId)
+          ? getPending().get(commentId).sum() : 0);
+    }
+  }
+
+  /**
+   * Add the changes not flushed when loaded to the like count of a comment.
+   *
+   * @param commentId the comment id
+   * @param likeCount the loaded like count
+   * @param pageVersion the page version before loading
+   * @return the like count
+   */
+  private int overlay(UUID commentId, int likeCount, long pageVersion) {
+    EventComment comment = new EventComment();
+    comment.setId(commentId);
+    comment.setLikeCount(likeCount);
+    counter.overlay(Collections.singletonList(comment), pageVersion);
+    return comment.getLikeCount();
+  }
+
+  /**
+   * Get the buffered changes.
+   *
+   * @return the buffered changes per comment id
+   */
+  @SuppressWarnings("unchecked")
+  private Map<UUID, LongAdder> getPending() {
+    return (Map<UUID, LongAdder>) ReflectionTestUtils
+        .getField(counter, "pending");
+  }
+}
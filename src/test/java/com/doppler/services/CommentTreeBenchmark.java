@@ -0,0 +1,162 @@
+package com.doppler.services;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import com.doppler.entities.EventComment;
+import com.doppler.entities.EventCommentLike;
+
+/**
+ * The benchmark of the comment tree assembly, comparing the former per-comment scans with the
+ * id-indexed assembly. The forked benchmark JVM gets the class path of the launching JVM, so run
+ * with a JVM started on the test class path rather than within Maven:
+ * 
+ * <pre>
+ * ./mvnw test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java -Dexec.args="-classpath %classpath org.openjdk.jmh.Main CommentTreeBenchmark"
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommentTreeBenchmark {
+
+  /**
+   * The number of root comments.
+   */
+  @Param({"10", "100", "500"})
+  private int roots;
+
+  /**
+   * The number of child comments per root comment.
+   */
+  @Param({"10"})
+  private int childrenPerRoot;
+
+  /**
+   * The root comments.
+   */
+  private List<EventComment> comments;
+
+  /**
+   * The child comments.
+   */
+  private List<EventComment> childComments;
+
+  /**
+   * The likes of the current user, one comment in four.
+   */
+  private List<EventCommentLike> likes;
+
+  /**
+   * Create the comments.
+   */
+  @Setup
+  public void setup() {
+    comments = new ArrayList<>();
+    childComments = new ArrayList<>();
+    likes = new ArrayList<>();
+    UUID userId = UUID.randomUUID();
+
+    for (int i = 0; i < roots; i++) {
+      EventComment comment = createComment(null);
+      comments.add(comment);
+      for (int j = 0; j < childrenPerRoot; j++) {
+        childComments.add(createComment(comment.getId()));
+      }
+    }
+
+    List<EventComment> all = new ArrayList<>(comments);
+    all.addAll(childComments);
+    for (int i = 0; i < all.size(); i += 4) {
+      EventCommentLike like = new EventCommentLike();
+      like.setEventCommentId(all.get(i).getId());
+      like.setUserId(userId);
+      likes.add(like);
+    }
+  }
+
+  /**
+   * The former assembly, scanning the child comments per root comment and the likes per comment.
+   * 
+   * @return the comments
+   */
+  @Benchmark
+  public List<EventComment> scanning() {
+    comments.forEach(comment -> {
+      comment.setChildComments(childComments.stream().filter(childComment -> {
+        return childComment.getParentCommentId().equals(comment.getId());
+      }).collect(Collectors.toList()));
+    });
+
+    comments.forEach(comment -> {
+      boolean likedByMe =
+          likes.stream().anyMatch(like -> like.getEventCommentId().equals(comment.getId()));
+      comment.setLikedByMe(likedByMe);
+
+      comment.getChildComments().forEach(childComment -> {
+        boolean childLikedByMe =
+            likes.stream().anyMatch(like -> like.getEventCommentId().equals(childComment.getId()));
+        childComment.setLikedByMe(childLikedByMe);
+      });
+    });
+    return comments;
+  }
+
+  /**
+   * The id-indexed assembly.
+   * 
+   * @return the comments
+   */
+  @Benchmark
+  public List<EventComment> indexed() {
+    Set<UUID> likedIds = new HashSet<>();
+    likes.forEach(like -> likedIds.add(like.getEventCommentId()));
+    CommentTreeAssembler.assemble(comments, childComments, likedIds);
+    return comments;
+  }
+
+  /**
+   * Create a comment.
+   * 
+   * @param parentCommentId the parent comment id
+   * @return the comment
+   */
+  private static EventComment createComment(UUID parentCommentId) {
+    EventComment comment = new EventComment();
+    comment.setId(UUID.randomUUID());
+    comment.setParentCommentId(parentCommentId);
+    return comment;
+  }
+
+  /**
+   * Run the benchmark.
+   * 
+   * @param args the arguments
+   * @throws RunnerException if the benchmark fails
+   */
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(CommentTreeBenchmark.class.getSimpleName()).build())
+        .run();
+  }
+}
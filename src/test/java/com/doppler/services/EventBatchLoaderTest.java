@@ -0,0 +1,202 @@
+package com.doppler.services;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import com.doppler.entities.Event;
+import com.doppler.services.config.BackendAsyncConfiguration;
+
+/**
+ * The unit tests for EventBatchLoader.
+ */
+public class EventBatchLoaderTest {
+
+  /**
+   * The local event mirror service.
+   */
+  private EventMirrorService eventMirrorService;
+
+  /**
+   * The event synchronizer.
+   */
+  private EventSynchronizer eventSynchronizer;
+
+  /**
+   * The asynchronous backend API service.
+   */
+  private AsyncBackendAPIService asyncApiService;
+
+  /**
+   * The loader, with at most 2 backend calls in flight.
+   */
+  private EventBatchLoader loader;
+
+  /**
+   * Create the loader with mocked collaborators.
+   */
+  @Before
+  public void before() {
+    eventMirrorService = mock(EventMirrorService.class);
+    eventSynchronizer = mock(EventSynchronizer.class);
+    asyncApiService = mock(AsyncBackendAPIService.class);
+    BackendAsyncConfiguration asyncConfiguration = new BackendAsyncConfiguration();
+    asyncConfiguration.setBatchSize(2);
+
+    loader = new EventBatchLoader();
+    ReflectionTestUtils.setField(loader, "eventMirrorService", eventMirrorService);
+    ReflectionTestUtils.setField(loader, "eventSynchronizer", eventSynchronizer);
+    ReflectionTestUtils.setField(loader, "asyncApiService", asyncApiService);
+    ReflectionTestUtils.setField(loader, "asyncConfiguration", asyncConfiguration);
+  }
+
+  /**
+   * Clear the request bound to the thread.
+   */
+  @After
+  public void after() {
+    RequestContextHolder.resetRequestAttributes();
+  }
+
+  /**
+   * The mirrored events are loaded with one query, the others from the backend.
+   */
+  @Test
+  public void load_mirror() {
+    List<UUID> ids = ids(3);
+    when(eventSynchronizer.isFresh()).thenReturn(true);
+    when(eventMirrorService.getAll(anyCollection()))
+        .thenReturn(Arrays.asList(event(ids.get(0)), event(ids.get(1))));
+    when(asyncApiService.getForEntity(eq(Event.class), anyString(), eq(ids.get(2))))
+        .thenReturn(CompletableFuture.completedFuture(event(ids.get(2))));
+
+    Map<UUID, Event> events = loader.load(ids);
+
+    assertEquals(ids, new ArrayList<>(events.keySet()));
+    verify(eventMirrorService, times(1)).getAll(anyCollection());
+    verify(asyncApiService, times(1)).getForEntity(eq(Event.class), anyString(), any());
+  }
+
+  /**
+   * The backend calls of a large batch are made a chunk at a time.
+   */
+  @Test
+  public void load_chunked() {
+    List<UUID> ids = ids(5);
+    AtomicInteger inFlight = new AtomicInteger();
+    AtomicInteger maxInFlight = new AtomicInteger();
+    when(asyncApiService.getForEntity(eq(Event.class), anyString(), any()))
+        .thenAnswer(invocation -> {
+          UUID id = invocation.getArgument(2);
+          maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+          return CompletableFuture.supplyAsync(() -> {
+            sleep();
+            inFlight.decrementAndGet();
+            return event(id);
+          });
+        });
+
+    Map<UUID, Event> events = loader.load(ids);
+
+    assertEquals(ids, new ArrayList<>(events.keySet()));
+    assertEquals(2, maxInFlight.get());
+    verify(eventMirrorService, never()).getAll(anyCollection());
+  }
+
+  /**
+   * The events, including the ones not found, are loaded once per request.
+   */
+  @Test
+  public void load_requestCache() {
+    RequestContextHolder
+        .setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    List<UUID> ids = ids(2);
+    when(asyncApiService.getForEntity(eq(Event.class), anyString(), eq(ids.get(0))))
+        .thenReturn(CompletableFuture.completedFuture(event(ids.get(0))));
+    when(asyncApiService.getForEntity(eq(Event.class), anyString(), eq(ids.get(1))))
+        .thenReturn(CompletableFuture.completedFuture(null));
+
+    loader.load(ids);
+    Map<UUID, Event> events = loader.load(ids);
+
+    assertTrue(events.containsKey(ids.get(0)));
+    assertFalse(events.containsKey(ids.get(1)));
+    verify(asyncApiService, times(2)).getForEntity(eq(Event.class), anyString(), any());
+  }
+
+  /**
+   * The events are loaded again outside a request.
+   */
+  @Test
+  public void load_noRequest() {
+    UUID id = ids(1).get(0);
+    when(asyncApiService.getForEntity(eq(Event.class), anyString(), eq(id)))
+        .thenReturn(CompletableFuture.completedFuture(event(id)));
+
+    loader.load(Collections.singleton(id));
+    loader.load(Collections.singleton(id));
+
+    verify(asyncApiService, times(2)).getForEntity(eq(Event.class), anyString(), any());
+  }
+
+  /**
+   * Create random ids.
+   *
+   * @param count the number of ids
+   * @return the ids
+   */
+  private static List<UUID> ids(int count) {
+    List<UUID> ids = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      ids.add(UUID.randomUUID());
+    }
+    return ids;
+  }
+
+  /**
+   * Create an event.
+   *
+   * @param id the id
+   * @return the event
+   */
+  private static Event event(UUID id) {
+    Event event = new Event();
+    event.setId(id);
+    return event;
+  }
+
+  /**
+   * Simulate the latency of a backend call.
+   */
+  private static void sleep() {
+    try {
+      TimeUnit.MILLISECONDS.sleep(20);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,159 @@
+package com.doppler.services;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import com.doppler.entities.responses.EventCommentChange;
+import com.doppler.entities.responses.EventCommentChangeType;
+import com.doppler.services.config.EventCommentStreamConfiguration;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * The unit tests for EventCommentStreamHub.
+ */
+public class EventCommentStreamHubTest {
+
+  /**
+   * The event id.
+   */
+  private static final UUID EVENT_ID = UUID.randomUUID();
+
+  /**
+   * The number of changes published.
+   */
+  private static final int CHANGES = 20;
+
+  /**
+   * The meter registry.
+   */
+  private MeterRegistry meterRegistry;
+
+  /**
+   * The hub, with 1 fan-out thread and queues of 2 changes per stream.
+   */
+  private EventCommentStreamHub hub;
+
+  /**
+   * Create the hub.
+   */
+  @Before
+  public void before() {
+    EventCommentStreamConfiguration configuration = new EventCommentStreamConfiguration();
+    configuration.setFanOutThreads(1);
+    configuration.setSubscriberQueueCapacity(2);
+    configuration.setSendThreads(2);
+    meterRegistry = new SimpleMeterRegistry();
+    hub = new EventCommentStreamHub(configuration, new ObjectMapper(), meterRegistry);
+  }
+
+  /**
+   * Stop the threads.
+   */
+  @After
+  public void after() {
+    hub.close();
+  }
+
+  /**
+   * A stream whose writes are blocked gets closed as too slow, without holding back the others.
+   *
+   * @throws Exception if any error occurs
+   */
+  @Test
+  public void publish_slowSubscriber() throws Exception {
+    CountDownLatch unblock = new CountDownLatch(1);
+    CountDownLatch completed = new CountDownLatch(1);
+    SseEmitter slowEmitter = new SseEmitter() {
+      @Override
+      public void send(SseEventBuilder builder) throws IOException {
+        try {
+          unblock.await();
+        } catch (InterruptedException ex) {
+          Thread.currentThread().interrupt();
+        }
+      }
+
+      @Override
+      public synchronized void complete() {
+        completed.countDown();
+      }
+    };
+    AtomicInteger sent = new AtomicInteger();
+    CountDownLatch allSent = new CountDownLatch(CHANGES);
+    SseEmitter fastEmitter = new SseEmitter() {
+      @Override
+      public void send(SseEventBuilder builder) throws IOException {
+        sent.incrementAndGet();
+        allSent.countDown();
+      }
+    };
+    hub.subscribe(EVENT_ID, slowEmitter);
+    hub.subscribe(EVENT_ID, fastEmitter);
+
+    for (int i = 0; i < CHANGES; i++) {
+      hub.publish(change());
+      // Give the fast stream the time to be written, its queue holds 2 changes
+      Thread.sleep(10);
+    }
+
+    assertTrue(allSent.await(5, TimeUnit.SECONDS));
+    assertEquals(CHANGES, sent.get());
+    assertEquals(1, meterRegistry.counter("event.comment.stream.slow").count(), 0);
+    assertEquals(1, meterRegistry.get("event.comment.stream.connections").gauge().value(), 0);
+
+    // Completed once its write returns
+    unblock.countDown();
+    assertTrue(completed.await(5, TimeUnit.SECONDS));
+  }
+
+  /**
+   * A stream whose write fails is removed.
+   *
+   * @throws Exception if any error occurs
+   */
+  @Test
+  public void publish_clientGone() throws Exception {
+    CountDownLatch failed = new CountDownLatch(1);
+    SseEmitter emitter = new SseEmitter() {
+      @Override
+      public void send(SseEventBuilder builder) throws IOException {
+        throw new IOException("Broken pipe");
+      }
+
+      @Override
+      public synchronized void completeWithError(Throwable ex) {
+        failed.countDown();
+      }
+    };
+    hub.subscribe(EVENT_ID, emitter);
+
+    hub.publish(change());
+
+    assertTrue(failed.await(5, TimeUnit.SECONDS));
+    assertEquals(0, meterRegistry.get("event.comment.stream.connections").gauge().value(), 0);
+    assertEquals(0, meterRegistry.counter("event.comment.stream.slow").count(), 0);
+  }
+
+  /**
+   * Create a like count change of the event.
+   *
+   * @return the change
+   */
+  private static EventCommentChange change() {
+    EventCommentChange change = new EventCommentChange();
+    change.setType(EventCommentChangeType.LIKE_COUNT_CHANGED);
+    change.setEventId(EVENT_ID);
+    change.setCommentId(UUID.randomUUID());
+    return change;
+  }
+}
@@ -0,0 +1,302 @@
+package com.doppler.services;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import com.doppler.entities.Event;
+import com.doppler.entities.SyncState;
+import com.doppler.entities.responses.SearchResponse;
+import com.doppler.repositories.SyncStateRepository;
+import com.doppler.services.config.EventSyncConfiguration;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * The unit tests for EventSynchronizer.
+ */
+public class EventSynchronizerTest {
+
+  /**
+   * The sync state repository.
+   */
+  private SyncStateRepository syncStateRepository;
+
+  /**
+   * The event mirror service.
+   */
+  private EventMirrorService eventMirrorService;
+
+  /**
+   * The backend API service.
+   */
+  private BackendAPIService apiService;
+
+  /**
+   * The backend login service.
+   */
+  private LoginRestService loginService;
+
+  /**
+   * The meter registry.
+   */
+  private MeterRegistry meterRegistry;
+
+  /**
+   * The synchronizer.
+   */
+  private EventSynchronizer synchronizer;
+
+  /**
+   * Create the synchronizer with mocked collaborators.
+   */
+  @Before
+  public void before() {
+    syncStateRepository = mock(SyncStateRepository.class);
+    eventMirrorService = mock(EventMirrorService.class);
+    apiService = mock(BackendAPIService.class);
+    loginService = mock(LoginRestService.class);
+    when(loginService.login()).thenReturn("admin token");
+    meterRegistry = new SimpleMeterRegistry();
+
+    synchronizer = new EventSynchronizer(meterRegistry);
+    ReflectionTestUtils.setField(synchronizer, "configuration", new EventSyncConfiguration());
+    ReflectionTestUtils.setField(synchronizer, "syncStateRepository", syncStateRepository);
+    ReflectionTestUtils.setField(synchronizer, "eventMirrorService", eventMirrorService);
+    ReflectionTestUtils.setField(synchronizer, "apiService", apiService);
+    ReflectionTestUtils.setField(synchronizer, "loginService", loginService);
+  }
+
+  /**
+   * A recent successful pull is loaded at startup, the mirror is served right away.
+   */
+  @Test
+  public void init_recent() {
+    when(syncStateRepository.findById("events"))
+        .thenReturn(Optional.of(state(new Date(), new Date())));
+
+    synchronizer.init();
+
+    assertTrue(synchronizer.isFresh());
+  }
+
+  /**
+   * An old successful pull is loaded at startup, the mirror is not served.
+   */
+  @Test
+  public void init_stale() {
+    Date old = new Date(System.currentTimeMillis() - TimeUnit.HOURS.toMillis(1));
+    when(syncStateRepository.findById("events")).thenReturn(Optional.of(state(old, old)));
+
+    synchronizer.init();
+
+    assertFalse(synchronizer.isFresh());
+  }
+
+  /**
+   * The mirror is not served before any pull, nor if the state cannot be loaded.
+   */
+  @Test
+  public void init_none() {
+    when(syncStateRepository.findById("events")).thenReturn(Optional.empty());
+    synchronizer.init();
+    assertFalse(synchronizer.isFresh());
+
+    when(syncStateRepository.findById("events")).thenThrow(new IllegalStateException("down"));
+    synchronizer.init();
+    assertFalse(synchronizer.isFresh());
+  }
+
+  /**
+   * The first pull is a full pull, page by page, and records the state.
+   */
+  @Test
+  public void synchronize_full() {
+    when(syncStateRepository.findById("events")).thenReturn(Optional.empty());
+    ArgumentCaptor<String> urls = ArgumentCaptor.forClass(String.class);
+    when(apiService.getForEntityWithToken(eq("admin token"), eq(SearchResponse.class),
+        eq(Event.class), urls.capture())).thenReturn(page(150, 100), page(150, 50));
+
+    synchronizer.synchronize();
+
+    assertEquals(2, urls.getAllValues().size());
+    assertFalse(urls.getAllValues().get(0).contains("updatedSince"));
+    assertTrue(urls.getAllValues().get(1).contains("offset=100"));
+    verify(eventMirrorService, times(2)).save(any(), any());
+    ArgumentCaptor<SyncState> state = ArgumentCaptor.forClass(SyncState.class);
+    verify(syncStateRepository).save(state.capture());
+    assertNotNull(state.getValue().getWatermark());
+    assertNotNull(state.getValue().getLastFullSync());
+    assertTrue(synchronizer.isFresh());
+    assertEquals(150, meterRegistry.counter("event.sync.events").count(), 0);
+  }
+
+  /**
+   * A full pull flags as removed the mirrored events it did not return.
+   */
+  @SuppressWarnings("unchecked")
+  @Test
+  public void synchronize_fullRemovesMissing() {
+    when(syncStateRepository.findById("events")).thenReturn(Optional.empty());
+    SearchResponse<Event> page = page(2, 2);
+    when(apiService.getForEntityWithToken(anyString(), eq(SearchResponse.class), eq(Event.class),
+        anyString())).thenReturn(page);
+
+    synchronizer.synchronize();
+
+    ArgumentCaptor<Set<UUID>> pulledIds = ArgumentCaptor.forClass(Set.class);
+    ArgumentCaptor<Date> syncedAt = ArgumentCaptor.forClass(Date.class);
+    verify(eventMirrorService).save(eq(page.getRows()), syncedAt.capture());
+    verify(eventMirrorService).removeMissing(pulledIds.capture(), eq(syncedAt.getValue()));
+    assertEquals(new HashSet<>(Arrays.asList(page.getRows().get(0).getId(),
+        page.getRows().get(1).getId())), pulledIds.getValue());
+  }
+
+  /**
+   * A full pull seeing the events change between its pages removes nothing, and is made again at
+   * the next pull.
+   */
+  @Test
+  public void synchronize_fullChanged() {
+    when(syncStateRepository.findById("events")).thenReturn(Optional.empty());
+    // An event was removed upstream after the first page, the second page skipped one
+    when(apiService.getForEntityWithToken(anyString(), eq(SearchResponse.class), eq(Event.class),
+        anyString())).thenReturn(page(150, 100), page(149, 48));
+
+    synchronizer.synchronize();
+
+    verify(eventMirrorService, never()).removeMissing(any(), any());
+    ArgumentCaptor<SyncState> state = ArgumentCaptor.forClass(SyncState.class);
+    verify(syncStateRepository).save(state.capture());
+    assertNotNull(state.getValue().getWatermark());
+    assertNull(state.getValue().getLastFullSync());
+    assertTrue(synchronizer.isFresh());
+  }
+
+  /**
+   * An incremental pull removes nothing.
+   */
+  @Test
+  public void synchronize_incrementalRemovesNothing() {
+    when(syncStateRepository.findById("events"))
+        .thenReturn(Optional.of(state(new Date(), new Date())));
+    when(apiService.getForEntityWithToken(anyString(), eq(SearchResponse.class), eq(Event.class),
+        anyString())).thenReturn(page(1, 1));
+
+    synchronizer.synchronize();
+
+    verify(eventMirrorService).save(any(), any());
+    verify(eventMirrorService, never()).removeMissing(any(), any());
+  }
+
+  /**
+   * The next pulls only ask for the events changed since the watermark.
+   */
+  @Test
+  public void synchronize_incremental() {
+    when(syncStateRepository.findById("events"))
+        .thenReturn(Optional.of(state(new Date(), new Date())));
+    ArgumentCaptor<String> url = ArgumentCaptor.forClass(String.class);
+    when(apiService.getForEntityWithToken(anyString(), eq(SearchResponse.class), eq(Event.class),
+        url.capture())).thenReturn(page(0, 0));
+
+    synchronizer.synchronize();
+
+    assertTrue(url.getValue().contains("updatedSince="));
+    verify(eventMirrorService, never()).save(any(), any());
+    assertTrue(synchronizer.isFresh());
+  }
+
+  /**
+   * A rejected admin token is replaced once.
+   */
+  @Test
+  public void synchronize_tokenRejected() {
+    when(syncStateRepository.findById("events")).thenReturn(Optional.empty());
+    when(apiService.getForEntityWithToken(anyString(), eq(SearchResponse.class), eq(Event.class),
+        anyString())).thenThrow(new HttpClientErrorException(HttpStatus.UNAUTHORIZED))
+            .thenReturn(page(0, 0));
+
+    synchronizer.synchronize();
+
+    verify(loginService, times(2)).login();
+    assertTrue(synchronizer.isFresh());
+  }
+
+  /**
+   * A failed pull is counted and does not record the state.
+   */
+  @Test
+  public void synchronize_failure() {
+    when(syncStateRepository.findById("events")).thenReturn(Optional.empty());
+    when(apiService.getForEntityWithToken(anyString(), eq(SearchResponse.class), eq(Event.class),
+        anyString())).thenThrow(new ResourceAccessException("timeout"));
+
+    synchronizer.synchronize();
+
+    verify(syncStateRepository, never()).save(any());
+    assertFalse(synchronizer.isFresh());
+    assertEquals(1, meterRegistry.counter("event.sync.failures").count(), 0);
+  }
+
+  /**
+   * Create the event sync state.
+   *
+   * @param watermark the watermark
+   * @param lastSuccess the time of the last successful pull
+   * @return the state
+   */
+  private static SyncState state(Date watermark, Date lastSuccess) {
+    SyncState state = new SyncState();
+    state.setName("events");
+    state.setWatermark(watermark);
+    state.setLastFullSync(watermark);
+    state.setLastSuccess(lastSuccess);
+    return state;
+  }
+
+  /**
+   * Create a page of events.
+   *
+   * @param count the total number of events
+   * @param size the number of events in the page
+   * @return the page
+   */
+  private static SearchResponse<Event> page(long count, int size) {
+    Event[] events = new Event[size];
+    for (int i = 0; i < size; i++) {
+      events[i] = new Event();
+      events[i].setId(UUID.randomUUID());
+    }
+    List<Event> rows = Arrays.asList(events);
+
+    SearchResponse<Event> page = new SearchResponse<>();
+    page.setCount(count);
+    page.setRows(rows);
+    return page;
+  }
+}
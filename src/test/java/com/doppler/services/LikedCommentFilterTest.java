@@ -0,0 +1,207 @@
+package com.doppler.services;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.Test;
+import com.doppler.entities.EventCommentLike;
+import com.doppler.repositories.EventCommentLikeRepository;
+import com.doppler.repositories.UserRepository;
+import com.doppler.services.config.EventCommentConfiguration;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * The unit tests for LikedCommentFilter and its rebuild by CommentLikeIndex.
+ */
+public class LikedCommentFilterTest {
+
+  /**
+   * The target false positive rate.
+   */
+  private static final double FALSE_POSITIVE_RATE = 0.01;
+
+  /**
+   * The added comments are always positive.
+   */
+  @Test
+  public void mightContain_noFalseNegative() {
+    List<UUID> likedIds = randomIds(5000);
+    LikedCommentFilter filter = new LikedCommentFilter(likedIds, 0, FALSE_POSITIVE_RATE);
+    List<UUID> addedIds = randomIds(5000);
+    addedIds.forEach(filter::add);
+
+    likedIds.forEach(id -> assertTrue(filter.mightContain(id)));
+    addedIds.forEach(id -> assertTrue(filter.mightContain(id)));
+  }
+
+  /**
+   * The false positive rate stays near its target within the capacity.
+   */
+  @Test
+  public void mightContain_falsePositiveRate() {
+    LikedCommentFilter filter = new LikedCommentFilter(randomIds(10000), 0, FALSE_POSITIVE_RATE);
+
+    long falsePositives = randomIds(100000).stream().filter(filter::mightContain).count();
+    assertTrue("false positives " + falsePositives, falsePositives < 100000 * FALSE_POSITIVE_RATE);
+  }
+
+  /**
+   * The filter is saturated once more comments are added than it is sized for.
+   */
+  @Test
+  public void isSaturated() {
+    LikedCommentFilter filter = new LikedCommentFilter(randomIds(100), 0, FALSE_POSITIVE_RATE);
+    assertFalse(filter.isSaturated());
+
+    // Sized for twice the initial comments
+    randomIds(100).forEach(filter::add);
+    assertFalse(filter.isSaturated());
+
+    filter.add(UUID.randomUUID());
+    assertTrue(filter.isSaturated());
+  }
+
+  /**
+   * Comments added concurrently with lookups are positive once added, and stay positive.
+   *
+   * @throws Exception if any error occurs
+   */
+  @Test
+  public void add_concurrent() throws Exception {
+    int threads = 4;
+    LikedCommentFilter filter = new LikedCommentFilter(Collections.emptyList(), 0,
+        FALSE_POSITIVE_RATE);
+    List<List<UUID>> addedIds = new ArrayList<>();
+    for (int i = 0; i < threads; i++) {
+      addedIds.add(randomIds(20000));
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(threads * 2);
+    CountDownLatch start = new CountDownLatch(1);
+    AtomicBoolean falseNegative = new AtomicBoolean();
+    List<Future<?>> results = new ArrayList<>();
+    for (List<UUID> ids : addedIds) {
+      // Add, and check right away, so that the bits set by other threads meanwhile are not lost
+      results.add(executor.submit(() -> {
+        start.await();
+        for (UUID id : ids) {
+          filter.add(id);
+          if (!filter.mightContain(id)) {
+            falseNegative.set(true);
+          }
+        }
+        return null;
+      }));
+      // Look up the same comments concurrently
+      results.add(executor.submit(() -> {
+        start.await();
+        for (UUID id : ids) {
+          filter.mightContain(id);
+        }
+        return null;
+      }));
+    }
+
+    start.countDown();
+    for (Future<?> result : results) {
+      result.get();
+    }
+    executor.shutdown();
+
+    assertFalse(falseNegative.get());
+    addedIds.forEach(ids -> ids.forEach(id -> assertTrue(filter.mightContain(id))));
+  }
+
+  /**
+   * A saturated filter gets rebuilt from the likes.
+   */
+  @Test
+  public void getLiked_rebuildSaturated() {
+    UUID userId = UUID.randomUUID();
+    EventCommentLikeRepository repository = mock(EventCommentLikeRepository.class);
+    when(repository.findEventCommentIdsByUserId(userId)).thenReturn(randomIds(10));
+    when(repository.findByEventCommentIdInAndUserId(any(), any()))
+        .thenReturn(Collections.emptyList());
+    CommentLikeIndex index = new CommentLikeIndex(new EventCommentConfiguration(), repository,
+        mock(UserRepository.class), new SimpleMeterRegistry());
+
+    // Loaded
+    index.getLiked(userId, randomIds(1));
+    verify(repository, times(1)).findEventCommentIdsByUserId(userId);
+
+    // Sized for 64 comments at least, saturated beyond
+    randomIds(54).forEach(id -> index.liked(userId, id));
+    index.getLiked(userId, randomIds(1));
+    index.getLiked(userId, randomIds(1));
+    verify(repository, times(1)).findEventCommentIdsByUserId(userId);
+
+    // Invalidated once found saturated, then rebuilt
+    index.liked(userId, UUID.randomUUID());
+    index.getLiked(userId, randomIds(1));
+    index.getLiked(userId, randomIds(1));
+    verify(repository, times(2)).findEventCommentIdsByUserId(userId);
+  }
+
+  /**
+   * A filter gets rebuilt once the like version of its user moved past it, i.e. by a like made
+   * through another instance, but not by the likes made through this instance.
+   */
+  @Test
+  public void getLiked_rebuildLikedElsewhere() {
+    UUID userId = UUID.randomUUID();
+    UUID commentId = UUID.randomUUID();
+    EventCommentLikeRepository repository = mock(EventCommentLikeRepository.class);
+    when(repository.findEventCommentIdsByUserId(userId))
+        .thenReturn(Collections.emptyList(), Collections.singletonList(commentId));
+    EventCommentLike like = new EventCommentLike();
+    like.setEventCommentId(commentId);
+    when(repository.findByEventCommentIdInAndUserId(Collections.singletonList(commentId), userId))
+        .thenReturn(Collections.singletonList(like));
+    UserRepository userRepository = mock(UserRepository.class);
+    when(userRepository.findLikeVersionById(userId)).thenReturn(1L);
+    CommentLikeIndex index = new CommentLikeIndex(new EventCommentConfiguration(), repository,
+        userRepository, new SimpleMeterRegistry());
+
+    // Loaded at version 1, then liked through this instance
+    assertTrue(index.getLiked(userId, Collections.singletonList(commentId)).isEmpty());
+    index.liked(userId, UUID.randomUUID());
+    verify(userRepository).incrementLikeVersion(userId);
+    when(userRepository.findLikeVersionById(userId)).thenReturn(2L);
+    index.getLiked(userId, Collections.singletonList(UUID.randomUUID()));
+    verify(repository, times(1)).findEventCommentIdsByUserId(userId);
+
+    // Liked through another instance
+    when(userRepository.findLikeVersionById(userId)).thenReturn(3L);
+    assertEquals(Collections.singleton(commentId),
+        index.getLiked(userId, Collections.singletonList(commentId)));
+    verify(repository, times(2)).findEventCommentIdsByUserId(userId);
+  }
+
+  /**
+   * Create random comment ids.
+   *
+   * @param count the number of ids
+   * @return the ids
+   */
+  private static List<UUID> randomIds(int count) {
+    List<UUID> ids = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      ids.add(UUID.randomUUID());
+    }
+    return ids;
+  }
+}
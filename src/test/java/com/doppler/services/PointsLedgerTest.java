@@ -0,0 +1,186 @@
+package com.doppler.services;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.persistence.EntityNotFoundException;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import com.doppler.entities.UserRewardPoint;
+import com.doppler.repositories.BaseRepositoryTest;
+import com.doppler.repositories.UserRepository;
+import com.doppler.repositories.UserRewardPointRepository;
+
+/**
+ * The tests for PointsLedger and PointsReconciler.
+ */
+public class PointsLedgerTest extends BaseRepositoryTest<UserRewardPoint> {
+
+  /**
+   * The number of concurrent threads.
+   */
+  private static final int THREADS = 16;
+
+  /**
+   * The number of awards per thread.
+   */
+  private static final int AWARDS_PER_THREAD = 25;
+
+  /**
+   * The points ledger.
+   */
+  @Autowired
+  private PointsLedger pointsLedger;
+
+  /**
+   * The points reconciler.
+   */
+  @Autowired
+  private PointsReconciler pointsReconciler;
+
+  /**
+   * The user repository.
+   */
+  @Autowired
+  private UserRepository userRepository;
+
+  /**
+   * Positive test for award().
+   */
+  @Test
+  public void award() {
+    UUID userId = UUID.fromString("00000000-0000-0000-0000-000000000003");
+    UserRewardPoint entity = pointsLedger.award(userId, 10, "description");
+
+    assertNotNull(entity.getId());
+    assertEquals(userId, entity.getUserId());
+    assertEquals(new Integer(10), entity.getPoints());
+    assertEquals(112, userRepository.findById(userId).get().getPoints());
+    assertEquals(1,
+        ((UserRewardPointRepository) repository).findByUserId(userId).size());
+  }
+
+  /**
+   * Negative test for award() with non-existed user.
+   */
+  @Test(expected = EntityNotFoundException.class)
+  public void award_userNotFound() {
+    pointsLedger.award(UUID.fromString("00000000-0000-0000-0000-000000000009"), 10,
+        "description");
+  }
+
+  /**
+   * Concurrent awards to the same user are all applied to the points and the ledger.
+   *
+   * @throws Exception if any error occurs
+   */
+  @Test
+  public void award_concurrent() throws Exception {
+    UUID userId = UUID.fromString("00000000-0000-0000-0000-000000000003");
+    List<Future<Integer>> results = runConcurrently(() -> {
+      for (int i = 0; i < AWARDS_PER_THREAD; i++) {
+        pointsLedger.award(userId, 1, "description");
+      }
+      return AWARDS_PER_THREAD;
+    });
+
+    int awarded = 0;
+    for (Future<Integer> result : results) {
+      awarded += result.get();
+    }
+    assertEquals(THREADS * AWARDS_PER_THREAD, awarded);
+    assertEquals(102 + awarded, userRepository.findById(userId).get().getPoints());
+    assertEquals(awarded,
+        ((UserRewardPointRepository) repository).findByUserId(userId).size());
+  }
+
+  /**
+   * Concurrent awards to the same new user are applied only once.
+   *
+   * @throws Exception if any error occurs
+   */
+  @Test
+  public void awardNewUser_concurrent() throws Exception {
+    UUID userId = UUID.fromString("00000000-0000-0000-0000-000000000005");
+    List<Future<Integer>> results = runConcurrently(
+        () -> pointsLedger.awardNewUser(userId, 20, "description") != null ? 1 : 0);
+
+    int awarded = 0;
+    for (Future<Integer> result : results) {
+      awarded += result.get();
+    }
+    assertEquals(1, awarded);
+    assertEquals(20, userRepository.findById(userId).get().getPoints());
+    assertFalse(userRepository.findById(userId).get().getIsNew());
+    assertEquals(1, ((UserRewardPointRepository) repository).findByUserId(userId).size());
+  }
+
+  /**
+   * Positive test for reconcile(), the points match the ledger after concurrent awards.
+   *
+   * @throws Exception if any error occurs
+   */
+  @Test
+  public void reconcile() throws Exception {
+    // The test data points of users 1 to 4 do not match the ledger
+    assertEquals(4, pointsReconciler.reconcile(false));
+    assertEquals(100,
+        userRepository.findById(UUID.fromString("00000000-0000-0000-0000-000000000001")).get()
+            .getPoints());
+
+    assertEquals(4, pointsReconciler.reconcile(true));
+    assertEquals(10,
+        userRepository.findById(UUID.fromString("00000000-0000-0000-0000-000000000001")).get()
+            .getPoints());
+    assertEquals(0, pointsReconciler.reconcile(false));
+
+    // Award to all users concurrently
+    List<UUID> userIds = new ArrayList<>();
+    for (int i = 1; i <= 5; i++) {
+      userIds.add(UUID.fromString("00000000-0000-0000-0000-00000000000" + i));
+    }
+    List<Future<Integer>> results = runConcurrently(() -> {
+      for (int i = 0; i < AWARDS_PER_THREAD; i++) {
+        pointsLedger.award(userIds.get(i % userIds.size()), i + 1, "description");
+      }
+      return AWARDS_PER_THREAD;
+    });
+    for (Future<Integer> result : results) {
+      result.get();
+    }
+
+    assertEquals(0, pointsReconciler.reconcile(false));
+  }
+
+  /**
+   * Run a task on many threads at once.
+   *
+   * @param task the task
+   * @return the results
+   * @throws InterruptedException if interrupted
+   */
+  private static List<Future<Integer>> runConcurrently(Callable<Integer> task)
+      throws InterruptedException {
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<Integer>> results = new ArrayList<>();
+    for (int i = 0; i < THREADS; i++) {
+      results.add(executor.submit(() -> {
+        start.await();
+        return task.call();
+      }));
+    }
+
+    start.countDown();
+    executor.shutdown();
+    return results;
+  }
+}
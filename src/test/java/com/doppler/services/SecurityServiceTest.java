@@ -0,0 +1,173 @@
+package com.doppler.services;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.test.util.ReflectionTestUtils;
+import com.doppler.entities.User;
+import com.doppler.entities.requests.LoginRequest;
+import com.doppler.entities.responses.LoginResponse;
+import com.doppler.repositories.UserRepository;
+import com.doppler.security.TokenUtils;
+
+/**
+ * The unit tests for SecurityService.login().
+ */
+public class SecurityServiceTest {
+
+  /**
+   * The id of the registered user.
+   */
+  private static final UUID USER_ID = UUID.fromString("00000000-0000-0000-0000-000000000001");
+
+  /**
+   * The user repository.
+   */
+  private UserRepository userRepository;
+
+  /**
+   * The backend login service.
+   */
+  private LoginRestService loginService;
+
+  /**
+   * The backend token manager.
+   */
+  private BackendTokenManager tokenManager;
+
+  /**
+   * The security service, with the SSO authentication stubbed.
+   */
+  private SecurityService service;
+
+  /**
+   * Create the security service with mocked collaborators.
+   */
+  @Before
+  public void before() {
+    userRepository = mock(UserRepository.class);
+    loginService = mock(LoginRestService.class);
+    tokenManager = mock(BackendTokenManager.class);
+    TokenUtils tokenUtils = mock(TokenUtils.class);
+    when(tokenUtils.createJwtToken(any(User.class))).thenReturn("access token");
+    when(userRepository.upsertByEmail(any(User.class), anyLong()))
+        .thenAnswer(invocation -> invocation.getArgument(0));
+
+    SecurityService securityService = new SecurityService();
+    ReflectionTestUtils.setField(securityService, "userRepository", userRepository);
+    ReflectionTestUtils.setField(securityService, "loginService", loginService);
+    ReflectionTestUtils.setField(securityService, "authenticationCache",
+        mock(AuthenticationCache.class));
+    ReflectionTestUtils.setField(securityService, "tokenManager", tokenManager);
+    ReflectionTestUtils.setField(securityService, "tokenUtils", tokenUtils);
+    ReflectionTestUtils.setField(securityService, "executor", (Executor) Runnable::run);
+    service = spy(securityService);
+  }
+
+  /**
+   * Positive test for login() with a new user.
+   */
+  @Test
+  public void login_newUser() {
+    when(userRepository.findIdAndBackendTokenByEmail("user.new@doppler.com"))
+        .thenReturn(Collections.emptyList());
+    when(loginService.userLogin()).thenReturn("backend token");
+
+    LoginResponse response = service.login(new LoginRequest("user.new@doppler.com", "password"));
+
+    assertEquals("access token", response.getAccessToken());
+    assertEquals("user.new@doppler.com", response.getUser().getEmail());
+    assertEquals("backend token", response.getUser().getBackendToken());
+    verify(tokenManager, never()).getToken(any(User.class));
+  }
+
+  /**
+   * Positive test for login() with a registered user, the backend token is reused.
+   */
+  @Test
+  public void login_registeredUser() {
+    when(userRepository.findIdAndBackendTokenByEmail("user1@doppler.com"))
+        .thenReturn(Collections.singletonList(new Object[] {USER_ID, "backend token"}));
+    when(tokenManager.getToken(any(User.class))).thenReturn("backend token");
+
+    LoginResponse response = service.login(new LoginRequest("user1@doppler.com", "password"));
+
+    assertEquals("backend token", response.getUser().getBackendToken());
+    ArgumentCaptor<User> dbUser = ArgumentCaptor.forClass(User.class);
+    verify(tokenManager).getToken(dbUser.capture());
+    assertEquals(USER_ID, dbUser.getValue().getId());
+    verify(loginService, never()).userLogin();
+  }
+
+  /**
+   * The user is looked up and upserted by the email returned by SSO.
+   */
+  @Test
+  public void login_ssoEmail() {
+    User ssoUser = new User();
+    ssoUser.setEmail("user1@doppler.com");
+    doReturn(ssoUser).when(service).authenticateWithSSO(any(LoginRequest.class));
+    when(userRepository.findIdAndBackendTokenByEmail("alias@doppler.com"))
+        .thenReturn(Collections.emptyList());
+    when(userRepository.findIdAndBackendTokenByEmail("user1@doppler.com"))
+        .thenReturn(Collections.singletonList(new Object[] {USER_ID, "backend token"}));
+    when(tokenManager.getToken(any(User.class))).thenReturn("backend token");
+
+    LoginResponse response = service.login(new LoginRequest("alias@doppler.com", "password"));
+
+    assertEquals("user1@doppler.com", response.getUser().getEmail());
+    verify(tokenManager).getToken(any(User.class));
+    verify(loginService, never()).userLogin();
+  }
+
+  /**
+   * Negative test for login() with incorrect credentials, neither a backend login nor a write is
+   * performed.
+   */
+  @Test
+  public void login_ssoFailed() {
+    doThrow(new BadCredentialsException("Incorrect email or password")).when(service)
+        .authenticateWithSSO(any(LoginRequest.class));
+    when(userRepository.findIdAndBackendTokenByEmail(anyString()))
+        .thenReturn(Collections.emptyList());
+
+    try {
+      service.login(new LoginRequest("user.new@doppler.com", "wrong password"));
+      fail("BadCredentialsException expected");
+    } catch (BadCredentialsException ex) {
+      assertEquals("Incorrect email or password", ex.getMessage());
+    }
+
+    // Registered user
+    when(userRepository.findIdAndBackendTokenByEmail(anyString()))
+        .thenReturn(Collections.singletonList(new Object[] {USER_ID, "backend token"}));
+    try {
+      service.login(new LoginRequest("user1@doppler.com", "wrong password"));
+      fail("BadCredentialsException expected");
+    } catch (BadCredentialsException ex) {
+      assertEquals("Incorrect email or password", ex.getMessage());
+    }
+
+    verify(loginService, never()).userLogin();
+    verify(tokenManager, never()).getToken(any(User.class));
+    verify(tokenManager, never()).refresh(any(User.class), anyString());
+    verify(userRepository, never()).upsertByEmail(any(User.class), anyLong());
+    verify(userRepository, never()).updateBackendToken(any(UUID.class), anyString());
+  }
+}
@@ -120,12 +120,12 @@ insert into user_badge (id, badge_id, user_id, gained_at) values
   ('00000000-0000-0000-0000-000000000004', '00000000-0000-0000-0003-000000000004', '00000000-0000-0000-0000-000000000001', '2018-10-13'),
   ('00000000-0000-0000-0000-000000000005', '00000000-0000-0000-0003-000000000005', '00000000-0000-0000-0000-000000000002', '2018-10-14');
 
-insert into event_comment (id, content, created_at, event_id, parent_comment_id, user_id, like_count) values
-  ('00000000-0000-0000-0000-000000000001', 'content 1', '2018-10-01', '00000000-0000-0000-0002-000000000001', null, '00000000-0000-0000-0000-000000000001', 3),
-  ('00000000-0000-0000-0000-000000000002', 'content 2', '2018-10-02', '00000000-0000-0000-0002-000000000001', null, '00000000-0000-0000-0000-000000000001', 1),
-  ('00000000-0000-0000-0000-000000000003', 'content 3', '2018-10-03', '00000000-0000-0000-0002-000000000001', '00000000-0000-0000-0000-000000000001', '00000000-0000-0000-0000-000000000001', 1),
-  ('00000000-0000-0000-0000-000000000004', 'content 4', '2018-10-04', '00000000-0000-0000-0002-000000000001', '00000000-0000-0000-0000-000000000001', '00000000-0000-0000-0000-000000000001', 0),
-  ('00000000-0000-0000-0000-000000000005', 'content 5', '2018-10-05', '00000000-0000-0000-0002-000000000002', null, '00000000-0000-0000-0000-000000000002', 0);
+insert into event_comment (id, content, created_at, event_id, parent_comment_id, user_id, like_count, hot_score) values
+  ('00000000-0000-0000-0000-000000000001', 'content 1', '2018-10-01', '00000000-0000-0000-0002-000000000001', null, '00000000-0000-0000-0000-000000000001', 3, 34186.0771),
+  ('00000000-0000-0000-0000-000000000002', 'content 2', '2018-10-02', '00000000-0000-0000-0002-000000000001', null, '00000000-0000-0000-0000-000000000001', 1, 34187.5200),
+  ('00000000-0000-0000-0000-000000000003', 'content 3', '2018-10-03', '00000000-0000-0000-0002-000000000001', '00000000-0000-0000-0000-000000000001', '00000000-0000-0000-0000-000000000001', 1, 34189.4400),
+  ('00000000-0000-0000-0000-000000000004', 'content 4', '2018-10-04', '00000000-0000-0000-0002-000000000001', '00000000-0000-0000-0000-000000000001', '00000000-0000-0000-0000-000000000001', 0, 34191.3600),
+  ('00000000-0000-0000-0000-000000000005', 'content 5', '2018-10-05', '00000000-0000-0000-0002-000000000002', null, '00000000-0000-0000-0000-000000000002', 0, 34193.2800);
 
 insert into event_comment_like (id, created_at, event_comment_id, user_id) values
   ('00000000-0000-0000-0000-000000000001', '2018-10-01', '00000000-0000-0000-0000-000000000001', '00000000-0000-0000-0000-000000000001'),